@@ -3,6 +3,7 @@ package cn.com.wind.mcp.registry;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * <p>
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @MapperScan("cn.com.wind.mcp.registry.mapper")
+@EnableScheduling
 public class WindMcpRegistryApplication {
 
     /**
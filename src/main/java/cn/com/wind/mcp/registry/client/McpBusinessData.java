@@ -0,0 +1,84 @@
+package cn.com.wind.mcp.registry.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 以字符串形式返回的mcp_tool_data，首次访问时才解析
+ * <p>
+ * 批量测试等只关心成功与否的调用方不会读取业务数据，也就不会为大体积的嵌套JSON付出解析开销；
+ * 序列化为HTTP响应或保存测试记录时按普通Map访问，自动触发解析
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+public class McpBusinessData extends AbstractMap<String, Object> {
+
+    /**
+     * 简单时间字符串(非JSON)
+     */
+    private static final Pattern DATE_TIME = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+
+    private final String raw;
+    private final ObjectMapper objectMapper;
+    private volatile Map<String, Object> parsed;
+
+    public McpBusinessData(String raw, ObjectMapper objectMapper) {
+        this.raw = raw;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return parsed().entrySet();
+    }
+
+    @Override
+    public Object get(Object key) {
+        return parsed().get(key);
+    }
+
+    /**
+     * 原始字符串
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    private Map<String, Object> parsed() {
+        Map<String, Object> result = parsed;
+        if (result == null) {
+            synchronized (this) {
+                result = parsed;
+                if (result == null) {
+                    result = parse();
+                    parsed = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parse() {
+        if (DATE_TIME.matcher(raw).matches()) {
+            // 直接返回时间字符串，不解析为JSON
+            return Collections.singletonMap("currentTime", raw);
+        }
+        try {
+            Map<String, Object> data = objectMapper.readValue(raw, Map.class);
+            return data != null ? data : Collections.emptyMap();
+        } catch (Exception e) {
+            log.warn("解析tool_data字符串失败: {}", raw, e);
+            return Collections.singletonMap("error", "数据解析失败");
+        }
+    }
+}
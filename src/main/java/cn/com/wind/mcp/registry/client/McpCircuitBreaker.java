@@ -0,0 +1,208 @@
+package cn.com.wind.mcp.registry.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * MCP端点熔断器
+ * <p>
+ * 基于最近N次调用的滑动窗口统计失败率与慢调用率，任一超过阈值即打开；
+ * 打开一段时间后进入半开状态，放行少量探测请求，全部成功则关闭，任一失败重新打开
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class McpCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    /**
+     * 环形窗口：0成功，1失败，2慢调用(成功但超过慢调用阈值)
+     */
+    private final byte[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    private long rejected;
+
+    public McpCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold,
+                             int slowCallRateThreshold, long slowCallNanos, long openNanos,
+                             int halfOpenCalls, LongSupplier clock) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.outcomes = new byte[this.windowSize];
+    }
+
+    /**
+     * 尝试放行一次调用
+     *
+     * @return 是否放行；放行后必须调用onSuccess或onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSucceeded >= halfOpenCalls) {
+                rejected++;
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次成功调用
+     *
+     * @param latencyNanos 调用耗时(纳秒)
+     */
+    public synchronized void onSuccess(long latencyNanos) {
+        boolean slow = slowCallNanos > 0 && latencyNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            if (slow) {
+                open();
+                return;
+            }
+            halfOpenSucceeded++;
+            if (halfOpenSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(slow ? (byte) 2 : (byte) 0);
+        }
+    }
+
+    /**
+     * 记录一次失败调用(连接/读取超时、5xx等)
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record((byte) 1);
+        }
+    }
+
+    /**
+     * 放行后未产生可判定结果(如调用方中途取消)，仅归还半开名额
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * 当前状态快照
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", getState().name());
+        snapshot.put("calls", recorded);
+        snapshot.put("failureRate", recorded == 0 ? 0 : failures * 100 / recorded);
+        snapshot.put("slowCallRate", recorded == 0 ? 0 : slowCalls * 100 / recorded);
+        snapshot.put("rejected", rejected);
+        return snapshot;
+    }
+
+    private void record(byte outcome) {
+        if (recorded == windowSize) {
+            evict(outcomes[position]);
+        } else {
+            recorded++;
+        }
+        outcomes[position] = outcome;
+        position = (position + 1) % windowSize;
+        if (outcome == 1) {
+            failures++;
+        } else if (outcome == 2) {
+            slowCalls++;
+        }
+
+        if (recorded >= minimumCalls
+                && (exceeds(failures, failureRateThreshold) || exceeds(slowCalls, slowCallRateThreshold))) {
+            open();
+        }
+    }
+
+    private boolean exceeds(int count, int rateThreshold) {
+        // 阈值小于等于0表示不启用该项
+        return rateThreshold > 0 && count * 100 >= rateThreshold * recorded;
+    }
+
+    private void evict(byte outcome) {
+        if (outcome == 1) {
+            failures--;
+        } else if (outcome == 2) {
+            slowCalls--;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+    }
+}
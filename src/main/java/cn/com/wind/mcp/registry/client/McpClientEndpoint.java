@@ -0,0 +1,35 @@
+package cn.com.wind.mcp.registry.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MCP客户端状态Actuator端点(/actuator/mcpclient)
+ * <p>
+ * 展示各MCP端点的熔断器状态、自适应并发上限和已缓存的会话数
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Component
+@Endpoint(id = "mcpclient")
+@RequiredArgsConstructor
+public class McpClientEndpoint {
+
+    private final McpEndpointGuard mcpEndpointGuard;
+    private final McpSessionRegistry mcpSessionRegistry;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sessions", mcpSessionRegistry.size());
+        status.put("endpoints", mcpEndpointGuard.snapshot());
+        return status;
+    }
+}
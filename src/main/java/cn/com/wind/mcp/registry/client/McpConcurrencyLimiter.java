@@ -0,0 +1,104 @@
+package cn.com.wind.mcp.registry.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MCP端点自适应并发限制(AIMD)
+ * <p>
+ * 调用成功且未超过延迟阈值时并发上限加性增长(每轮约+1)，失败或变慢时乘性下降；
+ * 在途请求达到上限后立即拒绝，而不是排队等待超时
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class McpConcurrencyLimiter {
+
+    /**
+     * 乘性下降系数
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+
+    private double limit;
+    private int inFlight;
+    private long rejected;
+
+    public McpConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @return 是否成功；成功后必须调用onSuccess、onFailure或onIgnored之一归还
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * 调用成功
+     *
+     * @param latencyNanos 调用耗时(纳秒)
+     */
+    public synchronized void onSuccess(long latencyNanos) {
+        int used = inFlight--;
+        if (latencyThresholdNanos > 0 && latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (used * 2 >= (int) limit) {
+            // 只有上限被实际用到一半以上时才增长，避免低负载期间上限无限膨胀
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * 调用失败(超时、连接异常、5xx)
+     */
+    public synchronized void onFailure() {
+        inFlight--;
+        decrease();
+    }
+
+    /**
+     * 归还名额但不调整上限
+     */
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 当前状态快照
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("limit", (int) limit);
+        snapshot.put("inFlight", inFlight);
+        snapshot.put("rejected", rejected);
+        return snapshot;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+}
@@ -0,0 +1,76 @@
+package cn.com.wind.mcp.registry.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 按Content-Encoding边读边解压的响应
+ * <p>
+ * JDK HttpClient不会自动解压，这里按gzip/deflate包装响应流；空响应体(如202)不做包装
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpDecodedResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private InputStream body;
+
+    McpDecodedResponse(ClientHttpResponse delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            body = decode(delegate.getBody(), delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        }
+        return body;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    static InputStream decode(InputStream raw, String contentEncoding) throws IOException {
+        if (raw == null || contentEncoding == null) {
+            return raw;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (!"gzip".equals(encoding) && !"x-gzip".equals(encoding) && !"deflate".equals(encoding)) {
+            return raw;
+        }
+        PushbackInputStream pushback = new PushbackInputStream(raw, 1);
+        int first = pushback.read();
+        if (first < 0) {
+            return pushback;
+        }
+        pushback.unread(first);
+        return "deflate".equals(encoding) ? new InflaterInputStream(pushback) : new GZIPInputStream(pushback);
+    }
+}
@@ -0,0 +1,166 @@
+package cn.com.wind.mcp.registry.client;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MCP端点保护
+ * <p>
+ * 按端点(去掉查询参数的URL)维护熔断器和自适应并发限制：熔断打开或在途请求超过当前上限时立即拒绝，
+ * 避免在服务端退化时每个请求都等满读取超时并占住线程
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class McpEndpointGuard {
+
+    private final McpClientConfig.McpProperties.Client config;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public McpEndpointGuard(McpClientConfig.McpProperties mcpProperties) {
+        this.config = mcpProperties.getClient();
+    }
+
+    /**
+     * 申请一次调用许可
+     *
+     * @param url MCP服务器地址
+     * @return 调用许可，调用结束后必须调用其中一个结果方法
+     * @throws McpEndpointRejectedException 熔断打开或超过并发上限
+     */
+    public Permit acquire(String url) {
+        String key = endpointKey(url);
+        Endpoint endpoint = endpoints.computeIfAbsent(key, this::createEndpoint);
+        if (!endpoint.breaker.tryAcquire()) {
+            throw new McpEndpointRejectedException(McpEndpointRejectedException.Reason.CIRCUIT_OPEN,
+                    "MCP服务暂不可用(熔断中)，请稍后重试: " + key);
+        }
+        if (!endpoint.limiter.tryAcquire()) {
+            endpoint.breaker.onIgnored();
+            throw new McpEndpointRejectedException(McpEndpointRejectedException.Reason.OVERLOADED,
+                    "MCP服务繁忙，当前并发上限 " + endpoint.limiter.getLimit() + "，请稍后重试: " + key);
+        }
+        return new Permit(endpoint, System.nanoTime());
+    }
+
+    /**
+     * 各端点状态快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        endpoints.forEach((key, endpoint) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("circuitBreaker", endpoint.breaker.snapshot());
+            state.put("concurrencyLimit", endpoint.limiter.snapshot());
+            snapshot.put(key, state);
+        });
+        return snapshot;
+    }
+
+    private Endpoint createEndpoint(String key) {
+        long slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitSlowCallTime());
+        McpCircuitBreaker breaker = new McpCircuitBreaker(config.getCircuitWindowSize(),
+                config.getCircuitMinimumCalls(), config.getCircuitFailureRate(), config.getCircuitSlowCallRate(),
+                slowCallNanos, TimeUnit.MILLISECONDS.toNanos(config.getCircuitOpenDuration()),
+                config.getCircuitHalfOpenCalls(), System::nanoTime);
+        McpConcurrencyLimiter limiter = new McpConcurrencyLimiter(config.getLimitInitial(), config.getLimitMin(),
+                config.getMaxConnections(), slowCallNanos);
+        log.info("MCP端点保护已创建: {}", key);
+        return new Endpoint(breaker, limiter);
+    }
+
+    static String endpointKey(String url) {
+        if (url == null) {
+            return "";
+        }
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    private static final class Endpoint {
+        private final McpCircuitBreaker breaker;
+        private final McpConcurrencyLimiter limiter;
+
+        private Endpoint(McpCircuitBreaker breaker, McpConcurrencyLimiter limiter) {
+            this.breaker = breaker;
+            this.limiter = limiter;
+        }
+    }
+
+    /**
+     * 调用许可，结果方法只有第一次调用生效
+     * <p>
+     * 延迟按收到响应头的时间计算，流式响应的持续时长不计入慢调用
+     * </p>
+     */
+    public static final class Permit {
+        private final Endpoint endpoint;
+        private final long startNanos;
+        private volatile long respondedNanos;
+        private boolean released;
+
+        private Permit(Endpoint endpoint, long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 收到响应头
+         */
+        public void responded() {
+            if (respondedNanos == 0) {
+                respondedNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * 服务端正常响应
+         */
+        public void success() {
+            if (release()) {
+                long latency = (respondedNanos != 0 ? respondedNanos : System.nanoTime()) - startNanos;
+                endpoint.breaker.onSuccess(latency);
+                endpoint.limiter.onSuccess(latency);
+            }
+        }
+
+        /**
+         * 超时、连接异常或5xx
+         */
+        public void failure() {
+            if (release()) {
+                endpoint.breaker.onFailure();
+                endpoint.limiter.onFailure();
+            }
+        }
+
+        /**
+         * 结果无法判定(如调用方中途取消)，只归还名额
+         */
+        public void ignore() {
+            if (release()) {
+                endpoint.breaker.onIgnored();
+                endpoint.limiter.onIgnored();
+            }
+        }
+
+        private synchronized boolean release() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package cn.com.wind.mcp.registry.client;
+
+import lombok.Getter;
+
+/**
+ * MCP端点拒绝调用(熔断打开或超过自适应并发上限)，调用未发出
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+public class McpEndpointRejectedException extends RuntimeException {
+
+    /**
+     * 拒绝原因
+     */
+    public enum Reason {
+        CIRCUIT_OPEN, OVERLOADED
+    }
+
+    private final Reason reason;
+
+    public McpEndpointRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,192 @@
+package cn.com.wind.mcp.registry.client;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MCP HTTP传输层
+ * <p>
+ * 基于mcpRestTemplate(底层为带连接池的JDK HttpClient)发送请求，统一设置认证头，
+ * 并以信号量限制到MCP服务器的最大并发连接数；每次调用先经过McpEndpointGuard的熔断与自适应并发限制。
+ * 开启压缩时声明接受gzip/deflate，交给extractor的响应流已按Content-Encoding解压
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class McpHttpTransport {
+
+    /**
+     * MCP Streamable HTTP会话头
+     */
+    public static final String MCP_SESSION_HEADER = "Mcp-Session-Id";
+
+    private static final String ACCEPT_MCP = "application/json, text/event-stream";
+    private static final String ACCEPT_COMPRESSED = "gzip, deflate";
+    private static final String DEFAULT_CLIENT_NAME = "aimarket-backend";
+
+    private final RestTemplate mcpRestTemplate;
+    private final McpClientConfig.McpProperties mcpProperties;
+    private final McpEndpointGuard mcpEndpointGuard;
+    private final Semaphore connectionPermits;
+
+    public McpHttpTransport(RestTemplate mcpRestTemplate, McpClientConfig.McpProperties mcpProperties,
+                            McpEndpointGuard mcpEndpointGuard) {
+        this.mcpRestTemplate = mcpRestTemplate;
+        this.mcpProperties = mcpProperties;
+        this.mcpEndpointGuard = mcpEndpointGuard;
+        this.connectionPermits = new Semaphore(Math.max(1, mcpProperties.getClient().getMaxConnections()), true);
+    }
+
+    /**
+     * 发送JSON-RPC POST请求，响应体以流的形式交给extractor处理
+     *
+     * @param url       MCP服务器地址
+     * @param body      已序列化的请求体
+     * @param sessionId wind会话ID
+     * @param extractor 响应处理器(可读取状态码、响应头和响应流)
+     * @return extractor的处理结果
+     */
+    public <T> T post(String url, byte[] body, String sessionId, ResponseExtractor<T> extractor) {
+        return post(url, body, sessionId, null, extractor);
+    }
+
+    /**
+     * 发送JSON-RPC POST请求，携带服务端分配的Mcp-Session-Id
+     *
+     * @param url          MCP服务器地址
+     * @param body         已序列化的请求体
+     * @param sessionId    wind会话ID
+     * @param mcpSessionId 服务端会话ID，为null时不发送
+     * @param extractor    响应处理器(可读取状态码、响应头和响应流)
+     * @return extractor的处理结果
+     */
+    public <T> T post(String url, byte[] body, String sessionId, String mcpSessionId,
+                      ResponseExtractor<T> extractor) {
+        if (sessionId == null) {
+            log.warn("sessionId 为空，可能导致认证失败");
+        }
+        McpEndpointGuard.Permit permit = mcpEndpointGuard.acquire(url);
+        int[] status = {-1};
+        try {
+            acquire();
+        } catch (RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+        try {
+            T result = mcpRestTemplate.execute(url, HttpMethod.POST, request -> {
+                applyHeaders(request.getHeaders(), sessionId);
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                if (mcpSessionId != null) {
+                    request.getHeaders().set(MCP_SESSION_HEADER, mcpSessionId);
+                }
+                request.getBody().write(body);
+            }, response -> {
+                permit.responded();
+                status[0] = response.getStatusCode().value();
+                return extractor.extractData(new McpDecodedResponse(response));
+            });
+            record(permit, status[0], null);
+            return result;
+        } catch (RuntimeException e) {
+            record(permit, status[0], e);
+            throw e;
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    /**
+     * 连接检查，返回HTTP状态码
+     *
+     * @param url       MCP服务器地址
+     * @param sessionId wind会话ID
+     * @return HTTP状态码
+     */
+    public int probe(String url, String sessionId) {
+        McpEndpointGuard.Permit permit = mcpEndpointGuard.acquire(url);
+        try {
+            acquire();
+        } catch (RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+        try {
+            Integer status = mcpRestTemplate.execute(url, HttpMethod.GET,
+                    request -> applyHeaders(request.getHeaders(), sessionId),
+                    response -> {
+                        permit.responded();
+                        return response.getStatusCode().value();
+                    });
+            int code = status != null ? status : -1;
+            record(permit, code, null);
+            return code;
+        } catch (RuntimeException e) {
+            record(permit, -1, e);
+            throw e;
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    /**
+     * 记录调用结果：超时/连接异常和5xx计为失败，其余收到响应的调用计为成功，
+     * 未收到响应且非IO异常的情况(如调用方中止)不计入统计
+     */
+    static void record(McpEndpointGuard.Permit permit, int status, RuntimeException error) {
+        if (error instanceof ResourceAccessException || status >= 500) {
+            permit.failure();
+        } else if (status > 0) {
+            permit.success();
+        } else {
+            permit.ignore();
+        }
+    }
+
+    private void acquire() {
+        try {
+            long waitMillis = mcpProperties.getClient().getAcquireTimeout();
+            if (!connectionPermits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("MCP连接数已达上限: " + mcpProperties.getClient().getMaxConnections());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待MCP连接时被中断", e);
+        }
+    }
+
+    private void applyHeaders(HttpHeaders headers, String sessionId) {
+        headers.set(HttpHeaders.ACCEPT, ACCEPT_MCP);
+        headers.setCacheControl("no-cache");
+        if (mcpProperties.getClient().isCompression()) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_COMPRESSED);
+        }
+
+        // ⭐ 关键：添加 sessionId 认证头
+        if (sessionId != null) {
+            headers.set("wind.sessionid", sessionId);
+            headers.set("windsessionid", sessionId);
+        }
+
+        String clientName = mcpProperties.getClient().getClientName();
+        if (clientName != null && !clientName.trim().isEmpty()) {
+            headers.set("x-wind-clientname", clientName);
+        } else {
+            // 如果配置中没有，使用默认值
+            headers.set("x-wind-clientname", DEFAULT_CLIENT_NAME);
+        }
+    }
+}
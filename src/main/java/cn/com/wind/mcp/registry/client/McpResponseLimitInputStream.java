@@ -0,0 +1,85 @@
+package cn.com.wind.mcp.registry.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 限制读取字节数的响应流
+ * <p>
+ * 累计读取超过上限时抛出McpResponseTooLargeException，调用方随即关闭响应流，不会把超大响应读入内存；
+ * 同时保留开头previewBytes字节作为截断结果的预览
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class McpResponseLimitInputStream extends FilterInputStream {
+
+    private final long limit;
+    private final int previewBytes;
+    private final ByteArrayOutputStream preview;
+    private long count;
+
+    public McpResponseLimitInputStream(InputStream in, long limit, int previewBytes) {
+        super(in);
+        this.limit = limit;
+        this.previewBytes = Math.max(0, previewBytes);
+        this.preview = new ByteArrayOutputStream(Math.min(this.previewBytes, 1024));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            record(new byte[]{(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            record(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        count += skipped;
+        check();
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * 已读取的字节数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void record(byte[] b, int off, int n) {
+        int keep = (int) Math.min(n, previewBytes - (long) preview.size());
+        if (keep > 0) {
+            preview.write(b, off, keep);
+        }
+        count += n;
+        check();
+    }
+
+    private void check() {
+        if (count > limit) {
+            throw new McpResponseTooLargeException(limit, new String(preview.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
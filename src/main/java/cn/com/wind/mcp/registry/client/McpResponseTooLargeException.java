@@ -0,0 +1,29 @@
+package cn.com.wind.mcp.registry.client;
+
+import lombok.Getter;
+
+/**
+ * MCP响应(解压后)超过大小上限，已停止读取并关闭响应流
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+public class McpResponseTooLargeException extends RuntimeException {
+
+    /**
+     * 大小上限(字节)
+     */
+    private final long limit;
+
+    /**
+     * 响应开头部分的原文，供排查
+     */
+    private final String preview;
+
+    public McpResponseTooLargeException(long limit, String preview) {
+        super("MCP响应超过大小上限 " + limit + " 字节，已截断");
+        this.limit = limit;
+        this.preview = preview;
+    }
+}
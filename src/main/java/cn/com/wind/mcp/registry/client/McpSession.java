@@ -0,0 +1,119 @@
+package cn.com.wind.mcp.registry.client;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 已完成initialize握手的MCP会话
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+public class McpSession {
+
+    /**
+     * wind会话ID(windsessionid)
+     */
+    private final String windSessionId;
+
+    /**
+     * 服务端在initialize响应头中分配的Mcp-Session-Id，服务端未分配时为null
+     */
+    @Setter
+    private volatile String mcpSessionId;
+
+    /**
+     * 握手是否已完成
+     */
+    @Setter
+    private volatile boolean initialized;
+
+    /**
+     * 服务端是否支持JSON-RPC批量请求(协商的协议版本为2025-03-26)
+     */
+    @Setter
+    private volatile boolean batchSupported;
+
+    /**
+     * 待发送的notifications/initialized通知，支持批量时随第一个请求一起发送
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean initializedNotificationPending;
+
+    /**
+     * 取走通知的调用方发送结束(成功或失败)时完成，其他调用方在此等待
+     */
+    @Getter(AccessLevel.NONE)
+    private CompletableFuture<Void> initializedNotificationSent = CompletableFuture.completedFuture(null);
+
+    public McpSession(String windSessionId) {
+        this.windSessionId = windSessionId;
+    }
+
+    /**
+     * 标记initialized通知待发送
+     */
+    public synchronized void deferInitializedNotification() {
+        initializedNotificationPending = true;
+        initializedNotificationSent = new CompletableFuture<>();
+    }
+
+    /**
+     * 取走待发送的initialized通知，只有一个调用方能取到；
+     * 其他调用方等待其发送完成，发送失败时通知重新待发送，由等待者之一取走
+     *
+     * @param timeoutMillis 最长等待时间(毫秒)
+     * @return 是否需要由调用方发送，需要时发送后必须调用initializedNotificationSent或initializedNotificationFailed
+     * @throws RuntimeException 等待超时或被中断
+     */
+    public boolean takeInitializedNotification(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            CompletableFuture<Void> sent;
+            synchronized (this) {
+                if (initializedNotificationPending) {
+                    initializedNotificationPending = false;
+                    return true;
+                }
+                sent = initializedNotificationSent;
+            }
+            if (sent.isDone()) {
+                return false;
+            }
+            try {
+                sent.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new RuntimeException("等待initialized通知发送超时", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("等待initialized通知发送被中断", e);
+            } catch (ExecutionException e) {
+                // 不会异常完成
+            }
+        }
+    }
+
+    /**
+     * initialized通知已发送，放行等待的调用方
+     */
+    public synchronized void initializedNotificationSent() {
+        initializedNotificationSent.complete(null);
+    }
+
+    /**
+     * initialized通知发送失败，恢复为待发送并唤醒等待的调用方重新争取
+     */
+    public synchronized void initializedNotificationFailed() {
+        initializedNotificationPending = true;
+        CompletableFuture<Void> waiting = initializedNotificationSent;
+        initializedNotificationSent = new CompletableFuture<>();
+        waiting.complete(null);
+    }
+}
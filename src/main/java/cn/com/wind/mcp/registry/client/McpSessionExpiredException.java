@@ -0,0 +1,14 @@
+package cn.com.wind.mcp.registry.client;
+
+/**
+ * MCP服务端会话已失效(返回404)，需要重新握手
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class McpSessionExpiredException extends RuntimeException {
+
+    public McpSessionExpiredException(String message) {
+        super(message);
+    }
+}
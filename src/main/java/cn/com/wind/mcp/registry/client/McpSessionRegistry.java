@@ -0,0 +1,88 @@
+package cn.com.wind.mcp.registry.client;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MCP会话握手注册表
+ * <p>
+ * 以windsessionid为键缓存已完成initialize握手的会话：同一会话的并发首次调用只会触发一次握手，
+ * 其余调用等待该次握手的结果；空闲超过TTL的会话自动过期，服务端报告会话失效时主动移除
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class McpSessionRegistry {
+
+    private final Cache<String, McpSession> sessions;
+
+    public McpSessionRegistry(McpClientConfig.McpProperties mcpProperties) {
+        McpClientConfig.McpProperties.Client client = mcpProperties.getClient();
+        this.sessions = CacheBuilder.newBuilder()
+                .maximumSize(client.getMaxSessions())
+                .expireAfterAccess(client.getSessionTtl(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 获取会话，不存在时执行握手
+     *
+     * @param windSessionId wind会话ID
+     * @param initializer   握手逻辑，失败时抛出异常(失败结果不会被缓存)
+     * @return 已握手的会话
+     */
+    public McpSession getOrInitialize(String windSessionId, Callable<McpSession> initializer) {
+        try {
+            return sessions.get(windSessionId, initializer);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("MCP会话初始化失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 移除会话，下次调用时重新握手
+     *
+     * @param windSessionId wind会话ID
+     */
+    public void invalidate(String windSessionId) {
+        log.info("移除MCP会话: {}", windSessionId);
+        sessions.invalidate(windSessionId);
+    }
+
+    /**
+     * 仅当缓存中仍是指定会话时才移除，避免并发请求把其他线程刚建立的新会话移除
+     *
+     * @param windSessionId wind会话ID
+     * @param expired       已失效的会话
+     */
+    public void invalidate(String windSessionId, McpSession expired) {
+        if (sessions.asMap().remove(windSessionId, expired)) {
+            log.info("移除失效的MCP会话: {}", windSessionId);
+        }
+    }
+
+    /**
+     * 当前缓存的会话数
+     *
+     * @return 会话数
+     */
+    public long size() {
+        return sessions.size();
+    }
+}
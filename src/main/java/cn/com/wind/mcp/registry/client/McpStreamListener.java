@@ -0,0 +1,24 @@
+package cn.com.wind.mcp.registry.client;
+
+import java.util.Map;
+
+/**
+ * MCP流式消息监听器
+ * <p>
+ * 在读取MCP响应的线程上同步回调：回调阻塞时不会继续读取上游响应，从而把下游的慢速传递给MCP服务器
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@FunctionalInterface
+public interface McpStreamListener {
+
+    /**
+     * 收到一条中间消息(进度通知、日志等，不含最终响应)
+     *
+     * @param message JSON-RPC消息
+     * @return false表示停止接收，上游请求随即关闭
+     */
+    boolean onMessage(Map<String, Object> message);
+}
@@ -0,0 +1,79 @@
+package cn.com.wind.mcp.registry.client;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * tools/call响应(JSON-RPC信封)的类型化视图
+ * <p>
+ * 直接引用已解析的响应树中的节点，不复制也不重新解析
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+public class McpToolCallResult {
+
+    /**
+     * result.content，未返回result时为null
+     */
+    private final List<Map<String, Object>> content;
+
+    /**
+     * JSON-RPC错误信息，成功响应时为null
+     */
+    private final String rpcErrorMessage;
+
+    /**
+     * 是否为JSON-RPC错误响应
+     */
+    private final boolean rpcError;
+
+    private McpToolCallResult(List<Map<String, Object>> content, boolean rpcError, String rpcErrorMessage) {
+        this.content = content;
+        this.rpcError = rpcError;
+        this.rpcErrorMessage = rpcErrorMessage;
+    }
+
+    /**
+     * 从已解析的JSON-RPC响应构造
+     *
+     * @param response JSON-RPC响应
+     * @return 类型化视图，结构不符合tools/call响应时content为null且rpcError为false
+     */
+    @SuppressWarnings("unchecked")
+    public static McpToolCallResult of(Map<String, Object> response) {
+        Object result = response.get("result");
+        if (result instanceof Map) {
+            Object content = ((Map<String, Object>) result).get("content");
+            if (content instanceof List) {
+                return new McpToolCallResult((List<Map<String, Object>>) content, false, null);
+            }
+            return new McpToolCallResult(null, false, null);
+        }
+        Object error = response.get("error");
+        if (error instanceof Map) {
+            Object message = ((Map<String, Object>) error).get("message");
+            return new McpToolCallResult(null, true, message != null ? String.valueOf(message) : null);
+        }
+        return new McpToolCallResult(null, false, null);
+    }
+
+    /**
+     * 第一个内容项为text时返回其文本，否则返回null
+     */
+    public String firstText() {
+        if (content == null || content.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> first = content.get(0);
+        if (first == null || !"text".equals(first.get("type"))) {
+            return null;
+        }
+        Object text = first.get("text");
+        return text instanceof String ? (String) text : null;
+    }
+}
@@ -0,0 +1,256 @@
+package cn.com.wind.mcp.registry.client;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.networknt.schema.AbsoluteIri;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.resource.InputStreamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 工具inputSchema/outputSchema校验
+ * <p>
+ * 按(toolNum, toolVersion)编译一次后缓存，工具变更时按toolNum清理；
+ * schema为空或无法编译时视为不校验，不因schema本身的问题拦截调用。
+ * schema只在本地解析：$ref只允许指向文档内部(#开头)，$schema只允许内置的draft元schema，
+ * 需要加载其他地址的schema同样视为不校验，避免在调用链路上按工具配置访问任意网络地址
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class McpToolSchemaValidator {
+
+    /**
+     * 单次校验最多返回的错误条数
+     */
+    private static final int MAX_ERRORS = 20;
+
+    /**
+     * 内置的元schema地址(去掉末尾的#)
+     */
+    private static final Set<String> BUILTIN_META_SCHEMAS = new HashSet<>(Arrays.asList(
+            "http://json-schema.org/draft-04/schema",
+            "http://json-schema.org/draft-06/schema",
+            "http://json-schema.org/draft-07/schema",
+            "https://json-schema.org/draft/2019-09/schema",
+            "https://json-schema.org/draft/2020-12/schema"));
+
+    /**
+     * 引用其他schema的关键字
+     */
+    private static final Set<String> REF_KEYWORDS = new HashSet<>(Arrays.asList("$ref", "$dynamicRef", "$recursiveRef"));
+
+    /**
+     * 未声明$schema时按draft-07解析；只允许从classpath加载(内置元schema)，拒绝其他地址
+     */
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7,
+            builder -> builder.schemaLoaders(loaders -> loaders.add(McpToolSchemaValidator::loadLocalOnly)));
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * toolNum:toolVersion -> 编译后的schema
+     */
+    private final Cache<String, CompiledSchemas> schemas = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    public McpToolSchemaValidator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 按inputSchema校验调用参数
+     *
+     * @param tool      工具
+     * @param arguments 调用参数
+     * @return 错误信息，通过校验时为空
+     */
+    public List<String> validateArguments(McpToolDTO tool, Map<String, Object> arguments) {
+        JsonSchema schema = compiled(tool).input;
+        if (schema == null) {
+            return Collections.emptyList();
+        }
+        return validate(schema, arguments != null ? arguments : Collections.emptyMap());
+    }
+
+    /**
+     * 按outputSchema校验业务数据(mcp_tool_data)
+     *
+     * @param tool 工具
+     * @param data 业务数据
+     * @return 错误信息，通过校验或未配置outputSchema时为空
+     */
+    public List<String> validateOutput(McpToolDTO tool, Object data) {
+        JsonSchema schema = compiled(tool).output;
+        if (schema == null || data == null) {
+            return Collections.emptyList();
+        }
+        return validate(schema, data);
+    }
+
+    /**
+     * 工具变更后清理对应的已编译schema；事务提交后执行
+     *
+     * @param event 工具变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMcpToolChanged(McpToolChangedEvent event) {
+        if (event.getToolNum() != null) {
+            String prefix = event.getToolNum() + ":";
+            schemas.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        } else {
+            schemas.invalidateAll();
+        }
+    }
+
+    private List<String> validate(JsonSchema schema, Object value) {
+        JsonNode node = objectMapper.valueToTree(value);
+        Set<ValidationMessage> messages;
+        try {
+            messages = schema.validate(node);
+        } catch (RuntimeException e) {
+            // 引用在校验时才解析，解析失败(含被拒绝的外部地址)同样视为不校验
+            log.warn("schema校验失败, 跳过校验: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+        return messages.stream()
+                .map(ValidationMessage::getMessage)
+                .sorted()
+                .limit(MAX_ERRORS)
+                .collect(Collectors.toList());
+    }
+
+    private CompiledSchemas compiled(McpToolDTO tool) {
+        String key = tool.getToolNum() + ":" + tool.getToolVersion();
+        try {
+            return schemas.get(key, () -> new CompiledSchemas(
+                    compile(tool, "inputSchema", tool.getInputSchema()),
+                    compile(tool, "outputSchema", tool.getOutputSchema())));
+        } catch (ExecutionException e) {
+            log.warn("编译工具schema失败: key={}", key, e);
+            return CompiledSchemas.NONE;
+        }
+    }
+
+    private JsonSchema compile(McpToolDTO tool, String field, String schemaText) {
+        if (!StringUtils.hasText(schemaText)) {
+            return null;
+        }
+        try {
+            JsonNode schemaNode = objectMapper.readTree(schemaText);
+            if (!schemaNode.isObject() || schemaNode.isEmpty()) {
+                return null;
+            }
+            String external = findExternalReference(schemaNode, true);
+            if (external != null) {
+                log.warn("工具{}引用了外部schema, 跳过校验: toolNum={}, ref={}", field, tool.getToolNum(), external);
+                return null;
+            }
+            return SCHEMA_FACTORY.getSchema(schemaNode);
+        } catch (Exception e) {
+            log.warn("工具{}无法编译, 跳过校验: toolNum={}, error={}", field, tool.getToolNum(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查找需要从文档外部加载的引用：非#开头的$ref、非内置的$schema以及改变子schema基础地址的$id。
+     * 不区分关键字和default等数据中的同名字段，宁可多跳过校验
+     *
+     * @param node schema节点
+     * @param root 是否为根节点
+     * @return 第一个外部引用，没有时返回null
+     */
+    static String findExternalReference(JsonNode node, boolean root) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                if (value.isTextual()) {
+                    String text = value.asText();
+                    if (REF_KEYWORDS.contains(field.getKey()) && !text.startsWith("#")) {
+                        return text;
+                    }
+                    if ("$schema".equals(field.getKey()) && !isBuiltinMetaSchema(text)) {
+                        return text;
+                    }
+                    if (!root && "$id".equals(field.getKey()) && !text.startsWith("#")) {
+                        return text;
+                    }
+                }
+                String external = findExternalReference(value, false);
+                if (external != null) {
+                    return external;
+                }
+            }
+        } else if (node.isArray()) {
+            for (JsonNode item : node) {
+                String external = findExternalReference(item, false);
+                if (external != null) {
+                    return external;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBuiltinMetaSchema(String uri) {
+        String normalized = uri.endsWith("#") ? uri.substring(0, uri.length() - 1) : uri;
+        return BUILTIN_META_SCHEMAS.contains(normalized);
+    }
+
+    /**
+     * 只放行classpath上的schema(内置元schema)，其他地址直接拒绝，不落到默认的网络加载
+     */
+    private static InputStreamSource loadLocalOnly(AbsoluteIri iri) {
+        String uri = iri.toString();
+        if (uri.startsWith("classpath:") || uri.startsWith("resource:")) {
+            return null;
+        }
+        throw new RuntimeException("不允许加载外部schema: " + uri);
+    }
+
+    /**
+     * 一个工具版本的输入、输出schema，未配置或无法编译的为null
+     */
+    private static class CompiledSchemas {
+
+        private static final CompiledSchemas NONE = new CompiledSchemas(null, null);
+
+        private final JsonSchema input;
+
+        private final JsonSchema output;
+
+        CompiledSchemas(JsonSchema input, JsonSchema output) {
+            this.input = input;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package cn.com.wind.mcp.registry.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Server-Sent Events中的一个事件帧
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class SseEvent {
+
+    /**
+     * 事件ID(id字段)，可能为null
+     */
+    private final String id;
+
+    /**
+     * 事件类型(event字段)，未指定时为"message"
+     */
+    private final String event;
+
+    /**
+     * 事件数据(多行data以换行符拼接)，UTF-8字节
+     */
+    private final byte[] data;
+
+    /**
+     * 以字符串形式返回事件数据，仅用于日志和调试
+     *
+     * @return 事件数据
+     */
+    public String dataAsString() {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package cn.com.wind.mcp.registry.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * text/event-stream增量解码器
+ * <p>
+ * 按照SSE规范逐字节解析：支持\n、\r\n、\r三种换行，多行data按换行拼接，
+ * 忽略注释行，空行触发事件分发。每次只缓存当前帧的数据，内存占用以单帧大小为上限。
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class SseEventDecoder implements Closeable {
+
+    private static final String DEFAULT_EVENT = "message";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final long maxFrameBytes;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean lastWasCr;
+    private boolean eof;
+
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream(1024);
+    private boolean hasData;
+    private String eventType;
+    private String lastEventId;
+
+    /**
+     * @param in            响应流
+     * @param maxFrameBytes 单帧数据上限(字节)，小于等于0表示不限制
+     */
+    public SseEventDecoder(InputStream in, long maxFrameBytes) {
+        this.in = in;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    public SseEventDecoder(InputStream in) {
+        this(in, 0);
+    }
+
+    /**
+     * 读取下一个事件
+     *
+     * @return 事件；流结束时返回null
+     * @throws IOException 读取失败或单帧超过上限
+     */
+    public SseEvent next() throws IOException {
+        while (readLine()) {
+            if (line.size() == 0) {
+                SseEvent event = dispatch();
+                if (event != null) {
+                    return event;
+                }
+                continue;
+            }
+            processLine(line.toByteArray());
+        }
+        // 流结束：部分服务端最后一帧不以空行结尾，宽松处理为一个完整事件
+        return dispatch();
+    }
+
+    /**
+     * 最近一次收到的事件ID
+     *
+     * @return 事件ID
+     */
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void processLine(byte[] bytes) throws IOException {
+        if (bytes[0] == ':') {
+            // 注释行
+            return;
+        }
+
+        int colon = indexOf(bytes, (byte) ':');
+        String field;
+        int valueStart;
+        if (colon < 0) {
+            field = new String(bytes, StandardCharsets.UTF_8);
+            valueStart = bytes.length;
+        } else {
+            field = new String(bytes, 0, colon, StandardCharsets.UTF_8);
+            valueStart = colon + 1;
+            if (valueStart < bytes.length && bytes[valueStart] == ' ') {
+                valueStart++;
+            }
+        }
+        int valueLength = bytes.length - valueStart;
+
+        switch (field) {
+            case "data":
+                if (hasData) {
+                    data.write('\n');
+                }
+                data.write(bytes, valueStart, valueLength);
+                hasData = true;
+                if (maxFrameBytes > 0 && data.size() > maxFrameBytes) {
+                    throw new IOException("SSE事件数据超过上限: " + maxFrameBytes + " 字节");
+                }
+                break;
+            case "event":
+                eventType = new String(bytes, valueStart, valueLength, StandardCharsets.UTF_8);
+                break;
+            case "id":
+                String id = new String(bytes, valueStart, valueLength, StandardCharsets.UTF_8);
+                if (id.indexOf('\0') < 0) {
+                    lastEventId = id;
+                }
+                break;
+            default:
+                // retry及未知字段忽略
+                break;
+        }
+    }
+
+    private SseEvent dispatch() {
+        if (!hasData) {
+            eventType = null;
+            return null;
+        }
+        SseEvent event = new SseEvent(lastEventId, eventType != null ? eventType : DEFAULT_EVENT,
+                data.toByteArray());
+        data.reset();
+        hasData = false;
+        eventType = null;
+        return event;
+    }
+
+    /**
+     * 读取一行到line缓冲区(不含换行符)
+     *
+     * @return 是否读到了一行；流结束且没有剩余内容时返回false
+     */
+    private boolean readLine() throws IOException {
+        line.reset();
+        boolean readAny = false;
+        while (true) {
+            if (position >= limit && !fill()) {
+                return readAny;
+            }
+            byte b = buffer[position++];
+            if (lastWasCr) {
+                lastWasCr = false;
+                if (b == '\n') {
+                    continue;
+                }
+            }
+            if (b == '\n') {
+                return true;
+            }
+            if (b == '\r') {
+                lastWasCr = true;
+                return true;
+            }
+            line.write(b);
+            readAny = true;
+            if (maxFrameBytes > 0 && line.size() > maxFrameBytes) {
+                throw new IOException("SSE行长度超过上限: " + maxFrameBytes + " 字节");
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            eof = n < 0;
+            position = 0;
+            limit = 0;
+            return !eof && fill();
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, byte target) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
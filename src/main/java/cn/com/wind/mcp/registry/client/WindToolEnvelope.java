@@ -0,0 +1,64 @@
+package cn.com.wind.mcp.registry.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wind工具返回的业务信封(tools/call结果中text内容的JSON)
+ * <p>
+ * mcp_tool_data按原样绑定：对象/数组直接得到Map/List，字符串保持原文，需要时再由McpBusinessData解析
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WindToolEnvelope {
+
+    /**
+     * 错误代码，0或缺省表示成功
+     */
+    @JsonProperty("mcp_tool_error_code")
+    private Object errorCode;
+
+    /**
+     * 错误信息
+     */
+    @JsonProperty("mcp_tool_error_msg")
+    private String errorMsg;
+
+    /**
+     * 业务数据
+     */
+    @JsonProperty("mcp_tool_data")
+    private Object data;
+
+    /**
+     * 是否为工具执行失败
+     */
+    public boolean isFailed() {
+        return errorCode != null && !errorCode.equals(0);
+    }
+
+    /**
+     * 按原字段名输出，供结果中的toolResponse展示
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (errorCode != null) {
+            map.put("mcp_tool_error_code", errorCode);
+        }
+        if (errorMsg != null) {
+            map.put("mcp_tool_error_msg", errorMsg);
+        }
+        if (data != null) {
+            map.put("mcp_tool_data", data);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,53 @@
+package cn.com.wind.mcp.registry.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * MCP工具测试异步执行配置
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Configuration
+public class McpAsyncConfig {
+
+    /**
+     * 工具测试执行器
+     * <p>
+     * 运行在JDK 21及以上时使用虚拟线程，等待MCP响应不占用平台线程，到MCP服务器的并发由连接数上限约束；
+     * 低版本JDK退化为大小为test-concurrency的有界线程池，队列满时拒绝提交
+     * </p>
+     */
+    @Bean(name = "mcpTestExecutor")
+    public AsyncTaskExecutor mcpTestExecutor(McpClientConfig.McpProperties mcpProperties) {
+        int concurrency = Math.max(1, mcpProperties.getClient().getTestConcurrency());
+
+        if (Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mcp-test-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(mcpProperties.getClient().resolveReadTimeout());
+            log.info("MCP工具测试使用虚拟线程执行");
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mcp-test-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency * 10);
+        executor.setAllowCoreThreadTimeOut(true);
+        // 队列满时直接拒绝，不能退回到提交方(Tomcat工作线程)执行
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        log.info("MCP工具测试使用线程池执行，最大线程数: {}", concurrency);
+        return executor;
+    }
+}
@@ -4,11 +4,21 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriUtils;
 
+import java.net.http.HttpClient;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class McpClientConfig {
@@ -19,11 +29,52 @@ public class McpClientConfig {
         return new McpProperties();
     }
 
+    /**
+     * MCP调用共享的HTTP客户端
+     * <p>
+     * JDK HttpClient自带连接池与keep-alive，服务端支持时自动协商HTTP/2，
+     * 初始化、tools/call与连接检查复用同一组连接。到MCP服务器的并发连接数由McpHttpTransport的信号量(max-connections)约束；
+     * 连接池大小与空闲连接保活时间是JVM级参数，需要调整时在启动参数中指定
+     * -Djdk.httpclient.connectionPoolSize、-Djdk.httpclient.keepalive.timeout(秒)
+     * </p>
+     */
     @Bean
-    public RestTemplate mcpRestTemplate(RestTemplateBuilder builder, McpProperties mcpProperties) {
+    public HttpClient mcpHttpClient(McpProperties mcpProperties, ExecutorService mcpHttpExecutor) {
+        McpProperties.Client client = mcpProperties.getClient();
+        return HttpClient.newBuilder()
+                .version(client.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(client.resolveConnectTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(mcpHttpExecutor)
+                .build();
+    }
+
+    /**
+     * MCP HTTP客户端专用执行器，处理连接建立、响应读取等异步任务，与其他HttpClient互不影响；
+     * 容器关闭时随之关闭
+     */
+    @Bean
+    public ExecutorService mcpHttpExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mcp-http-");
+        threadFactory.setDaemon(true);
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    @Bean
+    public RestTemplate mcpRestTemplate(RestTemplateBuilder builder, HttpClient mcpHttpClient,
+                                        McpProperties mcpProperties) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(mcpHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(mcpProperties.getClient().resolveReadTimeout()));
+
         RestTemplate restTemplate = builder
-                .setConnectTimeout(Duration.ofMillis(mcpProperties.getClient().getTimeout()))
-                .setReadTimeout(Duration.ofMillis(mcpProperties.getClient().getTimeout()))
+                .requestFactory(() -> requestFactory)
+                .errorHandler(new DefaultResponseErrorHandler() {
+                    @Override
+                    public boolean hasError(ClientHttpResponse response) {
+                        // 非2xx状态码交由McpHttpTransport的调用方处理(如读取错误响应体)
+                        return false;
+                    }
+                })
                 .build();
 
         restTemplate.getMessageConverters().add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
@@ -60,11 +111,135 @@ public class McpClientConfig {
             public void setUrl(String url) {
                 this.url = url;
             }
+
+            /**
+             * 指定虚拟服务器的MCP地址：替换默认地址中/vserver/{id}/的部分(ID按路径段编码)，默认地址不含该段时原样返回
+             *
+             * @param vserverId 虚拟服务器ID
+             * @return MCP地址
+             */
+            public String resolveVserverUrl(String vserverId) {
+                if (url == null || vserverId == null || vserverId.isEmpty()) {
+                    return url;
+                }
+                int start = url.indexOf("/vserver/");
+                if (start < 0) {
+                    return url;
+                }
+                start += "/vserver/".length();
+                int end = url.indexOf('/', start);
+                return url.substring(0, start) + UriUtils.encodePathSegment(vserverId, StandardCharsets.UTF_8)
+                        + (end >= 0 ? url.substring(end) : "");
+            }
         }
 
         public static class Client {
             private int timeout = 30000;
             private String clientName = "aimarket-backend";
+            /**
+             * 连接超时(毫秒)，未配置时使用timeout
+             */
+            private Integer connectTimeout;
+            /**
+             * 读取超时(毫秒)，未配置时使用timeout
+             */
+            private Integer readTimeout;
+            /**
+             * 到MCP服务器的最大并发连接数
+             */
+            private int maxConnections = 50;
+            /**
+             * 连接数已达上限时等待空闲名额的最长时间(毫秒)，超时后本次调用失败
+             */
+            private long acquireTimeout = 5000;
+            /**
+             * 是否优先协商HTTP/2
+             */
+            private boolean http2 = true;
+            /**
+             * 单个SSE事件数据上限(字节)，小于等于0表示不限制
+             */
+            private long maxFrameBytes = 16L * 1024 * 1024;
+            /**
+             * MCP会话空闲过期时间(毫秒)，过期后重新initialize
+             */
+            private long sessionTtl = 30L * 60 * 1000;
+            /**
+             * 缓存的MCP会话数上限
+             */
+            private int maxSessions = 10000;
+            /**
+             * 异步工具测试的并发数(JDK 21以下线程池大小)
+             */
+            private int testConcurrency = 64;
+            /**
+             * 异步测试任务结果保留时间(毫秒)
+             */
+            private long testJobTtl = 10L * 60 * 1000;
+            /**
+             * 熔断: 失败率阈值(%)，小于等于0表示不按失败率熔断
+             */
+            private int circuitFailureRate = 50;
+            /**
+             * 熔断: 慢调用率阈值(%)，小于等于0表示不按慢调用熔断
+             */
+            private int circuitSlowCallRate = 80;
+            /**
+             * 慢调用阈值(毫秒)，按收到响应头的时间计算；同时作为并发上限下调的延迟阈值
+             */
+            private long circuitSlowCallTime = 10000;
+            /**
+             * 熔断统计的滑动窗口(最近N次调用)
+             */
+            private int circuitWindowSize = 50;
+            /**
+             * 窗口内至少有多少次调用才开始判断是否熔断
+             */
+            private int circuitMinimumCalls = 20;
+            /**
+             * 熔断打开后多久进入半开状态(毫秒)
+             */
+            private long circuitOpenDuration = 30000;
+            /**
+             * 半开状态放行的探测调用数，全部成功则关闭熔断
+             */
+            private int circuitHalfOpenCalls = 3;
+            /**
+             * 自适应并发限制的初始上限，最大不超过maxConnections
+             */
+            private int limitInitial = 20;
+            /**
+             * 自适应并发限制的最小上限
+             */
+            private int limitMin = 2;
+            /**
+             * 服务端支持时是否使用JSON-RPC批量请求
+             */
+            private boolean batchEnabled = true;
+            /**
+             * tools/list发现结果缓存时间(毫秒)，收到list_changed通知时提前刷新
+             */
+            private long discoveryTtl = 5L * 60 * 1000;
+            /**
+             * 是否向MCP服务器声明接受gzip/deflate压缩的响应
+             */
+            private boolean compression = true;
+            /**
+             * 单次响应(解压后)的大小上限(字节)，超过时截断，小于等于0表示不限制
+             */
+            private long maxResponseBytes = 8L * 1024 * 1024;
+            /**
+             * 按工具名单独设置的响应大小上限(字节)，未配置的工具使用maxResponseBytes
+             */
+            private Map<String, Long> toolMaxResponseBytes = new HashMap<>();
+            /**
+             * 调用前按工具inputSchema校验参数，不符合时直接返回错误，不请求MCP服务器
+             */
+            private boolean validateArguments = true;
+            /**
+             * 按工具outputSchema校验返回的mcp_tool_data，会触发业务数据解析，校验结果附加在响应中
+             */
+            private boolean validateOutput = false;
 
             public int getTimeout() {
                 return timeout;
@@ -81,6 +256,240 @@ public class McpClientConfig {
             public void setClientName(String clientName) {
                 this.clientName = clientName;
             }
+
+            public Integer getConnectTimeout() {
+                return connectTimeout;
+            }
+
+            public void setConnectTimeout(Integer connectTimeout) {
+                this.connectTimeout = connectTimeout;
+            }
+
+            public Integer getReadTimeout() {
+                return readTimeout;
+            }
+
+            public void setReadTimeout(Integer readTimeout) {
+                this.readTimeout = readTimeout;
+            }
+
+            public int getMaxConnections() {
+                return maxConnections;
+            }
+
+            public void setMaxConnections(int maxConnections) {
+                this.maxConnections = maxConnections;
+            }
+
+            public long getAcquireTimeout() {
+                return acquireTimeout;
+            }
+
+            public void setAcquireTimeout(long acquireTimeout) {
+                this.acquireTimeout = acquireTimeout;
+            }
+
+            public boolean isHttp2() {
+                return http2;
+            }
+
+            public void setHttp2(boolean http2) {
+                this.http2 = http2;
+            }
+
+            public long getMaxFrameBytes() {
+                return maxFrameBytes;
+            }
+
+            public void setMaxFrameBytes(long maxFrameBytes) {
+                this.maxFrameBytes = maxFrameBytes;
+            }
+
+            public long getSessionTtl() {
+                return sessionTtl;
+            }
+
+            public void setSessionTtl(long sessionTtl) {
+                this.sessionTtl = sessionTtl;
+            }
+
+            public int getMaxSessions() {
+                return maxSessions;
+            }
+
+            public void setMaxSessions(int maxSessions) {
+                this.maxSessions = maxSessions;
+            }
+
+            public int getTestConcurrency() {
+                return testConcurrency;
+            }
+
+            public void setTestConcurrency(int testConcurrency) {
+                this.testConcurrency = testConcurrency;
+            }
+
+            public long getTestJobTtl() {
+                return testJobTtl;
+            }
+
+            public void setTestJobTtl(long testJobTtl) {
+                this.testJobTtl = testJobTtl;
+            }
+
+            public int getCircuitFailureRate() {
+                return circuitFailureRate;
+            }
+
+            public void setCircuitFailureRate(int circuitFailureRate) {
+                this.circuitFailureRate = circuitFailureRate;
+            }
+
+            public int getCircuitSlowCallRate() {
+                return circuitSlowCallRate;
+            }
+
+            public void setCircuitSlowCallRate(int circuitSlowCallRate) {
+                this.circuitSlowCallRate = circuitSlowCallRate;
+            }
+
+            public long getCircuitSlowCallTime() {
+                return circuitSlowCallTime;
+            }
+
+            public void setCircuitSlowCallTime(long circuitSlowCallTime) {
+                this.circuitSlowCallTime = circuitSlowCallTime;
+            }
+
+            public int getCircuitWindowSize() {
+                return circuitWindowSize;
+            }
+
+            public void setCircuitWindowSize(int circuitWindowSize) {
+                this.circuitWindowSize = circuitWindowSize;
+            }
+
+            public int getCircuitMinimumCalls() {
+                return circuitMinimumCalls;
+            }
+
+            public void setCircuitMinimumCalls(int circuitMinimumCalls) {
+                this.circuitMinimumCalls = circuitMinimumCalls;
+            }
+
+            public long getCircuitOpenDuration() {
+                return circuitOpenDuration;
+            }
+
+            public void setCircuitOpenDuration(long circuitOpenDuration) {
+                this.circuitOpenDuration = circuitOpenDuration;
+            }
+
+            public int getCircuitHalfOpenCalls() {
+                return circuitHalfOpenCalls;
+            }
+
+            public void setCircuitHalfOpenCalls(int circuitHalfOpenCalls) {
+                this.circuitHalfOpenCalls = circuitHalfOpenCalls;
+            }
+
+            public int getLimitInitial() {
+                return limitInitial;
+            }
+
+            public void setLimitInitial(int limitInitial) {
+                this.limitInitial = limitInitial;
+            }
+
+            public int getLimitMin() {
+                return limitMin;
+            }
+
+            public void setLimitMin(int limitMin) {
+                this.limitMin = limitMin;
+            }
+
+            public boolean isBatchEnabled() {
+                return batchEnabled;
+            }
+
+            public void setBatchEnabled(boolean batchEnabled) {
+                this.batchEnabled = batchEnabled;
+            }
+
+            public long getDiscoveryTtl() {
+                return discoveryTtl;
+            }
+
+            public void setDiscoveryTtl(long discoveryTtl) {
+                this.discoveryTtl = discoveryTtl;
+            }
+
+            public boolean isCompression() {
+                return compression;
+            }
+
+            public void setCompression(boolean compression) {
+                this.compression = compression;
+            }
+
+            public long getMaxResponseBytes() {
+                return maxResponseBytes;
+            }
+
+            public void setMaxResponseBytes(long maxResponseBytes) {
+                this.maxResponseBytes = maxResponseBytes;
+            }
+
+            public Map<String, Long> getToolMaxResponseBytes() {
+                return toolMaxResponseBytes;
+            }
+
+            public void setToolMaxResponseBytes(Map<String, Long> toolMaxResponseBytes) {
+                this.toolMaxResponseBytes = toolMaxResponseBytes;
+            }
+
+            public boolean isValidateArguments() {
+                return validateArguments;
+            }
+
+            public void setValidateArguments(boolean validateArguments) {
+                this.validateArguments = validateArguments;
+            }
+
+            public boolean isValidateOutput() {
+                return validateOutput;
+            }
+
+            public void setValidateOutput(boolean validateOutput) {
+                this.validateOutput = validateOutput;
+            }
+
+            /**
+             * 指定工具实际生效的响应大小上限
+             *
+             * @param toolName 工具名，为null时返回全局上限
+             * @return 上限(字节)，小于等于0表示不限制
+             */
+            public long resolveMaxResponseBytes(String toolName) {
+                Long limit = toolName != null && toolMaxResponseBytes != null
+                        ? toolMaxResponseBytes.get(toolName) : null;
+                return limit != null ? limit : maxResponseBytes;
+            }
+
+            /**
+             * 实际生效的连接超时
+             */
+            public int resolveConnectTimeout() {
+                return connectTimeout != null ? connectTimeout : timeout;
+            }
+
+            /**
+             * 实际生效的读取超时
+             */
+            public int resolveReadTimeout() {
+                return readTimeout != null ? readTimeout : timeout;
+            }
         }
     }
-}
\ No newline at end of file
+}
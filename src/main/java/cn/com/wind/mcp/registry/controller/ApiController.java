@@ -1,8 +1,8 @@
 package cn.com.wind.mcp.registry.controller;
 
-import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.dto.mcptool.ProviderToolCounts;
 import cn.com.wind.mcp.registry.entity.Provider;
-import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.ToolCatalogCounterService;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +25,7 @@ import java.util.Map;
 public class ApiController {
 
     @Autowired
-    private McpToolService mcpToolService;
+    private ToolCatalogCounterService toolCatalogCounterService;
 
     /**
      * 获取用户统计信息
@@ -42,18 +42,16 @@ public class ApiController {
                 return result;
             }
 
-            // 查询用户的MCP工具数量
-            long mcpToolCount = mcpToolService.count(
-                    new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<McpTool>()
-                            .eq("provider_id", currentProvider.getId()));
-
-            // 查询用户的HTTP接口数量 - 需要导入OriginToolHttpService
-            long httpToolCount = 0; // 暂时保持为0，后续实现
+            // 用户名下的工具数量，从内存计数读取
+            ProviderToolCounts counts = toolCatalogCounterService.getCounts(currentProvider.getId());
 
             result.put("success", true);
-            result.put("mcpToolCount", mcpToolCount);
-            result.put("httpToolCount", httpToolCount);
-            result.put("totalCount", mcpToolCount + httpToolCount);
+            result.put("mcpToolCount", counts.getMcpToolCount());
+            result.put("httpToolCount", counts.getHttpToolCount());
+            result.put("expoToolCount", counts.getExpoToolCount());
+            result.put("mcpToolByConvertType", counts.getMcpToolByConvertType());
+            result.put("mcpToolByValid", counts.getMcpToolByValid());
+            result.put("totalCount", counts.getTotalCount());
 
         } catch (Exception e) {
             log.error("获取用户统计信息失败", e);
@@ -61,6 +59,7 @@ public class ApiController {
             result.put("message", "获取统计信息失败");
             result.put("mcpToolCount", 0);
             result.put("httpToolCount", 0);
+            result.put("expoToolCount", 0);
             result.put("totalCount", 0);
         }
 
@@ -1,9 +1,8 @@
 package cn.com.wind.mcp.registry.controller;
 
+import cn.com.wind.mcp.registry.dto.mcptool.ProviderToolCounts;
 import cn.com.wind.mcp.registry.entity.Provider;
-import cn.com.wind.mcp.registry.service.McpToolService;
-import cn.com.wind.mcp.registry.service.OriginToolExpoService;
-import cn.com.wind.mcp.registry.service.OriginToolHttpService;
+import cn.com.wind.mcp.registry.service.ToolCatalogCounterService;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,13 +23,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 public class HomeController {
 
     @Autowired
-    private McpToolService mcpToolService;
-
-    @Autowired
-    private OriginToolHttpService originToolHttpService;
-
-    @Autowired
-    private OriginToolExpoService originToolExpoService;
+    private ToolCatalogCounterService toolCatalogCounterService;
 
     /**
      * 首页
@@ -52,14 +45,13 @@ public class HomeController {
         String username = currentProvider.getUsername();
         log.info("用户 {} (ID: {}) 访问首页", username, providerId);
 
-        long mcpToolCount = mcpToolService.countByProviderId(providerId);
-        long httpToolCount = originToolHttpService.countByProviderId(providerId);
-        long expoToolCount = originToolExpoService.countByProviderId(providerId);
+        // 计数在内存中维护，不查询数据库
+        ProviderToolCounts counts = toolCatalogCounterService.getCounts(providerId);
 
-        model.addAttribute("mcpToolCount", mcpToolCount);
-        model.addAttribute("httpToolCount", httpToolCount);
-        model.addAttribute("expoToolCount", expoToolCount);
-        model.addAttribute("totalToolCount", mcpToolCount + httpToolCount + expoToolCount);
+        model.addAttribute("mcpToolCount", counts.getMcpToolCount());
+        model.addAttribute("httpToolCount", counts.getHttpToolCount());
+        model.addAttribute("expoToolCount", counts.getExpoToolCount());
+        model.addAttribute("totalToolCount", counts.getTotalCount());
 
         return "index";
     }
@@ -3,14 +3,23 @@ package cn.com.wind.mcp.registry.controller;
 import cn.com.wind.mcp.registry.dto.McpToolEditDto;
 import cn.com.wind.mcp.registry.dto.McpToolExportDto;
 import cn.com.wind.mcp.registry.dto.McpToolImportValidationResult;
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolExportFilter;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolSearchResult;
+import cn.com.wind.mcp.registry.dto.mcptool.ToolSuggestion;
 import cn.com.wind.mcp.registry.entity.*;
-import cn.com.wind.mcp.registry.mapper.ExpoTemplateConverterMapper;
 import cn.com.wind.mcp.registry.mapper.HttpTemplateConverterMapper;
-import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
 import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import cn.com.wind.mcp.registry.search.McpToolSearchIndex;
+import cn.com.wind.mcp.registry.search.ToolNameTypeahead;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
+import cn.com.wind.mcp.registry.service.McpToolBatchImportService;
+import cn.com.wind.mcp.registry.service.McpToolBundleService;
 import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.OriginToolHttpService;
+import cn.com.wind.mcp.registry.util.CursorPageUtil;
 import cn.com.wind.mcp.registry.util.PermissionUtil;
-import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -23,12 +32,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -50,17 +64,26 @@ public class McpToolController {
     private OriginToolHttpMapper originToolHttpMapper;
 
     @Autowired
-    private OriginToolExpoMapper originToolExpoMapper;
+    private OriginToolHttpService originToolHttpService;
 
     @Autowired
-    private HttpTemplateConverterMapper httpTemplateConverterMapper;
+    private ToolNameTypeahead toolNameTypeahead;
 
     @Autowired
-    private ExpoTemplateConverterMapper expoTemplateConverterMapper;
+    private HttpTemplateConverterMapper httpTemplateConverterMapper;
 
     @Autowired
     private cn.com.wind.mcp.registry.service.McpToolPublisherService mcpToolPublisherService;
 
+    @Autowired
+    private McpToolBundleService mcpToolBundleService;
+
+    @Autowired
+    private McpToolBatchImportService mcpToolBatchImportService;
+
+    @Autowired
+    private IdAllocatorService idAllocatorService;
+
     /**
      * 工具列表页面
      */
@@ -84,7 +107,8 @@ public class McpToolController {
             Provider currentProvider = PermissionUtil.getCurrentProvider(session);
             String username = currentProvider.getUsername();
 
-            QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
+            // 列表只查询摘要列，input_schema等大字段在详情、编辑时加载
+            QueryWrapper<McpTool> queryWrapper = new QueryWrapper<McpTool>().select(McpToolService.SUMMARY_COLUMNS);
             // pczhou 用户可以查看全局工具,其他用户只能看自己的
             if (!"pczhou".equals(username)) {
                 queryWrapper.eq("provider_id", currentProviderId);
@@ -110,63 +134,25 @@ public class McpToolController {
         log.info("编辑MCP工具: id={}", id);
 
         try {
-            McpTool tool = mcpToolService.getById(id);
-            if (tool == null) {
+            McpToolBundle bundle = mcpToolBundleService.getBundle(id);
+            if (bundle == null) {
                 return "redirect:/mcp-tools?error=" + URLEncoder.encode("工具不存在", StandardCharsets.UTF_8.name());
             }
+            McpTool tool = bundle.getMcpTool();
 
             // 检查权限：只有工具的创建者可以编辑
             if (!PermissionUtil.hasPermission(session, tool.getProviderId())) {
                 return "redirect:/mcp-tools?error=" + URLEncoder.encode("无权限编辑此工具",
                         StandardCharsets.UTF_8.name());
             }
+            log.info("MCP工具转换类型: {}", tool.getConvertType());
 
-            // 根据convertType确定转换器类型
-            String convertType = tool.getConvertType();
-            log.info("MCP工具转换类型: {}", convertType);
-
-            // 查询关联的原始HTTP接口信息
-            OriginToolHttp httpTool = null;
-            if (tool.getToolNum() != null) {
-                QueryWrapper<OriginToolHttp> httpWrapper = new QueryWrapper<>();
-                httpWrapper.eq("provider_tool_num", tool.getToolNum());
-                httpTool = originToolHttpMapper.selectOne(httpWrapper);
-            }
-
-            OriginToolExpo expoTool = null;
-            if (tool.getToolNum() != null) {
-                QueryWrapper<OriginToolExpo> expoWrapper = new QueryWrapper<>();
-                expoWrapper.eq("provider_tool_num", tool.getToolNum());
-                expoTool = originToolExpoMapper.selectOne(expoWrapper);
-            }
-
-            // 根据convertType查询对应的转换模板信息
-            HttpTemplateConverter httpConverter = null;
-            ExpoTemplateConverter expoConverter = null;
-
-            if (tool.getToolNum() != null) {
-                // 判断是否为HTTP类型: convertType='1'或包含"http"(不区分大小写)
-                if (convertType != null && ("1".equals(convertType) || convertType.toLowerCase().contains("http"))) {
-                    // 查询HTTP转换模板
-                    QueryWrapper<HttpTemplateConverter> converterWrapper = new QueryWrapper<>();
-                    converterWrapper.eq("tool_num", tool.getToolNum());
-                    httpConverter = httpTemplateConverterMapper.selectOne(converterWrapper);
-                    log.info("查询HTTP转换模板: {}", httpConverter != null ? "找到" : "未找到");
-                } else if (convertType != null && ("2".equals(convertType) || convertType.toLowerCase().contains(
-                        "expo"))) {
-                    // 查询Expo转换模板
-                    QueryWrapper<ExpoTemplateConverter> converterWrapper = new QueryWrapper<>();
-                    converterWrapper.eq("tool_num", tool.getToolNum());
-                    expoConverter = expoTemplateConverterMapper.selectOne(converterWrapper);
-                    log.info("查询Expo转换模板: {}", expoConverter != null ? "找到" : "未找到");
-                }
-            }
-
+            // 原始HTTP/Expo接口按provider_tool_num均查出，转换模板按convertType随工具一并查出
             model.addAttribute("tool", tool);
-            model.addAttribute("httpTool", httpTool);
-            model.addAttribute("expoTool", expoTool);
-            model.addAttribute("httpConverter", httpConverter);
-            model.addAttribute("expoConverter", expoConverter);
+            model.addAttribute("httpTool", bundle.getOriginToolHttp());
+            model.addAttribute("expoTool", bundle.getOriginToolExpo());
+            model.addAttribute("httpConverter", bundle.getHttpTemplateConverter());
+            model.addAttribute("expoConverter", bundle.getExpoTemplateConverter());
             return "mcp-tools/form";
         } catch (UnsupportedEncodingException e) {
             log.error("URL编码失败", e);
@@ -181,56 +167,20 @@ public class McpToolController {
     public String detail(@PathVariable Long id, Model model) {
         log.info("查询MCP工具详情: id={}", id);
 
-        McpTool tool = mcpToolService.getById(id);
-        if (tool == null) {
+        McpToolBundle bundle = mcpToolBundleService.getBundle(id);
+        if (bundle == null) {
             return "redirect:/mcp-tools";
         }
-
-        // 根据convertType确定转换器类型
+        McpTool tool = bundle.getMcpTool();
         String convertType = tool.getConvertType();
         log.info("MCP工具转换类型: {}", convertType);
 
-        // 查询关联的源工具信息
-        OriginToolHttp httpTool = null;
-        if (tool.getToolNum() != null && StrUtil.equals("1", convertType)) {
-            QueryWrapper<OriginToolHttp> httpWrapper = new QueryWrapper<>();
-            httpWrapper.eq("provider_tool_num", tool.getToolNum());
-            httpTool = originToolHttpMapper.selectOne(httpWrapper);
-        }
-
-        OriginToolExpo expoTool = null;
-        if (tool.getToolNum() != null && StrUtil.equals("2", convertType)) {
-            QueryWrapper<OriginToolExpo> expoWrapper = new QueryWrapper<>();
-            expoWrapper.eq("provider_tool_num", tool.getToolNum());
-            expoTool = originToolExpoMapper.selectOne(expoWrapper);
-        }
-
-        // 根据convertType查询对应的转换模板信息
-        HttpTemplateConverter httpConverter = null;
-        ExpoTemplateConverter expoConverter = null;
-
-        if (tool.getToolNum() != null) {
-            // 判断是否为HTTP类型: convertType='1'或包含"http"(不区分大小写)
-            if (convertType != null && ("1".equals(convertType) || convertType.toLowerCase().contains("http"))) {
-                // 查询HTTP转换模板
-                QueryWrapper<HttpTemplateConverter> converterWrapper = new QueryWrapper<>();
-                converterWrapper.eq("tool_num", tool.getToolNum());
-                httpConverter = httpTemplateConverterMapper.selectOne(converterWrapper);
-                log.info("查询HTTP转换模板: {}", httpConverter != null ? "找到" : "未找到");
-            } else if (convertType != null && ("2".equals(convertType) || convertType.toLowerCase().contains("expo"))) {
-                // 查询Expo转换模板
-                QueryWrapper<ExpoTemplateConverter> converterWrapper = new QueryWrapper<>();
-                converterWrapper.eq("tool_num", tool.getToolNum());
-                expoConverter = expoTemplateConverterMapper.selectOne(converterWrapper);
-                log.info("查询Expo转换模板: {}", expoConverter != null ? "找到" : "未找到");
-            }
-        }
-
+        // 详情页只展示convertType对应的源工具；转换模板已按convertType随工具一并查出
         model.addAttribute("tool", tool);
-        model.addAttribute("httpTool", httpTool);
-        model.addAttribute("expoTool", expoTool);
-        model.addAttribute("httpConverter", httpConverter);
-        model.addAttribute("expoConverter", expoConverter);
+        model.addAttribute("httpTool", "1".equals(convertType) ? bundle.getOriginToolHttp() : null);
+        model.addAttribute("expoTool", "2".equals(convertType) ? bundle.getOriginToolExpo() : null);
+        model.addAttribute("httpConverter", bundle.getHttpTemplateConverter());
+        model.addAttribute("expoConverter", bundle.getExpoTemplateConverter());
         return "mcp-tools/detail";
     }
 
@@ -254,7 +204,7 @@ public class McpToolController {
 
             if (tool.getId() == null) {
                 // 新增 - 自动生成工具编号和版本号
-                tool.setToolNum(System.currentTimeMillis()); // 使用时间戳作为工具编号
+                tool.setToolNum(idAllocatorService.nextId(IdAllocatorService.TOOL_NUM)); // 分配工具编号
                 tool.setToolVersion(1L); // 默认版本为1
                 tool.setProviderId(currentProviderId); // 设置创建者ID
                 tool.setCreateTime(LocalDateTime.now());
@@ -337,7 +287,7 @@ public class McpToolController {
             existingHttpTool.setOutputSchema(httpToolData.getOutputSchema());
             existingHttpTool.setUpdateTime(LocalDateTime.now());
             existingHttpTool.setUpdateBy(PermissionUtil.getCurrentProvider(session).getUsername());
-            originToolHttpMapper.updateById(existingHttpTool);
+            originToolHttpService.updateById(existingHttpTool);
         } else {
             // 创建新记录
             httpToolData.setProviderId(providerId);
@@ -346,7 +296,7 @@ public class McpToolController {
             httpToolData.setCreateBy(PermissionUtil.getCurrentProvider(session).getUsername());
             httpToolData.setUpdateTime(LocalDateTime.now());
             httpToolData.setUpdateBy(PermissionUtil.getCurrentProvider(session).getUsername());
-            originToolHttpMapper.insert(httpToolData);
+            originToolHttpService.save(httpToolData);
         }
     }
 
@@ -403,7 +353,8 @@ public class McpToolController {
 
             Page<McpTool> toolPage = new Page<>(page, size);
             QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("provider_id", currentProviderId);
+            queryWrapper.select(McpToolService.SUMMARY_COLUMNS)
+                    .eq("provider_id", currentProviderId);
             IPage<McpTool> result = mcpToolService.page(toolPage, queryWrapper);
             return ResponseEntity.ok(result.getRecords());
         } catch (Exception e) {
@@ -412,6 +363,79 @@ public class McpToolController {
         }
     }
 
+    /**
+     * 获取工具列表 - 游标分页 JSON API
+     * 按id倒序，下一页传入上一页返回的nextCursor；pczhou 可查看全局工具
+     */
+    @GetMapping("/api/list/cursor")
+    @ResponseBody
+    public ResponseEntity<CursorPage<McpTool>> listCursorApi(@RequestParam(required = false) Long cursor,
+                                                             @RequestParam(defaultValue = "20") int size,
+                                                             HttpSession session) {
+        log.info("游标查询MCP工具列表: cursor={}, size={}", cursor, size);
+
+        try {
+            Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+            if (currentProviderId == null) {
+                return ResponseEntity.status(401).body(null);
+            }
+
+            Provider currentProvider = PermissionUtil.getCurrentProvider(session);
+            boolean global = "pczhou".equals(currentProvider.getUsername());
+            QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq(!global, "provider_id", currentProviderId);
+            String countKey = global ? "mcp_tool:all" : "mcp_tool:provider:" + currentProviderId;
+            return ResponseEntity.ok(CursorPageUtil.seek(mcpToolService, queryWrapper, cursor, size,
+                    McpTool::getId, countKey, McpToolService.SUMMARY_COLUMNS));
+        } catch (Exception e) {
+            log.error("游标查询MCP工具列表失败", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    /**
+     * 搜索工具 - JSON API
+     */
+    @GetMapping("/api/search")
+    @ResponseBody
+    public ResponseEntity<IPage<McpTool>> searchApi(@RequestParam String keyword,
+                                                    @RequestParam(defaultValue = "1") int page,
+                                                    @RequestParam(defaultValue = "10") int size,
+                                                    HttpSession session) {
+        log.info("API搜索MCP工具: keyword={}, page={}, size={}", keyword, page, size);
+
+        try {
+            Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+            if (currentProviderId == null) {
+                return ResponseEntity.status(401).body(null);
+            }
+            return ResponseEntity.ok(mcpToolService.searchToolPage(keyword, currentProviderId, page, size));
+        } catch (Exception e) {
+            log.error("搜索MCP工具失败", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
+    /**
+     * 工具名称联想 - JSON API，匹配当前提供者的MCP工具和原始接口
+     */
+    @GetMapping("/api/suggest")
+    @ResponseBody
+    public ResponseEntity<List<ToolSuggestion>> suggestApi(@RequestParam String prefix,
+                                                           @RequestParam(defaultValue = "10") int limit,
+                                                           HttpSession session) {
+        try {
+            Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+            if (currentProviderId == null) {
+                return ResponseEntity.status(401).body(null);
+            }
+            return ResponseEntity.ok(toolNameTypeahead.suggest(prefix, currentProviderId, limit));
+        } catch (Exception e) {
+            log.error("工具名称联想失败", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * 删除工具
      */
@@ -453,44 +477,73 @@ public class McpToolController {
     }
 
     /**
-     * 搜索工具
+     * 搜索工具 - 按相关度排序，支持按转换类型、工具类型、状态过滤并显示分面计数
      */
     @GetMapping("/search")
-    public String search(@RequestParam String keyword, Model model,
+    public String search(@RequestParam(defaultValue = "") String keyword, Model model,
                          @RequestParam(defaultValue = "1") int page,
+                         @RequestParam(required = false) String convertType,
+                         @RequestParam(required = false) String toolType,
+                         @RequestParam(required = false) String valid,
                          HttpSession session) {
         int size = 20; // 固定每页20条数据
-        log.info("搜索MCP工具: keyword={}", keyword);
+        log.info("搜索MCP工具: keyword={}, convertType={}, toolType={}, valid={}", keyword, convertType, toolType,
+                valid);
 
         // 获取当前登录用户ID
         Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
 
-        QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
+        IPage<McpTool> result;
+        Map<String, Map<String, Integer>> facets = Collections.emptyMap();
         if (currentProviderId != null) {
             // 只搜索当前用户的工具
-            queryWrapper.eq("provider_id", currentProviderId)
-                    .and(wrapper -> wrapper
-                            .like("tool_name", keyword)
-                            .or()
-                            .like("tool_description", keyword)
-                    );
+            McpToolSearchResult searchResult = mcpToolService.rankedSearch(keyword, currentProviderId, convertType,
+                    toolType, valid, page, size);
+            result = searchResult.getPage();
+            facets = searchResult.getFacets();
         } else {
             // 用户未登录，返回空结果
-            queryWrapper.eq("1", "0");
+            result = mcpToolService.page(new Page<>(page, size), new QueryWrapper<McpTool>().eq("1", "0"));
         }
 
-        Page<McpTool> toolPage = new Page<>(page, size);
-        IPage<McpTool> result = mcpToolService.page(toolPage, queryWrapper);
-
         model.addAttribute("tools", result.getRecords());
         model.addAttribute("currentPage", page);
         model.addAttribute("totalPages", result.getPages());
         model.addAttribute("totalRecords", result.getTotal());
         model.addAttribute("keyword", keyword);
+        model.addAttribute("convertType", convertType);
+        model.addAttribute("toolType", toolType);
+        model.addAttribute("valid", valid);
+        model.addAttribute("facets", facets);
 
         return "mcp-tools/list";
     }
 
+    /**
+     * 按相关度排序的分面搜索 - JSON API
+     */
+    @GetMapping("/api/search/ranked")
+    @ResponseBody
+    public ResponseEntity<McpToolSearchResult> rankedSearchApi(@RequestParam(defaultValue = "") String keyword,
+                                                               @RequestParam(required = false) String convertType,
+                                                               @RequestParam(required = false) String toolType,
+                                                               @RequestParam(required = false) String valid,
+                                                               @RequestParam(defaultValue = "1") int page,
+                                                               @RequestParam(defaultValue = "10") int size,
+                                                               HttpSession session) {
+        try {
+            Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+            if (currentProviderId == null) {
+                return ResponseEntity.status(401).body(null);
+            }
+            return ResponseEntity.ok(mcpToolService.rankedSearch(keyword, currentProviderId, convertType, toolType,
+                    valid, page, size));
+        } catch (Exception e) {
+            log.error("排序搜索MCP工具失败", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * 根据唯一标识查找工具
      */
@@ -568,6 +621,50 @@ public class McpToolController {
         }
     }
 
+    /**
+     * 批量导入工具
+     * 支持批量导出生成的ndjson或zip文件，按块校验和写入，返回逐条结果
+     *
+     * @param file    导入文件，扩展名为.zip时按zip解析，否则按ndjson解析
+     * @param dryRun  为true时只校验不写入
+     * @param session HTTP会话
+     * @return 导入报告
+     */
+    @PostMapping("/api/import/batch")
+    @ResponseBody
+    public ResponseEntity<?> importTools(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                         HttpSession session) {
+        log.info("接收到批量导入请求: fileName={}, size={}, dryRun={}", file.getOriginalFilename(), file.getSize(),
+                dryRun);
+
+        try {
+            Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+            if (currentProviderId == null) {
+                log.warn("用户未登录,无法批量导入工具");
+                return ResponseEntity.status(401).body("用户未登录,请先登录");
+            }
+            if (file.isEmpty()) {
+                return ResponseEntity.status(400).body(new ImportErrorResponse(false, "导入文件不能为空"));
+            }
+
+            String fileName = file.getOriginalFilename();
+            String format = fileName != null && fileName.toLowerCase().endsWith(".zip")
+                    ? McpToolBundleService.FORMAT_ZIP : McpToolBundleService.FORMAT_NDJSON;
+            String username = PermissionUtil.getCurrentProvider(session).getUsername();
+            try (InputStream in = file.getInputStream()) {
+                return ResponseEntity.ok(mcpToolBatchImportService.importTools(in, format, dryRun,
+                        currentProviderId, username));
+            }
+        } catch (Exception e) {
+            log.error("批量导入工具失败", e);
+            return ResponseEntity.status(500).body(new ImportErrorResponse(
+                    false,
+                    "导入失败: " + e.getMessage()
+            ));
+        }
+    }
+
     /**
      * 发布工具到目标数据库 (wind_mcp_server)
      * 将工具数据从mcp_registry发布到wind_mcp_server数据库
@@ -677,59 +774,22 @@ public class McpToolController {
         log.info("导出MCP工具: id={}", id);
 
         try {
-            // 1. 查询MCP工具基本信息
-            McpTool tool = mcpToolService.getById(id);
-            if (tool == null) {
+            // 1. 一次查询工具及其原始接口、转换模板
+            McpToolBundle bundle = mcpToolBundleService.getBundle(id);
+            if (bundle == null) {
                 log.warn("工具不存在: id={}", id);
                 return ResponseEntity.notFound().build();
             }
+            McpTool tool = bundle.getMcpTool();
 
-            // 2. 创建导出DTO
+            // 2. 创建导出DTO，只导出convertType对应的原始接口，转换模板已按convertType关联
+            String convertType = McpToolSearchIndex.normalizeConvertType(tool.getConvertType());
             McpToolExportDto exportDto = new McpToolExportDto();
             exportDto.setMcpTool(tool);
-
-            // 3. 根据convertType查询对应的原始接口和转换模板
-            String convertType = tool.getConvertType();
-            Long toolNum = tool.getToolNum();
-
-            if (toolNum != null && convertType != null) {
-                // HTTP类型: convertType='1'或包含"http"
-                if ("1".equals(convertType) || convertType.toLowerCase().contains("http")) {
-                    // 查询原始HTTP接口
-                    QueryWrapper<OriginToolHttp> httpWrapper = new QueryWrapper<>();
-                    httpWrapper.eq("provider_tool_num", toolNum);
-                    OriginToolHttp httpTool = originToolHttpMapper.selectOne(httpWrapper);
-                    exportDto.setOriginToolHttp(httpTool);
-
-                    // 查询HTTP转换模板
-                    QueryWrapper<HttpTemplateConverter> httpConverterWrapper = new QueryWrapper<>();
-                    httpConverterWrapper.eq("tool_num", toolNum);
-                    HttpTemplateConverter httpConverter = httpTemplateConverterMapper.selectOne(httpConverterWrapper);
-                    exportDto.setHttpTemplateConverter(httpConverter);
-
-                    log.info("导出HTTP工具: httpTool={}, httpConverter={}",
-                            httpTool != null ? "有" : "无",
-                            httpConverter != null ? "有" : "无");
-                }
-                // Expo类型: convertType='2'或包含"expo"
-                else if ("2".equals(convertType) || convertType.toLowerCase().contains("expo")) {
-                    // 查询原始Expo接口
-                    QueryWrapper<OriginToolExpo> expoWrapper = new QueryWrapper<>();
-                    expoWrapper.eq("provider_tool_num", toolNum);
-                    OriginToolExpo expoTool = originToolExpoMapper.selectOne(expoWrapper);
-                    exportDto.setOriginToolExpo(expoTool);
-
-                    // 查询Expo转换模板
-                    QueryWrapper<ExpoTemplateConverter> expoConverterWrapper = new QueryWrapper<>();
-                    expoConverterWrapper.eq("tool_num", toolNum);
-                    ExpoTemplateConverter expoConverter = expoTemplateConverterMapper.selectOne(expoConverterWrapper);
-                    exportDto.setExpoTemplateConverter(expoConverter);
-
-                    log.info("导出Expo工具: expoTool={}, expoConverter={}",
-                            expoTool != null ? "有" : "无",
-                            expoConverter != null ? "有" : "无");
-                }
-            }
+            exportDto.setOriginToolHttp("http".equals(convertType) ? bundle.getOriginToolHttp() : null);
+            exportDto.setOriginToolExpo("expo".equals(convertType) ? bundle.getOriginToolExpo() : null);
+            exportDto.setHttpTemplateConverter(bundle.getHttpTemplateConverter());
+            exportDto.setExpoTemplateConverter(bundle.getExpoTemplateConverter());
 
             log.info("工具导出成功: id={}, toolName={}", id, tool.getToolName());
 
@@ -749,6 +809,60 @@ public class McpToolController {
         }
     }
 
+    /**
+     * 批量导出工具
+     * ndjson格式每行一个McpToolExportDto，zip格式每个工具一个JSON文件；
+     * 边查询边写出响应，导出数量不受内存限制
+     *
+     * @param format      导出格式: ndjson(默认)/zip
+     * @param providerId  提供者ID，仅管理员可指定，其他用户固定为当前提供者
+     * @param convertType 转换类型
+     * @param toolType    工具类型
+     * @param valid       是否有效
+     * @param vserverId   虚拟服务器ID，只导出该服务器下启用的工具
+     * @param session     HTTP会话
+     * @return 流式响应
+     */
+    @GetMapping("/api/export")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> exportTools(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @RequestParam(required = false) Long providerId,
+                                                             @RequestParam(required = false) String convertType,
+                                                             @RequestParam(required = false) String toolType,
+                                                             @RequestParam(required = false) String valid,
+                                                             @RequestParam(required = false) String vserverId,
+                                                             HttpSession session) {
+        log.info("批量导出MCP工具: format={}, providerId={}, convertType={}, toolType={}, valid={}, vserverId={}",
+                format, providerId, convertType, toolType, valid, vserverId);
+
+        Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+        if (currentProviderId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        boolean zip = McpToolBundleService.FORMAT_ZIP.equalsIgnoreCase(format);
+        if (!zip && !McpToolBundleService.FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Provider currentProvider = PermissionUtil.getCurrentProvider(session);
+        boolean global = "pczhou".equals(currentProvider.getUsername());
+        McpToolExportFilter filter = new McpToolExportFilter();
+        filter.setProviderId(global ? providerId : currentProviderId);
+        filter.setConvertType(convertType);
+        filter.setToolType(toolType);
+        filter.setValid(valid);
+        filter.setVserverId(vserverId);
+
+        String exportFormat = zip ? McpToolBundleService.FORMAT_ZIP : McpToolBundleService.FORMAT_NDJSON;
+        StreamingResponseBody body = out -> mcpToolBundleService.exportBundles(filter, exportFormat, out);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(zip ? MediaType.parseMediaType("application/zip")
+                : MediaType.parseMediaType("application/x-ndjson"));
+        headers.setContentDispositionFormData("attachment", "mcp-tools." + (zip ? "zip" : "ndjson"));
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
     /**
      * 导入错误响应DTO
      */
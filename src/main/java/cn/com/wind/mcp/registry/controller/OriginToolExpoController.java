@@ -1,10 +1,13 @@
 package cn.com.wind.mcp.registry.controller;
 // Force recompile
 
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
 import cn.com.wind.mcp.registry.entity.OriginProviderConfig;
 import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
 import cn.com.wind.mcp.registry.service.OriginProviderConfigService;
 import cn.com.wind.mcp.registry.service.OriginToolExpoService;
+import cn.com.wind.mcp.registry.util.CursorPageUtil;
 import cn.com.wind.mcp.registry.util.PermissionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -12,6 +15,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +42,9 @@ public class OriginToolExpoController {
     @Autowired
     private OriginProviderConfigService originProviderConfigService;
 
+    @Autowired
+    private IdAllocatorService idAllocatorService;
+
     /**
      * Expo接口列表页面
      *
@@ -64,7 +71,8 @@ public class OriginToolExpoController {
         } else {
             // 查询用户自己的工具（默认行为）
             QueryWrapper<OriginToolExpo> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("provider_id", currentProviderId);
+            queryWrapper.select(OriginToolExpoService.SUMMARY_COLUMNS)
+                    .eq("provider_id", currentProviderId);
             result = originToolExpoService.page(toolPage, queryWrapper);
         }
 
@@ -77,6 +85,37 @@ public class OriginToolExpoController {
         return "origin-tools-expo/list";
     }
 
+    /**
+     * Expo接口列表 - 游标分页 JSON API
+     *
+     * @param cursor  游标，首页不传
+     * @param size    每页大小
+     * @param session 会话
+     * @return 游标分页结果
+     */
+    @GetMapping("/api/list/cursor")
+    @ResponseBody
+    public ResponseEntity<CursorPage<OriginToolExpo>> listCursorApi(@RequestParam(required = false) Long cursor,
+                                                               @RequestParam(defaultValue = "20") int size,
+                                                               HttpSession session) {
+        log.info("游标查询原始Expo接口列表: cursor={}, size={}", cursor, size);
+
+        Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+        if (currentProviderId == null) {
+            return ResponseEntity.status(401).body(null);
+        }
+        try {
+            QueryWrapper<OriginToolExpo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("provider_id", currentProviderId);
+            return ResponseEntity.ok(CursorPageUtil.seek(originToolExpoService, queryWrapper, cursor, size,
+                    OriginToolExpo::getId, "origin_tool_expo:provider:" + currentProviderId,
+                    OriginToolExpoService.SUMMARY_COLUMNS));
+        } catch (Exception e) {
+            log.error("游标查询原始Expo接口列表失败", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * Expo接口详情页面
      *
@@ -199,9 +238,9 @@ public class OriginToolExpoController {
             tool.setUpdateTime(LocalDateTime.now());
             tool.setUpdateBy(currentUser);
 
-            // 自动生成providerToolNum: 使用时间戳确保唯一性
+            // 自动生成providerToolNum: 与工具编号共用编号分配
             if (tool.getProviderToolNum() == null) {
-                tool.setProviderToolNum(System.currentTimeMillis());
+                tool.setProviderToolNum(idAllocatorService.nextId(IdAllocatorService.TOOL_NUM));
             }
         } else {
             // 更新 - 检查权限
@@ -281,8 +320,9 @@ public class OriginToolExpoController {
 
         QueryWrapper<OriginToolExpo> queryWrapper = new QueryWrapper<>();
         if (currentProviderId != null) {
-            // 只搜索当前用户的工具
-            queryWrapper.eq("provider_id", currentProviderId)
+            // 只搜索当前用户的工具，列表只查询摘要列
+            queryWrapper.select(OriginToolExpoService.SUMMARY_COLUMNS)
+                    .eq("provider_id", currentProviderId)
                     .and(wrapper -> wrapper
                             .like("name_display", keyword)
                             .or()
@@ -1,9 +1,11 @@
 package cn.com.wind.mcp.registry.controller;
 
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
 import cn.com.wind.mcp.registry.entity.OriginProviderConfig;
 import cn.com.wind.mcp.registry.entity.OriginToolHttp;
 import cn.com.wind.mcp.registry.service.OriginProviderConfigService;
 import cn.com.wind.mcp.registry.service.OriginToolHttpService;
+import cn.com.wind.mcp.registry.util.CursorPageUtil;
 import cn.com.wind.mcp.registry.util.PermissionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -11,6 +13,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -58,7 +61,8 @@ public class OriginToolHttpController {
         } else {
             // 查询用户自己的工具（默认行为）
             QueryWrapper<OriginToolHttp> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("provider_id", currentProviderId);
+            queryWrapper.select(OriginToolHttpService.SUMMARY_COLUMNS)
+                    .eq("provider_id", currentProviderId);
             result = originToolHttpService.page(toolPage, queryWrapper);
         }
 
@@ -70,6 +74,37 @@ public class OriginToolHttpController {
         return "origin-http-tools/list";
     }
 
+    /**
+     * HTTP接口列表 - 游标分页 JSON API
+     *
+     * @param cursor  游标，首页不传
+     * @param size    每页大小
+     * @param session 会话
+     * @return 游标分页结果
+     */
+    @GetMapping("/api/list/cursor")
+    @ResponseBody
+    public ResponseEntity<CursorPage<OriginToolHttp>> listCursorApi(@RequestParam(required = false) Long cursor,
+                                                               @RequestParam(defaultValue = "20") int size,
+                                                               HttpSession session) {
+        log.info("游标查询原始HTTP接口列表: cursor={}, size={}", cursor, size);
+
+        Long currentProviderId = PermissionUtil.getCurrentProviderId(session);
+        if (currentProviderId == null) {
+            return ResponseEntity.status(401).body(null);
+        }
+        try {
+            QueryWrapper<OriginToolHttp> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("provider_id", currentProviderId);
+            return ResponseEntity.ok(CursorPageUtil.seek(originToolHttpService, queryWrapper, cursor, size,
+                    OriginToolHttp::getId, "origin_tool_http:provider:" + currentProviderId,
+                    OriginToolHttpService.SUMMARY_COLUMNS));
+        } catch (Exception e) {
+            log.error("游标查询原始HTTP接口列表失败", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
+
     /**
      * HTTP接口详情页面
      *
@@ -247,8 +282,9 @@ public class OriginToolHttpController {
 
         QueryWrapper<OriginToolHttp> queryWrapper = new QueryWrapper<>();
         if (currentProviderId != null) {
-            // 只搜索当前用户的工具
-            queryWrapper.eq("provider_id", currentProviderId)
+            // 只搜索当前用户的工具，列表只查询摘要列
+            queryWrapper.select(OriginToolHttpService.SUMMARY_COLUMNS)
+                    .eq("provider_id", currentProviderId)
                     .and(wrapper -> wrapper
                             .like("name_display", keyword)
                             .or()
@@ -1,10 +1,12 @@
 package cn.com.wind.mcp.registry.controller;
 
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
 import cn.com.wind.mcp.registry.entity.OriginProviderConfig;
 import cn.com.wind.mcp.registry.entity.OriginToolExpo;
 import cn.com.wind.mcp.registry.entity.OriginToolHttp;
 import cn.com.wind.mcp.registry.entity.Provider;
 import cn.com.wind.mcp.registry.service.OriginProviderConfigService;
+import cn.com.wind.mcp.registry.util.CursorPageUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -177,6 +179,65 @@ public class ProviderAppController {
         return result;
     }
 
+    /**
+     * 游标分页查询应用节点列表
+     * <p>
+     * 按id倒序，下一页传入上一页返回的nextCursor；total为短期缓存的近似总数
+     * </p>
+     *
+     * @param cursor    游标，首页不传
+     * @param pageSize  每页大小
+     * @param appName   应用名称(可选)
+     * @param siteType  站点类型(可选)
+     * @param isEnabled 是否启用(可选)
+     * @param session   HttpSession
+     * @return 分页结果
+     */
+    @GetMapping("/page/cursor")
+    @ResponseBody
+    public Map<String, Object> pageByCursor(@RequestParam(required = false) Long cursor,
+                                            @RequestParam(defaultValue = "10") Integer pageSize,
+                                            @RequestParam(required = false) String appName,
+                                            @RequestParam(required = false) String siteType,
+                                            @RequestParam(required = false) Boolean isEnabled,
+                                            HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            Provider provider = (Provider) session.getAttribute("currentProvider");
+            if (provider == null) {
+                result.put("success", false);
+                result.put("message", "用户未登录");
+                return result;
+            }
+
+            QueryWrapper<OriginProviderConfig> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("provider_id", provider.getId());
+            queryWrapper.ne("status", -1); // 排除已删除的
+            queryWrapper.like(StrUtil.isNotBlank(appName), "app_name", appName);
+            queryWrapper.eq(StrUtil.isNotBlank(siteType), "site_type", siteType);
+            queryWrapper.eq(isEnabled != null, "is_enabled", isEnabled);
+
+            String countKey = "origin_provider_config:provider:" + provider.getId()
+                    + ":" + StrUtil.nullToEmpty(appName) + ":" + StrUtil.nullToEmpty(siteType) + ":" + isEnabled;
+            CursorPage<OriginProviderConfig> cursorPage = CursorPageUtil.seek(originProviderConfigService,
+                    queryWrapper, cursor, pageSize, OriginProviderConfig::getId, countKey);
+
+            result.put("success", true);
+            result.put("total", cursorPage.getTotal());
+            result.put("records", cursorPage.getRecords());
+            result.put("size", cursorPage.getSize());
+            result.put("nextCursor", cursorPage.getNextCursor());
+            result.put("hasMore", cursorPage.isHasMore());
+        } catch (Exception e) {
+            log.error("游标分页查询应用节点失败", e);
+            result.put("success", false);
+            result.put("message", "查询失败: " + e.getMessage());
+        }
+
+        return result;
+    }
+
     /**
      * 根据应用名称查询节点列表(用于弹窗展示)
      * <p>
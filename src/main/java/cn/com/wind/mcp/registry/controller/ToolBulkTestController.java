@@ -0,0 +1,121 @@
+package cn.com.wind.mcp.registry.controller;
+
+import cn.com.wind.mcp.registry.dto.common.Result;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestJob;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestRequest;
+import cn.com.wind.mcp.registry.entity.Provider;
+import cn.com.wind.mcp.registry.service.McpToolBulkTestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 批量工具测试Controller
+ * 发布后对一批工具(或整个虚拟服务器)做冒烟测试
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/tools/bulk-test")
+@RequiredArgsConstructor
+public class ToolBulkTestController {
+
+    private final McpToolBulkTestService mcpToolBulkTestService;
+
+    /**
+     * 任务完成事件SSE连接超时(毫秒)
+     */
+    private static final long BULK_TEST_EMITTER_TIMEOUT = 30 * 60 * 1000L;
+
+    /**
+     * 提交批量测试
+     * 立即返回任务ID，测试在后台执行，通过轮询或SSE获取报告
+     *
+     * @param bulkTestRequest 测试请求
+     * @param request         HTTP请求
+     * @param session         HTTP会话
+     * @return 任务ID和状态
+     */
+    @PostMapping
+    public Result<McpToolBulkTestJob> submit(@RequestBody McpToolBulkTestRequest bulkTestRequest,
+                                             HttpServletRequest request, HttpSession session) {
+        Provider currentProvider = (Provider) session.getAttribute("currentProvider");
+        if (currentProvider == null) {
+            return Result.fail("用户未登录");
+        }
+
+        String sessionId = request.getHeader("windsessionid");
+        if (sessionId == null) {
+            sessionId = request.getHeader("wind.sessionid");
+        }
+        if (sessionId == null) {
+            sessionId = request.getHeader("X-Session-Id");
+        }
+        if (sessionId == null) {
+            return Result.fail("缺少 sessionId");
+        }
+
+        try {
+            McpToolBulkTestJob job = mcpToolBulkTestService.submit(bulkTestRequest, sessionId,
+                    currentProvider.getId(), currentProvider.getUsername());
+            return Result.success(job);
+        } catch (Exception e) {
+            log.error("提交批量测试失败", e);
+            return Result.fail("提交批量测试失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询批量测试任务
+     *
+     * @param jobId 任务ID
+     * @return 任务状态、进度和报告
+     */
+    @GetMapping("/{jobId}")
+    public Result<McpToolBulkTestJob> getJob(@PathVariable String jobId) {
+        McpToolBulkTestJob job = mcpToolBulkTestService.getJob(jobId);
+        if (job == null) {
+            return Result.fail("批量测试任务不存在或已过期");
+        }
+        return Result.success(job);
+    }
+
+    /**
+     * 订阅批量测试任务完成事件
+     * 任务结束时推送一个done事件(内容与查询接口相同)后关闭连接
+     *
+     * @param jobId 任务ID
+     * @return SSE连接
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(BULK_TEST_EMITTER_TIMEOUT);
+        McpToolBulkTestJob job = mcpToolBulkTestService.getJob(jobId);
+        if (job == null) {
+            emitter.completeWithError(new IllegalArgumentException("批量测试任务不存在或已过期: " + jobId));
+            return emitter;
+        }
+
+        job.getCompletion().thenAccept(done -> {
+            try {
+                emitter.send(SseEmitter.event().name("done").data(done, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("推送批量测试完成事件失败: jobId={}, {}", jobId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+}
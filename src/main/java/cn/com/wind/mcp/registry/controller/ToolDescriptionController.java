@@ -1,11 +1,13 @@
 package cn.com.wind.mcp.registry.controller;
 
 import cn.com.wind.mcp.registry.dto.common.Result;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolTestJob;
 import cn.com.wind.mcp.registry.entity.McpTool;
 import cn.com.wind.mcp.registry.entity.Provider;
 import cn.com.wind.mcp.registry.service.McpClientService;
 import cn.com.wind.mcp.registry.service.McpTestSuccessRecordService;
 import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.McpToolTestJobService;
 import cn.com.wind.mcp.registry.service.VserverItemsService;
 import cn.hutool.json.JSONUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,12 +15,15 @@ import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @RestController
@@ -29,6 +34,17 @@ public class ToolDescriptionController {
     private final McpTestSuccessRecordService mcpTestSuccessRecordService;
     private final McpToolService mcpToolService;
     private final VserverItemsService vserverItemsService;
+    private final McpToolTestJobService mcpToolTestJobService;
+
+    /**
+     * 任务完成事件SSE连接超时(毫秒)
+     */
+    private static final long TEST_JOB_EMITTER_TIMEOUT = 5 * 60 * 1000L;
+
+    /**
+     * 流式测试SSE连接超时(毫秒)
+     */
+    private static final long TEST_STREAM_EMITTER_TIMEOUT = 10 * 60 * 1000L;
 
     @PostMapping("/tools/{id}/test")
     public Result<Map<String, Object>> testTool(
@@ -46,20 +62,7 @@ public class ToolDescriptionController {
 
             // 确保vserver_items记录存在
             McpTool mcpTool = mcpToolService.getById(id);
-            if (mcpTool != null) {
-                try {
-                    vserverItemsService.ensureVserverItemExists(
-                            "vserver_test",
-                            mcpTool.getToolNum(),
-                            mcpTool.getToolType(),
-                            "system"
-                    );
-                    log.info("已确保vserver_items记录存在: toolNum={}", mcpTool.getToolNum());
-                } catch (Exception e) {
-                    log.error("确保vserver_items记录时出错", e);
-                    // 不影响主流程,继续执行
-                }
-            }
+            ensureTestVserverItem(mcpTool);
             if (true) {
                 // 读取 mock.json 文件并返回
                 ClassPathResource resource = new ClassPathResource("config/mock.json");
@@ -75,24 +78,7 @@ public class ToolDescriptionController {
             }
 
             // 多种方式获取 sessionId
-            String sessionId = null;
-
-            // 1. 从请求体获取
-            if (requestBody.containsKey("sessionId")) {
-                sessionId = (String) requestBody.remove("sessionId");
-            }
-
-            // 2. 从请求头获取
-            if (sessionId == null) {
-                sessionId = request.getHeader("windsessionid");
-            }
-            if (sessionId == null) {
-                sessionId = request.getHeader("wind.sessionid");
-            }
-            if (sessionId == null) {
-                sessionId = request.getHeader("X-Session-Id");
-            }
-
+            String sessionId = resolveSessionId(requestBody, request);
             log.info("获取到的 sessionId: {}", sessionId);
 
             if (sessionId == null) {
@@ -113,6 +99,209 @@ public class ToolDescriptionController {
         }
     }
 
+    /**
+     * 异步测试工具
+     * 立即返回任务ID，测试在后台执行，通过轮询或SSE获取结果
+     *
+     * @param id          工具ID
+     * @param requestBody 工具参数，可包含sessionId
+     * @param request     HTTP请求
+     * @return 任务ID和状态
+     */
+    @PostMapping("/tools/{id}/test/async")
+    public Result<McpToolTestJob> submitTestJob(
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> requestBody,
+            HttpServletRequest request) {
+
+        try {
+            McpTool mcpTool = mcpToolService.getById(id);
+            if (mcpTool == null) {
+                return Result.fail("工具不存在");
+            }
+            ensureTestVserverItem(mcpTool);
+
+            String sessionId = resolveSessionId(requestBody, request);
+            if (sessionId == null) {
+                return Result.fail("缺少 sessionId");
+            }
+
+            McpToolTestJob job = mcpToolTestJobService.submit(mcpTool.getToolNum(), requestBody, sessionId);
+            return Result.success(job);
+        } catch (Exception e) {
+            log.error("提交异步测试任务时出错", e);
+            return Result.fail("提交测试任务失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询异步测试任务
+     *
+     * @param jobId 任务ID
+     * @return 任务状态和结果
+     */
+    @GetMapping("/tools/test-jobs/{jobId}")
+    public Result<McpToolTestJob> getTestJob(@PathVariable String jobId) {
+        McpToolTestJob job = mcpToolTestJobService.getJob(jobId);
+        if (job == null) {
+            return Result.fail("测试任务不存在或已过期");
+        }
+        return Result.success(job);
+    }
+
+    /**
+     * 订阅异步测试任务完成事件
+     * 任务结束时推送一个done事件(内容与查询接口相同)后关闭连接
+     *
+     * @param jobId 任务ID
+     * @return SSE连接
+     */
+    @GetMapping(value = "/tools/test-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeTestJob(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(TEST_JOB_EMITTER_TIMEOUT);
+        McpToolTestJob job = mcpToolTestJobService.getJob(jobId);
+        if (job == null) {
+            emitter.completeWithError(new IllegalArgumentException("测试任务不存在或已过期: " + jobId));
+            return emitter;
+        }
+
+        job.getCompletion().thenAccept(done -> {
+            try {
+                emitter.send(SseEmitter.event().name("done").data(done, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("推送测试任务完成事件失败: jobId={}, {}", jobId, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 流式测试工具(适用于开启streamOutput的工具)
+     * MCP服务器推送的进度、日志等消息以message事件实时转发，最终结果以result事件推送后关闭连接；
+     * 浏览器断开时停止读取并关闭到MCP服务器的请求。未开启streamOutput的工具按单次调用执行，只推送result事件
+     *
+     * @param id          工具ID
+     * @param requestBody 工具参数，可包含sessionId
+     * @param request     HTTP请求
+     * @return SSE连接
+     */
+    @PostMapping(value = "/tools/{id}/test/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTestTool(
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> requestBody,
+            HttpServletRequest request) {
+
+        SseEmitter emitter = new SseEmitter(TEST_STREAM_EMITTER_TIMEOUT);
+        McpTool mcpTool = mcpToolService.getById(id);
+        if (mcpTool == null) {
+            emitter.completeWithError(new IllegalArgumentException("工具不存在: " + id));
+            return emitter;
+        }
+        String sessionId = resolveSessionId(requestBody, request);
+        if (sessionId == null) {
+            emitter.completeWithError(new IllegalArgumentException("缺少 sessionId"));
+            return emitter;
+        }
+        ensureTestVserverItem(mcpTool);
+
+        if (!"1".equals(mcpTool.getStreamOutput())) {
+            // 非流式工具没有中间消息，按单次调用执行，结果同样以result事件推送
+            mcpClientService.testToolWithSessionIdAsync(mcpTool.getToolNum(), requestBody, sessionId)
+                    .whenComplete((result, ex) -> sendStreamResult(emitter, mcpTool, result, ex));
+            return emitter;
+        }
+
+        // 浏览器断开、超时或出错后不再转发，监听器返回false让客户端关闭上游响应流
+        AtomicBoolean closed = new AtomicBoolean(false);
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+
+        mcpClientService.streamToolWithSessionId(mcpTool.getToolNum(), requestBody, sessionId, message -> {
+            if (closed.get()) {
+                return false;
+            }
+            try {
+                // 在读取上游的线程上同步写出，浏览器读得慢时上游读取随之放慢
+                emitter.send(SseEmitter.event().name("message").data(message, MediaType.APPLICATION_JSON));
+                return true;
+            } catch (Exception e) {
+                log.info("浏览器已断开，停止转发: toolNum={}, {}", mcpTool.getToolNum(), e.getMessage());
+                closed.set(true);
+                return false;
+            }
+        }).whenComplete((result, ex) -> {
+            if (!closed.get()) {
+                sendStreamResult(emitter, mcpTool, result, ex);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 推送最终结果(result事件)后关闭SSE连接
+     */
+    private void sendStreamResult(SseEmitter emitter, McpTool mcpTool, Map<String, Object> result, Throwable ex) {
+        try {
+            if (ex != null) {
+                emitter.completeWithError(ex);
+                return;
+            }
+            emitter.send(SseEmitter.event().name("result").data(result, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (Exception e) {
+            log.warn("推送流式测试结果失败: toolNum={}, {}", mcpTool.getToolNum(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * 从请求体或请求头获取 sessionId，请求体中的sessionId会被移除，剩余内容作为工具参数
+     */
+    private String resolveSessionId(Map<String, Object> requestBody, HttpServletRequest request) {
+        String sessionId = null;
+
+        // 1. 从请求体获取
+        if (requestBody.containsKey("sessionId")) {
+            sessionId = (String) requestBody.remove("sessionId");
+        }
+
+        // 2. 从请求头获取
+        if (sessionId == null) {
+            sessionId = request.getHeader("windsessionid");
+        }
+        if (sessionId == null) {
+            sessionId = request.getHeader("wind.sessionid");
+        }
+        if (sessionId == null) {
+            sessionId = request.getHeader("X-Session-Id");
+        }
+        return sessionId;
+    }
+
+    /**
+     * 确保工具在测试虚拟服务器中存在，失败不影响测试
+     */
+    private void ensureTestVserverItem(McpTool mcpTool) {
+        if (mcpTool == null) {
+            return;
+        }
+        try {
+            vserverItemsService.ensureVserverItemExists(
+                    "vserver_test",
+                    mcpTool.getToolNum(),
+                    mcpTool.getToolType(),
+                    "system"
+            );
+            log.info("已确保vserver_items记录存在: toolNum={}", mcpTool.getToolNum());
+        } catch (Exception e) {
+            log.error("确保vserver_items记录时出错", e);
+            // 不影响主流程,继续执行
+        }
+    }
+
     /**
      * 保存测试成功记录
      * 当用户确认测试成功后,将完整的测试信息保存到数据库
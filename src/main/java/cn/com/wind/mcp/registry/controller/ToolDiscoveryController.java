@@ -0,0 +1,93 @@
+package cn.com.wind.mcp.registry.controller;
+
+import cn.com.wind.mcp.registry.dto.common.Result;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDriftReport;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolListing;
+import cn.com.wind.mcp.registry.entity.Provider;
+import cn.com.wind.mcp.registry.service.McpToolDiscoveryService;
+import cn.com.wind.mcp.registry.util.PermissionUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 工具发现Controller
+ * 查看虚拟服务器实际暴露的工具，并与注册表对账
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/vservers/{vserverId}/tools")
+@RequiredArgsConstructor
+public class ToolDiscoveryController {
+
+    private final McpToolDiscoveryService mcpToolDiscoveryService;
+
+    /**
+     * 实际暴露的工具列表(缓存)
+     *
+     * @param vserverId 虚拟服务器ID
+     * @param refresh   是否忽略缓存
+     * @param request   HTTP请求
+     * @param session   HTTP会话
+     * @return 工具列表
+     */
+    @GetMapping
+    public Result<McpToolListing> list(@PathVariable String vserverId,
+                                       @RequestParam(defaultValue = "false") boolean refresh,
+                                       HttpServletRequest request, HttpSession session) {
+        try {
+            return Result.success(mcpToolDiscoveryService.listTools(vserverId, currentUsername(session),
+                    resolveSessionId(request), refresh));
+        } catch (Exception e) {
+            log.error("获取工具列表失败: vserverId={}", vserverId, e);
+            return Result.fail("获取工具列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 与注册表对账
+     *
+     * @param vserverId 虚拟服务器ID
+     * @param refresh   是否忽略缓存
+     * @param request   HTTP请求
+     * @param session   HTTP会话
+     * @return 差异报告
+     */
+    @GetMapping("/drift")
+    public Result<McpToolDriftReport> drift(@PathVariable String vserverId,
+                                            @RequestParam(defaultValue = "false") boolean refresh,
+                                            HttpServletRequest request, HttpSession session) {
+        try {
+            return Result.success(mcpToolDiscoveryService.reconcile(vserverId, currentUsername(session),
+                    resolveSessionId(request), refresh));
+        } catch (Exception e) {
+            log.error("工具对账失败: vserverId={}", vserverId, e);
+            return Result.fail("工具对账失败: " + e.getMessage());
+        }
+    }
+
+    private String currentUsername(HttpSession session) {
+        Provider provider = PermissionUtil.getCurrentProvider(session);
+        return provider != null ? provider.getUsername() : null;
+    }
+
+    private String resolveSessionId(HttpServletRequest request) {
+        String sessionId = request.getHeader("windsessionid");
+        if (sessionId == null) {
+            sessionId = request.getHeader("wind.sessionid");
+        }
+        if (sessionId == null) {
+            sessionId = request.getHeader("X-Session-Id");
+        }
+        return sessionId;
+    }
+}
@@ -7,6 +7,7 @@ import cn.com.wind.mcp.registry.entity.McpTool;
 import cn.com.wind.mcp.registry.entity.OriginToolHttp;
 import cn.com.wind.mcp.registry.service.ExpoTemplateConverterService;
 import cn.com.wind.mcp.registry.service.HttpTemplateConverterService;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
 import cn.com.wind.mcp.registry.service.McpToolService;
 import cn.com.wind.mcp.registry.service.OriginToolHttpService;
 import cn.com.wind.mcp.registry.util.PermissionUtil;
@@ -43,6 +44,9 @@ public class ToolWizardController {
     @Autowired
     private ExpoTemplateConverterService expoTemplateConverterService;
 
+    @Autowired
+    private IdAllocatorService idAllocatorService;
+
     /**
      * 工具录入向导首页
      */
@@ -81,8 +85,8 @@ public class ToolWizardController {
                 return "error:用户未登录,请先登录";
             }
 
-            // 生成提供者工具编号（使用当前时间戳）
-            Long providerToolNum = System.currentTimeMillis();
+            // 分配提供者工具编号
+            Long providerToolNum = idAllocatorService.nextId(IdAllocatorService.TOOL_NUM);
 
             // 场景判断: 如果selectedToolType不为空,说明用户选择了原始工具类型(完整流程)
             boolean hasOriginTool = dto.getSelectedToolType() != null &&
@@ -0,0 +1,41 @@
+package cn.com.wind.mcp.registry.dto.common;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标分页结果，按主键倒序，下一页传入nextCursor继续查询
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class CursorPage<T> {
+
+    /**
+     * 当前页记录
+     */
+    private List<T> records = new ArrayList<>();
+
+    /**
+     * 每页大小
+     */
+    private int size;
+
+    /**
+     * 下一页游标(本页最后一条记录的主键)，没有更多数据时为null
+     */
+    private Long nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 近似总数，短期缓存，不随每次翻页重新统计
+     */
+    private long total;
+}
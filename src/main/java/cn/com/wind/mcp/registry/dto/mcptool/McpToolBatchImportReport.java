@@ -0,0 +1,78 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入工具报告
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolBatchImportReport {
+
+    /**
+     * 是否仅校验不写入
+     */
+    private boolean dryRun;
+
+    /**
+     * 读取到的记录数
+     */
+    private int total;
+
+    /**
+     * 导入成功数(dryRun时为校验通过数)
+     */
+    private int succeeded;
+
+    /**
+     * 失败数
+     */
+    private int failed;
+
+    /**
+     * 整批耗时(毫秒)
+     */
+    private long elapsed;
+
+    /**
+     * 每条记录的结果，按读取顺序
+     */
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * 单条记录结果
+     */
+    @Data
+    public static class Item {
+
+        /**
+         * 序号，从1开始
+         */
+        private int index;
+
+        /**
+         * 来源: NDJSON为行号，ZIP为文件名
+         */
+        private String source;
+
+        private String toolName;
+
+        private boolean success;
+
+        /**
+         * 导入后的工具ID和编号，dryRun或失败时为null
+         */
+        private Long toolId;
+
+        private Long toolNum;
+
+        private List<String> errors = new ArrayList<>();
+
+        private List<String> warnings = new ArrayList<>();
+    }
+}
@@ -0,0 +1,74 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量工具测试任务
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolBulkTestJob {
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        /**
+         * 执行中
+         */
+        RUNNING,
+        /**
+         * 执行完成(各调用是否成功见report)
+         */
+        SUCCEEDED,
+        /**
+         * 执行异常
+         */
+        FAILED
+    }
+
+    private String jobId;
+
+    private volatile Status status = Status.RUNNING;
+
+    /**
+     * 调用总数
+     */
+    private int total;
+
+    /**
+     * 已完成的调用数
+     */
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private volatile McpToolBulkTestReport report;
+
+    private volatile String error;
+
+    private LocalDateTime submitTime;
+
+    private volatile LocalDateTime finishTime;
+
+    /**
+     * 任务状态更新完成后结束，用于SSE推送完成事件
+     */
+    @JsonIgnore
+    private CompletableFuture<McpToolBulkTestJob> completion;
+
+    /**
+     * 是否已结束
+     *
+     * @return 结束返回true
+     */
+    @JsonIgnore
+    public boolean isDone() {
+        return status != Status.RUNNING;
+    }
+}
@@ -0,0 +1,91 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 批量工具测试报告
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolBulkTestReport {
+
+    /**
+     * 调用总数
+     */
+    private int total;
+
+    /**
+     * 成功数
+     */
+    private int succeeded;
+
+    /**
+     * 失败数
+     */
+    private int failed;
+
+    /**
+     * 成功率(0~1)
+     */
+    private double successRate;
+
+    /**
+     * 延迟分位数(毫秒)
+     */
+    private long p50;
+
+    private long p95;
+
+    private long p99;
+
+    private long maxLatency;
+
+    /**
+     * 整批耗时(毫秒)
+     */
+    private long elapsed;
+
+    /**
+     * 被端点并发限制拒绝后重试的次数(重试成功的调用不计为失败)
+     */
+    private int overloadRetries;
+
+    /**
+     * 错误代码分布(mcp_tool_error_code -> 次数)，成功调用计为"0"
+     */
+    private Map<String, Integer> errorCodeHistogram = new TreeMap<>();
+
+    /**
+     * 每次调用的结果
+     */
+    private List<Run> runs = new ArrayList<>();
+
+    /**
+     * 单次调用结果
+     */
+    @Data
+    public static class Run {
+
+        private Long toolNum;
+
+        /**
+         * 参数组下标
+         */
+        private int argumentIndex;
+
+        private boolean success;
+
+        private long latency;
+
+        private String errorCode;
+
+        private String error;
+    }
+}
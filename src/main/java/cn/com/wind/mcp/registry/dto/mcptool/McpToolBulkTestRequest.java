@@ -0,0 +1,46 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量工具测试请求
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolBulkTestRequest {
+
+    /**
+     * 待测试的工具编号，与vserverId二选一(同时提供时合并)
+     */
+    private List<Long> toolNums;
+
+    /**
+     * 虚拟服务器ID，测试其下所有启用的工具
+     */
+    private String vserverId;
+
+    /**
+     * 参数组，每个工具按每组参数各调用一次；为空时以空参数调用一次
+     */
+    private List<Map<String, Object>> argumentSets;
+
+    /**
+     * 并行度，默认8
+     */
+    private Integer parallelism;
+
+    /**
+     * 每个JSON-RPC批量请求包含的调用数，默认1(不合并)；服务端不支持批量时逐个调用
+     */
+    private Integer batchSize;
+
+    /**
+     * 是否保存成功的测试记录
+     */
+    private boolean persistSuccess;
+}
@@ -0,0 +1,44 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import cn.com.wind.mcp.registry.entity.ExpoTemplateConverter;
+import cn.com.wind.mcp.registry.entity.HttpTemplateConverter;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.entity.OriginToolHttp;
+import lombok.Data;
+
+/**
+ * MCP工具聚合：工具本身、按provider_tool_num = tool_num关联的原始接口以及按转换类型关联的转换模板
+ * 由McpToolBundleMapper一次联表查询得到，未关联到的部分为null；原始接口不区分转换类型，按需取用由调用方决定
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolBundle {
+
+    /**
+     * MCP工具
+     */
+    private McpTool mcpTool;
+
+    /**
+     * 原始HTTP接口(provider_tool_num = tool_num)
+     */
+    private OriginToolHttp originToolHttp;
+
+    /**
+     * 原始Expo接口(provider_tool_num = tool_num)
+     */
+    private OriginToolExpo originToolExpo;
+
+    /**
+     * HTTP转换模板(convertType为http时)
+     */
+    private HttpTemplateConverter httpTemplateConverter;
+
+    /**
+     * Expo转换模板(convertType为expo时)
+     */
+    private ExpoTemplateConverter expoTemplateConverter;
+}
@@ -0,0 +1,29 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 单个工具调用(批量调用的一项)
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class McpToolCall {
+
+    /**
+     * 工具编号
+     */
+    private Long toolNum;
+
+    /**
+     * 工具参数
+     */
+    private Map<String, Object> arguments;
+}
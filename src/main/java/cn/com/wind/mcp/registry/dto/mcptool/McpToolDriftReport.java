@@ -0,0 +1,79 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 注册表与MCP服务器实际工具列表的差异报告
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolDriftReport {
+
+    /**
+     * 虚拟服务器ID
+     */
+    private String vserverId;
+
+    /**
+     * 工具列表获取时间
+     */
+    private LocalDateTime fetchTime;
+
+    /**
+     * 服务器实际暴露的工具数
+     */
+    private int liveCount;
+
+    /**
+     * 注册表中启用的工具数
+     */
+    private int registeredCount;
+
+    /**
+     * 已注册但服务器未暴露
+     */
+    private List<Item> missing = new ArrayList<>();
+
+    /**
+     * 服务器暴露但未注册(或未在该虚拟服务器启用)
+     */
+    private List<Item> extra = new ArrayList<>();
+
+    /**
+     * 名称一致但输入参数定义不同
+     */
+    private List<Item> schemaDrifted = new ArrayList<>();
+
+    /**
+     * 差异项
+     */
+    @Data
+    public static class Item {
+
+        /**
+         * 工具编号，服务器多出的工具为null
+         */
+        private Long toolNum;
+
+        private String toolName;
+
+        /**
+         * 差异说明
+         */
+        private String detail;
+
+        public static Item of(Long toolNum, String toolName, String detail) {
+            Item item = new Item();
+            item.setToolNum(toolNum);
+            item.setToolName(toolName);
+            item.setDetail(detail);
+            return item;
+        }
+    }
+}
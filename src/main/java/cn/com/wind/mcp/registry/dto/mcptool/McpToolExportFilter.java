@@ -0,0 +1,38 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+/**
+ * 批量导出工具的过滤条件，均为可选，多个条件同时生效
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolExportFilter {
+
+    /**
+     * 提供者ID
+     */
+    private Long providerId;
+
+    /**
+     * 转换类型: http/expo/code(或'1'/'2'/'3')
+     */
+    private String convertType;
+
+    /**
+     * 工具类型: '1' tool, '2' agent
+     */
+    private String toolType;
+
+    /**
+     * 是否有效: '1'/'0'
+     */
+    private String valid;
+
+    /**
+     * 虚拟服务器ID，只导出该虚拟服务器下启用的工具
+     */
+    private String vserverId;
+}
@@ -0,0 +1,37 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 虚拟服务器通过tools/list实际暴露的工具
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolListing {
+
+    /**
+     * 虚拟服务器ID
+     */
+    private String vserverId;
+
+    /**
+     * MCP地址
+     */
+    private String url;
+
+    /**
+     * 获取时间
+     */
+    private LocalDateTime fetchTime;
+
+    /**
+     * 工具定义(name、description、inputSchema等)
+     */
+    private List<Map<String, Object>> tools;
+}
@@ -0,0 +1,34 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import cn.com.wind.mcp.registry.entity.McpTool;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按相关度排序的工具搜索结果
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolSearchResult {
+
+    /**
+     * 当前页工具，按相关度从高到低
+     */
+    private IPage<McpTool> page;
+
+    /**
+     * 当前页各工具的相关度得分，与page.records一一对应
+     */
+    private List<Double> scores;
+
+    /**
+     * 分面计数：过滤项(convertType、toolType、valid、providerId) -> 取值 -> 数量；
+     * 索引未就绪时为空
+     */
+    private Map<String, Map<String, Integer>> facets;
+}
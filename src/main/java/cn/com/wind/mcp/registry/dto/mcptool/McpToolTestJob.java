@@ -0,0 +1,66 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步工具测试任务
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class McpToolTestJob {
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        /**
+         * 执行中
+         */
+        RUNNING,
+        /**
+         * 执行完成(工具本身是否报错见result.isError)
+         */
+        SUCCEEDED,
+        /**
+         * 执行异常
+         */
+        FAILED
+    }
+
+    private String jobId;
+
+    private Long toolNum;
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile Map<String, Object> result;
+
+    private volatile String error;
+
+    private LocalDateTime submitTime;
+
+    private volatile LocalDateTime finishTime;
+
+    /**
+     * 任务状态更新完成后结束，用于SSE推送完成事件
+     */
+    @JsonIgnore
+    private CompletableFuture<McpToolTestJob> completion;
+
+    /**
+     * 是否已结束
+     *
+     * @return 结束返回true
+     */
+    @JsonIgnore
+    public boolean isDone() {
+        return status != Status.RUNNING;
+    }
+}
@@ -0,0 +1,45 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 提供者名下的工具数量统计
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class ProviderToolCounts {
+
+    /**
+     * mcp_tool数量
+     */
+    private long mcpToolCount;
+
+    /**
+     * origin_tool_http数量
+     */
+    private long httpToolCount;
+
+    /**
+     * origin_tool_expo数量
+     */
+    private long expoToolCount;
+
+    /**
+     * mcp_tool按convertType分组的数量
+     */
+    private Map<String, Long> mcpToolByConvertType = new HashMap<>();
+
+    /**
+     * mcp_tool按valid分组的数量
+     */
+    private Map<String, Long> mcpToolByValid = new HashMap<>();
+
+    public long getTotalCount() {
+        return mcpToolCount + httpToolCount + expoToolCount;
+    }
+}
@@ -0,0 +1,43 @@
+package cn.com.wind.mcp.registry.dto.mcptool;
+
+import lombok.Data;
+
+/**
+ * 工具名称联想结果
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Data
+public class ToolSuggestion {
+
+    /**
+     * 来源表：mcp_tool、origin_tool_http、origin_tool_expo
+     */
+    private String source;
+
+    /**
+     * 来源表主键
+     */
+    private Long id;
+
+    /**
+     * 提供者ID
+     */
+    private Long providerId;
+
+    /**
+     * 工具编号(mcp_tool为tool_num，原始接口为provider_tool_num)
+     */
+    private Long toolNum;
+
+    /**
+     * 工具名称(mcp_tool为tool_name，Expo接口为provider_tool_name，HTTP接口为显示名称)
+     */
+    private String name;
+
+    /**
+     * 命中的名称或显示名称
+     */
+    private String text;
+}
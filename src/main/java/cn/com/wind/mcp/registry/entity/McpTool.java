@@ -125,4 +125,9 @@ public class McpTool extends Model<McpTool> {
      */
     @TableField(typeHandler = ToolTypeHandler.class)
     private String toolType;
+
+    /**
+     * 工具唯一标识: SHA-256(toolName:toolVersion:toolType)前16位大写
+     */
+    private String uniqueId;
 }
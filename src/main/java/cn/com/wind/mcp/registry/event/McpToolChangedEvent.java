@@ -0,0 +1,30 @@
+package cn.com.wind.mcp.registry.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * MCP工具变更事件(新增、修改、删除)
+ * <p>
+ * 在事务提交后处理，用于清理按toolNum缓存的工具数据
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class McpToolChangedEvent {
+
+    /**
+     * 工具主键，可能为null
+     */
+    private final Long id;
+
+    /**
+     * 工具编号，为null时表示无法确定受影响的工具
+     */
+    private final Long toolNum;
+}
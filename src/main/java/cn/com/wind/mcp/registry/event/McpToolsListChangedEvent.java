@@ -0,0 +1,16 @@
+package cn.com.wind.mcp.registry.event;
+
+import lombok.ToString;
+
+/**
+ * MCP服务端推送了notifications/tools/list_changed
+ * <p>
+ * 通知不携带虚拟服务器信息，收到后刷新所有已缓存的工具列表
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@ToString
+public class McpToolsListChangedEvent {
+}
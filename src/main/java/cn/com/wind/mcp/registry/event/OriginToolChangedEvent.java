@@ -0,0 +1,33 @@
+package cn.com.wind.mcp.registry.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 原始接口变更事件(origin_tool_http、origin_tool_expo的新增、修改、删除)
+ * <p>
+ * 在事务提交后处理，用于更新工具名称联想索引
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OriginToolChangedEvent {
+
+    public static final String HTTP = "origin_tool_http";
+    public static final String EXPO = "origin_tool_expo";
+
+    /**
+     * 表名，HTTP或EXPO
+     */
+    private final String table;
+
+    /**
+     * 接口主键，为null时表示无法确定受影响的接口
+     */
+    private final Long id;
+}
@@ -0,0 +1,40 @@
+package cn.com.wind.mcp.registry.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 编号号段Mapper
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Mapper
+public interface IdSequenceMapper {
+
+    /**
+     * 将最大编号增加step，同时锁定该行直到事务结束
+     *
+     * @param bizKey 业务标识
+     * @param step   号段长度
+     * @return 影响行数，记录不存在时为0
+     */
+    int increaseMaxId(@Param("bizKey") String bizKey, @Param("step") int step);
+
+    /**
+     * 查询已分配的最大编号
+     *
+     * @param bizKey 业务标识
+     * @return 最大编号
+     */
+    Long selectMaxId(@Param("bizKey") String bizKey);
+
+    /**
+     * 新增号段记录
+     *
+     * @param bizKey 业务标识
+     * @param maxId  已分配的最大编号
+     * @return 影响行数
+     */
+    int insertSequence(@Param("bizKey") String bizKey, @Param("maxId") long maxId);
+}
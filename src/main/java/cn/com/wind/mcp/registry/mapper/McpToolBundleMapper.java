@@ -0,0 +1,43 @@
+package cn.com.wind.mcp.registry.mapper;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolExportFilter;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * MCP工具聚合Mapper，联表查询工具、原始接口和转换模板
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Mapper
+public interface McpToolBundleMapper {
+
+    /**
+     * 按工具ID批量查询聚合
+     * 同一工具存在多个版本的转换模板时会返回多行，由调用方择优
+     *
+     * @param ids 工具ID
+     * @return 聚合行
+     */
+    List<McpToolBundle> selectByToolIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按条件流式读取聚合，按工具ID排序；需在事务内遍历
+     *
+     * @param filter       过滤条件(providerId、valid、vserverId)
+     * @param convertTypes 转换类型在数据库中的取值，为空时不过滤
+     * @param toolTypes    工具类型在数据库中的取值，为空时不过滤
+     * @return 聚合行游标
+     */
+    Cursor<McpToolBundle> selectBundleCursor(@Param("filter") McpToolExportFilter filter,
+                                             @Param("convertTypes") Collection<String> convertTypes,
+                                             @Param("toolTypes") Collection<String> toolTypes);
+}
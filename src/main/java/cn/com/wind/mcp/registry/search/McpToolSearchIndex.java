@@ -0,0 +1,714 @@
+package cn.com.wind.mcp.registry.search;
+
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MCP工具目录的内存倒排索引
+ * <p>
+ * 索引tool_name、tool_description、name_display、description_display：英文按单词建索引，查询片段在词内任意位置出现即命中，
+ * 中文按单字+双字建索引，多字查询命中后再校验原文中连续出现，结果与子串匹配一致。
+ * 排序检索按BM25对名称(tool_name、name_display)和描述(tool_description、description_display)两个字段加权打分，
+ * 支持按转换类型、工具类型、有效状态、提供者过滤，并在同一次遍历中统计各过滤项的分面计数。
+ * 启动后全量构建，之后按工具变更事件逐条更新，重建期间的逐条更新在新索引换入后重放；
+ * 构建完成前isReady()为false，调用方应回退到数据库查询
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class McpToolSearchIndex {
+
+    public static final String FACET_CONVERT_TYPE = "convertType";
+    public static final String FACET_TOOL_TYPE = "toolType";
+    public static final String FACET_VALID = "valid";
+    public static final String FACET_PROVIDER_ID = "providerId";
+
+    private static final String[] FACETS = {FACET_CONVERT_TYPE, FACET_TOOL_TYPE, FACET_VALID, FACET_PROVIDER_ID};
+
+    private static final String[] INDEXED_COLUMNS = {"id", "provider_id", "valid", "convert_type", "tool_type",
+            "tool_name", "tool_description", "name_display", "description_display"};
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final McpToolMapper mcpToolMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, Doc> docs = new HashMap<>();
+    private TreeMap<String, Set<Long>> postings = new TreeMap<>();
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    private volatile boolean ready;
+
+    /**
+     * 进行中的重建各自记录的增量变更(ID -> 新文档，null表示删除)；重建读库不持锁，换入新索引后重放，
+     * 避免读库期间的变更被旧快照覆盖
+     */
+    private final List<Map<Long, Doc>> pendingChanges = new ArrayList<>();
+
+    /**
+     * 重建代数：开始重建时递增，换入时记录已生效的代数；较早开始的重建晚于较新的重建完成时放弃结果
+     */
+    private long rebuildGeneration;
+    private long appliedGeneration;
+
+    public McpToolSearchIndex(McpToolMapper mcpToolMapper) {
+        this.mcpToolMapper = mcpToolMapper;
+    }
+
+    /**
+     * 索引中的工具
+     */
+    private static final class Doc {
+        private final Long providerId;
+        private final String valid;
+        /**
+         * 分面取值，与FACETS顺序一致
+         */
+        private final String[] facetValues;
+        private final String text;
+        private final Set<String> terms;
+        private final Map<String, Integer> nameTf;
+        private final Map<String, Integer> descriptionTf;
+        private final int nameLength;
+        private final int descriptionLength;
+
+        private Doc(Long providerId, String valid, String[] facetValues, String text,
+                    Map<String, Integer> nameTf, Map<String, Integer> descriptionTf) {
+            this.providerId = providerId;
+            this.valid = valid;
+            this.facetValues = facetValues;
+            this.text = text;
+            this.nameTf = nameTf;
+            this.descriptionTf = descriptionTf;
+            this.terms = new HashSet<>(nameTf.keySet());
+            this.terms.addAll(descriptionTf.keySet());
+            this.nameLength = nameTf.values().stream().mapToInt(Integer::intValue).sum();
+            this.descriptionLength = descriptionTf.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    /**
+     * 一页搜索结果
+     */
+    @Getter
+    public static final class Hits {
+        /**
+         * 命中总数
+         */
+        private final int total;
+        /**
+         * 当前页的工具ID，按ID升序
+         */
+        private final List<Long> ids;
+
+        Hits(int total, List<Long> ids) {
+            this.total = total;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * 排序检索的过滤条件，各项为null时不限
+     */
+    @Getter
+    public static final class Filter {
+        private final Long providerId;
+        private final String convertType;
+        private final String toolType;
+        private final String valid;
+
+        public Filter(Long providerId, String convertType, String toolType, String valid) {
+            this.providerId = providerId;
+            this.convertType = normalizeConvertType(convertType);
+            this.toolType = normalizeToolType(toolType);
+            this.valid = valid == null || valid.trim().isEmpty() ? null : valid.trim();
+        }
+
+        private String[] values() {
+            return new String[]{convertType, toolType, valid, providerId != null ? providerId.toString() : null};
+        }
+    }
+
+    /**
+     * 一页排序检索结果
+     */
+    @Getter
+    public static final class Ranked {
+        /**
+         * 满足关键词和全部过滤条件的总数
+         */
+        private final int total;
+        /**
+         * 当前页的工具ID，按得分从高到低
+         */
+        private final List<Long> ids;
+        /**
+         * 当前页各工具的得分，与ids一一对应；关键词为空时均为0
+         */
+        private final List<Double> scores;
+        /**
+         * 分面计数：过滤项 -> 取值 -> 数量。统计某一项时不应用该项自身的过滤条件，便于切换取值
+         */
+        private final Map<String, Map<String, Integer>> facets;
+
+        Ranked(int total, List<Long> ids, List<Double> scores, Map<String, Map<String, Integer>> facets) {
+            this.total = total;
+            this.ids = ids;
+            this.scores = scores;
+            this.facets = facets;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 工具新增、修改、删除后更新索引；事务提交后执行，读取到的是已提交的数据
+     *
+     * @param event 工具变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMcpToolChanged(McpToolChangedEvent event) {
+        if (event.getId() == null) {
+            rebuild();
+            return;
+        }
+        McpTool tool = mcpToolMapper.selectOne(new QueryWrapper<McpTool>()
+                .select(INDEXED_COLUMNS)
+                .eq("id", event.getId()));
+        if (tool != null) {
+            upsert(tool);
+        } else {
+            remove(event.getId());
+        }
+    }
+
+    /**
+     * 从数据库全量重建
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, Doc> changes = new HashMap<>();
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = ++rebuildGeneration;
+            pendingChanges.add(changes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            List<McpTool> tools = mcpToolMapper.selectList(new QueryWrapper<McpTool>().select(INDEXED_COLUMNS));
+            Map<Long, Doc> newDocs = new HashMap<>(tools.size() * 2);
+            TreeMap<String, Set<Long>> newPostings = new TreeMap<>();
+            long nameLength = 0;
+            long descriptionLength = 0;
+            for (McpTool tool : tools) {
+                if (tool.getId() == null) {
+                    continue;
+                }
+                Doc doc = toDoc(tool);
+                Doc old = newDocs.put(tool.getId(), doc);
+                if (old != null) {
+                    nameLength -= old.nameLength;
+                    descriptionLength -= old.descriptionLength;
+                }
+                nameLength += doc.nameLength;
+                descriptionLength += doc.descriptionLength;
+                for (String term : doc.terms) {
+                    newPostings.computeIfAbsent(term, k -> new HashSet<>()).add(tool.getId());
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (generation < appliedGeneration) {
+                    log.info("MCP工具搜索索引已由更新的重建替换，放弃本次结果: 代数={}", generation);
+                    return;
+                }
+                docs = newDocs;
+                postings = newPostings;
+                totalNameLength = nameLength;
+                totalDescriptionLength = descriptionLength;
+                appliedGeneration = generation;
+                // 重放读库期间的变更，已包含在快照中的重复应用结果不变
+                changes.forEach((id, doc) -> {
+                    if (doc != null) {
+                        index(id, doc);
+                    } else {
+                        delete(id);
+                    }
+                });
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("MCP工具搜索索引已重建: 工具数={}, 索引词数={}, 重放变更数={}, 耗时={}ms", newDocs.size(),
+                    newPostings.size(), changes.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges.removeIf(pending -> pending == changes);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 新增或更新一个工具
+     */
+    public void upsert(McpTool tool) {
+        Doc doc = toDoc(tool);
+        lock.writeLock().lock();
+        try {
+            index(tool.getId(), doc);
+            recordChange(tool.getId(), doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除一个工具
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+            recordChange(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索并分页
+     *
+     * @param keyword    关键词，多个词以空格分隔，需全部命中
+     * @param providerId 提供者ID，为null时不限
+     * @param valid      有效状态，为null时不限
+     * @param offset     跳过的条数
+     * @param limit      返回的最大条数
+     * @return 命中结果
+     */
+    public Hits search(String keyword, Long providerId, String valid, int offset, int limit) {
+        long[] matched = match(keyword, providerId, valid);
+        int from = Math.max(0, Math.min(offset, matched.length));
+        int to = (int) Math.min(matched.length, (long) from + Math.max(0, limit));
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(matched[i]);
+        }
+        return new Hits(matched.length, ids);
+    }
+
+    /**
+     * 全部命中的工具ID，按ID升序
+     */
+    public List<Long> searchAll(String keyword, Long providerId, String valid) {
+        return search(keyword, providerId, valid, 0, Integer.MAX_VALUE).getIds();
+    }
+
+    /**
+     * 按相关度排序检索，同时统计分面
+     *
+     * @param keyword 关键词，多个词以空格分隔，需全部命中；为空时匹配全部工具并按ID升序
+     * @param filter  过滤条件
+     * @param offset  跳过的条数
+     * @param limit   返回的最大条数
+     * @return 当前页结果和分面计数
+     */
+    public Ranked rank(String keyword, Filter filter, int offset, int limit) {
+        List<SearchTokenizer.Run> runs = SearchTokenizer.runs(keyword);
+        String[] wanted = filter.values();
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            facets.put(facet, new TreeMap<>());
+        }
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = runs.isEmpty() ? docs.keySet() : keywordMatches(runs);
+            Scorer scorer = runs.isEmpty() ? null : new Scorer(runs);
+            List<Long> hitIds = new ArrayList<>();
+            List<Double> hitScores = new ArrayList<>();
+            for (Long id : candidates) {
+                Doc doc = docs.get(id);
+                // 只有一项过滤条件不满足时，该工具计入这一项的分面，但不计入结果
+                int failed = -1;
+                boolean excluded = false;
+                for (int i = 0; i < FACETS.length && !excluded; i++) {
+                    if (wanted[i] != null && !wanted[i].equals(doc.facetValues[i])) {
+                        excluded = failed >= 0;
+                        failed = i;
+                    }
+                }
+                if (excluded) {
+                    continue;
+                }
+                for (int i = 0; i < FACETS.length; i++) {
+                    if ((failed < 0 || failed == i) && doc.facetValues[i] != null) {
+                        facets.get(FACETS[i]).merge(doc.facetValues[i], 1, Integer::sum);
+                    }
+                }
+                if (failed < 0) {
+                    hitIds.add(id);
+                    hitScores.add(scorer != null ? scorer.score(doc) : 0.0);
+                }
+            }
+
+            Integer[] order = new Integer[hitIds.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byScore = Double.compare(hitScores.get(b), hitScores.get(a));
+                return byScore != 0 ? byScore : Long.compare(hitIds.get(a), hitIds.get(b));
+            });
+            int from = Math.max(0, Math.min(offset, order.length));
+            int to = (int) Math.min(order.length, (long) from + Math.max(0, limit));
+            List<Long> ids = new ArrayList<>(to - from);
+            List<Double> scores = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(hitIds.get(order[i]));
+                scores.add(hitScores.get(order[i]));
+            }
+            return new Ranked(order.length, ids, scores, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 转换类型统一为http、expo、code；数据库中可能是'1'、'2'、'3'或历史的字符串形式
+     */
+    public static String normalizeConvertType(String convertType) {
+        if (convertType == null || convertType.trim().isEmpty()) {
+            return null;
+        }
+        String value = convertType.trim().toLowerCase(Locale.ROOT);
+        if ("1".equals(value) || value.contains("http")) {
+            return "http";
+        }
+        if ("2".equals(value) || value.contains("expo")) {
+            return "expo";
+        }
+        if ("3".equals(value) || value.contains("code") || "manual".equals(value)) {
+            return "code";
+        }
+        return value;
+    }
+
+    /**
+     * 工具类型统一为'1'(tool)、'2'(agent)
+     */
+    public static String normalizeToolType(String toolType) {
+        if (toolType == null || toolType.trim().isEmpty()) {
+            return null;
+        }
+        String value = toolType.trim().toLowerCase(Locale.ROOT);
+        if ("tool".equals(value)) {
+            return "1";
+        }
+        if ("agent".equals(value)) {
+            return "2";
+        }
+        return value;
+    }
+
+    /**
+     * 归一化后的转换类型在数据库中可能的取值(新数据为'1'、'2'、'3'，历史数据为字符串)
+     */
+    public static List<String> convertTypeValues(String convertType) {
+        if ("http".equals(convertType)) {
+            return Arrays.asList("1", "http");
+        }
+        if ("expo".equals(convertType)) {
+            return Arrays.asList("2", "expo");
+        }
+        if ("code".equals(convertType)) {
+            return Arrays.asList("3", "code", "manual");
+        }
+        return Collections.singletonList(convertType);
+    }
+
+    /**
+     * 工具类型在数据库中可能的取值
+     */
+    public static List<String> toolTypeValues(String toolType) {
+        if ("1".equals(toolType)) {
+            return Arrays.asList("1", "tool");
+        }
+        if ("2".equals(toolType)) {
+            return Arrays.asList("2", "agent");
+        }
+        return Collections.singletonList(toolType);
+    }
+
+    private long[] match(String keyword, Long providerId, String valid) {
+        List<SearchTokenizer.Run> runs = SearchTokenizer.runs(keyword);
+        if (runs.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Long> candidates = keywordMatches(runs);
+            long[] result = new long[candidates.size()];
+            int count = 0;
+            for (Long id : candidates) {
+                Doc doc = docs.get(id);
+                if ((providerId != null && !providerId.equals(doc.providerId))
+                        || (valid != null && !valid.equals(doc.valid))) {
+                    continue;
+                }
+                result[count++] = id;
+            }
+            long[] matched = Arrays.copyOf(result, count);
+            Arrays.sort(matched);
+            return matched;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 命中全部关键词片段的工具ID，调用方需持有读锁
+     */
+    private List<Long> keywordMatches(List<SearchTokenizer.Run> runs) {
+        // 每个片段得到一个候选集合，从最小的集合开始求交集
+        List<Collection<Long>> required = new ArrayList<>();
+        List<String> phrases = new ArrayList<>();
+        for (SearchTokenizer.Run run : runs) {
+            if (run.isCjk()) {
+                for (String term : SearchTokenizer.cjkQueryTerms(run.getText())) {
+                    required.add(postings.getOrDefault(term, Collections.emptySet()));
+                }
+                if (run.getText().length() > 2) {
+                    phrases.add(run.getText());
+                }
+            } else {
+                required.add(fragmentPostings(run.getText()));
+            }
+        }
+        required.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        List<Long> result = new ArrayList<>(required.get(0).size());
+        outer:
+        for (Long id : required.get(0)) {
+            for (int i = 1; i < required.size(); i++) {
+                if (!required.get(i).contains(id)) {
+                    continue outer;
+                }
+            }
+            Doc doc = docs.get(id);
+            if (doc == null) {
+                continue;
+            }
+            for (String phrase : phrases) {
+                // 双字都命中但不相邻时排除
+                if (!doc.text.contains(phrase)) {
+                    continue outer;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 包含fragment的所有索引词的并集，与按LIKE '%kw%'查询时词内子串即可命中的行为一致；
+     * 需要扫描整个词典，词典规模为不同词的个数，远小于工具数乘以文本长度
+     */
+    private Collection<Long> fragmentPostings(String fragment) {
+        Set<Long> union = new HashSet<>();
+        Set<Long> single = null;
+        int matchedTerms = 0;
+        for (Map.Entry<String, Set<Long>> entry : postings.entrySet()) {
+            if (entry.getKey().contains(fragment)) {
+                matchedTerms++;
+                single = entry.getValue();
+                union.addAll(entry.getValue());
+            }
+        }
+        return matchedTerms == 1 ? single : union;
+    }
+
+    /**
+     * 单次查询的BM25打分，调用方需持有读锁
+     * <p>
+     * 英文片段按子串展开，文档中包含该片段的词都参与打分；中文片段按查询时使用的单字/双字打分。
+     * 两个字段的词频按各自的平均长度归一化后加权相加，再代入BM25的饱和函数
+     * </p>
+     */
+    private final class Scorer {
+        private final List<String> fragments = new ArrayList<>();
+        private final Set<String> cjkTerms = new HashSet<>();
+        private final Map<String, Double> idfCache = new HashMap<>();
+        private final double averageNameLength;
+        private final double averageDescriptionLength;
+
+        private Scorer(List<SearchTokenizer.Run> runs) {
+            for (SearchTokenizer.Run run : runs) {
+                if (run.isCjk()) {
+                    cjkTerms.addAll(SearchTokenizer.cjkQueryTerms(run.getText()));
+                } else {
+                    fragments.add(run.getText());
+                }
+            }
+            int count = Math.max(1, docs.size());
+            averageNameLength = Math.max(1.0, (double) totalNameLength / count);
+            averageDescriptionLength = Math.max(1.0, (double) totalDescriptionLength / count);
+        }
+
+        private double score(Doc doc) {
+            double nameNorm = 1 - B + B * doc.nameLength / averageNameLength;
+            double descriptionNorm = 1 - B + B * doc.descriptionLength / averageDescriptionLength;
+            double score = 0;
+            for (String term : doc.terms) {
+                if (!matches(term)) {
+                    continue;
+                }
+                double tf = NAME_WEIGHT * doc.nameTf.getOrDefault(term, 0) / nameNorm
+                        + DESCRIPTION_WEIGHT * doc.descriptionTf.getOrDefault(term, 0) / descriptionNorm;
+                score += idf(term) * tf * (K1 + 1) / (tf + K1);
+            }
+            return score;
+        }
+
+        private boolean matches(String term) {
+            if (cjkTerms.contains(term)) {
+                return true;
+            }
+            for (String fragment : fragments) {
+                if (term.contains(fragment)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private double idf(String term) {
+            return idfCache.computeIfAbsent(term, t -> {
+                int n = docs.size();
+                int df = postings.getOrDefault(t, Collections.emptySet()).size();
+                return Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            });
+        }
+    }
+
+    /**
+     * 写入一个文档，调用方持有写锁
+     */
+    private void index(Long id, Doc doc) {
+        Doc old = docs.put(id, doc);
+        if (old != null) {
+            unindex(id, old);
+        }
+        for (String term : doc.terms) {
+            postings.computeIfAbsent(term, k -> new HashSet<>()).add(id);
+        }
+        totalNameLength += doc.nameLength;
+        totalDescriptionLength += doc.descriptionLength;
+    }
+
+    /**
+     * 删除一个文档，调用方持有写锁
+     */
+    private void delete(Long id) {
+        Doc old = docs.remove(id);
+        if (old != null) {
+            unindex(id, old);
+        }
+    }
+
+    /**
+     * 记录变更供进行中的重建重放，调用方持有写锁
+     */
+    private void recordChange(Long id, Doc doc) {
+        for (Map<Long, Doc> changes : pendingChanges) {
+            changes.put(id, doc);
+        }
+    }
+
+    private void unindex(Long id, Doc doc) {
+        for (String term : doc.terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalNameLength -= doc.nameLength;
+        totalDescriptionLength -= doc.descriptionLength;
+    }
+
+    private static Doc toDoc(McpTool tool) {
+        String name = String.join("\n",
+                nullToEmpty(tool.getToolName()),
+                SearchTokenizer.displayText(tool.getNameDisplay()));
+        String description = String.join("\n",
+                nullToEmpty(tool.getToolDescription()),
+                SearchTokenizer.displayText(tool.getDescriptionDisplay()));
+        String[] facetValues = {
+                normalizeConvertType(tool.getConvertType()),
+                normalizeToolType(tool.getToolType()),
+                tool.getValid(),
+                tool.getProviderId() != null ? tool.getProviderId().toString() : null};
+        return new Doc(tool.getProviderId(), tool.getValid(), facetValues,
+                SearchTokenizer.normalize(name + "\n" + description),
+                SearchTokenizer.termFrequencies(name), SearchTokenizer.termFrequencies(description));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
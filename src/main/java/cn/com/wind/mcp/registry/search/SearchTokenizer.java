@@ -0,0 +1,180 @@
+package cn.com.wind.mcp.registry.search;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 搜索分词
+ * <p>
+ * 英文/数字按连续字母数字切分为小写单词(下划线、空格、标点均为分隔符)；
+ * 中日韩文字按连续片段切分为单字和相邻双字(bigram)，不依赖词典即可覆盖任意子串查询
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 分词结果中的一段连续文本
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Run {
+        private final String text;
+        private final boolean cjk;
+    }
+
+    /**
+     * 索引词：英文单词、中文单字和双字
+     *
+     * @param text 原文
+     * @return 去重后的索引词
+     */
+    public static Set<String> indexTerms(String text) {
+        return termFrequencies(text).keySet();
+    }
+
+    /**
+     * 索引词及其出现次数，按首次出现的顺序
+     *
+     * @param text 原文
+     * @return 索引词到出现次数的映射
+     */
+    public static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (Run run : runs(text)) {
+            if (!run.isCjk()) {
+                frequencies.merge(run.getText(), 1, Integer::sum);
+                continue;
+            }
+            String s = run.getText();
+            for (int i = 0; i < s.length(); i++) {
+                frequencies.merge(s.substring(i, i + 1), 1, Integer::sum);
+                if (i + 1 < s.length()) {
+                    frequencies.merge(s.substring(i, i + 2), 1, Integer::sum);
+                }
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * 中文片段对应的查询词：单字片段为该字，否则为全部相邻双字
+     */
+    public static List<String> cjkQueryTerms(String run) {
+        List<String> terms = new ArrayList<>();
+        if (run.length() == 1) {
+            terms.add(run);
+            return terms;
+        }
+        for (int i = 0; i + 1 < run.length(); i++) {
+            terms.add(run.substring(i, i + 2));
+        }
+        return terms;
+    }
+
+    /**
+     * 把文本切分为英文/数字片段和中日韩文字片段(已转小写)
+     *
+     * @param text 原文
+     * @return 片段列表
+     */
+    public static List<Run> runs(String text) {
+        List<Run> runs = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return runs;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            boolean cjk = isCjk(c);
+            boolean word = cjk || Character.isLetterOrDigit(c);
+            if (!word || (current.length() > 0 && cjk != currentCjk)) {
+                flush(runs, current, currentCjk);
+            }
+            if (word) {
+                current.append(c);
+                currentCjk = cjk;
+            }
+        }
+        flush(runs, current, currentCjk);
+        return runs;
+    }
+
+    /**
+     * 用于短语校验的规范化文本
+     */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 多语言显示字段(如{"zh":"股票行情","en":"Quote"})只取各语言的值，避免键名参与检索
+     *
+     * @param display 显示字段原文
+     * @return 可检索文本
+     */
+    public static String displayText(String display) {
+        return String.join("\n", displayValues(display));
+    }
+
+    /**
+     * 多语言显示字段的各个值；不是JSON对象时返回原文
+     *
+     * @param display 显示字段原文
+     * @return 非空的显示值
+     */
+    public static List<String> displayValues(String display) {
+        List<String> values = new ArrayList<>();
+        if (display == null || display.trim().isEmpty()) {
+            return values;
+        }
+        String trimmed = display.trim();
+        if (trimmed.startsWith("{")) {
+            try {
+                JSONObject json = JSONUtil.parseObj(trimmed);
+                for (Object value : json.values()) {
+                    if (value != null && !value.toString().trim().isEmpty()) {
+                        values.add(value.toString());
+                    }
+                }
+                return values;
+            } catch (Exception e) {
+                // 不是合法JSON，按原文处理
+            }
+        }
+        values.add(display);
+        return values;
+    }
+
+    static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder current, boolean cjk) {
+        if (current.length() > 0) {
+            runs.add(new Run(current.toString(), cjk));
+            current.setLength(0);
+        }
+    }
+}
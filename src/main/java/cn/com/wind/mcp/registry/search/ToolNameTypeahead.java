@@ -0,0 +1,654 @@
+package cn.com.wind.mcp.registry.search;
+
+import cn.com.wind.mcp.registry.dto.mcptool.ToolSuggestion;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.entity.OriginToolHttp;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 工具名称联想(前缀补全)
+ * <p>
+ * 收录mcp_tool的tool_name/name_display、origin_tool_http的name_display、origin_tool_expo的
+ * provider_tool_name/name_display。名称规范化为小写、分隔符统一为空格后，从每个单词开头和每个中文字符开头各取一个键
+ * 插入前缀树，因此输入任意单词或中文片段的开头即可命中。
+ * 除全局树外每个提供者另有一棵树；每个节点缓存子树中排名前{@value #TOP_K}的结果，查询只需沿树走到前缀节点直接读取，
+ * 同一工具多个名称命中导致去重后不足时才遍历子树。树深度限制为{@value #MAX_DEPTH}，更长的查询在该深度的节点上按前缀过滤。
+ * 启动后全量构建，之后按工具变更事件逐条更新
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class ToolNameTypeahead {
+
+    public static final String MCP_TOOL = "mcp_tool";
+
+    /**
+     * 每个节点缓存的子树结果数，也是单次返回条数的上限
+     */
+    static final int TOP_K = 32;
+
+    private static final int MAX_DEPTH = 6;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private static final String[] MCP_TOOL_COLUMNS = {"id", "provider_id", "tool_num", "tool_name", "name_display"};
+    private static final String[] HTTP_COLUMNS = {"id", "provider_id", "provider_tool_num", "name_display"};
+    private static final String[] EXPO_COLUMNS = {"id", "provider_id", "provider_tool_num", "provider_tool_name",
+            "name_display"};
+
+    /**
+     * 排名：从名称开头命中的在前，其次名称越短越靠前
+     */
+    private static final Comparator<Mark> RANK = Comparator
+            .comparing((Mark mark) -> mark.offset != 0)
+            .thenComparingInt(mark -> mark.label.length())
+            .thenComparing(mark -> mark.entry.source)
+            .thenComparing(mark -> mark.entry.id);
+
+    private final McpToolMapper mcpToolMapper;
+    private final OriginToolHttpMapper originToolHttpMapper;
+    private final OriginToolExpoMapper originToolExpoMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    /**
+     * 每个提供者单独一棵树，按提供者联想时直接读取缓存结果
+     */
+    private Map<Long, Node> providerRoots = new HashMap<>();
+    private Map<String, Entry> entries = new HashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * 进行中的重建各自记录的增量变更(来源表:主键 -> 新条目，null表示删除)；重建读库不持锁，换入新树后重放，
+     * 避免读库期间的变更被旧快照覆盖
+     */
+    private final List<Map<String, Entry>> pendingChanges = new ArrayList<>();
+
+    /**
+     * 重建代数：开始重建时递增，换入时记录已生效的代数；较早开始的重建晚于较新的重建完成时放弃结果
+     */
+    private long rebuildGeneration;
+    private long appliedGeneration;
+
+    public ToolNameTypeahead(McpToolMapper mcpToolMapper, OriginToolHttpMapper originToolHttpMapper,
+                             OriginToolExpoMapper originToolExpoMapper) {
+        this.mcpToolMapper = mcpToolMapper;
+        this.originToolHttpMapper = originToolHttpMapper;
+        this.originToolExpoMapper = originToolExpoMapper;
+    }
+
+    /**
+     * 一个可联想的工具
+     */
+    private static final class Entry {
+        private final String source;
+        private final Long id;
+        private final Long providerId;
+        private final Long toolNum;
+        private final String name;
+        private final List<String> labels;
+        private final List<Mark> marks = new ArrayList<>();
+
+        private Entry(String source, Long id, Long providerId, Long toolNum, String name, List<String> labels) {
+            this.source = source;
+            this.id = id;
+            this.providerId = providerId;
+            this.toolNum = toolNum;
+            this.name = name;
+            this.labels = labels;
+        }
+
+        /**
+         * 复制一个尚未插入树中的条目，用于在新树上重放
+         */
+        private Entry copy() {
+            return new Entry(source, id, providerId, toolNum, name, labels);
+        }
+    }
+
+    /**
+     * 插入树中的一个键：某个名称从offset开始的后缀
+     */
+    private static final class Mark {
+        private final Entry entry;
+        private final String label;
+        private final String key;
+        private final int offset;
+
+        private Mark(Entry entry, String label, String key, int offset) {
+            this.entry = entry;
+            this.label = label;
+            this.key = key;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * 前缀树节点，子节点按字符有序存放在数组中
+     */
+    private static final class Node {
+        private char[] chars = new char[0];
+        private Node[] children = new Node[0];
+        /**
+         * 在此节点结束(或因深度限制截断)的键
+         */
+        private List<Mark> marks;
+        /**
+         * 子树中排名前TOP_K的键
+         */
+        private final List<Mark> top = new ArrayList<>();
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -i - 1;
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(chars, i, newChars, i + 1, chars.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            Node node = new Node();
+            newChars[i] = c;
+            newChildren[i] = node;
+            chars = newChars;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i < 0) {
+                return;
+            }
+            char[] newChars = new char[chars.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(chars, 0, newChars, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(chars, i + 1, newChars, i, chars.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            chars = newChars;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return children.length == 0 && (marks == null || marks.isEmpty());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * MCP工具新增、修改、删除后更新；事务提交后执行
+     *
+     * @param event 工具变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMcpToolChanged(McpToolChangedEvent event) {
+        if (event.getId() == null) {
+            rebuild();
+            return;
+        }
+        McpTool tool = mcpToolMapper.selectOne(new QueryWrapper<McpTool>()
+                .select(MCP_TOOL_COLUMNS)
+                .eq("id", event.getId()));
+        if (tool != null) {
+            upsert(toEntry(tool));
+        } else {
+            remove(MCP_TOOL, event.getId());
+        }
+    }
+
+    /**
+     * 原始接口新增、修改、删除后更新；事务提交后执行
+     *
+     * @param event 原始接口变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOriginToolChanged(OriginToolChangedEvent event) {
+        if (event.getId() == null) {
+            rebuild();
+            return;
+        }
+        Entry entry = null;
+        if (OriginToolChangedEvent.HTTP.equals(event.getTable())) {
+            OriginToolHttp tool = originToolHttpMapper.selectOne(new QueryWrapper<OriginToolHttp>()
+                    .select(HTTP_COLUMNS)
+                    .eq("id", event.getId()));
+            entry = tool != null ? toEntry(tool) : null;
+        } else if (OriginToolChangedEvent.EXPO.equals(event.getTable())) {
+            OriginToolExpo tool = originToolExpoMapper.selectOne(new QueryWrapper<OriginToolExpo>()
+                    .select(EXPO_COLUMNS)
+                    .eq("id", event.getId()));
+            entry = tool != null ? toEntry(tool) : null;
+        }
+        if (entry != null) {
+            upsert(entry);
+        } else {
+            remove(event.getTable(), event.getId());
+        }
+    }
+
+    /**
+     * 从数据库全量重建
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<String, Entry> changes = new HashMap<>();
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = ++rebuildGeneration;
+            pendingChanges.add(changes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Node newRoot = new Node();
+            Map<Long, Node> newProviderRoots = new HashMap<>();
+            Map<String, Entry> newEntries = new HashMap<>();
+            for (McpTool tool : mcpToolMapper.selectList(new QueryWrapper<McpTool>().select(MCP_TOOL_COLUMNS))) {
+                add(newRoot, newProviderRoots, newEntries, toEntry(tool));
+            }
+            for (OriginToolHttp tool : originToolHttpMapper.selectList(
+                    new QueryWrapper<OriginToolHttp>().select(HTTP_COLUMNS))) {
+                add(newRoot, newProviderRoots, newEntries, toEntry(tool));
+            }
+            for (OriginToolExpo tool : originToolExpoMapper.selectList(
+                    new QueryWrapper<OriginToolExpo>().select(EXPO_COLUMNS))) {
+                add(newRoot, newProviderRoots, newEntries, toEntry(tool));
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (generation < appliedGeneration) {
+                    log.info("工具名称联想索引已由更新的重建替换，放弃本次结果: 代数={}", generation);
+                    return;
+                }
+                root = newRoot;
+                providerRoots = newProviderRoots;
+                entries = newEntries;
+                appliedGeneration = generation;
+                // 重放读库期间的变更，已包含在快照中的重复应用结果不变
+                changes.forEach((key, entry) -> {
+                    if (entry != null) {
+                        add(root, providerRoots, entries, entry.copy());
+                    } else {
+                        delete(key);
+                    }
+                });
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("工具名称联想索引已重建: 条目数={}, 重放变更数={}, 耗时={}ms", newEntries.size(), changes.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges.removeIf(pending -> pending == changes);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 移除一个工具
+     *
+     * @param source 来源表
+     * @param id     来源表主键
+     */
+    public void remove(String source, Long id) {
+        lock.writeLock().lock();
+        try {
+            String key = entryKey(source, id);
+            delete(key);
+            recordChange(key, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按前缀联想
+     *
+     * @param prefix     输入内容，匹配任一名称中某个单词或中文字符开始的部分
+     * @param providerId 提供者ID，为null时不限
+     * @param limit      返回的最大条数，不超过{@value #TOP_K}
+     * @return 联想结果，每个工具最多出现一次
+     */
+    public List<ToolSuggestion> suggest(String prefix, Long providerId, int limit) {
+        String query = normalize(prefix);
+        if (query.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (query.length() > MAX_KEY_LENGTH) {
+            query = query.substring(0, MAX_KEY_LENGTH);
+        }
+        int max = Math.min(limit, TOP_K);
+
+        lock.readLock().lock();
+        try {
+            Node node = providerId != null ? providerRoots.get(providerId) : root;
+            for (int i = 0; i < Math.min(query.length(), MAX_DEPTH) && node != null; i++) {
+                node = node.child(query.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            if (query.length() <= MAX_DEPTH) {
+                List<ToolSuggestion> result = collect(node.top, query, providerId, max);
+                // 缓存未满说明已是子树全部结果
+                if (result.size() >= max || node.top.size() < TOP_K) {
+                    return result;
+                }
+            }
+            List<Mark> marks = new ArrayList<>();
+            collectSubtree(node, marks);
+            marks.sort(RANK);
+            return collect(marks, query, providerId, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void upsert(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            add(root, providerRoots, entries, entry);
+            if (entry.id != null) {
+                recordChange(entryKey(entry.source, entry.id), entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从当前树中删除一个条目，调用方持有写锁
+     */
+    private void delete(String key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            removeEntry(root, providerRoots, old);
+        }
+    }
+
+    /**
+     * 记录变更供进行中的重建重放，调用方持有写锁
+     */
+    private void recordChange(String key, Entry entry) {
+        for (Map<String, Entry> changes : pendingChanges) {
+            changes.put(key, entry);
+        }
+    }
+
+    private static void add(Node root, Map<Long, Node> providerRoots, Map<String, Entry> entries, Entry entry) {
+        if (entry.id == null) {
+            return;
+        }
+        Entry old = entries.put(entryKey(entry.source, entry.id), entry);
+        if (old != null) {
+            removeEntry(root, providerRoots, old);
+        }
+        Node providerRoot = entry.providerId != null
+                ? providerRoots.computeIfAbsent(entry.providerId, k -> new Node()) : null;
+        List<Mark> marks = new ArrayList<>();
+        for (String label : entry.labels) {
+            List<Integer> offsets = new ArrayList<>();
+            String normalized = normalize(label, offsets);
+            for (int offset : offsets) {
+                String key = normalized.substring(offset, Math.min(normalized.length(), offset + MAX_KEY_LENGTH));
+                marks.add(new Mark(entry, label, key, offset));
+            }
+        }
+        // 多个名称得到相同的键时只保留排名最高的一个
+        marks.sort(RANK);
+        Set<String> keys = new HashSet<>();
+        for (Mark mark : marks) {
+            if (keys.add(mark.key)) {
+                entry.marks.add(mark);
+                insertMark(root, mark);
+                if (providerRoot != null) {
+                    insertMark(providerRoot, mark);
+                }
+            }
+        }
+    }
+
+    private static void removeEntry(Node root, Map<Long, Node> providerRoots, Entry entry) {
+        Node providerRoot = entry.providerId != null ? providerRoots.get(entry.providerId) : null;
+        for (Mark mark : entry.marks) {
+            removeMark(root, mark);
+            if (providerRoot != null) {
+                removeMark(providerRoot, mark);
+            }
+        }
+        if (providerRoot != null && providerRoot.isEmpty()) {
+            providerRoots.remove(entry.providerId);
+        }
+    }
+
+    private static void insertMark(Node root, Mark mark) {
+        Node node = root;
+        int depth = Math.min(mark.key.length(), MAX_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            node = node.addChild(mark.key.charAt(i));
+            offerTop(node, mark);
+        }
+        if (node.marks == null) {
+            node.marks = new ArrayList<>(2);
+        }
+        node.marks.add(mark);
+    }
+
+    private static void removeMark(Node root, Mark mark) {
+        int depth = Math.min(mark.key.length(), MAX_DEPTH);
+        Node[] path = new Node[depth + 1];
+        path[0] = root;
+        for (int i = 0; i < depth; i++) {
+            path[i + 1] = path[i].child(mark.key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        if (path[depth].marks != null) {
+            path[depth].marks.remove(mark);
+        }
+        // 自下而上处理，父节点重算时子节点的缓存已是最新
+        for (int i = depth; i >= 1; i--) {
+            Node node = path[i];
+            boolean wasFull = node.top.size() == TOP_K;
+            if (node.top.remove(mark) && wasFull) {
+                recomputeTop(node);
+            }
+            if (node.isEmpty()) {
+                path[i - 1].removeChild(mark.key.charAt(i - 1));
+            }
+        }
+    }
+
+    private static void offerTop(Node node, Mark mark) {
+        int pos = Collections.binarySearch(node.top, mark, RANK);
+        if (pos < 0) {
+            pos = -pos - 1;
+        }
+        if (pos >= TOP_K) {
+            return;
+        }
+        node.top.add(pos, mark);
+        if (node.top.size() > TOP_K) {
+            node.top.remove(TOP_K);
+        }
+    }
+
+    private static void recomputeTop(Node node) {
+        List<Mark> candidates = new ArrayList<>();
+        if (node.marks != null) {
+            candidates.addAll(node.marks);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(RANK);
+        node.top.clear();
+        node.top.addAll(candidates.subList(0, Math.min(TOP_K, candidates.size())));
+    }
+
+    private static void collectSubtree(Node node, List<Mark> marks) {
+        if (node.marks != null) {
+            marks.addAll(node.marks);
+        }
+        for (Node child : node.children) {
+            collectSubtree(child, marks);
+        }
+    }
+
+    private static List<ToolSuggestion> collect(List<Mark> marks, String query, Long providerId, int limit) {
+        List<ToolSuggestion> result = new ArrayList<>();
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Mark mark : marks) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if ((providerId != null && !providerId.equals(mark.entry.providerId))
+                    || !mark.key.startsWith(query)
+                    || !seen.add(mark.entry)) {
+                continue;
+            }
+            ToolSuggestion suggestion = new ToolSuggestion();
+            suggestion.setSource(mark.entry.source);
+            suggestion.setId(mark.entry.id);
+            suggestion.setProviderId(mark.entry.providerId);
+            suggestion.setToolNum(mark.entry.toolNum);
+            suggestion.setName(mark.entry.name);
+            suggestion.setText(mark.label);
+            result.add(suggestion);
+        }
+        return result;
+    }
+
+    static String normalize(String text) {
+        return normalize(text, null);
+    }
+
+    /**
+     * 小写，连续的非文字字符合并为一个空格
+     *
+     * @param text    原文
+     * @param offsets 不为null时记录键的起始位置：每个单词开头、每个中文字符、驼峰命名中的大写字母
+     * @return 规范化后的文本
+     */
+    private static String normalize(String text, List<Integer> offsets) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean cjk = SearchTokenizer.isCjk(c);
+            if (cjk || Character.isLetterOrDigit(c)) {
+                int pos = normalized.length();
+                if (offsets != null && (pos == 0 || cjk
+                        || normalized.charAt(pos - 1) == ' '
+                        || SearchTokenizer.isCjk(normalized.charAt(pos - 1))
+                        || (Character.isUpperCase(c) && Character.isLowerCase(text.charAt(i - 1))))) {
+                    offsets.add(pos);
+                }
+                normalized.append(Character.toLowerCase(c));
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        int end = normalized.length();
+        if (end > 0 && normalized.charAt(end - 1) == ' ') {
+            normalized.setLength(end - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static String entryKey(String source, Long id) {
+        return source + ":" + id;
+    }
+
+    private static Entry toEntry(McpTool tool) {
+        Set<String> labels = new LinkedHashSet<>();
+        addLabel(labels, tool.getToolName());
+        labels.addAll(SearchTokenizer.displayValues(tool.getNameDisplay()));
+        return new Entry(MCP_TOOL, tool.getId(), tool.getProviderId(), tool.getToolNum(), tool.getToolName(),
+                new ArrayList<>(labels));
+    }
+
+    private static Entry toEntry(OriginToolHttp tool) {
+        List<String> labels = SearchTokenizer.displayValues(tool.getNameDisplay());
+        return new Entry(OriginToolChangedEvent.HTTP, tool.getId(), tool.getProviderId(), tool.getProviderToolNum(),
+                labels.isEmpty() ? null : labels.get(0), labels);
+    }
+
+    private static Entry toEntry(OriginToolExpo tool) {
+        Set<String> labels = new LinkedHashSet<>();
+        addLabel(labels, tool.getProviderToolName());
+        labels.addAll(SearchTokenizer.displayValues(tool.getNameDisplay()));
+        return new Entry(OriginToolChangedEvent.EXPO, tool.getId(), tool.getProviderId(), tool.getProviderToolNum(),
+                tool.getProviderToolName(), new ArrayList<>(labels));
+    }
+
+    private static void addLabel(Set<String> labels, String label) {
+        if (label != null && !label.trim().isEmpty()) {
+            labels.add(label);
+        }
+    }
+}
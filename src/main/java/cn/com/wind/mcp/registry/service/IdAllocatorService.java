@@ -0,0 +1,31 @@
+package cn.com.wind.mcp.registry.service;
+
+/**
+ * 编号分配服务
+ * <p>
+ * 各节点按号段从id_sequence表领取编号，在内存中发放，多节点、同一毫秒内分配也不会重复
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface IdAllocatorService {
+
+    /**
+     * 工具编号: mcp_tool.tool_num 及原始接口的 provider_tool_num
+     */
+    String TOOL_NUM = "tool_num";
+
+    /**
+     * 应用编号: origin_provider_config.app_num
+     */
+    String APP_NUM = "app_num";
+
+    /**
+     * 分配下一个编号
+     *
+     * @param bizKey 业务标识
+     * @return 编号，同一业务标识下全局唯一
+     */
+    long nextId(String bizKey);
+}
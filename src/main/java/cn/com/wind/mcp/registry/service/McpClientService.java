@@ -1,6 +1,11 @@
 package cn.com.wind.mcp.registry.service;
 
+import cn.com.wind.mcp.registry.client.McpStreamListener;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolCall;
+
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface McpClientService {
 
@@ -14,6 +19,58 @@ public interface McpClientService {
 
     Map<String, Object> testToolWithSessionId(Long toolId, Map<String, Object> arguments, String sessionId);
 
+    /**
+     * 异步测试工具调用，在独立执行器上运行，不占用调用方线程
+     *
+     * @param toolId    工具编号(toolNum)
+     * @param arguments 工具参数
+     * @param sessionId wind会话ID
+     * @return 测试结果
+     */
+    CompletableFuture<Map<String, Object>> testToolWithSessionIdAsync(Long toolId, Map<String, Object> arguments,
+                                                                      String sessionId);
+
+    /**
+     * 流式调用工具：进度通知等中间消息到达时立即交给listener，最终结果通过返回值获取
+     *
+     * @param toolId    工具编号(toolNum)
+     * @param arguments 工具参数
+     * @param sessionId wind会话ID
+     * @param listener  中间消息监听器，返回false时停止接收并关闭上游请求
+     * @return 测试结果
+     */
+    CompletableFuture<Map<String, Object>> streamToolWithSessionId(Long toolId, Map<String, Object> arguments,
+                                                                   String sessionId, McpStreamListener listener);
+
+    /**
+     * 批量调用工具：服务端支持JSON-RPC批量请求时合并为一次往返，按id把响应对应回各调用；
+     * 不支持时逐个调用
+     *
+     * @param calls     工具调用列表
+     * @param sessionId wind会话ID
+     * @return 测试结果，顺序与calls一致
+     */
+    List<Map<String, Object>> testToolsWithSessionId(List<McpToolCall> calls, String sessionId);
+
+    /**
+     * 异步批量调用工具
+     *
+     * @param calls     工具调用列表
+     * @param sessionId wind会话ID
+     * @return 测试结果，顺序与calls一致
+     */
+    CompletableFuture<List<Map<String, Object>>> testToolsWithSessionIdAsync(List<McpToolCall> calls,
+                                                                             String sessionId);
+
+    /**
+     * 获取MCP服务器当前暴露的工具列表(tools/list，自动翻页)
+     *
+     * @param mcpUrl    MCP服务器地址，为null时使用默认地址
+     * @param sessionId wind会话ID
+     * @return 工具定义(name、description、inputSchema等)
+     */
+    List<Map<String, Object>> listToolsWithSessionId(String mcpUrl, String sessionId);
+
     /**
      * 检查MCP连接状态
      *
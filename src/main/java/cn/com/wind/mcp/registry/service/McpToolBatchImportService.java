@@ -0,0 +1,29 @@
+package cn.com.wind.mcp.registry.service;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBatchImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 批量导入工具服务
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface McpToolBatchImportService {
+
+    /**
+     * 导入批量导出生成的文件，按块校验和写入，每块一个事务
+     *
+     * @param in         文件内容，方法内不关闭
+     * @param format     文件格式: ndjson/zip
+     * @param dryRun     为true时只校验不写入
+     * @param providerId 当前提供者ID
+     * @param username   当前用户名
+     * @return 逐条导入报告
+     * @throws IOException 读取失败
+     */
+    McpToolBatchImportReport importTools(InputStream in, String format, boolean dryRun,
+                                         Long providerId, String username) throws IOException;
+}
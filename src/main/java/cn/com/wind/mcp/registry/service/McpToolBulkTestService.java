@@ -0,0 +1,35 @@
+package cn.com.wind.mcp.registry.service;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestJob;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestRequest;
+
+/**
+ * 批量工具测试服务
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface McpToolBulkTestService {
+
+    /**
+     * 提交批量测试任务，立即返回任务句柄；测试以有限并行度在后台执行，
+     * 完成后在任务中生成成功率、延迟分位数和错误代码分布报告
+     *
+     * @param request          测试请求
+     * @param sessionId        wind会话ID
+     * @param operatorId       操作者ID(保存成功记录时使用)
+     * @param operatorUsername 操作者用户名
+     * @return 测试任务
+     * @throws RuntimeException 没有需要测试的工具或调用数超过上限
+     */
+    McpToolBulkTestJob submit(McpToolBulkTestRequest request, String sessionId,
+                              Long operatorId, String operatorUsername);
+
+    /**
+     * 查询批量测试任务
+     *
+     * @param jobId 任务ID
+     * @return 测试任务，不存在或已过期时返回null
+     */
+    McpToolBulkTestJob getJob(String jobId);
+}
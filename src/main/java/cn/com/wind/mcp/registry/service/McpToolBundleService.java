@@ -0,0 +1,56 @@
+package cn.com.wind.mcp.registry.service;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolExportFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * MCP工具聚合Service接口
+ * 一次查询加载工具及其原始接口、转换模板，供详情、编辑、导出和测试快照使用；支持按条件流式批量导出
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface McpToolBundleService {
+
+    /**
+     * 导出格式：每行一个McpToolExportDto的JSON
+     */
+    String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * 导出格式：ZIP，每个工具一个JSON文件
+     */
+    String FORMAT_ZIP = "zip";
+
+    /**
+     * 加载单个工具的聚合
+     *
+     * @param toolId 工具ID
+     * @return 工具聚合，工具不存在时返回null
+     */
+    McpToolBundle getBundle(Long toolId);
+
+    /**
+     * 批量加载工具聚合
+     *
+     * @param toolIds 工具ID
+     * @return 工具ID -> 聚合，按传入顺序，不存在的工具不包含在内
+     */
+    Map<Long, McpToolBundle> getBundles(Collection<Long> toolIds);
+
+    /**
+     * 按条件流式导出工具，边读库边写出，内存占用与工具数量无关
+     *
+     * @param filter 过滤条件
+     * @param format 导出格式: ndjson/zip
+     * @param out    输出流，方法内不关闭
+     * @return 导出的工具数
+     * @throws IOException 写出失败
+     */
+    long exportBundles(McpToolExportFilter filter, String format, OutputStream out) throws IOException;
+}
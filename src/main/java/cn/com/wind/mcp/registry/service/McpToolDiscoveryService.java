@@ -0,0 +1,47 @@
+package cn.com.wind.mcp.registry.service;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDriftReport;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolListing;
+
+/**
+ * MCP工具发现服务
+ * <p>
+ * 按虚拟服务器和会话缓存tools/list结果，并与注册表对账；只能访问已启用且对调用者可见的虚拟服务器
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface McpToolDiscoveryService {
+
+    /**
+     * 获取虚拟服务器实际暴露的工具，优先使用缓存
+     *
+     * @param vserverId 虚拟服务器ID
+     * @param username  调用者用户名
+     * @param sessionId wind会话ID(缓存未命中时用于调用MCP服务器)
+     * @param refresh   是否忽略缓存重新获取
+     * @return 工具列表
+     * @throws RuntimeException 虚拟服务器不存在、未启用或调用者无权访问
+     */
+    McpToolListing listTools(String vserverId, String username, String sessionId, boolean refresh);
+
+    /**
+     * 对比实际工具列表与mcp_tool/vserver_items，报告缺失、多出和参数定义漂移的工具
+     *
+     * @param vserverId 虚拟服务器ID
+     * @param username  调用者用户名
+     * @param sessionId wind会话ID
+     * @param refresh   是否忽略缓存重新获取
+     * @return 差异报告
+     * @throws RuntimeException 虚拟服务器不存在、未启用或调用者无权访问
+     */
+    McpToolDriftReport reconcile(String vserverId, String username, String sessionId, boolean refresh);
+
+    /**
+     * 清除缓存的工具列表
+     *
+     * @param vserverId 虚拟服务器ID，为null时清除全部
+     */
+    void invalidate(String vserverId);
+}
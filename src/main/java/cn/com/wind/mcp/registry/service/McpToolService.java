@@ -3,7 +3,9 @@ package cn.com.wind.mcp.registry.service;
 import cn.com.wind.mcp.registry.dto.McpToolExportDto;
 import cn.com.wind.mcp.registry.dto.McpToolImportValidationResult;
 import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolSearchResult;
 import cn.com.wind.mcp.registry.entity.McpTool;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import java.util.List;
@@ -18,14 +20,47 @@ import java.util.List;
  */
 public interface McpToolService extends IService<McpTool> {
 
+    /**
+     * 列表、搜索使用的摘要列，不含input_schema、output_schema，这两个大字段只在详情、编辑时加载
+     */
+    String[] SUMMARY_COLUMNS = {"id", "create_time", "create_by", "update_time", "update_by", "provider_id",
+            "tool_num", "tool_version", "valid", "tool_name", "tool_description", "name_display",
+            "description_display", "stream_output", "convert_type", "tool_type", "unique_id"};
+
     /**
      * 搜索工具
      *
      * @param keyword 关键词
-     * @return 工具列表
+     * @return 工具列表，只含摘要列
      */
     List<McpTool> searchTools(String keyword);
 
+    /**
+     * 分页搜索工具(走内存倒排索引，索引未就绪时回退到数据库模糊查询)
+     *
+     * @param keyword    关键词，为空时返回全部
+     * @param providerId 提供者ID，为null时不限
+     * @param current    页码
+     * @param size       每页条数
+     * @return 分页结果，只含摘要列
+     */
+    IPage<McpTool> searchToolPage(String keyword, Long providerId, long current, long size);
+
+    /**
+     * 按相关度排序的分面搜索(BM25，索引未就绪时回退到数据库模糊查询，不含分面计数)
+     *
+     * @param keyword     关键词，为空时按过滤条件返回全部
+     * @param providerId  提供者ID，为null时不限
+     * @param convertType 转换类型(http、expo、code)，为null时不限
+     * @param toolType    工具类型(1: tool, 2: agent)，为null时不限
+     * @param valid       有效状态(1: 有效, 0: 无效)，为null时不限
+     * @param current     页码
+     * @param size        每页条数
+     * @return 当前页结果(只含摘要列)和分面计数
+     */
+    McpToolSearchResult rankedSearch(String keyword, Long providerId, String convertType, String toolType,
+                                     String valid, long current, long size);
+
     /**
      * 保存或更新工具（带验证）
      *
@@ -75,6 +110,23 @@ public interface McpToolService extends IService<McpTool> {
      */
     List<McpToolDTO> getMcpToolsByNumValid(Long toolNum, String valid);
 
+    /**
+     * 按工具编号解析当前有效的工具(最高版本)，结果带缓存，不存在的编号会被短期缓存
+     * 返回的DTO为缓存共享对象，调用方不应修改
+     *
+     * @param toolNum 工具编号
+     * @return MCP工具DTO，不存在时返回null
+     */
+    McpToolDTO resolveValidTool(Long toolNum);
+
+    /**
+     * 工具编号解析失败时的候选工具：编号相同(含无效版本)或主键等于该值的工具，最多5条
+     *
+     * @param toolNumOrId 工具编号或主键
+     * @return 候选工具(仅包含id、toolNum、toolName、valid、toolVersion)
+     */
+    List<McpToolDTO> suggestTools(Long toolNumOrId);
+
     /**
      * 查询所有MCP工具
      *
@@ -101,4 +153,24 @@ public interface McpToolService extends IService<McpTool> {
      */
     McpTool importTool(McpToolExportDto exportDto, Long currentProviderId, String username);
 
+    /**
+     * 批量验证导入的工具数据
+     * 逐条校验并行执行，名称重复(与库中已有工具或本批其他工具)用一次IN查询检查
+     *
+     * @param exportDtos 导入的数据
+     * @return 与exportDtos一一对应的校验结果
+     */
+    List<McpToolImportValidationResult> validateImportBatch(List<McpToolExportDto> exportDtos);
+
+    /**
+     * 批量导入工具数据，各表分别批量插入，整批在同一事务内
+     * 调用方需先通过validateImportBatch校验；本方法不发布变更事件，调用方在全部写入后发布一次McpToolChangedEvent(null, null)
+     *
+     * @param exportDtos        导入的数据
+     * @param currentProviderId 当前登录用户的提供者ID
+     * @param username          当前登录用户的用户名
+     * @return 与exportDtos一一对应的导入后MCP工具
+     */
+    List<McpTool> importToolBatch(List<McpToolExportDto> exportDtos, Long currentProviderId, String username);
+
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package cn.com.wind.mcp.registry.service;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolTestJob;
+
+import java.util.Map;
+
+/**
+ * 异步工具测试任务服务
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface McpToolTestJobService {
+
+    /**
+     * 提交测试任务，立即返回任务句柄
+     *
+     * @param toolNum   工具编号
+     * @param arguments 工具参数
+     * @param sessionId wind会话ID
+     * @return 测试任务
+     */
+    McpToolTestJob submit(Long toolNum, Map<String, Object> arguments, String sessionId);
+
+    /**
+     * 查询测试任务
+     *
+     * @param jobId 任务ID
+     * @return 测试任务，不存在或已过期时返回null
+     */
+    McpToolTestJob getJob(String jobId);
+}
@@ -13,6 +13,13 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface OriginToolExpoService extends IService<OriginToolExpo> {
 
+    /**
+     * 列表、搜索使用的摘要列，不含expo_api_define，该大字段只在详情、编辑时加载
+     */
+    String[] SUMMARY_COLUMNS = {"id", "create_time", "create_by", "update_time", "update_by", "provider_id",
+            "provider_tool_num", "provider_tool_name", "name_display", "desc_display", "app_class", "command_id",
+            "function_name", "provider_app_num"};
+
     /**
      * 统计指定用户创建的接口数量
      *
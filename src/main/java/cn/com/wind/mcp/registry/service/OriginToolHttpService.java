@@ -13,6 +13,12 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface OriginToolHttpService extends IService<OriginToolHttp> {
 
+    /**
+     * 列表、搜索使用的摘要列，不含req_headers、input_schema、output_schema，这些大字段只在详情、编辑时加载
+     */
+    String[] SUMMARY_COLUMNS = {"id", "create_time", "create_by", "update_time", "update_by", "provider_id",
+            "provider_tool_num", "name_display", "desc_display", "req_url", "req_method", "provider_app_num"};
+
     /**
      * 统计指定用户创建的接口数量
      *
@@ -0,0 +1,29 @@
+package cn.com.wind.mcp.registry.service;
+
+import cn.com.wind.mcp.registry.dto.mcptool.ProviderToolCounts;
+
+/**
+ * 工具目录计数服务
+ * <p>
+ * 在内存中按提供者维护mcp_tool、origin_tool_http、origin_tool_expo的数量，随工具变更事件增量更新并定期与数据库对账，
+ * 首页等统计读取时不查询数据库
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public interface ToolCatalogCounterService {
+
+    /**
+     * 获取提供者名下的工具数量
+     *
+     * @param providerId 提供者ID
+     * @return 数量统计，没有任何工具时各项为0
+     */
+    ProviderToolCounts getCounts(Long providerId);
+
+    /**
+     * 从数据库重新统计，替换内存中的计数
+     */
+    void reconcile();
+}
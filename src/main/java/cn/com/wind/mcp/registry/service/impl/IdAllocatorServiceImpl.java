@@ -0,0 +1,117 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.mapper.IdSequenceMapper;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段编号分配实现
+ * <p>
+ * 号段用完时在独立事务中把id_sequence.max_id增加step，行锁保证各节点领到的号段互不重叠；
+ * 号段内的编号通过AtomicLong无锁发放；领取号段只锁对应业务标识，不同业务标识互不阻塞。
+ * 重启时未用完的编号直接丢弃，编号会有空洞但不会重复
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class IdAllocatorServiceImpl implements IdAllocatorService {
+
+    private final IdSequenceMapper idSequenceMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int step;
+
+    /**
+     * 业务标识 -> 编号序列
+     */
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    public IdAllocatorServiceImpl(IdSequenceMapper idSequenceMapper, PlatformTransactionManager transactionManager,
+                                  @Value("${mcp.id.segment-step:100}") int step) {
+        this.idSequenceMapper = idSequenceMapper;
+        // 独立事务领取号段，不受调用方事务回滚影响，也不会把行锁持有到调用方事务结束
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.step = Math.max(1, step);
+    }
+
+    @Override
+    public long nextId(String bizKey) {
+        Sequence sequence = sequences.computeIfAbsent(bizKey, key -> new Sequence());
+        while (true) {
+            Segment segment = sequence.current;
+            if (segment != null) {
+                long id = segment.next.getAndIncrement();
+                if (id <= segment.max) {
+                    return id;
+                }
+            }
+            synchronized (sequence) {
+                if (sequence.current == segment) {
+                    sequence.current = lease(bizKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * 领取新号段；记录不存在时以当前毫秒时间戳为起点初始化，多个节点同时初始化时重试一次
+     */
+    private Segment lease(String bizKey) {
+        try {
+            return transactionTemplate.execute(status -> leaseInTransaction(bizKey));
+        } catch (DuplicateKeyException e) {
+            log.info("号段记录已由其他节点初始化, 重新领取: bizKey={}", bizKey);
+            return transactionTemplate.execute(status -> leaseInTransaction(bizKey));
+        }
+    }
+
+    private Segment leaseInTransaction(String bizKey) {
+        if (idSequenceMapper.increaseMaxId(bizKey, step) == 0) {
+            idSequenceMapper.insertSequence(bizKey, System.currentTimeMillis() + step - 1);
+        }
+        Long maxId = idSequenceMapper.selectMaxId(bizKey);
+        if (maxId == null) {
+            throw new RuntimeException("领取编号号段失败: " + bizKey);
+        }
+        log.info("领取编号号段: bizKey={}, range=[{}, {}]", bizKey, maxId - step + 1, maxId);
+        return new Segment(maxId - step + 1, maxId);
+    }
+
+    /**
+     * 业务标识的编号序列，同时作为该标识领取号段的锁
+     */
+    private static class Sequence {
+
+        private volatile Segment current;
+    }
+
+    /**
+     * 号段 [next, max]
+     */
+    private static class Segment {
+
+        private final AtomicLong next;
+
+        private final long max;
+
+        Segment(long start, long max) {
+            this.next = new AtomicLong(start);
+            this.max = max;
+        }
+    }
+}
@@ -1,7 +1,23 @@
 package cn.com.wind.mcp.registry.service.impl;
 
+import cn.com.wind.mcp.registry.client.McpBusinessData;
+import cn.com.wind.mcp.registry.client.McpHttpTransport;
+import cn.com.wind.mcp.registry.client.McpResponseLimitInputStream;
+import cn.com.wind.mcp.registry.client.McpResponseTooLargeException;
+import cn.com.wind.mcp.registry.client.McpSession;
+import cn.com.wind.mcp.registry.client.McpEndpointRejectedException;
+import cn.com.wind.mcp.registry.client.McpSessionExpiredException;
+import cn.com.wind.mcp.registry.client.McpSessionRegistry;
+import cn.com.wind.mcp.registry.client.McpStreamListener;
+import cn.com.wind.mcp.registry.client.McpToolCallResult;
+import cn.com.wind.mcp.registry.client.McpToolSchemaValidator;
+import cn.com.wind.mcp.registry.client.SseEvent;
+import cn.com.wind.mcp.registry.client.SseEventDecoder;
+import cn.com.wind.mcp.registry.client.WindToolEnvelope;
 import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolCall;
 import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.event.McpToolsListChangedEvent;
 import cn.com.wind.mcp.registry.service.McpClientService;
 import cn.com.wind.mcp.registry.service.McpToolService;
 import cn.com.wind.mcp.registry.util.SessionDataUtil;
@@ -9,120 +25,96 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class McpClientServiceImpl implements McpClientService {
 
-    private final RestTemplate mcpRestTemplate;
+    /**
+     * 客户端请求的MCP协议版本
+     */
+    private static final String PROTOCOL_VERSION = "2025-03-26";
+
+    /**
+     * 单个批次最多包含的请求数
+     */
+    private static final int MAX_BATCH_SIZE = 50;
+
+    /**
+     * tools/list最多翻页次数，防止服务端游标异常导致死循环
+     */
+    private static final int MAX_LIST_PAGES = 100;
+
+    /**
+     * 服务端工具列表变更通知
+     */
+    private static final String TOOLS_LIST_CHANGED = "notifications/tools/list_changed";
+
+    /**
+     * 响应超过大小上限时保留的预览字节数
+     */
+    private static final int TRUNCATED_PREVIEW_BYTES = 4096;
+
+    private final McpHttpTransport mcpHttpTransport;
+    private final McpSessionRegistry mcpSessionRegistry;
     private final McpClientConfig.McpProperties mcpProperties;
     private final McpToolService mcpToolService;
     private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor mcpTestExecutor;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final McpToolSchemaValidator mcpToolSchemaValidator;
 
     private final AtomicLong requestId = new AtomicLong(0);
-    private volatile boolean isInitialized = false;
 
     @Override
     public Map<String, Object> testTool(Long toolId, Map<String, Object> arguments) {
-        try {
-            // 获取当前请求的 sessionId
-            String sessionId = getCurrentSessionId();
-            if (sessionId == null) {
-                return createErrorResponse("缺少 sessionId，请先登录");
-            }
-
-            log.info("使用 sessionId: {}", sessionId);
-
-            // 确保MCP连接已初始化
-            if (!isInitialized) {
-                initializeConnection(sessionId);
-            }
-
-            // 修改查询逻辑：toolId实际上是toolNum
-            McpToolDTO tool = null;
-            try {
-                // 先尝试通过toolNum查询（这是正确的方式）
-                List<McpToolDTO> tools = mcpToolService.getMcpToolsByNumValid(toolId, "1");
-                if (!tools.isEmpty()) {
-                    tool = tools.get(0);
-                    log.info("通过toolNum {}找到工具: {}", toolId, tool.getToolName());
-                }
-            } catch (Exception e) {
-                log.warn("通过toolNum {}查询工具失败: {}", toolId, e.getMessage());
-
-                // 如果toolNum查询失败，尝试通过id查询
-                try {
-                    tool = mcpToolService.getMcpToolById(toolId);
-                    log.info("通过id {}找到工具: {}", toolId, tool.getToolName());
-                } catch (Exception e2) {
-                    log.warn("通过id {}查询工具失败: {}", toolId, e2.getMessage());
-                }
-            }
-
-            if (tool == null) {
-                // 如果还是找不到，列出所有可用工具供调试
-                try {
-                    List<McpToolDTO> allTools = mcpToolService.getAllMcpTools();
-                    log.info("当前数据库中的所有工具: {}",
-                            allTools.stream()
-                                    .map(t -> String.format("ID:%d, ToolNum:%d, Name:%s",
-                                            t.getId(), t.getToolNum(), t.getToolName()))
-                                    .collect(java.util.stream.Collectors.toList()));
-                } catch (Exception e) {
-                    log.error("查询所有工具失败", e);
-                }
-
-                return createErrorResponse("工具不存在，toolNum: " + toolId);
-            }
-
-            log.info("找到工具: ID={}, ToolNum={}, Name={}",
-                    tool.getId(), tool.getToolNum(), tool.getToolName());
-
-            // 构造MCP调用请求
-            Map<String, Object> mcpRequest = new HashMap<>();
-            mcpRequest.put("jsonrpc", "2.0");
-            mcpRequest.put("id", requestId.incrementAndGet());
-            mcpRequest.put("method", "tools/call");
-
-            Map<String, Object> params = new HashMap<>();
-            params.put("name", tool.getToolName());
-            params.put("arguments", arguments != null ? arguments : new HashMap<>());
-            mcpRequest.put("params", params);
+        // 获取当前请求的 sessionId
+        String sessionId = getCurrentSessionId();
+        if (sessionId == null) {
+            return createErrorResponse("缺少 sessionId，请先登录");
+        }
 
-            // 使用SSE方式发送请求，传入 sessionId
-            String mcpUrl = mcpProperties.getServer().getUrl();
-            log.info("准备调用MCP服务器: {}, 工具: {}, 参数: {}", mcpUrl, tool.getToolName(), arguments);
-            String response = sendSseRequest(mcpUrl, mcpRequest, sessionId);
+        log.info("使用 sessionId: {}", sessionId);
+        return testToolWithSessionId(toolId, arguments, sessionId);
+    }
 
-            if (response != null && !response.trim().isEmpty()) {
-                log.info("收到MCP响应: {}", response);
-                // 解析SSE响应
-                return parseSseResponse(response);
-            } else {
-                log.error("MCP服务器无响应或响应为空");
-                return createErrorResponse("MCP服务器无响应");
-            }
+    @Override
+    public CompletableFuture<Map<String, Object>> testToolWithSessionIdAsync(Long toolNum,
+                                                                             Map<String, Object> arguments,
+                                                                             String sessionId) {
+        return CompletableFuture.supplyAsync(() -> testToolWithSessionId(toolNum, arguments, sessionId),
+                mcpTestExecutor);
+    }
 
-        } catch (Exception e) {
-            log.error("调用MCP工具时出错", e);
-            return createErrorResponse("MCP客户端调用失败: " + e.getMessage());
-        }
+    @Override
+    public CompletableFuture<Map<String, Object>> streamToolWithSessionId(Long toolNum,
+                                                                          Map<String, Object> arguments,
+                                                                          String sessionId,
+                                                                          McpStreamListener listener) {
+        return CompletableFuture.supplyAsync(() -> invokeTool(toolNum, arguments, sessionId, listener),
+                mcpTestExecutor);
     }
 
     @Override
@@ -131,31 +123,9 @@ public class McpClientServiceImpl implements McpClientService {
             String sessionId = getCurrentSessionId();
             String mcpUrl = mcpProperties.getServer().getUrl();
 
-            // 使用正确的Accept头检查连接
-            HttpURLConnection connection = (HttpURLConnection) new URL(mcpUrl).openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json, text/event-stream");
-            connection.setRequestProperty("Cache-Control", "no-cache");
-
-            // 添加认证头
-            if (sessionId != null) {
-                connection.setRequestProperty("wind.sessionid", sessionId);
-                connection.setRequestProperty("windsessionid", sessionId);
-            }
-
-            String clientName = mcpProperties.getClient().getClientName();
-            if (clientName != null && !clientName.trim().isEmpty()) {
-                connection.setRequestProperty("x-wind-clientname", clientName);
-            } else {
-                connection.setRequestProperty("x-wind-clientname", "aimarket-backend");
-            }
-
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            int responseCode = connection.getResponseCode();
+            // 复用连接池中的连接检查MCP服务器
+            int responseCode = mcpHttpTransport.probe(mcpUrl, sessionId);
             log.info("连接检查响应码: {}", responseCode);
-            connection.disconnect();
 
             return responseCode == 200;
         } catch (Exception e) {
@@ -191,297 +161,488 @@ public class McpClientServiceImpl implements McpClientService {
     }
 
     /**
-     * 初始化MCP连接，带 sessionId
+     * 获取已握手的MCP会话，同一sessionId的并发首次调用只握手一次
      */
-    private void initializeConnection(String sessionId) {
-        try {
-            String mcpUrl = mcpProperties.getServer().getUrl();
+    private McpSession acquireSession(String sessionId) {
+        return acquireSession(sessionId, mcpProperties.getServer().getUrl());
+    }
 
-            // 发送初始化请求
-            Map<String, Object> initRequest = new HashMap<>();
-            initRequest.put("jsonrpc", "2.0");
-            initRequest.put("id", 0);
-            initRequest.put("method", "initialize");
+    /**
+     * 获取到指定MCP地址的已握手会话
+     */
+    private McpSession acquireSession(String sessionId, String mcpUrl) {
+        return mcpSessionRegistry.getOrInitialize(sessionKey(sessionId, mcpUrl),
+                () -> initializeConnection(sessionId, mcpUrl));
+    }
 
-            Map<String, Object> params = new HashMap<>();
-            params.put("protocolVersion", "2025-03-26");
+    /**
+     * 会话注册表的键：默认MCP地址直接使用sessionId，其他地址(如其他虚拟服务器)附加地址区分
+     */
+    private String sessionKey(String sessionId, String mcpUrl) {
+        return mcpUrl == null || mcpUrl.equals(mcpProperties.getServer().getUrl())
+                ? sessionId : sessionId + "|" + mcpUrl;
+    }
 
-            Map<String, Object> capabilities = new HashMap<>();
-            Map<String, Object> tools = new HashMap<>();
-            tools.put("listChanged", true);
-            capabilities.put("tools", tools);
-            params.put("capabilities", capabilities);
+    /**
+     * 初始化MCP连接，带 sessionId
+     *
+     * @return 握手完成的会话
+     */
+    private McpSession initializeConnection(String sessionId, String mcpUrl) {
+        McpSession session = new McpSession(sessionId);
+
+        // 发送初始化请求
+        Map<String, Object> initRequest = new HashMap<>();
+        initRequest.put("jsonrpc", "2.0");
+        initRequest.put("id", 0);
+        initRequest.put("method", "initialize");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("protocolVersion", PROTOCOL_VERSION);
+
+        Map<String, Object> capabilities = new HashMap<>();
+        Map<String, Object> tools = new HashMap<>();
+        tools.put("listChanged", true);
+        capabilities.put("tools", tools);
+        params.put("capabilities", capabilities);
+
+        Map<String, Object> clientInfo = new HashMap<>();
+        clientInfo.put("name", "mcp-tool-caller");
+        clientInfo.put("version", "1.0.0");
+        params.put("clientInfo", clientInfo);
+
+        initRequest.put("params", params);
+
+        Map<String, Object> response = sendSseRequest(mcpUrl, initRequest, session);
+        if (response == null || !response.containsKey("result")) {
+            throw new RuntimeException("MCP连接初始化失败");
+        }
 
-            Map<String, Object> clientInfo = new HashMap<>();
-            clientInfo.put("name", "mcp-tool-caller");
-            clientInfo.put("version", "1.0.0");
-            params.put("clientInfo", clientInfo);
+        // 批量请求只在2025-03-26版本协议中定义，以服务端返回的协议版本为准
+        Object result = response.get("result");
+        Object negotiatedVersion = result instanceof Map ? ((Map<?, ?>) result).get("protocolVersion") : null;
+        session.setBatchSupported(mcpProperties.getClient().isBatchEnabled()
+                && PROTOCOL_VERSION.equals(negotiatedVersion));
+
+        if (session.isBatchSupported()) {
+            // initialized通知随第一个请求批量发送，省去一次往返
+            session.deferInitializedNotification();
+        } else {
+            sendSseRequest(mcpUrl, initializedNotification(), session);
+        }
 
-            initRequest.put("params", params);
+        session.setInitialized(true);
+        log.info("MCP连接初始化成功，使用 sessionId: {}, Mcp-Session-Id: {}, 批量请求: {}", sessionId,
+                session.getMcpSessionId(), session.isBatchSupported());
+        return session;
+    }
 
-            String response = sendSseRequest(mcpUrl, initRequest, sessionId);
+    /**
+     * notifications/initialized通知
+     */
+    private Map<String, Object> initializedNotification() {
+        Map<String, Object> notifyRequest = new HashMap<>();
+        notifyRequest.put("jsonrpc", "2.0");
+        notifyRequest.put("method", "notifications/initialized");
+        return notifyRequest;
+    }
 
-            if (response != null && response.contains("result")) {
-                // 发送initialized通知
-                Map<String, Object> notifyRequest = new HashMap<>();
-                notifyRequest.put("jsonrpc", "2.0");
-                notifyRequest.put("method", "notifications/initialized");
+    /**
+     * 发送SSE请求，带 sessionId
+     * <p>
+     * 返回与请求id匹配的JSON-RPC响应；通知类请求(无id)或服务端无响应体时返回空Map，请求失败返回null
+     * </p>
+     */
+    private Map<String, Object> sendSseRequest(String url, Map<String, Object> requestData, McpSession session) {
+        return sendSseRequest(url, requestData, session, null);
+    }
 
-                sendSseRequest(mcpUrl, notifyRequest, sessionId);
+    /**
+     * 发送SSE请求，中间消息逐条交给listener；listener要求停止时关闭响应流并返回null
+     */
+    private Map<String, Object> sendSseRequest(String url, Map<String, Object> requestData, McpSession session,
+                                               McpStreamListener listener) {
+        Object expectedId = requestData.get("id");
+        return exchange(url, requestData, session,
+                (body, contentType) -> readResponseBody(body, contentType, expectedId, listener));
+    }
 
-                isInitialized = true;
-                log.info("MCP连接初始化成功，使用 sessionId: {}", sessionId);
+    /**
+     * 发送JSON-RPC批量请求(数组)，按id返回各请求的响应
+     * <p>
+     * 只含通知的批次服务端返回202，结果为空Map；请求失败返回null
+     * </p>
+     */
+    private Map<String, Map<String, Object>> sendBatchRequest(String url, List<Map<String, Object>> messages,
+                                                              McpSession session) {
+        Set<String> expectedIds = new HashSet<>();
+        for (Map<String, Object> message : messages) {
+            if (message.get("id") != null) {
+                expectedIds.add(String.valueOf(message.get("id")));
             }
-        } catch (Exception e) {
-            log.error("初始化MCP连接失败", e);
-            isInitialized = false;
         }
+        return exchange(url, messages, session,
+                (body, contentType) -> readBatchResponse(body, contentType, expectedIds));
     }
 
     /**
-     * 发送SSE请求，带 sessionId
+     * 发送请求并读取响应：记录服务端分配的会话ID，会话失效时抛出McpSessionExpiredException
      */
-    private String sendSseRequest(String url, Map<String, Object> requestData, String sessionId) {
+    private <T> T exchange(String url, Object payload, McpSession session, BodyReader<T> reader) {
         try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json, text/event-stream");
-            connection.setRequestProperty("Cache-Control", "no-cache");
-
-            // ⭐ 关键：添加 sessionId 认证头
-            if (sessionId != null) {
-                connection.setRequestProperty("wind.sessionid", sessionId);
-                connection.setRequestProperty("windsessionid", sessionId);
-                log.info("添加认证头 wind.sessionid: {}", sessionId);
-            } else {
-                log.warn("sessionId 为空，可能导致认证失败");
+            // 发送请求体
+            byte[] jsonRequest = objectMapper.writeValueAsBytes(payload);
+            if (log.isInfoEnabled()) {
+                log.info("发送MCP请求到: {}, 请求内容: {}", url, new String(jsonRequest, StandardCharsets.UTF_8));
             }
+            String sessionId = session.getWindSessionId();
+            long maxResponseBytes = responseLimit(payload);
+
+            return mcpHttpTransport.post(url, jsonRequest, sessionId, session.getMcpSessionId(), response -> {
+                // 读取响应
+                int responseCode = response.getStatusCode().value();
+                log.info("MCP响应状态码: {}", responseCode);
+
+                // 服务端分配的会话ID，后续请求需要带上
+                String mcpSessionId = response.getHeaders().getFirst(McpHttpTransport.MCP_SESSION_HEADER);
+                if (mcpSessionId != null && session.getMcpSessionId() == null) {
+                    session.setMcpSessionId(mcpSessionId);
+                }
 
-            String clientName = mcpProperties.getClient().getClientName();
-            if (clientName != null && !clientName.trim().isEmpty()) {
-                connection.setRequestProperty("x-wind-clientname", clientName);
-                log.info("添加客户端名称头 x-wind-clientname: {}", clientName);
-            } else {
-                // 如果配置中没有，使用默认值
-                connection.setRequestProperty("x-wind-clientname", "aimarket-backend");
-                log.info("使用默认客户端名称: aimarket-backend");
-            }
+                if (responseCode == 404 && session.isInitialized()) {
+                    throw new McpSessionExpiredException("MCP会话已失效: " + sessionId);
+                }
 
-            connection.setDoOutput(true);
-            connection.setConnectTimeout(30000);
-            connection.setReadTimeout(30000);
+                // 响应流已解压；超过大小上限时抛出异常并随即关闭流，不把超大响应读入内存
+                InputStream body = maxResponseBytes > 0
+                        ? new McpResponseLimitInputStream(response.getBody(), maxResponseBytes,
+                        TRUNCATED_PREVIEW_BYTES)
+                        : response.getBody();
 
-            // 发送请求体
-            String jsonRequest = objectMapper.writeValueAsString(requestData);
-            log.info("发送MCP请求到: {}, 请求内容: {}", url, jsonRequest);
-
-            connection.getOutputStream().write(jsonRequest.getBytes(StandardCharsets.UTF_8));
-            connection.getOutputStream().flush();
-
-            // 读取响应
-            int responseCode = connection.getResponseCode();
-            log.info("MCP响应状态码: {}", responseCode);
-
-            if (responseCode == 200 || responseCode == 202) {
-                StringBuilder response = new StringBuilder();
-
-                // 检查响应的Content-Type来决定如何处理
-                String contentType = connection.getContentType();
-                log.info("响应Content-Type: {}", contentType);
-
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-
-                    String line;
-                    if (contentType != null && contentType.contains("text/event-stream")) {
-                        // SSE格式响应
-                        while ((line = reader.readLine()) != null) {
-                            log.debug("SSE响应行: {}", line);
-
-                            // SSE格式：data: {json}
-                            if (line.startsWith("data: ")) {
-                                String jsonData = line.substring(6);
-                                response.append(jsonData);
-
-                                // 如果这是完整的JSON响应，就退出
-                                if (jsonData.contains("\"result\"") || jsonData.contains("\"error\"")) {
-                                    break;
-                                }
-                            }
-                        }
-                    } else {
-                        // JSON格式响应
-                        while ((line = reader.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
+                if (responseCode == 200 || responseCode == 202) {
+                    // 检查响应的Content-Type来决定如何处理
+                    String contentType = response.getHeaders().getFirst("Content-Type");
+                    log.info("响应Content-Type: {}, Content-Encoding: {}", contentType,
+                            response.getHeaders().getFirst("Content-Encoding"));
+
+                    T result = reader.read(body, contentType);
+                    log.debug("MCP完整响应: {}", result);
+                    return result;
                 }
 
-                String result = response.toString();
-                log.info("MCP完整响应: {}", result);
-                return result;
-            } else {
                 // 读取错误响应
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8))) {
-                    StringBuilder error = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        error.append(line);
+                String error = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                log.error("MCP请求失败，状态码: {}, 错误信息: {}", responseCode, error);
+                return null;
+            });
+        } catch (McpSessionExpiredException | McpEndpointRejectedException | McpResponseTooLargeException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("发送SSE请求失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 本次请求的响应大小上限：tools/call按工具名取上限(批量请求为各工具上限之和)，其他请求使用全局上限
+     *
+     * @return 上限(字节)，小于等于0表示不限制
+     */
+    @SuppressWarnings("unchecked")
+    private long responseLimit(Object payload) {
+        McpClientConfig.McpProperties.Client client = mcpProperties.getClient();
+        List<Object> messages = payload instanceof List ? (List<Object>) payload
+                : Collections.singletonList(payload);
+        long total = 0;
+        boolean toolCall = false;
+        for (Object message : messages) {
+            if (!(message instanceof Map) || !"tools/call".equals(((Map<String, Object>) message).get("method"))) {
+                continue;
+            }
+            Object params = ((Map<String, Object>) message).get("params");
+            Object toolName = params instanceof Map ? ((Map<String, Object>) params).get("name") : null;
+            long limit = client.resolveMaxResponseBytes(toolName != null ? String.valueOf(toolName) : null);
+            if (limit <= 0) {
+                return 0;
+            }
+            total = total > Long.MAX_VALUE - limit ? Long.MAX_VALUE : total + limit;
+            toolCall = true;
+        }
+        return toolCall ? total : client.getMaxResponseBytes();
+    }
+
+    /**
+     * 响应体读取方式
+     */
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body, String contentType) throws IOException;
+    }
+
+    /**
+     * 读取响应体
+     * <p>
+     * JSON格式直接从字节流解析；SSE格式逐帧解码，每帧只解析一次，
+     * 跳过通知和进度消息，返回第一个id与请求一致的响应
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readResponseBody(InputStream body, String contentType, Object expectedId,
+                                                 McpStreamListener listener) throws IOException {
+        if (contentType != null && contentType.contains("text/event-stream")) {
+            // SSE格式响应
+            long maxFrameBytes = mcpProperties.getClient().getMaxFrameBytes();
+            try (SseEventDecoder decoder = new SseEventDecoder(body, maxFrameBytes)) {
+                SseEvent event;
+                while ((event = decoder.next()) != null) {
+                    if (event.getData().length == 0) {
+                        continue;
+                    }
+                    Map<String, Object> frame = objectMapper.readValue(event.getData(), Map.class);
+                    if (isResponseTo(frame, expectedId)) {
+                        return frame;
+                    }
+                    onServerNotification(frame);
+                    if (listener != null && !listener.onMessage(frame)) {
+                        // 下游已断开：关闭响应流即中止上游请求
+                        log.info("流式接收已停止，关闭MCP响应流: id={}", expectedId);
+                        return null;
                     }
-                    log.error("MCP请求失败，状态码: {}, 错误信息: {}", responseCode, error.toString());
+                    log.debug("跳过SSE事件: event={}, id={}, method={}", event.getEvent(), event.getId(),
+                            frame.get("method"));
                 }
             }
+            return new HashMap<>();
+        }
 
-            return null;
-        } catch (Exception e) {
-            log.error("发送SSE请求失败", e);
-            return null;
+        // JSON格式响应；202或空响应体表示没有需要返回的结果
+        try (InputStream in = body) {
+            if (in == null) {
+                return new HashMap<>();
+            }
+            PushbackInputStream pushback = new PushbackInputStream(in, 1);
+            int first = pushback.read();
+            if (first < 0) {
+                return new HashMap<>();
+            }
+            pushback.unread(first);
+            return readJson(pushback, Map.class);
         }
     }
 
     /**
-     * 解析SSE响应
+     * 读取批量请求的响应
+     * <p>
+     * 服务端可以返回JSON数组，也可以通过SSE逐条或成组推送响应；收齐所有id后立即返回，
+     * 服务端对整个批次的错误响应(id为null)以null为键返回
+     * </p>
      */
-    private Map<String, Object> parseSseResponse(String sseResponse) {
-        try {
-            // 解析JSON响应
-            Map<String, Object> mcpResponse = objectMapper.readValue(sseResponse, Map.class);
-            log.info("解析MCP响应: {}", mcpResponse);
-
-            if (mcpResponse.containsKey("result")) {
-                Map<String, Object> mcpResult = (Map<String, Object>) mcpResponse.get("result");
-
-                if (mcpResult.containsKey("content")) {
-                    java.util.List<Map<String, Object>> content =
-                            (java.util.List<Map<String, Object>>) mcpResult.get("content");
-
-                    if (content != null && !content.isEmpty() && "text".equals(content.get(0).get("type"))) {
-                        String textContent = (String) content.get(0).get("text");
-                        log.info("提取的文本内容: {}", textContent);
-
-                        if (textContent != null && !textContent.trim().isEmpty()) {
-                            try {
-                                // 解析内部JSON响应
-                                Map<String, Object> parsedContent = objectMapper.readValue(textContent, Map.class);
-                                log.info("解析后的内容: {}", parsedContent);
-
-                                // 构建返回结果，包含两种格式的数据
-                                Map<String, Object> result = new HashMap<>();
-
-                                // 检查工具是否有错误
-                                if (parsedContent.containsKey("mcp_tool_error_code")) {
-                                    Object errorCode = parsedContent.get("mcp_tool_error_code");
-                                    if (errorCode != null && !errorCode.equals(0)) {
-                                        String errorMsg = (String) parsedContent.get("mcp_tool_error_msg");
-
-                                        // 错误情况：返回原始MCP格式
-                                        result.put("content", content);
-                                        result.put("isError", true);
-                                        result.put("error",
-                                                "工具执行失败: " + errorMsg + " (错误代码: " + errorCode + ")");
-                                        result.put("errorCode", errorCode);
-                                        result.put("errorMessage", errorMsg);
-                                        return result;
-                                    }
-                                }
-
-                                // 成功情况：同时提供两种格式
-                                // 1. 原始MCP协议数据（用于"响应过程"显示）
-                                result.put("content", content);
-                                result.put("isError", false);
-
-                                // 2. 解析后的业务数据（用于"测试结果"显示）
-                                if (parsedContent.containsKey("mcp_tool_data") && parsedContent.get("mcp_tool_data")
-                                        != null) {
-                                    Object toolData = parsedContent.get("mcp_tool_data");
-
-                                    if (toolData instanceof String) {
-                                        // 如果是字符串，尝试解析为JSON
-                                        String toolDataStr = (String) toolData;
-
-                                        // 检查是否是简单的时间字符串（不是JSON）
-                                        if (toolDataStr.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}")) {
-                                            // 直接返回时间字符串，不解析为JSON
-                                            Map<String, Object> timeResult = new HashMap<>();
-                                            timeResult.put("currentTime", toolDataStr);
-                                            result.put("businessData", timeResult);
-                                            return result;
-                                        }
-
-                                        if (!toolDataStr.trim().isEmpty()) {
-                                            try {
-                                                Map<String, Object> actualData = objectMapper.readValue(toolDataStr,
-                                                        Map.class);
-                                                // 将业务数据添加到结果中
-                                                result.put("businessData", actualData);
-                                                log.info("成功解析 tool_data: {}", actualData);
-                                            } catch (Exception e) {
-                                                log.warn("解析tool_data字符串失败: {}", toolDataStr, e);
-                                                result.put("businessData", Map.of("error", "数据解析失败"));
-                                            }
-                                        }
-                                    } else if (toolData instanceof Map) {
-                                        // 如果已经是Map对象，直接使用
-                                        @SuppressWarnings("unchecked")
-                                        Map<String, Object> actualData = (Map<String, Object>) toolData;
-                                        result.put("businessData", actualData);
-                                        log.info("直接使用Map格式的tool_data: {}", actualData);
-                                    }
-                                }
-
-                                // 添加原始解析内容供调试
-                                result.put("toolResponse", parsedContent);
-
-                                return result;
-
-                            } catch (Exception e) {
-                                log.error("解析工具响应数据失败: {}", textContent, e);
-
-                                // 解析失败时返回原始content格式
-                                Map<String, Object> result = new HashMap<>();
-                                result.put("content", content);
-                                result.put("isError", true);
-                                result.put("error", "解析工具响应失败: " + e.getMessage());
-                                return result;
-                            }
-                        }
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> readBatchResponse(InputStream body, String contentType,
+                                                               Set<String> expectedIds) throws IOException {
+        Map<String, Map<String, Object>> responses = new HashMap<>();
+        Set<String> pending = new HashSet<>(expectedIds);
+        if (contentType != null && contentType.contains("text/event-stream")) {
+            long maxFrameBytes = mcpProperties.getClient().getMaxFrameBytes();
+            try (SseEventDecoder decoder = new SseEventDecoder(body, maxFrameBytes)) {
+                SseEvent event;
+                while (!pending.isEmpty() && (event = decoder.next()) != null) {
+                    if (event.getData().length == 0) {
+                        continue;
                     }
+                    collectResponses(objectMapper.readValue(event.getData(), Object.class), responses, pending);
+                }
+            }
+            return responses;
+        }
 
-                    // 返回原始MCP结果格式
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("content", content);
-                    result.put("isError", false);
-                    return result;
+        try (InputStream in = body) {
+            if (in == null) {
+                return responses;
+            }
+            PushbackInputStream pushback = new PushbackInputStream(in, 1);
+            int first = pushback.read();
+            if (first < 0) {
+                return responses;
+            }
+            pushback.unread(first);
+            collectResponses(readJson(pushback, Object.class), responses, pending);
+            return responses;
+        }
+    }
+
+    /**
+     * 从响应流反序列化JSON
+     * <p>
+     * 响应超限异常在反序列化过程中会被Jackson包装为JsonMappingException(IOException)，
+     * 这里还原后抛出，否则RestTemplate会把它当作IO异常：调用返回null且计为端点失败
+     * </p>
+     */
+    private <T> T readJson(InputStream in, Class<T> type) throws IOException {
+        try {
+            return objectMapper.readValue(in, type);
+        } catch (IOException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof McpResponseTooLargeException) {
+                    throw (McpResponseTooLargeException) cause;
                 }
             }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collectResponses(Object message, Map<String, Map<String, Object>> responses, Set<String> pending) {
+        if (message instanceof List) {
+            for (Object item : (List<Object>) message) {
+                collectResponses(item, responses, pending);
+            }
+            return;
+        }
+        if (!(message instanceof Map)) {
+            return;
+        }
+        Map<String, Object> frame = (Map<String, Object>) message;
+        if (!isResponseTo(frame, null)) {
+            onServerNotification(frame);
+            log.debug("跳过批量响应中的消息: method={}", frame.get("method"));
+            return;
+        }
+        String id = frame.get("id") != null ? String.valueOf(frame.get("id")) : null;
+        responses.put(id, frame);
+        pending.remove(id);
+        if (id == null) {
+            // 整个批次失败，不再等待其余响应
+            pending.clear();
+        }
+    }
+
+    /**
+     * 处理服务端随响应流推送的通知：工具列表变更时通知发现缓存刷新
+     */
+    private void onServerNotification(Map<String, Object> frame) {
+        if (TOOLS_LIST_CHANGED.equals(frame.get("method"))) {
+            log.info("收到MCP工具列表变更通知");
+            applicationEventPublisher.publishEvent(new McpToolsListChangedEvent());
+        }
+    }
+
+    /**
+     * 判断SSE帧是否为当前请求的响应：服务端发来的请求和通知带有method字段，响应则带有相同的id
+     */
+    private boolean isResponseTo(Map<String, Object> frame, Object expectedId) {
+        if (frame.containsKey("method")) {
+            return false;
+        }
+        if (!frame.containsKey("result") && !frame.containsKey("error")) {
+            return false;
+        }
+        Object id = frame.get("id");
+        return expectedId == null || id == null || String.valueOf(expectedId).equals(String.valueOf(id));
+    }
 
-            if (mcpResponse.containsKey("error")) {
-                Map<String, Object> error = (Map<String, Object>) mcpResponse.get("error");
+    /**
+     * 解析tools/call响应
+     * <p>
+     * 外层信封直接使用已解析的响应树，text内容只解析一次并绑定为WindToolEnvelope；
+     * 字符串形式的mcp_tool_data延迟到读取businessData时才解析
+     * </p>
+     */
+    private Map<String, Object> parseSseResponse(Map<String, Object> mcpResponse) {
+        try {
+            McpToolCallResult callResult = McpToolCallResult.of(mcpResponse);
+            List<Map<String, Object>> content = callResult.getContent();
 
+            if (content != null) {
+                String textContent = callResult.firstText();
+                if (textContent != null && !textContent.trim().isEmpty()) {
+                    return parseToolEnvelope(content, textContent);
+                }
+
+                // 返回原始MCP结果格式
+                Map<String, Object> result = new HashMap<>();
+                result.put("content", content);
+                result.put("isError", false);
+                return result;
+            }
+
+            if (callResult.isRpcError()) {
                 // 错误情况返回MCP格式
                 Map<String, Object> result = new HashMap<>();
-                result.put("content", java.util.List.of());
+                result.put("content", List.of());
                 result.put("isError", true);
-                result.put("error", "MCP错误: " + error.get("message"));
+                result.put("error", "MCP错误: " + callResult.getRpcErrorMessage());
                 return result;
             }
 
         } catch (Exception e) {
-            log.error("解析SSE响应失败: {}", sseResponse, e);
+            log.error("解析SSE响应失败: {}", mcpResponse, e);
         }
 
         // 最终兜底返回MCP格式
         Map<String, Object> result = new HashMap<>();
-        result.put("content", java.util.List.of());
+        result.put("content", List.of());
         result.put("isError", true);
         result.put("error", "解析MCP响应失败");
         return result;
     }
 
+    /**
+     * 解析Wind工具信封，同时提供原始MCP内容("响应过程")和业务数据("测试结果")
+     */
+    private Map<String, Object> parseToolEnvelope(List<Map<String, Object>> content, String textContent) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", content);
+
+        WindToolEnvelope envelope;
+        try {
+            envelope = objectMapper.readValue(textContent, WindToolEnvelope.class);
+        } catch (Exception e) {
+            log.error("解析工具响应数据失败: {}", textContent, e);
+            // 解析失败时返回原始content格式
+            result.put("isError", true);
+            result.put("error", "解析工具响应失败: " + e.getMessage());
+            return result;
+        }
+
+        if (envelope.isFailed()) {
+            // 错误情况：返回原始MCP格式
+            result.put("isError", true);
+            result.put("error", "工具执行失败: " + envelope.getErrorMsg() + " (错误代码: " + envelope.getErrorCode()
+                    + ")");
+            result.put("errorCode", envelope.getErrorCode());
+            result.put("errorMessage", envelope.getErrorMsg());
+            return result;
+        }
+
+        result.put("isError", false);
+        Object toolData = envelope.getData();
+        if (toolData instanceof String) {
+            if (!((String) toolData).trim().isEmpty()) {
+                result.put("businessData", new McpBusinessData((String) toolData, objectMapper));
+            }
+        } else if (toolData instanceof Map) {
+            // 已经是对象，随信封一起解析完成
+            result.put("businessData", toolData);
+        }
+
+        // 添加原始解析内容供调试
+        result.put("toolResponse", envelope.toMap());
+        return result;
+    }
+
     @Override
     public Map<String, Object> testToolWithSessionId(Long toolNum, Map<String, Object> arguments, String sessionId) {
+        return invokeTool(toolNum, arguments, sessionId, null);
+    }
+
+    /**
+     * 调用工具
+     *
+     * @param listener 中间消息监听器，为null时只返回最终结果
+     */
+    private Map<String, Object> invokeTool(Long toolNum, Map<String, Object> arguments, String sessionId,
+                                           McpStreamListener listener) {
         try {
             log.info("使用传入的 sessionId: {}", sessionId);
 
@@ -489,83 +650,379 @@ public class McpClientServiceImpl implements McpClientService {
                 return createErrorResponse("sessionId 不能为空");
             }
 
-            // 确保MCP连接已初始化（使用传入的sessionId）
-            if (!isInitialized) {
-                initializeConnection(sessionId);
-            }
-
-            // 修改查询逻辑：toolId实际上是toolNum
-            McpToolDTO tool = null;
-            try {
-                // 先尝试通过toolNum查询（这是正确的方式）
-                List<McpToolDTO> tools = mcpToolService.getMcpToolsByNumValid(toolNum, "1");
-                if (!tools.isEmpty()) {
-                    tool = tools.get(0);
-                    log.info("通过toolNum {}找到工具: {}", toolNum, tool.getToolName());
-                }
-            } catch (Exception e) {
-                log.warn("通过toolNum {}查询工具失败: {}", toolNum, e.getMessage());
-
-                // 如果toolNum查询失败，尝试通过id查询
-                try {
-                    tool = mcpToolService.getMcpToolById(toolNum);
-                    log.info("通过id {}找到工具: {}", toolNum, tool.getToolName());
-                } catch (Exception e2) {
-                    log.warn("通过id {}查询工具失败: {}", toolNum, e2.getMessage());
-                }
-            }
-
+            McpToolDTO tool = findTool(toolNum);
             if (tool == null) {
-                // 如果还是找不到，列出所有可用工具供调试
-                try {
-                    List<McpToolDTO> allTools = mcpToolService.getAllMcpTools();
-                    log.info("当前数据库中的所有工具: {}",
-                            allTools.stream()
-                                    .map(t -> String.format("ID:%d, ToolNum:%d, Name:%s",
-                                            t.getId(), t.getToolNum(), t.getToolName()))
-                                    .collect(java.util.stream.Collectors.toList()));
-                } catch (Exception e) {
-                    log.error("查询所有工具失败", e);
-                }
-
                 return createErrorResponse("工具不存在，toolNum: " + toolNum);
             }
 
             log.info("找到工具: ID={}, ToolNum={}, Name={}",
                     tool.getId(), tool.getToolNum(), tool.getToolName());
 
-            // 构造MCP调用请求
-            Map<String, Object> mcpRequest = new HashMap<>();
-            mcpRequest.put("jsonrpc", "2.0");
-            mcpRequest.put("id", requestId.incrementAndGet());
-            mcpRequest.put("method", "tools/call");
+            // 参数不符合inputSchema时本地直接返回，不占用上游调用
+            Map<String, Object> invalid = checkArguments(tool, arguments);
+            if (invalid != null) {
+                return invalid;
+            }
 
-            Map<String, Object> params = new HashMap<>();
-            params.put("name", tool.getToolName());
-            params.put("arguments", arguments != null ? arguments : new HashMap<>());
-            mcpRequest.put("params", params);
+            // 构造MCP调用请求
+            Map<String, Object> mcpRequest = buildToolCallRequest(tool, arguments, listener != null);
 
             // 使用SSE方式发送请求，传入 sessionId
             String mcpUrl = mcpProperties.getServer().getUrl();
             log.info("准备调用MCP服务器: {}, 工具: {}, 参数: {}, sessionId: {}",
                     mcpUrl, tool.getToolName(), arguments, sessionId);
-            String response = sendSseRequest(mcpUrl, mcpRequest, sessionId);
+            // 按会话复用握手结果；服务端报告会话失效时重新握手并重试一次
+            McpSession session = acquireSession(sessionId);
+            Map<String, Object> response;
+            try {
+                response = sendToolRequest(mcpUrl, mcpRequest, session, listener);
+            } catch (McpSessionExpiredException e) {
+                log.warn("{}，重新初始化", e.getMessage());
+                mcpSessionRegistry.invalidate(sessionId, session);
+                session = acquireSession(sessionId);
+                response = sendToolRequest(mcpUrl, mcpRequest, session, listener);
+            }
 
-            if (response != null && !response.trim().isEmpty()) {
-                log.info("收到MCP响应: {}", response);
+            if (response != null && !response.isEmpty()) {
+                log.debug("收到MCP响应: {}", response);
                 // 解析SSE响应
-                return parseSseResponse(response);
+                return checkOutput(tool, parseSseResponse(response));
             } else {
                 log.error("MCP服务器无响应或响应为空");
                 return createErrorResponse("MCP服务器无响应");
             }
 
+        } catch (McpEndpointRejectedException e) {
+            return createRejectedResponse(e);
+        } catch (McpResponseTooLargeException e) {
+            return createTruncatedResponse(e);
         } catch (Exception e) {
             log.error("调用MCP工具时出错", e);
             return createErrorResponse("MCP客户端调用失败: " + e.getMessage());
         }
     }
 
+    @Override
+    public List<Map<String, Object>> testToolsWithSessionId(List<McpToolCall> calls, String sessionId) {
+        List<Map<String, Object>> results = new ArrayList<>(Collections.nCopies(calls.size(), null));
+        if (calls.isEmpty()) {
+            return results;
+        }
+        if (sessionId == null || sessionId.trim().isEmpty()) {
+            Collections.fill(results, createErrorResponse("sessionId 不能为空"));
+            return results;
+        }
+
+        try {
+            McpSession session = acquireSession(sessionId);
+            if (!session.isBatchSupported()) {
+                // 服务端不支持批量请求，逐个调用；不再向测试执行器提交子任务，避免在执行器线程上互相等待
+                for (int i = 0; i < calls.size(); i++) {
+                    McpToolCall call = calls.get(i);
+                    results.set(i, invokeTool(call.getToolNum(), call.getArguments(), sessionId, null));
+                }
+                return results;
+            }
+
+            // 找不到的工具直接返回错误，其余按id对应回调用下标
+            Map<String, Integer> indexById = new HashMap<>();
+            Map<String, McpToolDTO> toolById = new HashMap<>();
+            List<Map<String, Object>> requests = new ArrayList<>();
+            for (int i = 0; i < calls.size(); i++) {
+                McpToolCall call = calls.get(i);
+                McpToolDTO tool = findTool(call.getToolNum());
+                if (tool == null) {
+                    results.set(i, createErrorResponse("工具不存在，toolNum: " + call.getToolNum()));
+                    continue;
+                }
+                Map<String, Object> invalid = checkArguments(tool, call.getArguments());
+                if (invalid != null) {
+                    results.set(i, invalid);
+                    continue;
+                }
+                Map<String, Object> request = buildToolCallRequest(tool, call.getArguments(), false);
+                indexById.put(String.valueOf(request.get("id")), i);
+                toolById.put(String.valueOf(request.get("id")), tool);
+                requests.add(request);
+            }
+
+            String mcpUrl = mcpProperties.getServer().getUrl();
+            for (int from = 0; from < requests.size(); from += MAX_BATCH_SIZE) {
+                List<Map<String, Object>> chunk = requests.subList(from,
+                        Math.min(requests.size(), from + MAX_BATCH_SIZE));
+                log.info("批量调用MCP工具: 数量={}, sessionId: {}", chunk.size(), sessionId);
+
+                Map<String, Map<String, Object>> responses;
+                try {
+                    responses = sendBatchWithPendingNotification(mcpUrl, chunk, session);
+                } catch (McpSessionExpiredException e) {
+                    log.warn("{}，重新初始化", e.getMessage());
+                    mcpSessionRegistry.invalidate(sessionId, session);
+                    session = acquireSession(sessionId);
+                    responses = sendBatchWithPendingNotification(mcpUrl, chunk, session);
+                }
+
+                // 服务端对整个批次报错时(如解析失败)响应id为null，作用于所有请求
+                Map<String, Object> batchError = responses != null ? responses.get(null) : null;
+                for (Map<String, Object> request : chunk) {
+                    String id = String.valueOf(request.get("id"));
+                    Map<String, Object> response = responses != null ? responses.get(id) : null;
+                    if (response == null) {
+                        response = batchError;
+                    }
+                    results.set(indexById.get(id), response != null && !response.isEmpty()
+                            ? checkOutput(toolById.get(id), parseSseResponse(response))
+                            : createErrorResponse("MCP服务器无响应"));
+                }
+            }
+        } catch (McpEndpointRejectedException e) {
+            fillMissing(results, createRejectedResponse(e));
+        } catch (McpResponseTooLargeException e) {
+            fillMissing(results, createTruncatedResponse(e));
+        } catch (Exception e) {
+            log.error("批量调用MCP工具时出错", e);
+            fillMissing(results, createErrorResponse("MCP客户端调用失败: " + e.getMessage()));
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> testToolsWithSessionIdAsync(List<McpToolCall> calls,
+                                                                                    String sessionId) {
+        return CompletableFuture.supplyAsync(() -> testToolsWithSessionId(calls, sessionId), mcpTestExecutor);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> listToolsWithSessionId(String mcpUrl, String sessionId) {
+        if (sessionId == null || sessionId.trim().isEmpty()) {
+            throw new RuntimeException("sessionId 不能为空");
+        }
+        String url = mcpUrl != null ? mcpUrl : mcpProperties.getServer().getUrl();
+        McpSession session = acquireSession(sessionId, url);
+
+        List<Map<String, Object>> tools = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Map<String, Object> request = new HashMap<>();
+            request.put("jsonrpc", "2.0");
+            request.put("id", requestId.incrementAndGet());
+            request.put("method", "tools/list");
+            Map<String, Object> params = new HashMap<>();
+            if (cursor != null) {
+                params.put("cursor", cursor);
+            }
+            request.put("params", params);
+
+            Map<String, Object> response;
+            try {
+                response = sendToolRequest(url, request, session, null);
+            } catch (McpSessionExpiredException e) {
+                log.warn("{}，重新初始化", e.getMessage());
+                mcpSessionRegistry.invalidate(sessionKey(sessionId, url), session);
+                session = acquireSession(sessionId, url);
+                response = sendToolRequest(url, request, session, null);
+            }
+            if (response == null || !(response.get("result") instanceof Map)) {
+                Object error = response != null ? response.get("error") : null;
+                throw new RuntimeException("获取MCP工具列表失败: " + (error != null ? error : "无响应"));
+            }
+
+            Map<String, Object> result = (Map<String, Object>) response.get("result");
+            if (result.get("tools") instanceof List) {
+                tools.addAll((List<Map<String, Object>>) result.get("tools"));
+            }
+            Object nextCursor = result.get("nextCursor");
+            cursor = nextCursor != null && !String.valueOf(nextCursor).isEmpty() ? String.valueOf(nextCursor) : null;
+        } while (cursor != null && ++pages < MAX_LIST_PAGES);
+
+        log.info("获取MCP工具列表: url={}, 工具数={}", url, tools.size());
+        return tools;
+    }
+
+    /**
+     * 发送tools/call请求；initialized通知尚未发送时，与请求合并为一个批次发送
+     */
+    private Map<String, Object> sendToolRequest(String url, Map<String, Object> request, McpSession session,
+                                                McpStreamListener listener) {
+        if (session.takeInitializedNotification(mcpProperties.getClient().resolveReadTimeout())) {
+            if (listener == null) {
+                Map<String, Map<String, Object>> responses = sendWithInitializedNotification(session,
+                        () -> sendBatchRequest(url, List.of(initializedNotification(), request), session));
+                return responses != null ? responses.get(String.valueOf(request.get("id"))) : null;
+            }
+            // 流式调用需要逐条读取中间消息，通知单独发送
+            sendWithInitializedNotification(session, () -> sendSseRequest(url, initializedNotification(), session));
+        }
+        return sendSseRequest(url, request, session, listener);
+    }
+
+    /**
+     * 发送批次；initialized通知尚未发送时加在批次前
+     */
+    private Map<String, Map<String, Object>> sendBatchWithPendingNotification(String url,
+                                                                             List<Map<String, Object>> requests,
+                                                                             McpSession session) {
+        if (!session.takeInitializedNotification(mcpProperties.getClient().resolveReadTimeout())) {
+            return sendBatchRequest(url, requests, session);
+        }
+        List<Map<String, Object>> messages = new ArrayList<>(requests.size() + 1);
+        messages.add(initializedNotification());
+        messages.addAll(requests);
+        return sendWithInitializedNotification(session, () -> sendBatchRequest(url, messages, session));
+    }
+
+    /**
+     * 发送带有initialized通知的请求；请求失败(返回null或抛出异常)时通知恢复为待发送，由下一个请求重发
+     */
+    private <T> T sendWithInitializedNotification(McpSession session, Supplier<T> send) {
+        T result = null;
+        try {
+            result = send.get();
+            return result;
+        } finally {
+            if (result != null) {
+                session.initializedNotificationSent();
+            } else {
+                session.initializedNotificationFailed();
+            }
+        }
+    }
+
+    private void fillMissing(List<Map<String, Object>> results, Map<String, Object> error) {
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, new HashMap<>(error));
+            }
+        }
+    }
+
+    /**
+     * 按toolNum查找有效工具，找不到时记录候选工具供排查
+     *
+     * @return 工具，不存在时返回null
+     */
+    private McpToolDTO findTool(Long toolNum) {
+        // 修改查询逻辑：toolId实际上是toolNum
+        McpToolDTO tool = null;
+        try {
+            // 先尝试通过toolNum查询（这是正确的方式），结果带缓存
+            tool = mcpToolService.resolveValidTool(toolNum);
+        } catch (Exception e) {
+            log.warn("通过toolNum {}查询工具失败: {}", toolNum, e.getMessage());
+
+            // 如果toolNum查询失败，尝试通过id查询
+            try {
+                tool = mcpToolService.getMcpToolById(toolNum);
+                log.info("通过id {}找到工具: {}", toolNum, tool.getToolName());
+            } catch (Exception e2) {
+                log.warn("通过id {}查询工具失败: {}", toolNum, e2.getMessage());
+            }
+        }
+
+        if (tool == null) {
+            // 如果还是找不到，列出可能的候选工具供排查(按主键/编号索引查询)
+            try {
+                List<McpToolDTO> candidates = mcpToolService.suggestTools(toolNum);
+                log.info("toolNum {} 没有有效工具，候选工具: {}", toolNum,
+                        candidates.stream()
+                                .map(t -> String.format("ID:%d, ToolNum:%d, Name:%s, Valid:%s",
+                                        t.getId(), t.getToolNum(), t.getToolName(), t.getValid()))
+                                .collect(java.util.stream.Collectors.toList()));
+            } catch (Exception e) {
+                log.error("查询候选工具失败", e);
+            }
+        }
+        return tool;
+    }
+
+    /**
+     * 构造tools/call请求
+     *
+     * @param withProgress 是否请求服务端推送进度通知
+     */
+    private Map<String, Object> buildToolCallRequest(McpToolDTO tool, Map<String, Object> arguments,
+                                                     boolean withProgress) {
+        Map<String, Object> mcpRequest = new HashMap<>();
+        mcpRequest.put("jsonrpc", "2.0");
+        mcpRequest.put("id", requestId.incrementAndGet());
+        mcpRequest.put("method", "tools/call");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", tool.getToolName());
+        params.put("arguments", arguments != null ? arguments : new HashMap<>());
+        if (withProgress) {
+            // 请求服务端推送进度通知
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("progressToken", mcpRequest.get("id"));
+            params.put("_meta", meta);
+        }
+        mcpRequest.put("params", params);
+        return mcpRequest;
+    }
+
+    /**
+     * 按inputSchema校验调用参数
+     *
+     * @return 校验失败时的错误响应，通过或未开启校验时为null
+     */
+    private Map<String, Object> checkArguments(McpToolDTO tool, Map<String, Object> arguments) {
+        if (!mcpProperties.getClient().isValidateArguments()) {
+            return null;
+        }
+        List<String> errors = mcpToolSchemaValidator.validateArguments(tool, arguments);
+        if (errors.isEmpty()) {
+            return null;
+        }
+        log.info("工具参数校验未通过, 不发送请求: toolNum={}, errors={}", tool.getToolNum(), errors);
+        Map<String, Object> result = createErrorResponse("参数不符合工具inputSchema: " + String.join("; ", errors));
+        result.put("errorCode", "INVALID_ARGUMENTS");
+        result.put("validationErrors", errors);
+        return result;
+    }
+
+    /**
+     * 开启输出校验时，按outputSchema校验成功结果中的业务数据，结果记录在outputSchemaValid/outputSchemaErrors中
+     */
+    private Map<String, Object> checkOutput(McpToolDTO tool, Map<String, Object> result) {
+        if (!mcpProperties.getClient().isValidateOutput() || Boolean.TRUE.equals(result.get("isError"))
+                || result.get("businessData") == null) {
+            return result;
+        }
+        List<String> errors = mcpToolSchemaValidator.validateOutput(tool, result.get("businessData"));
+        result.put("outputSchemaValid", errors.isEmpty());
+        if (!errors.isEmpty()) {
+            result.put("outputSchemaErrors", errors);
+        }
+        return result;
+    }
+
+    /**
+     * 熔断或限流时快速失败，不打印堆栈
+     */
+    private Map<String, Object> createRejectedResponse(McpEndpointRejectedException e) {
+        log.warn("MCP调用被拒绝: {}", e.getMessage());
+        Map<String, Object> result = createErrorResponse(e.getMessage());
+        result.put("errorCode", e.getReason().name());
+        return result;
+    }
+
+    /**
+     * 响应超过大小上限：返回开头部分并附加截断标记
+     */
+    private Map<String, Object> createTruncatedResponse(McpResponseTooLargeException e) {
+        log.warn(e.getMessage());
+        Map<String, Object> result = createErrorResponse(e.getMessage());
+        result.put("errorCode", "RESPONSE_TOO_LARGE");
+        result.put("truncated", true);
+        Map<String, Object> text = new HashMap<>();
+        text.put("type", "text");
+        text.put("text", e.getPreview() + "\n...[响应超过 " + e.getLimit() + " 字节，已截断]");
+        result.put("content", List.of(text));
+        return result;
+    }
+
     /**
      * 创建错误响应
      */
@@ -1,5 +1,6 @@
 package cn.com.wind.mcp.registry.service.impl;
 
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
 import cn.com.wind.mcp.registry.entity.*;
 import cn.com.wind.mcp.registry.mapper.McpTestSuccessRecordMapper;
 import cn.com.wind.mcp.registry.service.*;
@@ -27,9 +28,7 @@ public class McpTestSuccessRecordServiceImpl
         extends ServiceImpl<McpTestSuccessRecordMapper, McpTestSuccessRecord>
         implements McpTestSuccessRecordService {
 
-    private final McpToolService mcpToolService;
-    private final HttpTemplateConverterService httpTemplateConverterService;
-    private final ExpoTemplateConverterService expoTemplateConverterService;
+    private final McpToolBundleService mcpToolBundleService;
     private final OriginToolHttpService originToolHttpService;
     private final OriginToolExpoService originToolExpoService;
 
@@ -52,15 +51,16 @@ public class McpTestSuccessRecordServiceImpl
             log.info("开始保存测试成功记录: toolId={}, operatorId={}, operatorUsername={}",
                     toolId, operatorId, operatorUsername);
 
-            // 1. 获取MCP工具信息
-            McpTool mcpTool = mcpToolService.getById(toolId);
-            if (mcpTool == null) {
+            // 1. 一次查询获取MCP工具及其转换模板、原始工具信息
+            McpToolBundle bundle = mcpToolBundleService.getBundle(toolId);
+            if (bundle == null) {
                 log.error("MCP工具不存在: toolId={}", toolId);
                 return false;
             }
+            McpTool mcpTool = bundle.getMcpTool();
 
             // 2. 构建工具快照(包含完整信息)
-            Map<String, Object> toolSnapshot = buildToolSnapshot(mcpTool);
+            Map<String, Object> toolSnapshot = buildToolSnapshot(bundle);
 
             // 3. 解析测试结果生成摘要
             String resultSummary = generateResultSummary(testResult);
@@ -100,72 +100,58 @@ public class McpTestSuccessRecordServiceImpl
 
     /**
      * 构建工具完整快照
-     * 包含MCP工具信息、转换模板、原始工具信息
+     * 包含MCP工具信息、转换模板、原始工具信息；转换模板已按convertType随工具一并查出，
+     * 原始工具按转换模板的provider_tool_num取，与聚合中按tool_num关联的不一致时单独查询
      *
-     * @param mcpTool MCP工具实体
+     * @param bundle MCP工具聚合
      * @return 工具快照Map
      */
-    private Map<String, Object> buildToolSnapshot(McpTool mcpTool) {
+    private Map<String, Object> buildToolSnapshot(McpToolBundle bundle) {
         Map<String, Object> snapshot = new HashMap<>();
+        McpTool mcpTool = bundle.getMcpTool();
 
         // MCP工具基本信息
         snapshot.put("mcpTool", mcpTool);
 
-        // 根据转换类型添加对应的转换模板信息
-        String convertType = mcpTool.getConvertType();
-        if (convertType != null) {
-            convertType = convertType.toLowerCase();
-
-            // HTTP转换模板 (convertType = '1' 或 'http')
-            if ("1".equals(convertType) || convertType.contains("http")) {
-                HttpTemplateConverter httpConverter = httpTemplateConverterService.lambdaQuery()
-                        .eq(HttpTemplateConverter::getToolNum, mcpTool.getToolNum())
-                        .eq(HttpTemplateConverter::getToolVersion, mcpTool.getToolVersion())
+        // HTTP转换模板及原始HTTP工具信息 (convertType = '1' 或 'http')
+        if (bundle.getHttpTemplateConverter() != null) {
+            snapshot.put("httpConverter", bundle.getHttpTemplateConverter());
+            log.debug("添加HTTP转换模板快照: toolNum={}", mcpTool.getToolNum());
+        }
+        HttpTemplateConverter httpConverter = bundle.getHttpTemplateConverter();
+        if (httpConverter != null && httpConverter.getProviderToolNum() != null) {
+            OriginToolHttp originHttp = bundle.getOriginToolHttp();
+            if (originHttp == null || !httpConverter.getProviderToolNum().equals(originHttp.getProviderToolNum())) {
+                originHttp = originToolHttpService.lambdaQuery()
+                        .eq(OriginToolHttp::getProviderToolNum, httpConverter.getProviderToolNum())
                         .one();
-                if (httpConverter != null) {
-                    snapshot.put("httpConverter", httpConverter);
-                    log.debug("添加HTTP转换模板快照: toolNum={}", mcpTool.getToolNum());
-
-                    // 原始HTTP工具信息
-                    if (httpConverter.getProviderToolNum() != null) {
-                        OriginToolHttp originHttp = originToolHttpService.lambdaQuery()
-                                .eq(OriginToolHttp::getProviderToolNum, httpConverter.getProviderToolNum())
-                                .one();
-                        if (originHttp != null) {
-                            snapshot.put("originHttp", originHttp);
-                            log.debug("添加原始HTTP工具快照: providerToolNum={}", httpConverter.getProviderToolNum());
-                        }
-                    }
-                }
             }
-            // Expo转换模板 (convertType = '2' 或 'expo')
-            else if ("2".equals(convertType) || "expo".equals(convertType)) {
-                ExpoTemplateConverter expoConverter = expoTemplateConverterService.lambdaQuery()
-                        .eq(ExpoTemplateConverter::getToolNum, mcpTool.getToolNum())
-                        .eq(ExpoTemplateConverter::getToolVersion, mcpTool.getToolVersion())
+            if (originHttp != null) {
+                snapshot.put("originHttp", originHttp);
+                log.debug("添加原始HTTP工具快照: providerToolNum={}", httpConverter.getProviderToolNum());
+            }
+        }
+
+        // Expo转换模板及原始Expo工具信息 (convertType = '2' 或 'expo')
+        if (bundle.getExpoTemplateConverter() != null) {
+            snapshot.put("expoConverter", bundle.getExpoTemplateConverter());
+            log.debug("添加Expo转换模板快照: toolNum={}", mcpTool.getToolNum());
+        }
+        ExpoTemplateConverter expoConverter = bundle.getExpoTemplateConverter();
+        if (expoConverter != null && expoConverter.getProviderToolNum() != null) {
+            OriginToolExpo originExpo = bundle.getOriginToolExpo();
+            if (originExpo == null || !expoConverter.getProviderToolNum().equals(originExpo.getProviderToolNum())) {
+                originExpo = originToolExpoService.lambdaQuery()
+                        .eq(OriginToolExpo::getProviderToolNum, expoConverter.getProviderToolNum())
                         .one();
-                if (expoConverter != null) {
-                    snapshot.put("expoConverter", expoConverter);
-                    log.debug("添加Expo转换模板快照: toolNum={}", mcpTool.getToolNum());
-
-                    // 原始Expo工具信息
-                    if (expoConverter.getProviderToolNum() != null) {
-                        OriginToolExpo originExpo = originToolExpoService.lambdaQuery()
-                                .eq(OriginToolExpo::getProviderToolNum, expoConverter.getProviderToolNum())
-                                .one();
-                        if (originExpo != null) {
-                            snapshot.put("originExpo", originExpo);
-                            log.debug("添加原始Expo工具快照: providerToolNum={}", expoConverter.getProviderToolNum());
-                        }
-                    }
-                }
             }
-            // Manual/Code类型 (convertType = '3', 'manual' 或 'code') - 无需转换模板
-            else if ("3".equals(convertType) || "manual".equals(convertType) || "code".equals(convertType)) {
-                log.debug("手动转换模板类型,无需额外快照: convertType={}", mcpTool.getConvertType());
+            if (originExpo != null) {
+                snapshot.put("originExpo", originExpo);
+                log.debug("添加原始Expo工具快照: providerToolNum={}", expoConverter.getProviderToolNum());
             }
         }
 
+        // Manual/Code类型 (convertType = '3', 'manual' 或 'code') - 无需转换模板
         return snapshot;
     }
 
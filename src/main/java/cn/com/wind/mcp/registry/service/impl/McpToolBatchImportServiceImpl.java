@@ -0,0 +1,266 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.client.McpResponseLimitInputStream;
+import cn.com.wind.mcp.registry.client.McpResponseTooLargeException;
+import cn.com.wind.mcp.registry.dto.McpToolExportDto;
+import cn.com.wind.mcp.registry.dto.McpToolImportValidationResult;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBatchImportReport;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.service.McpToolBatchImportService;
+import cn.com.wind.mcp.registry.service.McpToolBundleService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 批量导入工具服务实现
+ * <p>
+ * 边读边处理，每满CHUNK_SIZE条校验一次(名称重复一次IN查询)、写入一次(一个事务内各表JDBC批量插入)，
+ * 单块写入失败只影响该块；内存中只保留当前块的数据。导入结束后发布一次整体变更事件。
+ * ZIP按解压后的字节数限制单个文件和整个压缩包的大小，避免压缩炸弹占满内存
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class McpToolBatchImportServiceImpl implements McpToolBatchImportService {
+
+    /**
+     * 每块条数，也是每个事务写入的工具数
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private final McpToolService mcpToolService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * ZIP中单个文件解压后的最大字节数，超过时该文件记为失败
+     */
+    private final long maxEntryBytes;
+
+    /**
+     * ZIP解压后的最大总字节数(含被跳过的文件)，超过时终止导入
+     */
+    private final long maxTotalBytes;
+
+    public McpToolBatchImportServiceImpl(McpToolService mcpToolService, ObjectMapper objectMapper,
+                                         ApplicationEventPublisher applicationEventPublisher,
+                                         @Value("${mcp.tool.import-max-entry-bytes:1048576}") long maxEntryBytes,
+                                         @Value("${mcp.tool.import-max-total-bytes:268435456}") long maxTotalBytes) {
+        this.mcpToolService = mcpToolService;
+        this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    @Override
+    public McpToolBatchImportReport importTools(InputStream in, String format, boolean dryRun,
+                                                Long providerId, String username) throws IOException {
+        long start = System.currentTimeMillis();
+        Batch batch = new Batch(dryRun, providerId, username);
+
+        try {
+            if (McpToolBundleService.FORMAT_ZIP.equals(format)) {
+                ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+                McpResponseLimitInputStream unzipped = new McpResponseLimitInputStream(zip, maxTotalBytes, 0);
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    if (!entry.isDirectory() && entry.getName().endsWith(".json")) {
+                        readEntry(entry.getName(), unzipped, batch);
+                    }
+                }
+            } else {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                int lineNo = 0;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lineNo++;
+                    if (StrUtil.isNotBlank(line)) {
+                        batch.accept("line " + lineNo, line.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            batch.flush();
+        } finally {
+            // 各块写入时不发事件，整个导入结束后只通知一次，监听方全量刷新一次(读取中途出错时已写入的块同样需要刷新)
+            if (batch.written > 0) {
+                applicationEventPublisher.publishEvent(new McpToolChangedEvent(null, null));
+            }
+        }
+
+        McpToolBatchImportReport report = batch.report;
+        report.setTotal(report.getItems().size());
+        report.setSucceeded((int) report.getItems().stream().filter(McpToolBatchImportReport.Item::isSuccess).count());
+        report.setFailed(report.getTotal() - report.getSucceeded());
+        report.setElapsed(System.currentTimeMillis() - start);
+        log.info("批量导入工具完成: dryRun={}, total={}, succeeded={}, failed={}, elapsed={}ms",
+                dryRun, report.getTotal(), report.getSucceeded(), report.getFailed(), report.getElapsed());
+        return report;
+    }
+
+    /**
+     * 读取ZIP中的一个文件；超过单文件上限时记为失败，剩余部分仍经过总量计数读完，
+     * 解压总量超过上限时终止导入
+     *
+     * @param name     文件名
+     * @param unzipped 按解压后总字节数计数的ZIP流，读取范围为当前文件
+     * @param batch    导入状态
+     */
+    private void readEntry(String name, McpResponseLimitInputStream unzipped, Batch batch) throws IOException {
+        try {
+            byte[] content;
+            try {
+                content = new McpResponseLimitInputStream(unzipped, maxEntryBytes, 0).readAllBytes();
+            } catch (McpResponseTooLargeException e) {
+                if (unzipped.getCount() > maxTotalBytes) {
+                    throw e;
+                }
+                batch.reject(name, "文件解压后超过" + maxEntryBytes + "字节上限");
+                unzipped.transferTo(OutputStream.nullOutputStream());
+                return;
+            }
+            batch.accept(name, content);
+        } catch (McpResponseTooLargeException e) {
+            throw new RuntimeException("ZIP解压后总大小超过" + maxTotalBytes + "字节上限", e);
+        }
+    }
+
+    /**
+     * 一次导入的处理状态
+     */
+    private class Batch {
+
+        private final boolean dryRun;
+        private final Long providerId;
+        private final String username;
+        private final McpToolBatchImportReport report = new McpToolBatchImportReport();
+
+        /**
+         * 当前块
+         */
+        private final List<McpToolBatchImportReport.Item> chunkItems = new ArrayList<>();
+        private final List<McpToolExportDto> chunkDtos = new ArrayList<>();
+
+        /**
+         * 前面各块已通过的工具名(小写)，同名工具分在不同块时也能识别
+         */
+        private final Set<String> acceptedNames = new HashSet<>();
+
+        /**
+         * 已写入的工具数
+         */
+        private int written;
+
+        Batch(boolean dryRun, Long providerId, String username) {
+            this.dryRun = dryRun;
+            this.providerId = providerId;
+            this.username = username;
+            report.setDryRun(dryRun);
+        }
+
+        void accept(String source, byte[] content) {
+            McpToolBatchImportReport.Item item = newItem(source);
+
+            McpToolExportDto exportDto;
+            try {
+                exportDto = objectMapper.readValue(content, McpToolExportDto.class);
+            } catch (IOException e) {
+                item.getErrors().add("不是有效的工具导出数据: " + e.getOriginalMessage());
+                return;
+            }
+            chunkItems.add(item);
+            chunkDtos.add(exportDto);
+            if (chunkDtos.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * 记录一条未能读取的数据
+         */
+        void reject(String source, String error) {
+            newItem(source).getErrors().add(error);
+        }
+
+        private McpToolBatchImportReport.Item newItem(String source) {
+            McpToolBatchImportReport.Item item = new McpToolBatchImportReport.Item();
+            item.setIndex(report.getItems().size() + 1);
+            item.setSource(source);
+            report.getItems().add(item);
+            return item;
+        }
+
+        void flush() {
+            if (chunkDtos.isEmpty()) {
+                return;
+            }
+            List<McpToolImportValidationResult> results = mcpToolService.validateImportBatch(chunkDtos);
+
+            List<McpToolBatchImportReport.Item> acceptedItems = new ArrayList<>();
+            List<McpToolExportDto> acceptedDtos = new ArrayList<>();
+            for (int i = 0; i < chunkDtos.size(); i++) {
+                McpToolBatchImportReport.Item item = chunkItems.get(i);
+                McpToolExportDto exportDto = chunkDtos.get(i);
+                McpToolImportValidationResult result = results.get(i);
+                String toolName = exportDto.getMcpTool() != null ? exportDto.getMcpTool().getToolName() : null;
+                item.setToolName(toolName);
+                item.getWarnings().addAll(result.getWarnings());
+
+                if (result.hasErrors()) {
+                    item.getErrors().addAll(result.getErrors());
+                } else if (!acceptedNames.add(toolName.toLowerCase())) {
+                    item.getErrors().add("导入失败:MCP工具英文名'" + toolName + "'在导入数据中重复");
+                } else {
+                    acceptedItems.add(item);
+                    acceptedDtos.add(exportDto);
+                }
+            }
+
+            if (dryRun) {
+                acceptedItems.forEach(item -> item.setSuccess(true));
+            } else if (!acceptedDtos.isEmpty()) {
+                write(acceptedItems, acceptedDtos);
+            }
+            chunkItems.clear();
+            chunkDtos.clear();
+        }
+
+        private void write(List<McpToolBatchImportReport.Item> items, List<McpToolExportDto> exportDtos) {
+            try {
+                List<McpTool> tools = mcpToolService.importToolBatch(exportDtos, providerId, username);
+                written += tools.size();
+                for (int i = 0; i < items.size(); i++) {
+                    items.get(i).setSuccess(true);
+                    items.get(i).setToolId(tools.get(i).getId());
+                    items.get(i).setToolNum(tools.get(i).getToolNum());
+                }
+            } catch (RuntimeException e) {
+                log.error("批量导入写入失败, 本块{}条已回滚", items.size(), e);
+                for (McpToolBatchImportReport.Item item : items) {
+                    item.getErrors().add("写入失败,本块已回滚: " + e.getMessage());
+                    acceptedNames.remove(item.getToolName().toLowerCase());
+                }
+            }
+        }
+    }
+}
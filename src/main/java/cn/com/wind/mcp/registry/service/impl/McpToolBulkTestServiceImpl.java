@@ -0,0 +1,522 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.client.McpEndpointRejectedException;
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestJob;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestReport;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestRequest;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolCall;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.entity.VserverItems;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import cn.com.wind.mcp.registry.service.McpTestSuccessRecordService;
+import cn.com.wind.mcp.registry.service.McpToolBulkTestService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.VserverItemsService;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量工具测试服务实现
+ * <p>
+ * 任务不占用编排线程：先发出不超过并行度的调用，每个调用完成后在其回调中补发下一个，全部完成后生成报告；
+ * 调用本身运行在mcpTestExecutor上，同时运行的任务数有上限。任务状态保存在本地缓存中，超过保留时间后自动清除
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class McpToolBulkTestServiceImpl implements McpToolBulkTestService {
+
+    /**
+     * 默认并行度
+     */
+    private static final int DEFAULT_PARALLELISM = 8;
+
+    /**
+     * 单批最大调用数
+     */
+    private static final int MAX_RUNS = 5000;
+
+    /**
+     * 同时运行的最大任务数
+     */
+    static final int MAX_RUNNING_JOBS = 4;
+
+    private static final String OVERLOADED = McpEndpointRejectedException.Reason.OVERLOADED.name();
+
+    /**
+     * 被端点自适应并发限制拒绝(OVERLOADED)或被执行器拒绝后的最大重试次数
+     */
+    private static final int MAX_OVERLOAD_RETRIES = 8;
+
+    /**
+     * 限流重试的初始退避时间(毫秒)，每次翻倍
+     */
+    private static final long OVERLOAD_BACKOFF = 100;
+
+    /**
+     * 限流重试的最大退避时间(毫秒)
+     */
+    private static final long MAX_OVERLOAD_BACKOFF = 2000;
+
+    private final McpClientService mcpClientService;
+    private final McpToolService mcpToolService;
+    private final VserverItemsService vserverItemsService;
+    private final McpTestSuccessRecordService mcpTestSuccessRecordService;
+    private final McpClientConfig.McpProperties mcpProperties;
+    private final Cache<String, McpToolBulkTestJob> jobs;
+    private final AtomicInteger runningJobs = new AtomicInteger();
+
+    public McpToolBulkTestServiceImpl(McpClientService mcpClientService, McpToolService mcpToolService,
+                                      VserverItemsService vserverItemsService,
+                                      McpTestSuccessRecordService mcpTestSuccessRecordService,
+                                      McpClientConfig.McpProperties mcpProperties) {
+        this.mcpClientService = mcpClientService;
+        this.mcpToolService = mcpToolService;
+        this.vserverItemsService = vserverItemsService;
+        this.mcpTestSuccessRecordService = mcpTestSuccessRecordService;
+        this.mcpProperties = mcpProperties;
+        this.jobs = CacheBuilder.newBuilder()
+                .expireAfterWrite(mcpProperties.getClient().getTestJobTtl(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 展开后的调用计划
+     */
+    private static final class Plan {
+        private final List<McpToolCall> calls;
+        private final int[] argumentIndexes;
+        private final int parallelism;
+        private final int batchSize;
+        private final boolean persist;
+        private final Map<Long, Long> toolIds;
+
+        private Plan(List<McpToolCall> calls, int[] argumentIndexes, int parallelism, int batchSize,
+                     boolean persist, Map<Long, Long> toolIds) {
+            this.calls = calls;
+            this.argumentIndexes = argumentIndexes;
+            this.parallelism = parallelism;
+            this.batchSize = batchSize;
+            this.persist = persist;
+            this.toolIds = toolIds;
+        }
+    }
+
+    /**
+     * 一次调用的最终结果
+     */
+    private static final class Outcome {
+        private final Map<String, Object> result;
+        private final Throwable error;
+        private final long latency;
+
+        private Outcome(Map<String, Object> result, Throwable error, long latency) {
+            this.result = result;
+            this.error = error;
+            this.latency = latency;
+        }
+
+        /**
+         * 调用未真正发出：被端点并发限制或执行器拒绝
+         */
+        private boolean isRejected() {
+            if (result != null) {
+                return OVERLOADED.equals(String.valueOf(result.get("errorCode")));
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            return cause instanceof RejectedExecutionException;
+        }
+    }
+
+    /**
+     * 一次任务的执行状态
+     */
+    private static final class Execution {
+        private final Plan plan;
+        private final McpToolBulkTestReport.Run[] runs;
+        private final int chunkCount;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger finishedChunks = new AtomicInteger();
+        private final AtomicInteger pumping = new AtomicInteger();
+        private final AtomicInteger overloadRetries = new AtomicInteger();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        /**
+         * 下一个待发出的批次，只在pump的独占区内读写
+         */
+        private int nextChunk;
+
+        private Execution(Plan plan) {
+            this.plan = plan;
+            this.runs = new McpToolBulkTestReport.Run[plan.calls.size()];
+            this.chunkCount = (plan.calls.size() + plan.batchSize - 1) / plan.batchSize;
+        }
+    }
+
+    @Override
+    public McpToolBulkTestJob submit(McpToolBulkTestRequest request, String sessionId,
+                                     Long operatorId, String operatorUsername) {
+        // 参数问题在提交时直接报错，不生成任务
+        Plan plan = prepare(request, operatorId);
+        if (runningJobs.incrementAndGet() > MAX_RUNNING_JOBS) {
+            runningJobs.decrementAndGet();
+            throw new RuntimeException("运行中的批量测试任务已达上限: " + MAX_RUNNING_JOBS + "，请稍后再试");
+        }
+
+        McpToolBulkTestJob job = new McpToolBulkTestJob();
+        job.setJobId(IdUtil.simpleUUID());
+        job.setTotal(plan.calls.size());
+        job.setSubmitTime(LocalDateTime.now());
+
+        CompletableFuture<McpToolBulkTestReport> execution;
+        try {
+            execution = execute(plan, sessionId, operatorId, operatorUsername, job.getCompleted());
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        job.setCompletion(execution
+                .handle((report, ex) -> {
+                    runningJobs.decrementAndGet();
+                    if (ex != null) {
+                        log.error("批量测试任务执行失败: jobId={}", job.getJobId(), ex);
+                        job.setError(ex.getMessage());
+                        job.setStatus(McpToolBulkTestJob.Status.FAILED);
+                    } else {
+                        job.setReport(report);
+                        job.setStatus(McpToolBulkTestJob.Status.SUCCEEDED);
+                    }
+                    job.setFinishTime(LocalDateTime.now());
+                    // 以完成时间重新计算保留期
+                    jobs.put(job.getJobId(), job);
+                    return job;
+                }));
+        jobs.put(job.getJobId(), job);
+
+        log.info("提交批量测试任务: jobId={}, 调用数={}", job.getJobId(), job.getTotal());
+        return job;
+    }
+
+    @Override
+    public McpToolBulkTestJob getJob(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+
+    /**
+     * 在调用线程上执行批量测试并等待全部完成
+     *
+     * @param request          测试请求
+     * @param sessionId        wind会话ID
+     * @param operatorId       操作者ID
+     * @param operatorUsername 操作者用户名
+     * @return 测试报告
+     */
+    McpToolBulkTestReport run(McpToolBulkTestRequest request, String sessionId,
+                              Long operatorId, String operatorUsername) {
+        return execute(prepare(request, operatorId), sessionId, operatorId, operatorUsername, new AtomicInteger())
+                .join();
+    }
+
+    private Plan prepare(McpToolBulkTestRequest request, Long operatorId) {
+        List<Long> toolNums = resolveToolNums(request);
+        if (toolNums.isEmpty()) {
+            throw new RuntimeException("没有需要测试的工具");
+        }
+        List<Map<String, Object>> argumentSets = request.getArgumentSets() == null
+                || request.getArgumentSets().isEmpty()
+                ? Collections.singletonList(new HashMap<>())
+                : request.getArgumentSets();
+        int total = toolNums.size() * argumentSets.size();
+        if (total > MAX_RUNS) {
+            throw new RuntimeException("单批调用数超过上限: " + total + " > " + MAX_RUNS);
+        }
+
+        int parallelism = request.getParallelism() != null ? request.getParallelism() : DEFAULT_PARALLELISM;
+        parallelism = Math.max(1, Math.min(parallelism, mcpProperties.getClient().getTestConcurrency()));
+        boolean persist = request.isPersistSuccess() && operatorId != null;
+        Map<Long, Long> toolIds = persist ? resolveToolIds(toolNums) : Collections.emptyMap();
+
+        List<McpToolCall> calls = new ArrayList<>(total);
+        int[] argumentIndexes = new int[total];
+        for (Long toolNum : toolNums) {
+            for (int argIndex = 0; argIndex < argumentSets.size(); argIndex++) {
+                argumentIndexes[calls.size()] = argIndex;
+                calls.add(new McpToolCall(toolNum, new HashMap<>(argumentSets.get(argIndex))));
+            }
+        }
+        int batchSize = request.getBatchSize() != null ? Math.max(1, request.getBatchSize()) : 1;
+
+        log.info("批量测试计划: 工具数={}, 参数组数={}, 并行度={}, 批大小={}", toolNums.size(), argumentSets.size(),
+                parallelism, batchSize);
+        return new Plan(calls, argumentIndexes, parallelism, batchSize, persist, toolIds);
+    }
+
+    private CompletableFuture<McpToolBulkTestReport> execute(Plan plan, String sessionId, Long operatorId,
+                                                             String operatorUsername, AtomicInteger completed) {
+        long batchStart = System.nanoTime();
+        Execution execution = new Execution(plan);
+        if (execution.chunkCount == 0) {
+            execution.done.complete(null);
+        } else {
+            pump(execution, sessionId, operatorId, operatorUsername, completed);
+        }
+        return execution.done.thenApply(ignored -> {
+            McpToolBulkTestReport report = summarize(Arrays.asList(execution.runs));
+            report.setElapsed(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart));
+            report.setOverloadRetries(execution.overloadRetries.get());
+            log.info("批量测试完成: 总数={}, 成功={}, 失败={}, p95={}ms, 耗时={}ms, 限流重试={}",
+                    report.getTotal(), report.getSucceeded(), report.getFailed(), report.getP95(),
+                    report.getElapsed(), report.getOverloadRetries());
+            return report;
+        });
+    }
+
+    /**
+     * 在并行度允许的范围内发出后续批次。调用同步完成时会在回调中重入，
+     * 这里用计数保证同一时刻只有一个线程发出批次，重入方只登记一次补发，避免回调链递归过深
+     */
+    private void pump(Execution execution, String sessionId, Long operatorId, String operatorUsername,
+                      AtomicInteger completed) {
+        if (execution.pumping.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (execution.nextChunk < execution.chunkCount
+                    && execution.inFlight.get() < execution.plan.parallelism) {
+                int chunkIndex = execution.nextChunk++;
+                execution.inFlight.incrementAndGet();
+                launch(execution, chunkIndex, sessionId, operatorId, operatorUsername, completed);
+            }
+        } while (execution.pumping.decrementAndGet() != 0);
+    }
+
+    private void launch(Execution execution, int chunkIndex, String sessionId, Long operatorId,
+                        String operatorUsername, AtomicInteger completed) {
+        Plan plan = execution.plan;
+        int offset = chunkIndex * plan.batchSize;
+        List<McpToolCall> chunk = plan.calls.subList(offset, Math.min(plan.calls.size(), offset + plan.batchSize));
+        callWithRetry(chunk, sessionId, 0, execution.overloadRetries).handle((outcomes, ex) -> {
+            try {
+                for (int i = 0; i < chunk.size(); i++) {
+                    McpToolCall toolCall = chunk.get(i);
+                    Outcome outcome = outcomes != null ? outcomes.get(i) : new Outcome(null, ex, 0);
+                    McpToolBulkTestReport.Run run = toRun(toolCall.getToolNum(),
+                            plan.argumentIndexes[offset + i], outcome.result, outcome.error, outcome.latency);
+                    execution.runs[offset + i] = run;
+                    if (plan.persist && run.isSuccess() && plan.toolIds.containsKey(toolCall.getToolNum())) {
+                        saveSuccess(plan.toolIds.get(toolCall.getToolNum()), toolCall.getArguments(),
+                                outcome.result, operatorId, operatorUsername);
+                    }
+                }
+                completed.addAndGet(chunk.size());
+            } catch (RuntimeException e) {
+                log.error("处理批量测试结果失败", e);
+            } finally {
+                execution.inFlight.decrementAndGet();
+                if (execution.finishedChunks.incrementAndGet() == execution.chunkCount) {
+                    execution.done.complete(null);
+                } else {
+                    pump(execution, sessionId, operatorId, operatorUsername, completed);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 发起一次(批量)调用；被端点并发限制或执行器拒绝的调用未真正发出，退避后只重发这部分，
+     * 避免并行度高于端点当前上限或执行器繁忙时把拒绝计为工具失败。延迟取产生最终结果的那次调用
+     *
+     * @param chunk           调用列表
+     * @param sessionId       wind会话ID
+     * @param attempt         已重试次数
+     * @param overloadRetries 限流重试计数
+     * @return 与chunk一一对应的结果，不会异常完成
+     */
+    private CompletableFuture<List<Outcome>> callWithRetry(List<McpToolCall> chunk, String sessionId, int attempt,
+                                                           AtomicInteger overloadRetries) {
+        long start = System.nanoTime();
+        CompletableFuture<List<Map<String, Object>>> call;
+        try {
+            call = chunk.size() == 1
+                    ? mcpClientService.testToolWithSessionIdAsync(chunk.get(0).getToolNum(),
+                    chunk.get(0).getArguments(), sessionId).thenApply(Collections::singletonList)
+                    : mcpClientService.testToolsWithSessionIdAsync(chunk, sessionId);
+        } catch (RuntimeException e) {
+            // 执行器拒绝等提交失败，同样计入结果，其中执行器拒绝按限流重试
+            call = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<List<Outcome>> outcomes = call.handle((results, ex) -> {
+            // 同一批次内的调用共用一次往返的耗时
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            List<Outcome> list = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Map<String, Object> result = results != null && i < results.size() ? results.get(i) : null;
+                list.add(new Outcome(result, ex, latency));
+            }
+            return list;
+        });
+        return outcomes.thenCompose(list -> {
+            List<Integer> overloaded = new ArrayList<>();
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).isRejected()) {
+                    overloaded.add(i);
+                }
+            }
+            if (overloaded.isEmpty() || attempt >= MAX_OVERLOAD_RETRIES) {
+                return CompletableFuture.completedFuture(list);
+            }
+            overloadRetries.addAndGet(overloaded.size());
+            List<McpToolCall> retryCalls = new ArrayList<>(overloaded.size());
+            for (Integer index : overloaded) {
+                retryCalls.add(chunk.get(index));
+            }
+            long backoff = Math.min(MAX_OVERLOAD_BACKOFF, OVERLOAD_BACKOFF << attempt);
+            Executor delayed = CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> retryCalls, delayed)
+                    .thenCompose(calls -> callWithRetry(calls, sessionId, attempt + 1, overloadRetries))
+                    .handle((retried, ex) -> {
+                        List<Outcome> merged = new ArrayList<>(list);
+                        for (int i = 0; i < overloaded.size(); i++) {
+                            merged.set(overloaded.get(i), retried != null ? retried.get(i)
+                                    : new Outcome(null, ex, list.get(overloaded.get(i)).latency));
+                        }
+                        return merged;
+                    });
+        });
+    }
+
+    /**
+     * 汇总测试结果
+     *
+     * @param runs 单次调用结果
+     * @return 测试报告
+     */
+    static McpToolBulkTestReport summarize(List<McpToolBulkTestReport.Run> runs) {
+        McpToolBulkTestReport report = new McpToolBulkTestReport();
+        long[] latencies = new long[runs.size()];
+        int succeeded = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            McpToolBulkTestReport.Run run = runs.get(i);
+            latencies[i] = run.getLatency();
+            if (run.isSuccess()) {
+                succeeded++;
+            }
+            report.getErrorCodeHistogram().merge(run.getErrorCode(), 1, Integer::sum);
+        }
+        Arrays.sort(latencies);
+
+        report.setRuns(runs);
+        report.setTotal(runs.size());
+        report.setSucceeded(succeeded);
+        report.setFailed(runs.size() - succeeded);
+        report.setSuccessRate(runs.isEmpty() ? 0 : (double) succeeded / runs.size());
+        report.setP50(percentile(latencies, 50));
+        report.setP95(percentile(latencies, 95));
+        report.setP99(percentile(latencies, 99));
+        report.setMaxLatency(latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+        return report;
+    }
+
+    /**
+     * 最近秩法计算分位数
+     *
+     * @param sorted     升序排列的数据
+     * @param percentile 分位(0~100)
+     * @return 分位数，数据为空时返回0
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+
+    private McpToolBulkTestReport.Run toRun(Long toolNum, int argumentIndex, Map<String, Object> result,
+                                            Throwable ex, long latency) {
+        McpToolBulkTestReport.Run run = new McpToolBulkTestReport.Run();
+        run.setToolNum(toolNum);
+        run.setArgumentIndex(argumentIndex);
+        run.setLatency(latency);
+
+        if (ex != null) {
+            run.setSuccess(false);
+            run.setErrorCode("EXCEPTION");
+            run.setError(ex.getMessage());
+        } else if (result == null || Boolean.TRUE.equals(result.get("isError"))) {
+            run.setSuccess(false);
+            Object errorCode = result != null ? result.get("errorCode") : null;
+            run.setErrorCode(errorCode != null ? String.valueOf(errorCode) : "UNKNOWN");
+            run.setError(result != null ? String.valueOf(result.get("error")) : "无响应");
+        } else {
+            run.setSuccess(true);
+            run.setErrorCode("0");
+        }
+        return run;
+    }
+
+    private List<Long> resolveToolNums(McpToolBulkTestRequest request) {
+        Set<Long> toolNums = new LinkedHashSet<>();
+        if (request.getToolNums() != null) {
+            toolNums.addAll(request.getToolNums());
+        }
+        if (request.getVserverId() != null && !request.getVserverId().trim().isEmpty()) {
+            QueryWrapper<VserverItems> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("mcp_item_num")
+                    .eq("vserver_id", request.getVserverId())
+                    .eq("status", "1")
+                    .orderByAsc("order_num");
+            for (VserverItems item : vserverItemsService.list(queryWrapper)) {
+                toolNums.add(item.getMcpItemNum());
+            }
+        }
+        toolNums.remove(null);
+        return new ArrayList<>(toolNums);
+    }
+
+    private Map<Long, Long> resolveToolIds(List<Long> toolNums) {
+        Map<Long, Long> toolIds = new HashMap<>();
+        for (Long toolNum : toolNums) {
+            McpToolDTO tool = mcpToolService.resolveValidTool(toolNum);
+            if (tool != null) {
+                toolIds.put(toolNum, tool.getId());
+            }
+        }
+        return toolIds;
+    }
+
+    private void saveSuccess(Long toolId, Map<String, Object> arguments, Map<String, Object> result,
+                             Long operatorId, String operatorUsername) {
+        try {
+            mcpTestSuccessRecordService.saveTestRecord(toolId, JSONUtil.toJsonStr(arguments),
+                    JSONUtil.toJsonStr(result), operatorId, operatorUsername);
+        } catch (Exception e) {
+            log.warn("保存批量测试成功记录失败: toolId={}, {}", toolId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.dto.McpToolExportDto;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolExportFilter;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolBundleMapper;
+import cn.com.wind.mcp.registry.search.McpToolSearchIndex;
+import cn.com.wind.mcp.registry.service.McpToolBundleService;
+import com.google.common.cache.Cache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * MCP工具聚合Service实现类
+ * 单个或多个工具都只发一次联表查询(超过BATCH_SIZE时分批)，可选按工具ID的读缓存；
+ * 批量导出用MyBatis游标逐行读取
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class McpToolBundleServiceImpl implements McpToolBundleService {
+
+    /**
+     * 单次IN查询的最大工具数
+     */
+    static final int BATCH_SIZE = 500;
+
+    private final McpToolBundleMapper mcpToolBundleMapper;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * toolId -> 工具聚合读缓存；mcp.tool.bundle-cache-ttl<=0时为null，不缓存
+     */
+    private final Cache<Long, McpToolBundle> bundleCache;
+
+    public McpToolBundleServiceImpl(McpToolBundleMapper mcpToolBundleMapper, ObjectMapper objectMapper,
+                                    @Value("${mcp.tool.bundle-cache-ttl:0}") long bundleCacheTtl) {
+        this.mcpToolBundleMapper = mcpToolBundleMapper;
+        this.objectMapper = objectMapper;
+        this.bundleCache = bundleCacheTtl > 0
+                ? CacheBuilder.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(bundleCacheTtl, TimeUnit.MILLISECONDS)
+                .build()
+                : null;
+    }
+
+    @Override
+    public McpToolBundle getBundle(Long toolId) {
+        if (toolId == null) {
+            return null;
+        }
+        return getBundles(Collections.singletonList(toolId)).get(toolId);
+    }
+
+    @Override
+    public Map<Long, McpToolBundle> getBundles(Collection<Long> toolIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : toolIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+
+        Map<Long, McpToolBundle> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            McpToolBundle cached = bundleCache != null ? bundleCache.getIfPresent(id) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+            List<Long> batch = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+            Map<Long, McpToolBundle> loaded = new HashMap<>();
+            for (McpToolBundle row : mcpToolBundleMapper.selectByToolIds(batch)) {
+                merge(loaded, row);
+            }
+            if (bundleCache != null) {
+                bundleCache.putAll(loaded);
+            }
+            found.putAll(loaded);
+        }
+        log.debug("加载工具聚合: 请求{}个, 查库{}个", ids.size(), missing.size());
+
+        Map<Long, McpToolBundle> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            McpToolBundle bundle = found.get(id);
+            if (bundle != null) {
+                result.put(id, bundle);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 游标逐行读取，同一工具的多行相邻，择优后立即写出，只保留当前工具的一行
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBundles(McpToolExportFilter filter, String format, OutputStream out) throws IOException {
+        String convertType = McpToolSearchIndex.normalizeConvertType(filter.getConvertType());
+        String toolType = McpToolSearchIndex.normalizeToolType(filter.getToolType());
+        ZipOutputStream zipOut = FORMAT_ZIP.equals(format) ? new ZipOutputStream(out, StandardCharsets.UTF_8) : null;
+
+        long count = 0;
+        try (Cursor<McpToolBundle> cursor = mcpToolBundleMapper.selectBundleCursor(filter,
+                convertType != null ? McpToolSearchIndex.convertTypeValues(convertType) : null,
+                toolType != null ? McpToolSearchIndex.toolTypeValues(toolType) : null)) {
+            McpToolBundle pending = null;
+            for (McpToolBundle row : cursor) {
+                if (row.getMcpTool() == null) {
+                    continue;
+                }
+                if (pending != null && !pending.getMcpTool().getId().equals(row.getMcpTool().getId())) {
+                    writeBundle(pending, out, zipOut);
+                    count++;
+                    pending = row;
+                } else if (pending == null || isBetter(row, pending)) {
+                    pending = row;
+                }
+            }
+            if (pending != null) {
+                writeBundle(pending, out, zipOut);
+                count++;
+            }
+        }
+
+        if (zipOut != null) {
+            zipOut.finish();
+        }
+        out.flush();
+        log.info("批量导出工具完成: filter={}, format={}, count={}", filter, format, count);
+        return count;
+    }
+
+    /**
+     * 工具变更后清理对应聚合
+     *
+     * @param event 工具变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMcpToolChanged(McpToolChangedEvent event) {
+        if (bundleCache == null) {
+            return;
+        }
+        if (event.getId() != null) {
+            bundleCache.invalidate(event.getId());
+        } else {
+            bundleCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 原始接口变更后清空聚合缓存(事件只带原始接口ID，无法定位工具)
+     *
+     * @param event 原始接口变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOriginToolChanged(OriginToolChangedEvent event) {
+        if (bundleCache != null) {
+            bundleCache.invalidateAll();
+        }
+    }
+
+    private void writeBundle(McpToolBundle bundle, OutputStream out, ZipOutputStream zipOut) throws IOException {
+        // 与单个导出一致，只导出convertType对应的原始接口
+        String convertType = McpToolSearchIndex.normalizeConvertType(bundle.getMcpTool().getConvertType());
+        McpToolExportDto exportDto = new McpToolExportDto();
+        exportDto.setMcpTool(bundle.getMcpTool());
+        exportDto.setOriginToolHttp("http".equals(convertType) ? bundle.getOriginToolHttp() : null);
+        exportDto.setOriginToolExpo("expo".equals(convertType) ? bundle.getOriginToolExpo() : null);
+        exportDto.setHttpTemplateConverter(bundle.getHttpTemplateConverter());
+        exportDto.setExpoTemplateConverter(bundle.getExpoTemplateConverter());
+
+        if (zipOut != null) {
+            zipOut.putNextEntry(new ZipEntry(entryName(bundle.getMcpTool())));
+            zipOut.write(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(exportDto));
+            zipOut.closeEntry();
+        } else {
+            out.write(objectMapper.writeValueAsBytes(exportDto));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * ZIP内文件名: mcp-tool-{工具名}-{id}.json，工具名中的特殊字符替换为下划线
+     */
+    private static String entryName(McpTool tool) {
+        String name = tool.getToolName() != null ? tool.getToolName().replaceAll("[^A-Za-z0-9_.-]", "_") : "tool";
+        return "mcp-tool-" + name + "-" + tool.getId() + ".json";
+    }
+
+    /**
+     * 同一工具有多个版本的转换模板时会返回多行：优先版本与工具一致的模板，其次取最新的模板
+     */
+    private static void merge(Map<Long, McpToolBundle> loaded, McpToolBundle row) {
+        if (row.getMcpTool() == null || row.getMcpTool().getId() == null) {
+            return;
+        }
+        Long id = row.getMcpTool().getId();
+        McpToolBundle current = loaded.get(id);
+        if (current == null || isBetter(row, current)) {
+            loaded.put(id, row);
+        }
+    }
+
+    private static boolean isBetter(McpToolBundle row, McpToolBundle current) {
+        Long toolVersion = row.getMcpTool().getToolVersion();
+        boolean rowMatches = Objects.equals(converterVersion(row), toolVersion);
+        boolean currentMatches = Objects.equals(converterVersion(current), toolVersion);
+        if (rowMatches != currentMatches) {
+            return rowMatches;
+        }
+        Long rowId = converterId(row);
+        Long currentId = converterId(current);
+        return rowId != null && (currentId == null || rowId > currentId);
+    }
+
+    private static Long converterVersion(McpToolBundle bundle) {
+        if (bundle.getHttpTemplateConverter() != null) {
+            return bundle.getHttpTemplateConverter().getToolVersion();
+        }
+        return bundle.getExpoTemplateConverter() != null ? bundle.getExpoTemplateConverter().getToolVersion() : null;
+    }
+
+    private static Long converterId(McpToolBundle bundle) {
+        if (bundle.getHttpTemplateConverter() != null) {
+            return bundle.getHttpTemplateConverter().getId();
+        }
+        return bundle.getExpoTemplateConverter() != null ? bundle.getExpoTemplateConverter().getId() : null;
+    }
+}
@@ -0,0 +1,270 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDriftReport;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolListing;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.VirtualServer;
+import cn.com.wind.mcp.registry.entity.VserverItems;
+import cn.com.wind.mcp.registry.event.McpToolsListChangedEvent;
+import cn.com.wind.mcp.registry.mapper.VirtualServerMapper;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import cn.com.wind.mcp.registry.service.McpToolDiscoveryService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.VserverItemsService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * MCP工具发现服务实现
+ * <p>
+ * 只允许访问已启用且对调用者可见(本人创建或全局用户)的虚拟服务器，校验在读缓存之前进行；
+ * tools/list结果按虚拟服务器和会话缓存discoveryTtl(服务器可能按会话过滤工具)，同一键的并发未命中只请求一次；
+ * 服务端推送list_changed通知时清空缓存
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class McpToolDiscoveryServiceImpl implements McpToolDiscoveryService {
+
+    /**
+     * 可以访问全部虚拟服务器的用户
+     */
+    private static final String GLOBAL_USER = "pczhou";
+
+    /**
+     * vserver_id列长度
+     */
+    private static final int MAX_VSERVER_ID_LENGTH = 128;
+
+    private final McpClientService mcpClientService;
+    private final McpToolService mcpToolService;
+    private final VserverItemsService vserverItemsService;
+    private final VirtualServerMapper virtualServerMapper;
+    private final McpClientConfig.McpProperties mcpProperties;
+    private final ObjectMapper objectMapper;
+    private final Cache<ListingKey, McpToolListing> listings;
+
+    public McpToolDiscoveryServiceImpl(McpClientService mcpClientService, McpToolService mcpToolService,
+                                       VserverItemsService vserverItemsService, VirtualServerMapper virtualServerMapper,
+                                       McpClientConfig.McpProperties mcpProperties, ObjectMapper objectMapper) {
+        this.mcpClientService = mcpClientService;
+        this.mcpToolService = mcpToolService;
+        this.vserverItemsService = vserverItemsService;
+        this.virtualServerMapper = virtualServerMapper;
+        this.mcpProperties = mcpProperties;
+        this.objectMapper = objectMapper;
+        this.listings = CacheBuilder.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(mcpProperties.getClient().getDiscoveryTtl(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public McpToolListing listTools(String vserverId, String username, String sessionId, boolean refresh) {
+        checkVisible(vserverId, username);
+        ListingKey key = new ListingKey(vserverId, sessionId);
+        if (refresh) {
+            listings.invalidate(key);
+        }
+        try {
+            return listings.get(key, () -> fetch(vserverId, sessionId));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("获取工具列表失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public McpToolDriftReport reconcile(String vserverId, String username, String sessionId, boolean refresh) {
+        McpToolListing listing = listTools(vserverId, username, sessionId, refresh);
+        Map<String, McpTool> registered = loadRegisteredTools(vserverId);
+
+        Map<String, Map<String, Object>> live = new LinkedHashMap<>();
+        for (Map<String, Object> tool : listing.getTools()) {
+            Object name = tool.get("name");
+            if (name != null) {
+                live.put(String.valueOf(name), tool);
+            }
+        }
+
+        McpToolDriftReport report = new McpToolDriftReport();
+        report.setVserverId(vserverId);
+        report.setFetchTime(listing.getFetchTime());
+        report.setLiveCount(live.size());
+        report.setRegisteredCount(registered.size());
+
+        for (Map.Entry<String, McpTool> entry : registered.entrySet()) {
+            McpTool tool = entry.getValue();
+            Map<String, Object> liveTool = live.get(entry.getKey());
+            if (liveTool == null) {
+                report.getMissing().add(McpToolDriftReport.Item.of(tool.getToolNum(), tool.getToolName(),
+                        "已注册但服务器未暴露"));
+                continue;
+            }
+            String drift = compareSchema(tool.getInputSchema(), liveTool.get("inputSchema"));
+            if (drift != null) {
+                report.getSchemaDrifted().add(McpToolDriftReport.Item.of(tool.getToolNum(), tool.getToolName(),
+                        drift));
+            }
+        }
+        for (String name : live.keySet()) {
+            if (!registered.containsKey(name)) {
+                report.getExtra().add(McpToolDriftReport.Item.of(null, name, "服务器暴露但未在该虚拟服务器注册"));
+            }
+        }
+
+        log.info("工具对账完成: vserverId={}, 实际={}, 注册={}, 缺失={}, 多出={}, 参数漂移={}", vserverId,
+                report.getLiveCount(), report.getRegisteredCount(), report.getMissing().size(),
+                report.getExtra().size(), report.getSchemaDrifted().size());
+        return report;
+    }
+
+    @Override
+    public void invalidate(String vserverId) {
+        if (vserverId == null) {
+            listings.invalidateAll();
+        } else {
+            listings.asMap().keySet().removeIf(key -> key.vserverId().equals(vserverId));
+        }
+    }
+
+    /**
+     * 服务端工具列表变更，清空全部缓存
+     *
+     * @param event 变更事件
+     */
+    @EventListener
+    public void onToolsListChanged(McpToolsListChangedEvent event) {
+        invalidate(null);
+        log.info("MCP工具列表已变更，清空发现缓存");
+    }
+
+    /**
+     * 校验虚拟服务器存在、已启用且调用者有权访问，不满足时不会创建会话或缓存
+     */
+    private void checkVisible(String vserverId, String username) {
+        if (vserverId == null || vserverId.trim().isEmpty()) {
+            throw new RuntimeException("虚拟服务器ID不能为空");
+        }
+        if (username == null) {
+            throw new RuntimeException("用户未登录");
+        }
+        VirtualServer vserver = vserverId.length() > MAX_VSERVER_ID_LENGTH ? null
+                : virtualServerMapper.selectOne(new QueryWrapper<VirtualServer>()
+                .select("vserver_id", "userid")
+                .eq("vserver_id", vserverId)
+                .eq("status", "1"));
+        if (vserver == null) {
+            throw new RuntimeException("虚拟服务器不存在或未启用: " + vserverId);
+        }
+        if (!GLOBAL_USER.equals(username) && !username.equals(vserver.getUserid())) {
+            throw new RuntimeException("无权访问虚拟服务器: " + vserverId);
+        }
+    }
+
+    private McpToolListing fetch(String vserverId, String sessionId) {
+        String url = mcpProperties.getServer().resolveVserverUrl(vserverId);
+        List<Map<String, Object>> tools = mcpClientService.listToolsWithSessionId(url, sessionId);
+
+        McpToolListing listing = new McpToolListing();
+        listing.setVserverId(vserverId);
+        listing.setUrl(url);
+        listing.setFetchTime(LocalDateTime.now());
+        listing.setTools(tools);
+        return listing;
+    }
+
+    /**
+     * 虚拟服务器下启用的工具，按工具名索引；同一toolNum有多个有效版本时取最新版本
+     */
+    private Map<String, McpTool> loadRegisteredTools(String vserverId) {
+        QueryWrapper<VserverItems> itemQuery = new QueryWrapper<>();
+        itemQuery.select("mcp_item_num")
+                .eq("vserver_id", vserverId)
+                .eq("status", "1");
+        Set<Long> toolNums = vserverItemsService.list(itemQuery).stream()
+                .map(VserverItems::getMcpItemNum)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (toolNums.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        QueryWrapper<McpTool> toolQuery = new QueryWrapper<>();
+        toolQuery.select("id", "tool_num", "tool_version", "tool_name", "input_schema")
+                .in("tool_num", toolNums)
+                .eq("valid", "1");
+        Map<Long, McpTool> latest = new HashMap<>();
+        for (McpTool tool : mcpToolService.list(toolQuery)) {
+            latest.merge(tool.getToolNum(), tool, (a, b) -> version(a) >= version(b) ? a : b);
+        }
+
+        Map<String, McpTool> byName = new LinkedHashMap<>();
+        for (McpTool tool : latest.values()) {
+            if (tool.getToolName() != null) {
+                byName.put(tool.getToolName(), tool);
+            }
+        }
+        return byName;
+    }
+
+    private long version(McpTool tool) {
+        return tool.getToolVersion() != null ? tool.getToolVersion() : 0L;
+    }
+
+    /**
+     * 比较注册表与服务器的inputSchema(按JSON结构比较，忽略格式和字段顺序)
+     *
+     * @return 差异说明，一致时返回null
+     */
+    String compareSchema(String registeredSchema, Object liveSchema) {
+        boolean registeredEmpty = registeredSchema == null || registeredSchema.trim().isEmpty();
+        if (registeredEmpty && liveSchema == null) {
+            return null;
+        }
+        if (registeredEmpty) {
+            return "注册表未定义inputSchema";
+        }
+        if (liveSchema == null) {
+            return "服务器未返回inputSchema";
+        }
+        try {
+            JsonNode registered = objectMapper.readTree(registeredSchema);
+            JsonNode live = objectMapper.valueToTree(liveSchema);
+            return registered.equals(live) ? null : "inputSchema不一致";
+        } catch (Exception e) {
+            return "注册表inputSchema不是合法JSON";
+        }
+    }
+
+    /**
+     * 缓存键：服务器可能按会话返回不同的工具，不同会话不共享结果
+     */
+    private record ListingKey(String vserverId, String sessionId) {
+    }
+}
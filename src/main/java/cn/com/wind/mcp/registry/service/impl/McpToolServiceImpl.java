@@ -3,23 +3,46 @@ package cn.com.wind.mcp.registry.service.impl;
 import cn.com.wind.mcp.registry.dto.McpToolExportDto;
 import cn.com.wind.mcp.registry.dto.McpToolImportValidationResult;
 import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolSearchResult;
 import cn.com.wind.mcp.registry.entity.*;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
 import cn.com.wind.mcp.registry.mapper.*;
+import cn.com.wind.mcp.registry.search.McpToolSearchIndex;
+import cn.com.wind.mcp.registry.service.ExpoTemplateConverterService;
+import cn.com.wind.mcp.registry.service.HttpTemplateConverterService;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
 import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.OriginToolExpoService;
+import cn.com.wind.mcp.registry.service.OriginToolHttpService;
 import cn.com.wind.mcp.registry.service.ToolValidationService;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -34,6 +57,11 @@ import java.util.stream.Collectors;
 @Service
 public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> implements McpToolService {
 
+    /**
+     * 批量导入时每次JDBC批量提交的行数
+     */
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     @Autowired
     private ToolValidationService toolValidationService;
     @Autowired
@@ -46,20 +74,162 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
     private HttpTemplateConverterMapper httpTemplateConverterMapper;
     @Autowired
     private ExpoTemplateConverterMapper expoTemplateConverterMapper;
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Autowired
+    private McpToolSearchIndex mcpToolSearchIndex;
+    @Autowired
+    private OriginToolHttpService originToolHttpService;
+    @Autowired
+    private OriginToolExpoService originToolExpoService;
+    @Autowired
+    private HttpTemplateConverterService httpTemplateConverterService;
+    @Autowired
+    private ExpoTemplateConverterService expoTemplateConverterService;
+    @Autowired
+    private IdAllocatorService idAllocatorService;
+
+    /**
+     * toolNum -> 有效工具缓存，变更时按toolNum清理，TTL仅作兜底
+     */
+    private final Cache<Long, McpToolDTO> validToolCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * 不存在的toolNum短期缓存，避免重复的无效编号反复查库
+     */
+    private final Cache<Long, Boolean> missingToolCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(30, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * uniqueId -> 工具缓存，工具变更时按主键清理；未命中不缓存，新建工具可立即查到
+     */
+    private final Cache<String, McpTool> uniqueIdCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    @Override
+    public boolean save(McpTool entity) {
+        fillUniqueId(entity);
+        boolean saved = super.save(entity);
+        if (saved) {
+            publishChanged(entity.getId(), entity.getToolNum());
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(McpTool entity) {
+        fillUniqueIdForUpdate(entity);
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            publishChanged(entity.getId(), entity.getToolNum());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        McpTool existing = getById(id);
+        boolean removed = super.removeById(id);
+        if (removed) {
+            publishChanged(existing != null ? existing.getId() : null,
+                    existing != null ? existing.getToolNum() : null);
+        }
+        return removed;
+    }
 
     @Override
     public List<McpTool> searchTools(String keyword) {
-        QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
+        if (!StringUtils.hasText(keyword)) {
+            return list(new QueryWrapper<McpTool>().select(SUMMARY_COLUMNS));
+        }
+        if (!mcpToolSearchIndex.isReady()) {
+            return list(likeQuery(keyword).select(SUMMARY_COLUMNS));
+        }
+        return listInOrder(mcpToolSearchIndex.searchAll(keyword, null, null));
+    }
 
-        if (StringUtils.hasText(keyword)) {
-            queryWrapper.like("tool_name", keyword)
-                    .or()
-                    .like("tool_description", keyword)
-                    .or()
-                    .like("name_display", keyword);
+    @Override
+    public IPage<McpTool> searchToolPage(String keyword, Long providerId, long current, long size) {
+        Page<McpTool> page = new Page<>(current, size);
+        if (!StringUtils.hasText(keyword) || !mcpToolSearchIndex.isReady()) {
+            QueryWrapper<McpTool> queryWrapper = StringUtils.hasText(keyword)
+                    ? likeQuery(keyword) : new QueryWrapper<>();
+            if (providerId != null) {
+                queryWrapper.eq("provider_id", providerId);
+            }
+            return page(page, queryWrapper.select(SUMMARY_COLUMNS));
         }
 
-        return list(queryWrapper);
+        McpToolSearchIndex.Hits hits = mcpToolSearchIndex.search(keyword, providerId, null,
+                (int) Math.min(Integer.MAX_VALUE, page.offset()), (int) size);
+        page.setTotal(hits.getTotal());
+        page.setRecords(listInOrder(hits.getIds()));
+        return page;
+    }
+
+    @Override
+    public McpToolSearchResult rankedSearch(String keyword, Long providerId, String convertType, String toolType,
+                                            String valid, long current, long size) {
+        Page<McpTool> page = new Page<>(current, size);
+        McpToolSearchResult result = new McpToolSearchResult();
+        McpToolSearchIndex.Filter filter = new McpToolSearchIndex.Filter(providerId, convertType, toolType, valid);
+        if (!mcpToolSearchIndex.isReady()) {
+            QueryWrapper<McpTool> queryWrapper = StringUtils.hasText(keyword)
+                    ? likeQuery(keyword) : new QueryWrapper<>();
+            queryWrapper.eq(filter.getProviderId() != null, "provider_id", filter.getProviderId())
+                    .in(filter.getConvertType() != null, "convert_type", McpToolSearchIndex.convertTypeValues(filter.getConvertType()))
+                    .in(filter.getToolType() != null, "tool_type", McpToolSearchIndex.toolTypeValues(filter.getToolType()))
+                    .eq(filter.getValid() != null, "valid", filter.getValid())
+                    .select(SUMMARY_COLUMNS);
+            result.setPage(page(page, queryWrapper));
+            result.setScores(Collections.nCopies(page.getRecords().size(), 0.0));
+            result.setFacets(Collections.emptyMap());
+            return result;
+        }
+
+        McpToolSearchIndex.Ranked ranked = mcpToolSearchIndex.rank(keyword, filter,
+                (int) Math.min(Integer.MAX_VALUE, page.offset()), (int) size);
+        page.setTotal(ranked.getTotal());
+        page.setRecords(listInOrder(ranked.getIds()));
+        result.setPage(page);
+        result.setScores(ranked.getScores());
+        result.setFacets(ranked.getFacets());
+        return result;
+    }
+
+    /**
+     * 索引未就绪时的模糊查询
+     */
+    private QueryWrapper<McpTool> likeQuery(String keyword) {
+        QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
+        queryWrapper.and(wrapper -> wrapper
+                .like("tool_name", keyword)
+                .or()
+                .like("tool_description", keyword)
+                .or()
+                .like("name_display", keyword)
+                .or()
+                .like("description_display", keyword));
+        return queryWrapper;
+    }
+
+    /**
+     * 按主键批量查询摘要列，保持传入ID的顺序
+     */
+    private List<McpTool> listInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, McpTool> byId = list(new QueryWrapper<McpTool>().select(SUMMARY_COLUMNS).in("id", ids)).stream()
+                .collect(Collectors.toMap(McpTool::getId, tool -> tool, (a, b) -> a));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
@@ -71,20 +241,9 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
             throw new RuntimeException(result.getMessage());
         }
 
-        // 设置唯一标识和其他元数据
+        // 唯一标识存入独立字段，输入schema保持原样
         if (result.getUniqueId() != null) {
-            // 可以将唯一标识存储在输入schema字段中作为元数据
-            String schema = tool.getInputSchema();
-            if (schema == null) {
-                schema = "{\"uniqueId\":\"" + result.getUniqueId() + "\"}";
-            } else if (!schema.contains("uniqueId")) {
-                // 简单地在JSON中添加uniqueId字段
-                schema = schema.replace("}", ",\"uniqueId\":\"" + result.getUniqueId() + "\"}");
-                if (schema.startsWith(",")) {
-                    schema = "{" + schema.substring(1);
-                }
-            }
-            tool.setInputSchema(schema);
+            tool.setUniqueId(result.getUniqueId());
         }
 
         // 执行保存或更新
@@ -93,9 +252,22 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
 
     @Override
     public McpTool findByUniqueId(String uniqueId) {
+        if (!StringUtils.hasText(uniqueId)) {
+            return null;
+        }
+        McpTool cached = uniqueIdCache.getIfPresent(uniqueId);
+        if (cached != null) {
+            return cached;
+        }
         QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
-        queryWrapper.like("configuration", "\"uniqueId\":\"" + uniqueId + "\"");
-        return getOne(queryWrapper);
+        queryWrapper.eq("unique_id", uniqueId)
+                .orderByDesc("id")
+                .last("LIMIT 1");
+        McpTool tool = getOne(queryWrapper);
+        if (tool != null) {
+            uniqueIdCache.put(uniqueId, tool);
+        }
+        return tool;
     }
 
     /**
@@ -139,6 +311,114 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
         return entities.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    @Override
+    public McpToolDTO resolveValidTool(Long toolNum) {
+        if (toolNum == null) {
+            return null;
+        }
+        McpToolDTO cached = validToolCache.getIfPresent(toolNum);
+        if (cached != null) {
+            return cached;
+        }
+        if (missingToolCache.getIfPresent(toolNum) != null) {
+            return null;
+        }
+
+        McpTool mcpTool = mcpToolMapper.selectOne(new QueryWrapper<McpTool>()
+                .eq("tool_num", toolNum)
+                .eq("valid", "1")
+                .orderByDesc("tool_version")
+                .last("LIMIT 1"));
+        if (mcpTool == null) {
+            missingToolCache.put(toolNum, Boolean.TRUE);
+            return null;
+        }
+        McpToolDTO dto = convertToDTO(mcpTool);
+        validToolCache.put(toolNum, dto);
+        return dto;
+    }
+
+    @Override
+    public List<McpToolDTO> suggestTools(Long toolNumOrId) {
+        // 走主键和uk_tool_num_valid_version索引，只取排查所需的列
+        List<McpTool> entities = mcpToolMapper.selectList(new QueryWrapper<McpTool>()
+                .select("id", "tool_num", "tool_name", "valid", "tool_version")
+                .eq("tool_num", toolNumOrId)
+                .or()
+                .eq("id", toolNumOrId)
+                .last("LIMIT 5"));
+        return entities.stream().map(this::convertToDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * 工具变更后清理解析缓存；在事务提交后执行，避免并发读取在提交前把旧数据重新放回缓存
+     *
+     * @param event 工具变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMcpToolChanged(McpToolChangedEvent event) {
+        if (event.getToolNum() != null) {
+            validToolCache.invalidate(event.getToolNum());
+            missingToolCache.invalidate(event.getToolNum());
+        } else {
+            validToolCache.invalidateAll();
+            missingToolCache.invalidateAll();
+        }
+        if (event.getId() != null) {
+            uniqueIdCache.asMap().values().removeIf(tool -> event.getId().equals(tool.getId()));
+        } else {
+            uniqueIdCache.invalidateAll();
+        }
+        log.debug("MCP工具解析缓存已清理: {}", event);
+    }
+
+    /**
+     * 按名称、版本、类型计算唯一标识，与验证时生成的规则一致；名称为空(如仅更新状态)时不改动
+     */
+    private void fillUniqueId(McpTool tool) {
+        if (tool == null || !StringUtils.hasText(tool.getToolName())) {
+            return;
+        }
+        fillUniqueId(tool, tool.getToolVersion(), tool.getToolType());
+    }
+
+    /**
+     * 更新时计算唯一标识；部分更新的实体缺少版本或类型时从现有记录补齐，不能按默认值计算
+     */
+    private void fillUniqueIdForUpdate(McpTool tool) {
+        if (tool == null || !StringUtils.hasText(tool.getToolName())) {
+            return;
+        }
+        Long version = tool.getToolVersion();
+        String toolType = tool.getToolType();
+        if (version == null || toolType == null) {
+            if (tool.getId() == null) {
+                return;
+            }
+            McpTool existing = mcpToolMapper.selectOne(new QueryWrapper<McpTool>()
+                    .select("id", "tool_version", "tool_type")
+                    .eq("id", tool.getId()));
+            if (existing == null) {
+                return;
+            }
+            version = version != null ? version : existing.getToolVersion();
+            toolType = toolType != null ? toolType : existing.getToolType();
+        }
+        fillUniqueId(tool, version, toolType);
+    }
+
+    private void fillUniqueId(McpTool tool, Long toolVersion, String toolType) {
+        String version = toolVersion == null ? "1" : toolVersion.toString();
+        String uniqueId = toolValidationService.generateUniqueIdentifier(tool.getToolName(), version, toolType);
+        if (uniqueId != null) {
+            tool.setUniqueId(uniqueId);
+        }
+    }
+
+    private void publishChanged(Long id, Long toolNum) {
+        applicationEventPublisher.publishEvent(new McpToolChangedEvent(id, toolNum));
+    }
+
     @Override
     public List<McpToolDTO> getAllMcpTools() {
         List<McpTool> entities = mcpToolMapper.selectList(new QueryWrapper<>());
@@ -163,6 +443,77 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
      */
     @Override
     public McpToolImportValidationResult validateImportData(McpToolExportDto exportDto, Long currentProviderId) {
+        McpToolImportValidationResult result = checkImportData(exportDto);
+
+        // 验证重复性: 检查工具英文名是否已存在
+        String toolName = importToolName(exportDto);
+        if (StrUtil.isNotBlank(toolName)) {
+            QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("tool_name", toolName);
+            long count = count(queryWrapper);
+            if (count > 0) {
+                result.addError("导入失败:MCP工具英文名'" + toolName + "'已存在,请修改后重新导入");
+            }
+        }
+
+        log.info("导入数据校验完成: valid={}, errors={}, warnings={}",
+                result.isValid(), result.getErrors(), result.getWarnings());
+
+        return result;
+    }
+
+    @Override
+    public List<McpToolImportValidationResult> validateImportBatch(List<McpToolExportDto> exportDtos) {
+        if (exportDtos == null || exportDtos.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 1. 不涉及数据库的校验并行执行，结果顺序与输入一致
+        List<McpToolImportValidationResult> results = exportDtos.parallelStream()
+                .map(this::checkImportData)
+                .collect(Collectors.toList());
+
+        // 2. 一次查询本批所有名称中已存在的(名称比较不区分大小写，与数据库排序规则一致)
+        Set<String> names = exportDtos.stream()
+                .map(McpToolServiceImpl::importToolName)
+                .filter(StrUtil::isNotBlank)
+                .collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>();
+        if (!names.isEmpty()) {
+            List<Object> existingNames = mcpToolMapper.selectObjs(new QueryWrapper<McpTool>()
+                    .select("tool_name")
+                    .in("tool_name", names));
+            for (Object name : existingNames) {
+                existing.add(String.valueOf(name).toLowerCase());
+            }
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < exportDtos.size(); i++) {
+            String toolName = importToolName(exportDtos.get(i));
+            if (StrUtil.isBlank(toolName)) {
+                continue;
+            }
+            if (existing.contains(toolName.toLowerCase())) {
+                results.get(i).addError("导入失败:MCP工具英文名'" + toolName + "'已存在,请修改后重新导入");
+            } else if (!seen.add(toolName.toLowerCase())) {
+                results.get(i).addError("导入失败:MCP工具英文名'" + toolName + "'在导入数据中重复");
+            }
+        }
+
+        log.info("批量导入数据校验完成: total={}, invalid={}", results.size(),
+                results.stream().filter(McpToolImportValidationResult::hasErrors).count());
+        return results;
+    }
+
+    private static String importToolName(McpToolExportDto exportDto) {
+        return exportDto != null && exportDto.getMcpTool() != null ? exportDto.getMcpTool().getToolName() : null;
+    }
+
+    /**
+     * 导入数据中不依赖数据库的校验
+     */
+    private McpToolImportValidationResult checkImportData(McpToolExportDto exportDto) {
         McpToolImportValidationResult result = new McpToolImportValidationResult();
         result.setValid(true);
 
@@ -184,14 +535,6 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
             if (!mcpTool.getToolName().matches("^[a-zA-Z0-9_]+$")) {
                 result.addError("MCP工具英文名格式不正确,只能包含字母、数字、下划线");
             }
-
-            // 验证重复性: 检查工具英文名是否已存在
-            QueryWrapper<McpTool> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("tool_name", mcpTool.getToolName());
-            long count = count(queryWrapper);
-            if (count > 0) {
-                result.addError("导入失败:MCP工具英文名'" + mcpTool.getToolName() + "'已存在,请修改后重新导入");
-            }
         }
 
         // 3. convertType验证
@@ -247,9 +590,6 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
             }
         }
 
-        log.info("导入数据校验完成: valid={}, errors={}, warnings={}",
-                result.isValid(), result.getErrors(), result.getWarnings());
-
         return result;
     }
 
@@ -273,8 +613,8 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
         // 清空ID,让数据库自动生成新ID
         mcpTool.setId(null);
 
-        // 生成新的工具编号 (使用时间戳)
-        Long newToolNum = System.currentTimeMillis();
+        // 分配新的工具编号
+        Long newToolNum = idAllocatorService.nextId(IdAllocatorService.TOOL_NUM);
         mcpTool.setToolNum(newToolNum);
 
         // 设置提供者ID和创建/更新信息
@@ -322,6 +662,8 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
 
             int httpInserted = originToolHttpMapper.insert(httpTool);
             log.info("原始HTTP接口保存结果: {}", httpInserted > 0 ? "成功" : "失败");
+            applicationEventPublisher.publishEvent(
+                    new OriginToolChangedEvent(OriginToolChangedEvent.HTTP, httpTool.getId()));
         } else if (exportDto.getOriginToolHttp() != null) {
             log.info("忽略原始HTTP接口数据 (convertType={} 不匹配)", convertType);
         }
@@ -339,6 +681,8 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
 
             int expoInserted = originToolExpoMapper.insert(expoTool);
             log.info("原始Expo接口保存结果: {}", expoInserted > 0 ? "成功" : "失败");
+            applicationEventPublisher.publishEvent(
+                    new OriginToolChangedEvent(OriginToolChangedEvent.EXPO, expoTool.getId()));
         } else if (exportDto.getOriginToolExpo() != null) {
             log.info("忽略原始Expo接口数据 (convertType={} 不匹配)", convertType);
         }
@@ -385,6 +729,125 @@ public class McpToolServiceImpl extends ServiceImpl<McpToolMapper, McpTool> impl
         return mcpTool;
     }
 
+    /**
+     * 批量导入工具数据
+     * 与importTool的字段处理一致，五张表各自批量插入；不发布变更事件，由调用方在整个导入结束后统一通知
+     *
+     * @param exportDtos        导入的数据
+     * @param currentProviderId 当前登录用户的提供者ID
+     * @param username          当前登录用户的用户名
+     * @return 导入后的MCP工具
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<McpTool> importToolBatch(List<McpToolExportDto> exportDtos, Long currentProviderId,
+                                         String username) {
+        if (exportDtos == null || exportDtos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("开始批量导入工具, count={}, providerId={}", exportDtos.size(), currentProviderId);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<McpTool> tools = new ArrayList<>(exportDtos.size());
+        List<OriginToolHttp> httpTools = new ArrayList<>();
+        List<OriginToolExpo> expoTools = new ArrayList<>();
+        List<HttpTemplateConverter> httpConverters = new ArrayList<>();
+        List<ExpoTemplateConverter> expoConverters = new ArrayList<>();
+
+        for (McpToolExportDto exportDto : exportDtos) {
+            Long newToolNum = idAllocatorService.nextId(IdAllocatorService.TOOL_NUM);
+            McpTool mcpTool = exportDto.getMcpTool();
+            mcpTool.setId(null);
+            mcpTool.setToolNum(newToolNum);
+            mcpTool.setProviderId(currentProviderId);
+            mcpTool.setCreateBy(username);
+            mcpTool.setUpdateBy(username);
+            mcpTool.setCreateTime(now);
+            mcpTool.setUpdateTime(now);
+            if (mcpTool.getToolVersion() == null) {
+                mcpTool.setToolVersion(1L);
+            }
+            if (StrUtil.isBlank(mcpTool.getValid())) {
+                mcpTool.setValid("1");
+            }
+            fillUniqueId(mcpTool);
+            tools.add(mcpTool);
+
+            // 与importTool一致，只导入与convertType匹配的原始接口和转换模板
+            String convertType = mcpTool.getConvertType();
+            boolean isHttp = "1".equals(convertType) || "http".equalsIgnoreCase(convertType);
+            boolean isExpo = "2".equals(convertType) || "expo".equalsIgnoreCase(convertType);
+
+            if (isHttp && exportDto.getOriginToolHttp() != null) {
+                OriginToolHttp httpTool = exportDto.getOriginToolHttp();
+                httpTool.setId(null);
+                httpTool.setProviderToolNum(newToolNum);
+                httpTool.setProviderId(currentProviderId);
+                httpTool.setCreateBy(username);
+                httpTool.setUpdateBy(username);
+                httpTool.setCreateTime(now);
+                httpTool.setUpdateTime(now);
+                httpTools.add(httpTool);
+            }
+            if (isExpo && exportDto.getOriginToolExpo() != null) {
+                OriginToolExpo expoTool = exportDto.getOriginToolExpo();
+                expoTool.setId(null);
+                expoTool.setProviderToolNum(newToolNum);
+                expoTool.setProviderId(currentProviderId);
+                expoTool.setCreateBy(username);
+                expoTool.setUpdateBy(username);
+                expoTool.setCreateTime(now);
+                expoTool.setUpdateTime(now);
+                expoTools.add(expoTool);
+            }
+            if (isHttp && exportDto.getHttpTemplateConverter() != null) {
+                HttpTemplateConverter httpConverter = exportDto.getHttpTemplateConverter();
+                httpConverter.setId(null);
+                httpConverter.setToolNum(newToolNum);
+                httpConverter.setToolVersion(mcpTool.getToolVersion());
+                httpConverter.setProviderToolNum(newToolNum);
+                httpConverter.setProviderId(currentProviderId);
+                httpConverter.setCreateBy(username);
+                httpConverter.setUpdateBy(username);
+                httpConverter.setCreateTime(now);
+                httpConverter.setUpdateTime(now);
+                httpConverters.add(httpConverter);
+            }
+            if (isExpo && exportDto.getExpoTemplateConverter() != null) {
+                ExpoTemplateConverter expoConverter = exportDto.getExpoTemplateConverter();
+                expoConverter.setId(null);
+                expoConverter.setToolNum(newToolNum);
+                expoConverter.setToolVersion(mcpTool.getToolVersion());
+                expoConverter.setProviderToolNum(newToolNum);
+                expoConverter.setCreateBy(username);
+                expoConverter.setUpdateBy(username);
+                expoConverter.setCreateTime(now);
+                expoConverter.setUpdateTime(now);
+                expoConverters.add(expoConverter);
+            }
+        }
+
+        // JDBC批量插入，配合rewriteBatchedStatements合并为多行INSERT
+        if (!saveBatch(tools, IMPORT_BATCH_SIZE)) {
+            throw new RuntimeException("批量保存MCP工具失败");
+        }
+        if (!httpTools.isEmpty()) {
+            originToolHttpService.saveBatch(httpTools, IMPORT_BATCH_SIZE);
+        }
+        if (!expoTools.isEmpty()) {
+            originToolExpoService.saveBatch(expoTools, IMPORT_BATCH_SIZE);
+        }
+        if (!httpConverters.isEmpty()) {
+            httpTemplateConverterService.saveBatch(httpConverters, IMPORT_BATCH_SIZE);
+        }
+        if (!expoConverters.isEmpty()) {
+            expoTemplateConverterService.saveBatch(expoConverters, IMPORT_BATCH_SIZE);
+        }
+
+        log.info("批量导入工具完成, count={}, http={}, expo={}", tools.size(), httpTools.size(), expoTools.size());
+        return tools;
+    }
+
     /**
      * 验证字符串是否为有效的JSON格式
      *
@@ -0,0 +1,73 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolTestJob;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import cn.com.wind.mcp.registry.service.McpToolTestJobService;
+import cn.hutool.core.util.IdUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步工具测试任务服务实现
+ * <p>
+ * 任务在McpClientService的异步执行器上运行，任务状态保存在本地缓存中，超过保留时间后自动清除
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class McpToolTestJobServiceImpl implements McpToolTestJobService {
+
+    private final McpClientService mcpClientService;
+    private final Cache<String, McpToolTestJob> jobs;
+
+    public McpToolTestJobServiceImpl(McpClientService mcpClientService,
+                                     McpClientConfig.McpProperties mcpProperties) {
+        this.mcpClientService = mcpClientService;
+        this.jobs = CacheBuilder.newBuilder()
+                .expireAfterWrite(mcpProperties.getClient().getTestJobTtl(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public McpToolTestJob submit(Long toolNum, Map<String, Object> arguments, String sessionId) {
+        McpToolTestJob job = new McpToolTestJob();
+        job.setJobId(IdUtil.simpleUUID());
+        job.setToolNum(toolNum);
+        job.setSubmitTime(LocalDateTime.now());
+
+        job.setCompletion(mcpClientService.testToolWithSessionIdAsync(toolNum, arguments, sessionId)
+                .handle((result, ex) -> {
+                    if (ex != null) {
+                        log.error("异步测试任务执行失败: jobId={}, toolNum={}", job.getJobId(), toolNum, ex);
+                        job.setError(ex.getMessage());
+                        job.setStatus(McpToolTestJob.Status.FAILED);
+                    } else {
+                        job.setResult(result);
+                        job.setStatus(McpToolTestJob.Status.SUCCEEDED);
+                    }
+                    job.setFinishTime(LocalDateTime.now());
+                    // 以完成时间重新计算保留期
+                    jobs.put(job.getJobId(), job);
+                    return job;
+                }));
+        jobs.put(job.getJobId(), job);
+
+        log.info("提交异步测试任务: jobId={}, toolNum={}", job.getJobId(), toolNum);
+        return job;
+    }
+
+    @Override
+    public McpToolTestJob getJob(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+}
@@ -6,9 +6,8 @@ import cn.com.wind.mcp.registry.entity.OriginToolHttp;
 import cn.com.wind.mcp.registry.mapper.OriginProviderConfigMapper;
 import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
 import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
 import cn.com.wind.mcp.registry.service.OriginProviderConfigService;
-import cn.hutool.core.lang.Snowflake;
-import cn.hutool.core.util.IdUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
@@ -39,6 +38,9 @@ public class OriginProviderConfigServiceImpl extends ServiceImpl<OriginProviderC
     @Autowired
     private OriginToolExpoMapper originToolExpoMapper;
 
+    @Autowired
+    private IdAllocatorService idAllocatorService;
+
     /**
      * 根据应用编号查询配置
      *
@@ -102,7 +104,7 @@ public class OriginProviderConfigServiceImpl extends ServiceImpl<OriginProviderC
     /**
      * 创建新的应用配置
      * <p>
-     * 使用Hutool雪花算法生成全局唯一的app_num
+     * 通过编号分配服务生成全局唯一的app_num
      * </p>
      *
      * @param config 应用配置信息
@@ -114,10 +116,9 @@ public class OriginProviderConfigServiceImpl extends ServiceImpl<OriginProviderC
         try {
             log.info("创建新的应用配置: {}", config.getAppName());
 
-            // 使用Hutool雪花算法生成全局唯一的app_num
+            // 分配全局唯一的app_num
             if (config.getAppNum() == null) {
-                Snowflake snowflake = IdUtil.getSnowflake(1, 1);
-                long appNum = snowflake.nextId();
+                long appNum = idAllocatorService.nextId(IdAllocatorService.APP_NUM);
                 config.setAppNum(appNum);
                 log.info("为应用 {} 生成app_num: {}", config.getAppName(), appNum);
             }
@@ -1,12 +1,17 @@
 package cn.com.wind.mcp.registry.service.impl;
 
 import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
 import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
 import cn.com.wind.mcp.registry.service.OriginToolExpoService;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+
 /**
  * <p>
  * 原始Expo接口Service实现类
@@ -19,6 +24,36 @@ import org.springframework.stereotype.Service;
 public class OriginToolExpoServiceImpl extends ServiceImpl<OriginToolExpoMapper, OriginToolExpo>
         implements OriginToolExpoService {
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public boolean save(OriginToolExpo entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            publishChanged(entity.getId());
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(OriginToolExpo entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            publishChanged(entity.getId());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            publishChanged(id instanceof Long ? (Long) id : null);
+        }
+        return removed;
+    }
+
     /**
      * 统计指定用户创建的接口数量
      *
@@ -40,4 +75,8 @@ public class OriginToolExpoServiceImpl extends ServiceImpl<OriginToolExpoMapper,
     public long countByProviderId(Long providerId) {
         return count(new QueryWrapper<OriginToolExpo>().eq("provider_id", providerId));
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long id) {
+        applicationEventPublisher.publishEvent(new OriginToolChangedEvent(OriginToolChangedEvent.EXPO, id));
+    }
+}
@@ -1,11 +1,16 @@
 package cn.com.wind.mcp.registry.service.impl;
 
 import cn.com.wind.mcp.registry.entity.OriginToolHttp;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
 import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
 import cn.com.wind.mcp.registry.service.OriginToolHttpService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+
 /**
  * <p>
  * 原始HTTP接口Service实现类
@@ -18,6 +23,36 @@ import org.springframework.stereotype.Service;
 public class OriginToolHttpServiceImpl extends ServiceImpl<OriginToolHttpMapper, OriginToolHttp>
         implements OriginToolHttpService {
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public boolean save(OriginToolHttp entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            publishChanged(entity.getId());
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(OriginToolHttp entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            publishChanged(entity.getId());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            publishChanged(id instanceof Long ? (Long) id : null);
+        }
+        return removed;
+    }
+
     /**
      * 统计指定用户创建的接口数量
      *
@@ -41,4 +76,8 @@ public class OriginToolHttpServiceImpl extends ServiceImpl<OriginToolHttpMapper,
         return count(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<OriginToolHttp>().eq("provider_id",
                 providerId));
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long id) {
+        applicationEventPublisher.publishEvent(new OriginToolChangedEvent(OriginToolChangedEvent.HTTP, id));
+    }
+}
@@ -0,0 +1,352 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.dto.mcptool.ProviderToolCounts;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.entity.OriginToolHttp;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import cn.com.wind.mcp.registry.service.ToolCatalogCounterService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 工具目录计数服务实现
+ * <p>
+ * 启动后全量统计一次，之后按工具变更事件重新读取单行并调整计数；为了算出变更前后的差值，
+ * 内存中保留每行的(提供者、convertType、valid)。事件丢失或批量导入等无法确定受影响行的情况，
+ * 由定期对账和null事件触发的全量统计纠正
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class ToolCatalogCounterServiceImpl implements ToolCatalogCounterService {
+
+    static final String MCP_TOOL = "mcp_tool";
+
+    private static final String[] MCP_TOOL_COLUMNS = {"id", "provider_id", "convert_type", "valid"};
+    private static final String[] ORIGIN_COLUMNS = {"id", "provider_id"};
+
+    private final McpToolMapper mcpToolMapper;
+    private final OriginToolHttpMapper originToolHttpMapper;
+    private final OriginToolExpoMapper originToolExpoMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 表名:主键 -> 计数维度
+     */
+    private Map<String, Row> rows = new HashMap<>();
+    private Map<Long, Counts> counts = new HashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * 进行中的对账各自记录的增量变更(表名:主键 -> 新计数维度，null表示删除)；对账读库不持锁，换入新计数后重放，
+     * 避免读库期间的变更被旧快照覆盖
+     */
+    private final List<Map<String, Row>> pendingChanges = new ArrayList<>();
+
+    /**
+     * 对账代数：开始对账时递增，换入时记录已生效的代数；较早开始的对账晚于较新的对账完成时放弃结果
+     */
+    private long reconcileGeneration;
+    private long appliedGeneration;
+
+    public ToolCatalogCounterServiceImpl(McpToolMapper mcpToolMapper, OriginToolHttpMapper originToolHttpMapper,
+                                         OriginToolExpoMapper originToolExpoMapper) {
+        this.mcpToolMapper = mcpToolMapper;
+        this.originToolHttpMapper = originToolHttpMapper;
+        this.originToolExpoMapper = originToolExpoMapper;
+    }
+
+    /**
+     * 一行记录参与计数的字段
+     */
+    private static final class Row {
+        private final String table;
+        private final Long providerId;
+        private final String convertType;
+        private final String valid;
+
+        private Row(String table, Long providerId, String convertType, String valid) {
+            this.table = table;
+            this.providerId = providerId;
+            this.convertType = convertType;
+            this.valid = valid;
+        }
+    }
+
+    /**
+     * 一个提供者的计数
+     */
+    private static final class Counts {
+        private long mcpTool;
+        private long http;
+        private long expo;
+        private final Map<String, Long> byConvertType = new HashMap<>();
+        private final Map<String, Long> byValid = new HashMap<>();
+
+        private void apply(Row row, int delta) {
+            if (MCP_TOOL.equals(row.table)) {
+                mcpTool += delta;
+                byConvertType.merge(String.valueOf(row.convertType), (long) delta, Long::sum);
+                byValid.merge(String.valueOf(row.valid), (long) delta, Long::sum);
+                byConvertType.values().removeIf(count -> count == 0);
+                byValid.values().removeIf(count -> count == 0);
+            } else if (OriginToolChangedEvent.HTTP.equals(row.table)) {
+                http += delta;
+            } else {
+                expo += delta;
+            }
+        }
+
+        private boolean isEmpty() {
+            return mcpTool == 0 && http == 0 && expo == 0;
+        }
+
+        private ProviderToolCounts toDto() {
+            ProviderToolCounts dto = new ProviderToolCounts();
+            dto.setMcpToolCount(mcpTool);
+            dto.setHttpToolCount(http);
+            dto.setExpoToolCount(expo);
+            dto.setMcpToolByConvertType(new HashMap<>(byConvertType));
+            dto.setMcpToolByValid(new HashMap<>(byValid));
+            return dto;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * 定期与数据库对账，纠正丢失事件或直接改库造成的偏差
+     */
+    @Scheduled(initialDelayString = "${mcp.catalog.reconcile-interval:600000}",
+            fixedDelayString = "${mcp.catalog.reconcile-interval:600000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("工具计数对账失败", e);
+        }
+    }
+
+    /**
+     * MCP工具新增、修改、删除后调整计数；事务提交后执行
+     *
+     * @param event 工具变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMcpToolChanged(McpToolChangedEvent event) {
+        if (event.getId() == null) {
+            reconcile();
+            return;
+        }
+        McpTool tool = mcpToolMapper.selectOne(new QueryWrapper<McpTool>()
+                .select(MCP_TOOL_COLUMNS)
+                .eq("id", event.getId()));
+        update(MCP_TOOL, event.getId(), tool != null ? toRow(tool) : null);
+    }
+
+    /**
+     * 原始接口新增、修改、删除后调整计数；事务提交后执行
+     *
+     * @param event 原始接口变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOriginToolChanged(OriginToolChangedEvent event) {
+        if (event.getId() == null) {
+            reconcile();
+            return;
+        }
+        Row row = null;
+        if (OriginToolChangedEvent.HTTP.equals(event.getTable())) {
+            OriginToolHttp tool = originToolHttpMapper.selectOne(new QueryWrapper<OriginToolHttp>()
+                    .select(ORIGIN_COLUMNS)
+                    .eq("id", event.getId()));
+            row = tool != null ? new Row(OriginToolChangedEvent.HTTP, tool.getProviderId(), null, null) : null;
+        } else if (OriginToolChangedEvent.EXPO.equals(event.getTable())) {
+            OriginToolExpo tool = originToolExpoMapper.selectOne(new QueryWrapper<OriginToolExpo>()
+                    .select(ORIGIN_COLUMNS)
+                    .eq("id", event.getId()));
+            row = tool != null ? new Row(OriginToolChangedEvent.EXPO, tool.getProviderId(), null, null) : null;
+        } else {
+            return;
+        }
+        update(event.getTable(), event.getId(), row);
+    }
+
+    @Override
+    public ProviderToolCounts getCounts(Long providerId) {
+        if (!ready) {
+            // 启动统计完成前直接查库
+            ProviderToolCounts dto = new ProviderToolCounts();
+            dto.setMcpToolCount(mcpToolMapper.selectCount(
+                    new QueryWrapper<McpTool>().eq("provider_id", providerId)));
+            dto.setHttpToolCount(originToolHttpMapper.selectCount(
+                    new QueryWrapper<OriginToolHttp>().eq("provider_id", providerId)));
+            dto.setExpoToolCount(originToolExpoMapper.selectCount(
+                    new QueryWrapper<OriginToolExpo>().eq("provider_id", providerId)));
+            return dto;
+        }
+        lock.readLock().lock();
+        try {
+            Counts providerCounts = counts.get(providerId);
+            return providerCounts != null ? providerCounts.toDto() : new ProviderToolCounts();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void reconcile() {
+        long start = System.nanoTime();
+        Map<String, Row> changes = new HashMap<>();
+        long generation;
+        lock.writeLock().lock();
+        try {
+            generation = ++reconcileGeneration;
+            pendingChanges.add(changes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Map<String, Row> newRows = new HashMap<>();
+            Map<Long, Counts> newCounts = new HashMap<>();
+            for (McpTool tool : mcpToolMapper.selectList(new QueryWrapper<McpTool>().select(MCP_TOOL_COLUMNS))) {
+                add(newRows, newCounts, rowKey(MCP_TOOL, tool.getId()), toRow(tool));
+            }
+            for (OriginToolHttp tool : originToolHttpMapper.selectList(
+                    new QueryWrapper<OriginToolHttp>().select(ORIGIN_COLUMNS))) {
+                add(newRows, newCounts, rowKey(OriginToolChangedEvent.HTTP, tool.getId()),
+                        new Row(OriginToolChangedEvent.HTTP, tool.getProviderId(), null, null));
+            }
+            for (OriginToolExpo tool : originToolExpoMapper.selectList(
+                    new QueryWrapper<OriginToolExpo>().select(ORIGIN_COLUMNS))) {
+                add(newRows, newCounts, rowKey(OriginToolChangedEvent.EXPO, tool.getId()),
+                        new Row(OriginToolChangedEvent.EXPO, tool.getProviderId(), null, null));
+            }
+
+            int drift;
+            lock.writeLock().lock();
+            try {
+                if (generation < appliedGeneration) {
+                    log.info("工具计数已由更新的对账替换，放弃本次结果: 代数={}", generation);
+                    return;
+                }
+                Map<Long, Counts> oldCounts = counts;
+                rows = newRows;
+                counts = newCounts;
+                appliedGeneration = generation;
+                // 重放读库期间的变更，已包含在快照中的重复应用结果不变
+                changes.forEach(this::apply);
+                drift = ready ? countDrift(oldCounts, counts) : 0;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (drift > 0) {
+                log.warn("工具计数与数据库不一致，已按数据库纠正: 提供者数={}", drift);
+            }
+            log.info("工具计数已重新统计: 记录数={}, 提供者数={}, 重放变更数={}, 耗时={}ms", newRows.size(),
+                    newCounts.size(), changes.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges.removeIf(pending -> pending == changes);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void update(String table, Long id, Row row) {
+        lock.writeLock().lock();
+        try {
+            String key = rowKey(table, id);
+            apply(key, row);
+            for (Map<String, Row> changes : pendingChanges) {
+                changes.put(key, row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 把一行的最新状态应用到当前计数，调用方持有写锁
+     */
+    private void apply(String key, Row row) {
+        Row old = rows.remove(key);
+        if (old != null) {
+            Counts providerCounts = counts.get(old.providerId);
+            if (providerCounts != null) {
+                providerCounts.apply(old, -1);
+                if (providerCounts.isEmpty()) {
+                    counts.remove(old.providerId);
+                }
+            }
+        }
+        if (row != null) {
+            add(rows, counts, key, row);
+        }
+    }
+
+    private static void add(Map<String, Row> rows, Map<Long, Counts> counts, String key, Row row) {
+        rows.put(key, row);
+        counts.computeIfAbsent(row.providerId, k -> new Counts()).apply(row, 1);
+    }
+
+    /**
+     * 统计计数不一致的提供者个数
+     */
+    private static int countDrift(Map<Long, Counts> current, Map<Long, Counts> actual) {
+        int drift = 0;
+        for (Map.Entry<Long, Counts> entry : actual.entrySet()) {
+            Counts counts = current.get(entry.getKey());
+            if (counts == null || !sameCounts(counts, entry.getValue())) {
+                drift++;
+            }
+        }
+        for (Long providerId : current.keySet()) {
+            if (!actual.containsKey(providerId)) {
+                drift++;
+            }
+        }
+        return drift;
+    }
+
+    private static boolean sameCounts(Counts a, Counts b) {
+        return a.mcpTool == b.mcpTool && a.http == b.http && a.expo == b.expo
+                && Objects.equals(a.byConvertType, b.byConvertType) && Objects.equals(a.byValid, b.byValid);
+    }
+
+    private static Row toRow(McpTool tool) {
+        return new Row(MCP_TOOL, tool.getProviderId(), tool.getConvertType(), tool.getValid());
+    }
+
+    private static String rowKey(String table, Long id) {
+        return table + ":" + id;
+    }
+}
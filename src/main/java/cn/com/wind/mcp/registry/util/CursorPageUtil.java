@@ -0,0 +1,110 @@
+package cn.com.wind.mcp.registry.util;
+
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 游标(keyset)分页工具类
+ * 按主键倒序，以上一页最后一条记录的id作为游标，查询条件为 id < cursor ... LIMIT n，
+ * 不使用OFFSET，翻到任意深度耗时都不变；总数按查询范围短期缓存，不在每次翻页时COUNT
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Slf4j
+public class CursorPageUtil {
+
+    /**
+     * 默认每页大小
+     */
+    public static final int DEFAULT_SIZE = 20;
+
+    /**
+     * 每页最大条数
+     */
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * 查询范围 -> 总数，TTL内的总数为近似值
+     */
+    private static final Cache<String, Long> TOTAL_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(60, TimeUnit.SECONDS)
+            .build();
+
+    private CursorPageUtil() {
+    }
+
+    /**
+     * 按游标查询一页
+     *
+     * @param service  实体对应的Service
+     * @param wrapper  过滤条件(不含排序和分页)，调用后会追加游标条件
+     * @param cursor   游标，首页传null
+     * @param size     每页大小
+     * @param idGetter 主键获取方法
+     * @param countKey 总数缓存key，需包含所有过滤条件取值
+     * @param columns  查询的列，不传时查询全部列
+     * @return 游标分页结果
+     */
+    public static <T> CursorPage<T> seek(IService<T> service, QueryWrapper<T> wrapper, Long cursor, int size,
+                                         Function<T, Long> idGetter, String countKey, String... columns) {
+        int pageSize = normalizeSize(size);
+        CursorPage<T> page = new CursorPage<>();
+        page.setSize(pageSize);
+        page.setTotal(cachedCount(service, wrapper, countKey));
+
+        // 统计总数之后再指定列，count(wrapper)会把select的列拼进COUNT()
+        if (columns.length > 0) {
+            wrapper.select(columns);
+        }
+        wrapper.lt(cursor != null, "id", cursor)
+                .orderByDesc("id")
+                .last("LIMIT " + (pageSize + 1));
+        List<T> records = service.list(wrapper);
+
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        page.setNextCursor(hasMore ? idGetter.apply(records.get(records.size() - 1)) : null);
+        return page;
+    }
+
+    /**
+     * 每页大小限制在 [1, MAX_SIZE]
+     */
+    public static int normalizeSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * 清空总数缓存
+     */
+    public static void invalidateCounts() {
+        TOTAL_CACHE.invalidateAll();
+    }
+
+    private static <T> long cachedCount(IService<T> service, QueryWrapper<T> wrapper, String countKey) {
+        try {
+            return TOTAL_CACHE.get(countKey, () -> service.count(wrapper));
+        } catch (ExecutionException e) {
+            log.warn("统计总数失败: key={}", countKey, e);
+            return 0L;
+        }
+    }
+}
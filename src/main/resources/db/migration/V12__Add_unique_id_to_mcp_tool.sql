@@ -0,0 +1,39 @@
+-- ============================================================================
+-- V12: mcp_tool表增加unique_id字段
+--
+-- 变更说明：
+-- 1. 新增unique_id字段并建立索引，按唯一标识查询不再全表扫描
+-- 2. 回填：优先取input_schema中此前写入的uniqueId，其余按
+--    SHA-256(tool_name:tool_version:tool_type)前16位大写生成，
+--    与ToolValidationService.generateUniqueIdentifier保持一致
+-- 3. 从input_schema中移除uniqueId元数据，恢复为纯粹的输入schema
+--
+-- 作者: system
+-- 创建时间: 2026-10-18
+-- ============================================================================
+
+-- 步骤1: 添加字段
+ALTER TABLE mcp_tool
+ADD COLUMN unique_id VARCHAR(32) NULL COMMENT '工具唯一标识' AFTER tool_type;
+
+-- 步骤2: 回填 - 沿用input_schema中已有的uniqueId
+UPDATE mcp_tool
+SET unique_id = JSON_UNQUOTE(JSON_EXTRACT(input_schema, '$.uniqueId'))
+WHERE unique_id IS NULL
+  AND JSON_VALID(input_schema)
+  AND JSON_CONTAINS_PATH(input_schema, 'one', '$.uniqueId');
+
+-- 步骤3: 回填 - 其余记录按名称、版本、类型生成
+UPDATE mcp_tool
+SET unique_id = UPPER(LEFT(SHA2(CONCAT(tool_name, ':', COALESCE(tool_version, 1), ':', COALESCE(tool_type, 'null')), 256), 16))
+WHERE unique_id IS NULL
+  AND tool_name IS NOT NULL;
+
+-- 步骤4: 清理input_schema中的uniqueId
+UPDATE mcp_tool
+SET input_schema = JSON_REMOVE(input_schema, '$.uniqueId')
+WHERE JSON_VALID(input_schema)
+  AND JSON_CONTAINS_PATH(input_schema, 'one', '$.uniqueId');
+
+-- 步骤5: 建立索引
+CREATE INDEX idx_mcp_tool_unique_id ON mcp_tool (unique_id);
@@ -0,0 +1,14 @@
+-- ============================================================================
+-- V13: 转换模板表增加tool_num索引
+--
+-- 变更说明：
+-- 工具详情、编辑、导出和测试快照按tool_num(及tool_version)关联转换模板，
+-- 原表只有主键和provider_id索引，关联时需全表扫描
+--
+-- 作者: system
+-- 创建时间: 2026-10-18
+-- ============================================================================
+
+CREATE INDEX idx_http_converter_tool_num ON http_template_converter (tool_num, tool_version);
+
+CREATE INDEX idx_expo_converter_tool_num ON expo_template_converter (tool_num, tool_version);
@@ -0,0 +1,31 @@
+-- ============================================================================
+-- V14: 新增编号号段表id_sequence
+--
+-- 变更说明：
+-- 1. 工具编号(tool_num/provider_tool_num)、应用编号(app_num)改为按号段从本表分配，
+--    各节点每次取走step个编号在内存中发放，不再使用时间戳或固定workerId的雪花算法
+-- 2. max_id为已分配出去的最大编号，初始化为各业务现有编号最大值，
+--    工具编号不小于当前毫秒时间戳，与历史数据保持同一量级
+--
+-- 作者: system
+-- 创建时间: 2026-10-18
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS id_sequence (
+    biz_key VARCHAR(64) NOT NULL COMMENT '业务标识',
+    max_id BIGINT NOT NULL COMMENT '已分配的最大编号',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (biz_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='编号号段表';
+
+INSERT INTO id_sequence (biz_key, max_id)
+SELECT 'tool_num', GREATEST(
+        (SELECT COALESCE(MAX(tool_num), 0) FROM mcp_tool),
+        (SELECT COALESCE(MAX(provider_tool_num), 0) FROM origin_tool_http),
+        (SELECT COALESCE(MAX(provider_tool_num), 0) FROM origin_tool_expo),
+        CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS UNSIGNED));
+
+INSERT INTO id_sequence (biz_key, max_id)
+SELECT 'app_num', GREATEST(
+        (SELECT COALESCE(MAX(app_num), 0) FROM origin_provider_config),
+        CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS UNSIGNED));
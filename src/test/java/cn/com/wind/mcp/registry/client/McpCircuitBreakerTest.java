@@ -0,0 +1,110 @@
+package cn.com.wind.mcp.registry.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * McpCircuitBreaker 单元测试
+ * 测试失败率/慢调用率熔断、半开探测和恢复
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpCircuitBreakerTest {
+
+    private AtomicLong clock;
+    private McpCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        // 窗口10、最少4次、失败率50%、慢调用率80%、慢调用100ns、打开1000ns、半开探测2次
+        breaker = new McpCircuitBreaker(10, 4, 50, 80, 100, 1000, 2, clock::get);
+    }
+
+    /**
+     * 测试失败率超过阈值 - 打开并拒绝调用
+     */
+    @Test
+    void testOpenOnFailureRate() {
+        call(true);
+        call(false);
+        call(true);
+        assertEquals(McpCircuitBreaker.State.CLOSED, breaker.getState());
+
+        call(false);
+
+        assertEquals(McpCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1L, breaker.snapshot().get("rejected"));
+    }
+
+    /**
+     * 测试慢调用率超过阈值 - 打开
+     */
+    @Test
+    void testOpenOnSlowCallRate() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(500);
+        }
+
+        assertEquals(McpCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * 测试半开探测全部成功 - 关闭
+     */
+    @Test
+    void testHalfOpenRecovers() {
+        tripOpen();
+        clock.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        // 半开状态只放行配置的探测数
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess(10);
+        breaker.onSuccess(10);
+
+        assertEquals(McpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    /**
+     * 测试半开探测失败 - 重新打开
+     */
+    @Test
+    void testHalfOpenFailureReopens() {
+        tripOpen();
+        clock.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(McpCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        assertEquals(McpCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean success) {
+        assertTrue(breaker.tryAcquire());
+        if (success) {
+            breaker.onSuccess(10);
+        } else {
+            breaker.onFailure();
+        }
+    }
+}
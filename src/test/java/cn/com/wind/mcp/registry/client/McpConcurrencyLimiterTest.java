@@ -0,0 +1,72 @@
+package cn.com.wind.mcp.registry.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * McpConcurrencyLimiter 单元测试
+ * 测试超过上限立即拒绝、失败乘性下降和成功加性增长
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpConcurrencyLimiterTest {
+
+    /**
+     * 测试在途请求达到上限 - 立即拒绝
+     */
+    @Test
+    void testRejectWhenLimitReached() {
+        McpConcurrencyLimiter limiter = new McpConcurrencyLimiter(2, 1, 10, 0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.onIgnored();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(1L, limiter.snapshot().get("rejected"));
+    }
+
+    /**
+     * 测试失败 - 上限乘性下降且不低于最小值
+     */
+    @Test
+    void testDecreaseOnFailure() {
+        McpConcurrencyLimiter limiter = new McpConcurrencyLimiter(20, 2, 50, 0);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onFailure();
+        }
+
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * 测试满负载成功 - 上限逐步增长且不超过最大值；慢调用下降
+     */
+    @Test
+    void testIncreaseOnSuccessUnderLoad() {
+        McpConcurrencyLimiter limiter = new McpConcurrencyLimiter(4, 1, 6, 1000);
+
+        for (int round = 0; round < 100; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onSuccess(10);
+            }
+        }
+        assertEquals(6, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.onSuccess(5000);
+        assertEquals(5, limiter.getLimit());
+    }
+}
@@ -0,0 +1,67 @@
+package cn.com.wind.mcp.registry.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * McpResponseLimitInputStream 与 McpDecodedResponse 单元测试
+ * 测试响应大小上限、截断预览和按Content-Encoding解压
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpResponseLimitInputStreamTest {
+
+    /**
+     * 测试未超过上限 - 正常读取
+     */
+    @Test
+    void testWithinLimit() throws IOException {
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        McpResponseLimitInputStream in = new McpResponseLimitInputStream(new ByteArrayInputStream(data), 10, 4);
+
+        assertEquals("0123456789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(10, in.getCount());
+    }
+
+    /**
+     * 测试超过上限 - 抛出异常并携带开头部分的预览
+     */
+    @Test
+    void testExceedsLimit() {
+        byte[] data = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        McpResponseLimitInputStream in = new McpResponseLimitInputStream(new ByteArrayInputStream(data), 10, 4);
+
+        McpResponseTooLargeException e = assertThrows(McpResponseTooLargeException.class, in::readAllBytes);
+        assertEquals(10, e.getLimit());
+        assertEquals("0123", e.getPreview());
+    }
+
+    /**
+     * 测试gzip响应边读边解压，未压缩和空响应体原样返回
+     */
+    @Test
+    void testDecode() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        }
+
+        InputStream decoded = McpDecodedResponse.decode(new ByteArrayInputStream(compressed.toByteArray()), "gzip");
+        assertEquals("{\"id\":1}", new String(decoded.readAllBytes(), StandardCharsets.UTF_8));
+
+        InputStream plain = new ByteArrayInputStream(new byte[0]);
+        assertSame(plain, McpDecodedResponse.decode(plain, null));
+        assertEquals(-1, McpDecodedResponse.decode(new ByteArrayInputStream(new byte[0]), "gzip").read());
+    }
+}
@@ -0,0 +1,94 @@
+package cn.com.wind.mcp.registry.client;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * McpSessionRegistry 单元测试
+ * 测试同一会话并发握手合并、失败不缓存以及会话失效移除
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpSessionRegistryTest {
+
+    private McpSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new McpSessionRegistry(new McpClientConfig.McpProperties());
+    }
+
+    /**
+     * 测试并发首次调用 - 只执行一次握手
+     */
+    @Test
+    void testGetOrInitialize_ConcurrentCallsShareOneHandshake() throws Exception {
+        AtomicInteger handshakes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<McpSession>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return registry.getOrInitialize("s1", () -> {
+                        handshakes.incrementAndGet();
+                        Thread.sleep(50);
+                        return new McpSession("s1");
+                    });
+                }));
+            }
+            start.countDown();
+
+            McpSession first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<McpSession> future : futures) {
+                assertSame(first, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, handshakes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 测试握手失败 - 异常原样抛出且不缓存
+     */
+    @Test
+    void testGetOrInitialize_FailureNotCached() {
+        assertThrows(RuntimeException.class, () -> registry.getOrInitialize("s1", () -> {
+            throw new RuntimeException("MCP连接初始化失败");
+        }));
+
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * 测试会话失效 - 只移除失效的那个会话实例
+     */
+    @Test
+    void testInvalidate_OnlyExpiredInstance() {
+        McpSession current = registry.getOrInitialize("s1", () -> new McpSession("s1"));
+
+        registry.invalidate("s1", new McpSession("s1"));
+        assertSame(current, registry.getOrInitialize("s1", () -> new McpSession("s1")));
+
+        registry.invalidate("s1", current);
+        assertNotSame(current, registry.getOrInitialize("s1", () -> new McpSession("s1")));
+    }
+}
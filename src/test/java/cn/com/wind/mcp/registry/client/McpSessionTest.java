@@ -0,0 +1,77 @@
+package cn.com.wind.mcp.registry.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * McpSession 单元测试
+ * 测试待发送initialized通知的取走、等待和失败恢复
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpSessionTest {
+
+    /**
+     * 测试没有待发送通知 - 不需要发送也不等待
+     */
+    @Test
+    void testTakeInitializedNotification_NothingPending() {
+        McpSession session = new McpSession("s1");
+
+        assertFalse(session.takeInitializedNotification(0));
+    }
+
+    /**
+     * 测试只有一个调用方取到通知，其他调用方等到发送完成后才继续
+     */
+    @Test
+    void testTakeInitializedNotification_OthersWaitForSend() throws Exception {
+        McpSession session = new McpSession("s1");
+        session.deferInitializedNotification();
+        assertTrue(session.takeInitializedNotification(1000));
+
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(
+                () -> session.takeInitializedNotification(5000));
+        Thread.sleep(100);
+        assertFalse(other.isDone());
+
+        session.initializedNotificationSent();
+        assertFalse(other.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 测试发送失败 - 通知恢复为待发送，由等待的调用方取走
+     */
+    @Test
+    void testTakeInitializedNotification_RestoredOnFailure() throws Exception {
+        McpSession session = new McpSession("s1");
+        session.deferInitializedNotification();
+        assertTrue(session.takeInitializedNotification(1000));
+
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(
+                () -> session.takeInitializedNotification(5000));
+        Thread.sleep(100);
+
+        session.initializedNotificationFailed();
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 测试等待超时
+     */
+    @Test
+    void testTakeInitializedNotification_Timeout() {
+        McpSession session = new McpSession("s1");
+        session.deferInitializedNotification();
+        assertTrue(session.takeInitializedNotification(1000));
+
+        assertThrows(RuntimeException.class, () -> session.takeInitializedNotification(50));
+    }
+}
@@ -0,0 +1,144 @@
+package cn.com.wind.mcp.registry.client;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * McpToolSchemaValidator 单元测试
+ * 测试参数/输出校验、无效schema和外部引用跳过以及缓存清理
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolSchemaValidatorTest {
+
+    private static final String INPUT_SCHEMA = "{\"type\":\"object\","
+            + "\"properties\":{\"code\":{\"type\":\"string\"},\"count\":{\"type\":\"integer\"}},"
+            + "\"required\":[\"code\"]}";
+
+    private McpToolSchemaValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new McpToolSchemaValidator(new ObjectMapper());
+    }
+
+    /**
+     * 测试参数符合schema - 无错误
+     */
+    @Test
+    void testValidateArguments_Valid() {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("code", "600000.SH");
+        arguments.put("count", 3);
+
+        assertTrue(validator.validateArguments(tool(INPUT_SCHEMA, null), arguments).isEmpty());
+    }
+
+    /**
+     * 测试缺少必填字段和类型不符 - 返回全部错误
+     */
+    @Test
+    void testValidateArguments_Invalid() {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("count", "three");
+
+        List<String> errors = validator.validateArguments(tool(INPUT_SCHEMA, null), arguments);
+
+        assertEquals(2, errors.size());
+        assertTrue(errors.stream().anyMatch(error -> error.contains("code")));
+        assertTrue(errors.stream().anyMatch(error -> error.contains("count")));
+    }
+
+    /**
+     * 测试schema为空或无法解析 - 不校验
+     */
+    @Test
+    void testValidateArguments_NoOrInvalidSchema() {
+        assertTrue(validator.validateArguments(tool(null, null), null).isEmpty());
+        assertTrue(validator.validateArguments(tool("not json", null), new HashMap<>()).isEmpty());
+        assertTrue(validator.validateArguments(tool("{}", null), new HashMap<>()).isEmpty());
+    }
+
+    /**
+     * 测试引用外部schema - 跳过校验且不发起网络请求
+     */
+    @Test
+    void testValidateArguments_ExternalReferenceSkipped() throws Exception {
+        try (StubMcpServer server = new StubMcpServer().start()) {
+            String remoteRef = "{\"type\":\"object\",\"required\":[\"code\"],"
+                    + "\"properties\":{\"code\":{\"$ref\":\"" + server.getUrl() + "#/definitions/code\"}}}";
+            String remoteMetaSchema = "{\"$schema\":\"" + server.getUrl() + "\",\"type\":\"object\","
+                    + "\"required\":[\"code\"]}";
+
+            assertTrue(validator.validateArguments(tool(remoteRef, null), new HashMap<>()).isEmpty());
+            assertTrue(validator.validateArguments(tool(remoteMetaSchema, null), new HashMap<>()).isEmpty());
+            assertEquals(0, server.getHttpRequests());
+        }
+    }
+
+    /**
+     * 测试文档内部引用和内置元schema - 正常校验
+     */
+    @Test
+    void testValidateArguments_LocalReference() {
+        String schema = "{\"$schema\":\"http://json-schema.org/draft-07/schema#\",\"type\":\"object\","
+                + "\"definitions\":{\"code\":{\"type\":\"string\"}},"
+                + "\"properties\":{\"code\":{\"$ref\":\"#/definitions/code\"}}}";
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("code", 1);
+
+        assertFalse(validator.validateArguments(tool(schema, null), arguments).isEmpty());
+    }
+
+    /**
+     * 测试按outputSchema校验业务数据
+     */
+    @Test
+    void testValidateOutput() {
+        McpToolDTO tool = tool(null, "{\"type\":\"object\",\"required\":[\"rows\"]}");
+
+        assertTrue(validator.validateOutput(tool, Map.of("rows", 3)).isEmpty());
+        assertFalse(validator.validateOutput(tool, Map.of("total", 3)).isEmpty());
+        assertTrue(validator.validateOutput(tool, null).isEmpty());
+    }
+
+    /**
+     * 测试编译结果按(toolNum, toolVersion)缓存，工具变更事件后重新编译
+     */
+    @Test
+    void testCacheInvalidatedOnToolChanged() {
+        McpToolDTO tool = tool(INPUT_SCHEMA, null);
+        Map<String, Object> arguments = new HashMap<>();
+        assertFalse(validator.validateArguments(tool, arguments).isEmpty());
+
+        // 同一版本修改schema，未收到变更事件前仍使用已编译的schema
+        tool.setInputSchema("{\"type\":\"object\"}");
+        assertFalse(validator.validateArguments(tool, arguments).isEmpty());
+
+        validator.onMcpToolChanged(new McpToolChangedEvent(1L, 100L));
+        assertTrue(validator.validateArguments(tool, arguments).isEmpty());
+    }
+
+    private McpToolDTO tool(String inputSchema, String outputSchema) {
+        McpToolDTO tool = new McpToolDTO();
+        tool.setId(1L);
+        tool.setToolNum(100L);
+        tool.setToolVersion(1L);
+        tool.setToolName("test_tool");
+        tool.setInputSchema(inputSchema);
+        tool.setOutputSchema(outputSchema);
+        return tool;
+    }
+}
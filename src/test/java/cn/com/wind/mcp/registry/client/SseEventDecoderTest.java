@@ -0,0 +1,90 @@
+package cn.com.wind.mcp.registry.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SseEventDecoder 单元测试
+ * 测试SSE帧的拆分、多行data拼接以及各种换行符的处理
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class SseEventDecoderTest {
+
+    private SseEventDecoder decoder(String text) {
+        return new SseEventDecoder(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 测试单个事件 - 包含id和event字段
+     */
+    @Test
+    void testNext_SingleEvent() throws IOException {
+        SseEventDecoder decoder = decoder("id: 1\nevent: message\ndata: {\"id\":1,\"result\":{}}\n\n");
+
+        SseEvent event = decoder.next();
+
+        assertEquals("1", event.getId());
+        assertEquals("message", event.getEvent());
+        assertEquals("{\"id\":1,\"result\":{}}", event.dataAsString());
+        assertNull(decoder.next());
+    }
+
+    /**
+     * 测试多行data - 以换行符拼接为一帧
+     */
+    @Test
+    void testNext_MultiLineData() throws IOException {
+        SseEventDecoder decoder = decoder("data: {\"id\":1,\ndata: \"result\":\"error\"}\n\n");
+
+        SseEvent event = decoder.next();
+
+        assertEquals("{\"id\":1,\n\"result\":\"error\"}", event.dataAsString());
+        assertNull(decoder.next());
+    }
+
+    /**
+     * 测试CRLF和CR换行 - 注释行被忽略
+     */
+    @Test
+    void testNext_CrLfAndCr() throws IOException {
+        SseEventDecoder decoder = decoder(": ping\r\ndata: a\r\n\r\ndata:b\r\r");
+
+        assertEquals("a", decoder.next().dataAsString());
+        SseEvent second = decoder.next();
+        assertEquals("b", second.dataAsString());
+        assertEquals("message", second.getEvent());
+        assertNull(decoder.next());
+    }
+
+    /**
+     * 测试流结束时最后一帧没有空行结尾
+     */
+    @Test
+    void testNext_EventWithoutTrailingBlankLine() throws IOException {
+        SseEventDecoder decoder = decoder("event: progress\ndata: 1\n\ndata: last");
+
+        assertEquals("progress", decoder.next().getEvent());
+        assertEquals("last", decoder.next().dataAsString());
+        assertNull(decoder.next());
+    }
+
+    /**
+     * 测试单帧超过上限
+     */
+    @Test
+    void testNext_FrameTooLarge() {
+        SseEventDecoder decoder = new SseEventDecoder(
+                new ByteArrayInputStream("data: 0123456789\n\n".getBytes(StandardCharsets.UTF_8)), 5);
+
+        assertThrows(IOException.class, decoder::next);
+    }
+}
@@ -0,0 +1,500 @@
+package cn.com.wind.mcp.registry.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 嵌入式MCP桩服务器(Streamable HTTP)
+ * <p>
+ * 模拟Wind.MCP.Server的initialize、notifications/initialized、tools/list、tools/call和批量请求，
+ * 可配置响应延迟、SSE/JSON响应格式、分块写出、gzip压缩、业务数据大小和错误注入，用于离线测试和压测MCP客户端。
+ * 配置项可在运行中修改，对之后的请求生效
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class StubMcpServer implements AutoCloseable {
+
+    public static final String PATH = "/mcp";
+
+    private static final String SESSION_HEADER = "Mcp-Session-Id";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong httpRequests = new AtomicLong();
+    private final AtomicLong initializeCalls = new AtomicLong();
+    private final AtomicLong toolCalls = new AtomicLong();
+    private final AtomicLong batchRequests = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * tools/call和tools/list的响应延迟(毫秒)
+     */
+    private volatile long latencyMillis;
+    /**
+     * 是否以SSE返回，否则返回application/json
+     */
+    private volatile boolean sse = true;
+    /**
+     * SSE响应中每个结果之前推送的进度通知数
+     */
+    private volatile int progressEvents;
+    /**
+     * 每次写出并flush的字节数，小于等于0表示整体写出
+     */
+    private volatile int chunkBytes;
+    /**
+     * 两次分块写出之间的间隔(毫秒)
+     */
+    private volatile long chunkDelayMillis;
+    /**
+     * 客户端声明接受gzip时是否压缩响应
+     */
+    private volatile boolean compression;
+    /**
+     * mcp_tool_data中填充数据的大小(字节)
+     */
+    private volatile int payloadBytes = 256;
+    /**
+     * 返回HTTP 500的概率(0~1)
+     */
+    private volatile double httpErrorRate;
+    /**
+     * 返回工具业务错误(mcp_tool_error_code非0)的概率(0~1)
+     */
+    private volatile double toolErrorRate;
+    /**
+     * initialize协商的协议版本，2025-03-26以下版本客户端不使用批量请求
+     */
+    private volatile String protocolVersion = "2025-03-26";
+    /**
+     * tools/list返回的工具
+     */
+    private volatile List<Map<String, Object>> tools = Collections.singletonList(tool("stub_tool"));
+
+    /**
+     * 在随机端口启动
+     *
+     * @return this
+     */
+    public StubMcpServer start() throws IOException {
+        return start(0);
+    }
+
+    /**
+     * 在指定端口启动，0表示随机端口
+     *
+     * @return this
+     */
+    public StubMcpServer start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-mcp-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * MCP地址，如http://127.0.0.1:12345/mcp
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * 使所有会话失效，之后带旧Mcp-Session-Id的请求返回404
+     */
+    public void expireSessions() {
+        sessions.clear();
+    }
+
+    /**
+     * 清零请求计数
+     */
+    public void resetCounters() {
+        httpRequests.set(0);
+        initializeCalls.set(0);
+        toolCalls.set(0);
+        batchRequests.set(0);
+    }
+
+    public long getHttpRequests() {
+        return httpRequests.get();
+    }
+
+    public long getInitializeCalls() {
+        return initializeCalls.get();
+    }
+
+    public long getToolCalls() {
+        return toolCalls.get();
+    }
+
+    public long getBatchRequests() {
+        return batchRequests.get();
+    }
+
+    public StubMcpServer latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    public StubMcpServer sse(boolean sse) {
+        this.sse = sse;
+        return this;
+    }
+
+    public StubMcpServer progressEvents(int progressEvents) {
+        this.progressEvents = progressEvents;
+        return this;
+    }
+
+    public StubMcpServer chunking(int chunkBytes, long chunkDelayMillis) {
+        this.chunkBytes = chunkBytes;
+        this.chunkDelayMillis = chunkDelayMillis;
+        return this;
+    }
+
+    public StubMcpServer compression(boolean compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    public StubMcpServer payloadBytes(int payloadBytes) {
+        this.payloadBytes = payloadBytes;
+        return this;
+    }
+
+    public StubMcpServer httpErrorRate(double httpErrorRate) {
+        this.httpErrorRate = httpErrorRate;
+        return this;
+    }
+
+    public StubMcpServer toolErrorRate(double toolErrorRate) {
+        this.toolErrorRate = toolErrorRate;
+        return this;
+    }
+
+    public StubMcpServer protocolVersion(String protocolVersion) {
+        this.protocolVersion = protocolVersion;
+        return this;
+    }
+
+    public StubMcpServer tools(List<Map<String, Object>> tools) {
+        this.tools = new ArrayList<>(tools);
+        return this;
+    }
+
+    /**
+     * 构造tools/list中的工具描述
+     */
+    public static Map<String, Object> tool(String name) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", new LinkedHashMap<>());
+        Map<String, Object> tool = new LinkedHashMap<>();
+        tool.put("name", name);
+        tool.put("description", "stub tool " + name);
+        tool.put("inputSchema", schema);
+        return tool;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        httpRequests.incrementAndGet();
+        try {
+            if ("GET".equals(exchange.getRequestMethod())) {
+                // 连接检查：返回空的SSE流，不推送服务端消息
+                send(exchange, 200, "text/event-stream", "");
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "text/plain", "Method Not Allowed");
+                return;
+            }
+            Object body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = objectMapper.readValue(in, Object.class);
+            } catch (IOException e) {
+                send(exchange, 400, "application/json",
+                        objectMapper.writeValueAsString(error(null, -32700, "Parse error")));
+                return;
+            }
+            List<Map<String, Object>> messages = messages(body);
+            boolean batch = body instanceof List;
+            if (batch) {
+                batchRequests.incrementAndGet();
+            }
+
+            String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+            boolean initialize = messages.stream().anyMatch(m -> "initialize".equals(m.get("method")));
+            if (initialize) {
+                sessionId = UUID.randomUUID().toString();
+                sessions.add(sessionId);
+                exchange.getResponseHeaders().set(SESSION_HEADER, sessionId);
+            } else if (sessionId == null) {
+                send(exchange, 400, "text/plain", "Missing " + SESSION_HEADER);
+                return;
+            } else if (!sessions.contains(sessionId)) {
+                send(exchange, 404, "text/plain", "Session not found");
+                return;
+            }
+
+            if (chance(httpErrorRate)) {
+                send(exchange, 500, "text/plain", "Injected failure");
+                return;
+            }
+
+            List<Map<String, Object>> responses = new ArrayList<>();
+            boolean slow = false;
+            for (Map<String, Object> message : messages) {
+                Object method = message.get("method");
+                if ("tools/call".equals(method) || "tools/list".equals(method)) {
+                    slow = true;
+                }
+                if (message.get("id") != null && method != null) {
+                    responses.add(respond(message));
+                }
+            }
+            if (slow && latencyMillis > 0) {
+                sleep(latencyMillis);
+            }
+            if (responses.isEmpty()) {
+                // 只含通知
+                exchange.sendResponseHeaders(202, -1);
+                return;
+            }
+
+            if (sse) {
+                writeSse(exchange, responses);
+            } else {
+                Object payload = batch ? responses : responses.get(0);
+                if (gzip(exchange)) {
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                    try (OutputStream out = new GZIPOutputStream(compressed)) {
+                        out.write(objectMapper.writeValueAsBytes(payload));
+                    }
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                    exchange.sendResponseHeaders(200, compressed.size());
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        compressed.writeTo(out);
+                    }
+                } else {
+                    send(exchange, 200, "application/json", objectMapper.writeValueAsString(payload));
+                }
+            }
+        } catch (IOException e) {
+            // 客户端提前断开
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> messages(Object body) {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        if (body instanceof List) {
+            for (Object item : (List<Object>) body) {
+                if (item instanceof Map) {
+                    messages.add((Map<String, Object>) item);
+                }
+            }
+        } else if (body instanceof Map) {
+            messages.add((Map<String, Object>) body);
+        }
+        return messages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> respond(Map<String, Object> request) throws IOException {
+        Object id = request.get("id");
+        Map<String, Object> params = request.get("params") instanceof Map
+                ? (Map<String, Object>) request.get("params") : new HashMap<>();
+        switch (String.valueOf(request.get("method"))) {
+            case "initialize": {
+                initializeCalls.incrementAndGet();
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("protocolVersion", protocolVersion);
+                result.put("capabilities", Map.of("tools", Map.of("listChanged", true)));
+                result.put("serverInfo", Map.of("name", "stub-mcp-server", "version", "1.0.0"));
+                return result(id, result);
+            }
+            case "tools/list":
+                return result(id, Map.of("tools", tools));
+            case "tools/call":
+                toolCalls.incrementAndGet();
+                return result(id, callResult(params));
+            default:
+                return error(id, -32601, "Method not found: " + request.get("method"));
+        }
+    }
+
+    private Map<String, Object> callResult(Map<String, Object> params) throws IOException {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        if (chance(toolErrorRate)) {
+            envelope.put("mcp_tool_error_code", 500);
+            envelope.put("mcp_tool_error_msg", "Injected tool error");
+        } else {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("tool", params.get("name"));
+            data.put("arguments", params.get("arguments"));
+            data.put("padding", padding(payloadBytes));
+            envelope.put("mcp_tool_error_code", 0);
+            envelope.put("mcp_tool_error_msg", "");
+            // 与Wind工具一致，业务数据以JSON字符串返回
+            envelope.put("mcp_tool_data", objectMapper.writeValueAsString(data));
+        }
+
+        Map<String, Object> text = new LinkedHashMap<>();
+        text.put("type", "text");
+        text.put("text", objectMapper.writeValueAsString(envelope));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("content", Collections.singletonList(text));
+        result.put("isError", false);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeSse(HttpExchange exchange, List<Map<String, Object>> responses) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        boolean gzip = gzip(exchange);
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+        // 同步刷新，保证每个事件压缩后立即写出
+        OutputStream out = gzip
+                ? new GZIPOutputStream(exchange.getResponseBody(), true)
+                : exchange.getResponseBody();
+        for (Map<String, Object> response : responses) {
+            for (int i = 1; i <= progressEvents; i++) {
+                Map<String, Object> progressParams = new LinkedHashMap<>();
+                progressParams.put("progressToken", response.get("id"));
+                progressParams.put("progress", i);
+                progressParams.put("total", progressEvents + 1);
+                Map<String, Object> progress = new LinkedHashMap<>();
+                progress.put("jsonrpc", "2.0");
+                progress.put("method", "notifications/progress");
+                progress.put("params", progressParams);
+                write(out, event(progress));
+            }
+            write(out, event(response));
+        }
+        out.close();
+    }
+
+    private boolean gzip(HttpExchange exchange) {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return compression && acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private byte[] event(Map<String, Object> message) throws IOException {
+        String frame = "event: message\ndata: " + objectMapper.writeValueAsString(message) + "\n\n";
+        return frame.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按chunkBytes分块写出，模拟网络分片到达
+     */
+    private void write(OutputStream out, byte[] bytes) throws IOException {
+        int chunk = chunkBytes > 0 ? chunkBytes : bytes.length;
+        for (int offset = 0; offset < bytes.length; offset += chunk) {
+            out.write(bytes, offset, Math.min(chunk, bytes.length - offset));
+            out.flush();
+            if (chunkDelayMillis > 0 && offset + chunk < bytes.length) {
+                sleep(chunkDelayMillis);
+            }
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> result(Object id, Object result) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", id);
+        response.put("result", result);
+        return response;
+    }
+
+    private static Map<String, Object> error(Object id, int code, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("message", message);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", id);
+        response.put("error", error);
+        return response;
+    }
+
+    private static String padding(int bytes) {
+        StringBuilder builder = new StringBuilder(Math.max(0, bytes));
+        for (int i = 0; i < bytes; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.toString();
+    }
+
+    private static boolean chance(double rate) {
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package cn.com.wind.mcp.registry.controller;
 
+import cn.com.wind.mcp.registry.dto.mcptool.ProviderToolCounts;
 import cn.com.wind.mcp.registry.entity.Provider;
-import cn.com.wind.mcp.registry.service.McpToolService;
-import cn.com.wind.mcp.registry.service.OriginToolExpoService;
-import cn.com.wind.mcp.registry.service.OriginToolHttpService;
+import cn.com.wind.mcp.registry.service.ToolCatalogCounterService;
 import jakarta.servlet.http.HttpSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,13 +28,7 @@ class HomeControllerTest {
     private HomeController homeController;
 
     @Mock
-    private McpToolService mcpToolService;
-
-    @Mock
-    private OriginToolHttpService originToolHttpService;
-
-    @Mock
-    private OriginToolExpoService originToolExpoService;
+    private ToolCatalogCounterService toolCatalogCounterService;
 
     @Mock
     private HttpSession session;
@@ -71,9 +64,11 @@ class HomeControllerTest {
         provider.setUsername("testuser");
 
         when(session.getAttribute("currentProvider")).thenReturn(provider);
-        when(mcpToolService.countByProviderId(1L)).thenReturn(5L);
-        when(originToolHttpService.countByProviderId(1L)).thenReturn(3L);
-        when(originToolExpoService.countByProviderId(1L)).thenReturn(2L);
+        ProviderToolCounts counts = new ProviderToolCounts();
+        counts.setMcpToolCount(5L);
+        counts.setHttpToolCount(3L);
+        counts.setExpoToolCount(2L);
+        when(toolCatalogCounterService.getCounts(1L)).thenReturn(counts);
 
         String viewName = homeController.index(model, session);
 
@@ -94,9 +89,7 @@ class HomeControllerTest {
         provider.setUsername("newuser");
 
         when(session.getAttribute("currentProvider")).thenReturn(provider);
-        when(mcpToolService.countByProviderId(2L)).thenReturn(0L);
-        when(originToolHttpService.countByProviderId(2L)).thenReturn(0L);
-        when(originToolExpoService.countByProviderId(2L)).thenReturn(0L);
+        when(toolCatalogCounterService.getCounts(2L)).thenReturn(new ProviderToolCounts());
 
         String viewName = homeController.index(model, session);
 
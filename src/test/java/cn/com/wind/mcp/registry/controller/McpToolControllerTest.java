@@ -1,28 +1,45 @@
 package cn.com.wind.mcp.registry.controller;
 
 import cn.com.wind.mcp.registry.dto.McpToolEditDto;
+import cn.com.wind.mcp.registry.dto.McpToolExportDto;
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBatchImportReport;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolExportFilter;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolSearchResult;
+import cn.com.wind.mcp.registry.dto.mcptool.ToolSuggestion;
 import cn.com.wind.mcp.registry.entity.HttpTemplateConverter;
 import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.OriginToolExpo;
 import cn.com.wind.mcp.registry.entity.OriginToolHttp;
 import cn.com.wind.mcp.registry.entity.Provider;
-import cn.com.wind.mcp.registry.mapper.ExpoTemplateConverterMapper;
 import cn.com.wind.mcp.registry.mapper.HttpTemplateConverterMapper;
-import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
 import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import cn.com.wind.mcp.registry.search.ToolNameTypeahead;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
+import cn.com.wind.mcp.registry.service.McpToolBatchImportService;
+import cn.com.wind.mcp.registry.service.McpToolBundleService;
 import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.OriginToolHttpService;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.servlet.http.HttpSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.ui.Model;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -47,13 +64,22 @@ class McpToolControllerTest {
     private OriginToolHttpMapper originToolHttpMapper;
 
     @Mock
-    private OriginToolExpoMapper originToolExpoMapper;
+    private OriginToolHttpService originToolHttpService;
+
+    @Mock
+    private ToolNameTypeahead toolNameTypeahead;
 
     @Mock
     private HttpTemplateConverterMapper httpTemplateConverterMapper;
 
     @Mock
-    private ExpoTemplateConverterMapper expoTemplateConverterMapper;
+    private McpToolBundleService mcpToolBundleService;
+
+    @Mock
+    private McpToolBatchImportService mcpToolBatchImportService;
+
+    @Mock
+    private IdAllocatorService idAllocatorService;
 
     @Mock
     private HttpSession session;
@@ -125,7 +151,7 @@ class McpToolControllerTest {
      */
     @Test
     void testEditForm_ToolNotFound_ShouldRedirect() {
-        when(mcpToolService.getById(1L)).thenReturn(null);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(null);
 
         String viewName = mcpToolController.editForm(1L, model, session);
 
@@ -145,7 +171,7 @@ class McpToolControllerTest {
         Provider currentProvider = new Provider();
         currentProvider.setId(1L);
 
-        when(mcpToolService.getById(1L)).thenReturn(tool);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(bundle(tool));
         when(session.getAttribute("currentProvider")).thenReturn(currentProvider);
 
         String viewName = mcpToolController.editForm(1L, model, session);
@@ -174,10 +200,11 @@ class McpToolControllerTest {
         HttpTemplateConverter httpConverter = new HttpTemplateConverter();
         httpConverter.setId(1L);
 
-        when(mcpToolService.getById(1L)).thenReturn(tool);
+        McpToolBundle bundle = bundle(tool);
+        bundle.setOriginToolHttp(httpTool);
+        bundle.setHttpTemplateConverter(httpConverter);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(bundle);
         when(session.getAttribute("currentProvider")).thenReturn(currentProvider);
-        when(originToolHttpMapper.selectOne(any(QueryWrapper.class))).thenReturn(httpTool);
-        when(httpTemplateConverterMapper.selectOne(any(QueryWrapper.class))).thenReturn(httpConverter);
 
         String viewName = mcpToolController.editForm(1L, model, session);
 
@@ -185,6 +212,8 @@ class McpToolControllerTest {
         verify(model).addAttribute("tool", tool);
         verify(model).addAttribute("httpTool", httpTool);
         verify(model).addAttribute("httpConverter", httpConverter);
+        verify(model).addAttribute("expoTool", null);
+        verify(mcpToolService, never()).getById(any());
     }
 
     // ========== Detail Tests ==========
@@ -194,7 +223,7 @@ class McpToolControllerTest {
      */
     @Test
     void testDetail_ToolNotFound_ShouldRedirect() {
-        when(mcpToolService.getById(1L)).thenReturn(null);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(null);
 
         String viewName = mcpToolController.detail(1L, model);
 
@@ -211,7 +240,7 @@ class McpToolControllerTest {
         tool.setToolName("Test Tool");
         tool.setConvertType("http");
 
-        when(mcpToolService.getById(1L)).thenReturn(tool);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(bundle(tool));
 
         String viewName = mcpToolController.detail(1L, model);
 
@@ -219,6 +248,181 @@ class McpToolControllerTest {
         verify(model).addAttribute("tool", tool);
     }
 
+    /**
+     * Test edit form - both origin tools are shown regardless of convertType
+     */
+    @Test
+    void testEditForm_ShowsBothOriginTools() {
+        McpTool tool = new McpTool();
+        tool.setId(1L);
+        tool.setProviderId(1L);
+        tool.setToolNum(12345L);
+        tool.setConvertType("1");
+        Provider currentProvider = new Provider();
+        currentProvider.setId(1L);
+        OriginToolHttp httpTool = new OriginToolHttp();
+        OriginToolExpo expoTool = new OriginToolExpo();
+        McpToolBundle bundle = bundle(tool);
+        bundle.setOriginToolHttp(httpTool);
+        bundle.setOriginToolExpo(expoTool);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(bundle);
+        when(session.getAttribute("currentProvider")).thenReturn(currentProvider);
+
+        mcpToolController.editForm(1L, model, session);
+
+        verify(model).addAttribute("httpTool", httpTool);
+        verify(model).addAttribute("expoTool", expoTool);
+    }
+
+    /**
+     * Test detail - only the origin tool of the convertType is shown
+     */
+    @Test
+    void testDetail_OnlyOriginToolOfConvertType() {
+        McpTool tool = new McpTool();
+        tool.setId(1L);
+        tool.setConvertType("2");
+        OriginToolHttp httpTool = new OriginToolHttp();
+        OriginToolExpo expoTool = new OriginToolExpo();
+        McpToolBundle bundle = bundle(tool);
+        bundle.setOriginToolHttp(httpTool);
+        bundle.setOriginToolExpo(expoTool);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(bundle);
+
+        mcpToolController.detail(1L, model);
+
+        verify(model).addAttribute("httpTool", null);
+        verify(model).addAttribute("expoTool", expoTool);
+    }
+
+    // ========== Export Tests ==========
+
+    /**
+     * Test export - tool not found
+     */
+    @Test
+    void testExportTool_NotFound() {
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(null);
+
+        ResponseEntity<McpToolExportDto> response = mcpToolController.exportTool(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    /**
+     * Test export - origin tool and converter come from the bundle
+     */
+    @Test
+    void testExportTool_Success() {
+        McpTool tool = new McpTool();
+        tool.setId(1L);
+        tool.setToolName("export_tool");
+        tool.setConvertType("1");
+        OriginToolHttp httpTool = new OriginToolHttp();
+        HttpTemplateConverter httpConverter = new HttpTemplateConverter();
+        McpToolBundle bundle = bundle(tool);
+        bundle.setOriginToolHttp(httpTool);
+        bundle.setOriginToolExpo(new OriginToolExpo());
+        bundle.setHttpTemplateConverter(httpConverter);
+        when(mcpToolBundleService.getBundle(1L)).thenReturn(bundle);
+
+        ResponseEntity<McpToolExportDto> response = mcpToolController.exportTool(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(httpTool, response.getBody().getOriginToolHttp());
+        assertSame(httpConverter, response.getBody().getHttpTemplateConverter());
+        assertNull(response.getBody().getOriginToolExpo());
+        verifyNoInteractions(originToolHttpMapper, httpTemplateConverterMapper);
+    }
+
+    /**
+     * Test bulk export - user not logged in
+     */
+    @Test
+    void testExportTools_NotLoggedIn_ShouldReturn401() {
+        when(session.getAttribute("currentProvider")).thenReturn(null);
+
+        ResponseEntity<StreamingResponseBody> response =
+                mcpToolController.exportTools("ndjson", null, null, null, null, null, session);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(mcpToolBundleService);
+    }
+
+    /**
+     * Test bulk export - non-admin is restricted to own provider and body streams from the service
+     */
+    @Test
+    void testExportTools_RestrictedToOwnProvider() throws Exception {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        provider.setUsername("testuser");
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+
+        ResponseEntity<StreamingResponseBody> response =
+                mcpToolController.exportTools("zip", 2L, "http", null, "1", null, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        ArgumentCaptor<McpToolExportFilter> captor = ArgumentCaptor.forClass(McpToolExportFilter.class);
+        verify(mcpToolBundleService).exportBundles(captor.capture(), eq(McpToolBundleService.FORMAT_ZIP), same(out));
+        assertEquals(Long.valueOf(1L), captor.getValue().getProviderId());
+        assertEquals("http", captor.getValue().getConvertType());
+        assertEquals("1", captor.getValue().getValid());
+    }
+
+    /**
+     * Test bulk export - unknown format
+     */
+    @Test
+    void testExportTools_UnknownFormat_ShouldReturn400() {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+
+        ResponseEntity<StreamingResponseBody> response =
+                mcpToolController.exportTools("xml", null, null, null, null, null, session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    /**
+     * Test batch import - user not logged in
+     */
+    @Test
+    void testImportTools_NotLoggedIn_ShouldReturn401() {
+        when(session.getAttribute("currentProvider")).thenReturn(null);
+        MockMultipartFile file = new MockMultipartFile("file", "tools.ndjson", "application/x-ndjson",
+                "{}".getBytes());
+
+        ResponseEntity<?> response = mcpToolController.importTools(file, false, session);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(mcpToolBatchImportService);
+    }
+
+    /**
+     * Test batch import - zip format is picked from the file extension
+     */
+    @Test
+    void testImportTools_Zip_ShouldReturnReport() throws Exception {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        provider.setUsername("testuser");
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+        McpToolBatchImportReport report = new McpToolBatchImportReport();
+        when(mcpToolBatchImportService.importTools(any(), eq(McpToolBundleService.FORMAT_ZIP), eq(true),
+                eq(1L), eq("testuser"))).thenReturn(report);
+        MockMultipartFile file = new MockMultipartFile("file", "tools.ZIP", "application/zip", new byte[]{1});
+
+        ResponseEntity<?> response = mcpToolController.importTools(file, true, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(report, response.getBody());
+    }
+
     // ========== Save API Tests ==========
 
     /**
@@ -246,6 +450,7 @@ class McpToolControllerTest {
 
         when(session.getAttribute("currentProvider")).thenReturn(provider);
         when(mcpToolService.saveOrUpdateWithValidation(any(McpTool.class))).thenReturn(true);
+        when(idAllocatorService.nextId(IdAllocatorService.TOOL_NUM)).thenReturn(1001L);
 
         McpToolEditDto dto = new McpToolEditDto();
         dto.setToolName("New Tool");
@@ -255,7 +460,8 @@ class McpToolControllerTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("保存成功", response.getBody());
-        verify(mcpToolService).saveOrUpdateWithValidation(any(McpTool.class));
+        verify(mcpToolService).saveOrUpdateWithValidation(
+                argThat(tool -> Long.valueOf(1001L).equals(tool.getToolNum())));
     }
 
     /**
@@ -372,6 +578,43 @@ class McpToolControllerTest {
         assertEquals(1, response.getBody().size());
     }
 
+    /**
+     * Test cursor list API - not logged in
+     */
+    @Test
+    void testListCursorApi_NotLoggedIn_ShouldReturn401() {
+        when(session.getAttribute("currentProvider")).thenReturn(null);
+
+        ResponseEntity<CursorPage<McpTool>> response = mcpToolController.listCursorApi(null, 20, session);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    /**
+     * Test cursor list API - success, next cursor is the last id of the page
+     */
+    @Test
+    void testListCursorApi_Success() {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        provider.setUsername("testuser");
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+
+        McpTool first = new McpTool();
+        first.setId(9L);
+        McpTool second = new McpTool();
+        second.setId(7L);
+        when(mcpToolService.list(any(QueryWrapper.class))).thenReturn(java.util.Arrays.asList(first, second));
+
+        ResponseEntity<CursorPage<McpTool>> response = mcpToolController.listCursorApi(10L, 1, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getRecords().size());
+        assertTrue(response.getBody().isHasMore());
+        assertEquals(Long.valueOf(9L), response.getBody().getNextCursor());
+    }
+
     // ========== Delete Tests ==========
 
     /**
@@ -447,7 +690,7 @@ class McpToolControllerTest {
         when(emptyPage.getTotal()).thenReturn(0L);
         when(mcpToolService.page(any(Page.class), any(QueryWrapper.class))).thenReturn(emptyPage);
 
-        String viewName = mcpToolController.search("test", model, 1, session);
+        String viewName = mcpToolController.search("test", model, 1, null, null, null, session);
 
         assertEquals("mcp-tools/list", viewName);
         verify(model).addAttribute("keyword", "test");
@@ -471,13 +714,96 @@ class McpToolControllerTest {
         when(toolPage.getRecords()).thenReturn(Collections.singletonList(tool));
         when(toolPage.getPages()).thenReturn(1L);
         when(toolPage.getTotal()).thenReturn(1L);
-        when(mcpToolService.page(any(Page.class), any(QueryWrapper.class))).thenReturn(toolPage);
+        McpToolSearchResult searchResult = new McpToolSearchResult();
+        searchResult.setPage(toolPage);
+        Map<String, Map<String, Integer>> facets = Collections.singletonMap("convertType",
+                Collections.singletonMap("http", 1));
+        searchResult.setFacets(facets);
+        when(mcpToolService.rankedSearch("test", 1L, "http", null, null, 1, 20)).thenReturn(searchResult);
 
-        String viewName = mcpToolController.search("test", model, 1, session);
+        String viewName = mcpToolController.search("test", model, 1, "http", null, null, session);
 
         assertEquals("mcp-tools/list", viewName);
         verify(model).addAttribute(eq("tools"), anyList());
         verify(model).addAttribute("keyword", "test");
+        verify(model).addAttribute("facets", facets);
+    }
+
+    /**
+     * Test search API - user not logged in
+     */
+    @Test
+    void testSearchApi_NotLoggedIn() {
+        when(session.getAttribute("currentProvider")).thenReturn(null);
+
+        ResponseEntity<?> response = mcpToolController.searchApi("test", 1, 10, session);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(mcpToolService, never()).searchToolPage(any(), any(), anyLong(), anyLong());
+    }
+
+    /**
+     * Test search API - success
+     */
+    @Test
+    void testSearchApi_Success() {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+        Page<McpTool> toolPage = new Page<>(1, 10);
+        when(mcpToolService.searchToolPage("股票", 1L, 1, 10)).thenReturn(toolPage);
+
+        ResponseEntity<?> response = mcpToolController.searchApi("股票", 1, 10, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(toolPage, response.getBody());
+    }
+
+    /**
+     * Test ranked search API - success
+     */
+    @Test
+    void testRankedSearchApi_Success() {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+        McpToolSearchResult searchResult = new McpToolSearchResult();
+        when(mcpToolService.rankedSearch("股票", 1L, null, "1", "1", 1, 10)).thenReturn(searchResult);
+
+        ResponseEntity<?> response = mcpToolController.rankedSearchApi("股票", null, "1", "1", 1, 10, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(searchResult, response.getBody());
+    }
+
+    /**
+     * Test suggest API - not logged in
+     */
+    @Test
+    void testSuggestApi_NotLoggedIn() {
+        when(session.getAttribute("currentProvider")).thenReturn(null);
+
+        ResponseEntity<?> response = mcpToolController.suggestApi("sto", 10, session);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(toolNameTypeahead, never()).suggest(any(), any(), anyInt());
+    }
+
+    /**
+     * Test suggest API - scoped to current provider
+     */
+    @Test
+    void testSuggestApi_Success() {
+        Provider provider = new Provider();
+        provider.setId(1L);
+        when(session.getAttribute("currentProvider")).thenReturn(provider);
+        List<ToolSuggestion> suggestions = Collections.singletonList(new ToolSuggestion());
+        when(toolNameTypeahead.suggest("sto", 1L, 10)).thenReturn(suggestions);
+
+        ResponseEntity<?> response = mcpToolController.suggestApi("sto", 10, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(suggestions, response.getBody());
     }
 
     // ========== Find By Unique ID Tests ==========
@@ -523,4 +849,10 @@ class McpToolControllerTest {
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
+
+    private static McpToolBundle bundle(McpTool tool) {
+        McpToolBundle bundle = new McpToolBundle();
+        bundle.setMcpTool(tool);
+        return bundle;
+    }
 }
@@ -3,6 +3,7 @@ package cn.com.wind.mcp.registry.controller;
 import cn.com.wind.mcp.registry.entity.OriginProviderConfig;
 import cn.com.wind.mcp.registry.entity.OriginToolExpo;
 import cn.com.wind.mcp.registry.entity.Provider;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
 import cn.com.wind.mcp.registry.service.OriginProviderConfigService;
 import cn.com.wind.mcp.registry.service.OriginToolExpoService;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -40,6 +41,9 @@ class OriginToolExpoControllerTest {
     @Mock
     private OriginProviderConfigService originProviderConfigService;
 
+    @Mock
+    private IdAllocatorService idAllocatorService;
+
     @Mock
     private HttpSession session;
 
@@ -273,11 +277,13 @@ class OriginToolExpoControllerTest {
 
         when(session.getAttribute("currentProvider")).thenReturn(provider);
         when(originToolExpoService.saveOrUpdate(any(OriginToolExpo.class))).thenReturn(true);
+        when(idAllocatorService.nextId(IdAllocatorService.TOOL_NUM)).thenReturn(1001L);
 
         String viewName = originToolExpoController.save(tool, session);
 
         assertEquals("redirect:/origin-expo-tools", viewName);
         assertEquals(1L, tool.getProviderId());
+        assertEquals(Long.valueOf(1001L), tool.getProviderToolNum());
         assertEquals("testuser", tool.getCreateBy());
         assertEquals("testuser", tool.getUpdateBy());
         assertNotNull(tool.getCreateTime());
@@ -0,0 +1,103 @@
+package cn.com.wind.mcp.registry.controller;
+
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import cn.com.wind.mcp.registry.service.McpTestSuccessRecordService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.McpToolTestJobService;
+import cn.com.wind.mcp.registry.service.VserverItemsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ToolDescriptionController 单元测试
+ * 测试流式测试接口按工具的streamOutput选择调用方式
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class ToolDescriptionControllerTest {
+
+    @InjectMocks
+    private ToolDescriptionController controller;
+
+    @Mock
+    private McpClientService mcpClientService;
+
+    @Mock
+    private McpTestSuccessRecordService mcpTestSuccessRecordService;
+
+    @Mock
+    private McpToolService mcpToolService;
+
+    @Mock
+    private VserverItemsService vserverItemsService;
+
+    @Mock
+    private McpToolTestJobService mcpToolTestJobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * 测试非流式工具 - 按单次调用执行，不走流式读取
+     */
+    @Test
+    void testStreamTestTool_NonStreamingToolFallsBack() {
+        when(mcpToolService.getById(1L)).thenReturn(tool("0"));
+        when(mcpClientService.testToolWithSessionIdAsync(eq(100L), any(), eq("s1")))
+                .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+
+        SseEmitter emitter = controller.streamTestTool(1L, body(), new MockHttpServletRequest());
+
+        assertNotNull(emitter);
+        verify(mcpClientService).testToolWithSessionIdAsync(eq(100L), any(), eq("s1"));
+        verify(mcpClientService, never()).streamToolWithSessionId(any(), any(), any(), any());
+    }
+
+    /**
+     * 测试流式工具 - 走流式读取
+     */
+    @Test
+    void testStreamTestTool_StreamingTool() {
+        when(mcpToolService.getById(1L)).thenReturn(tool("1"));
+        when(mcpClientService.streamToolWithSessionId(eq(100L), any(), eq("s1"), any()))
+                .thenReturn(new CompletableFuture<>());
+
+        controller.streamTestTool(1L, body(), new MockHttpServletRequest());
+
+        verify(mcpClientService).streamToolWithSessionId(eq(100L), any(), eq("s1"), any());
+        verify(mcpClientService, never()).testToolWithSessionIdAsync(any(), any(), any());
+    }
+
+    private McpTool tool(String streamOutput) {
+        McpTool tool = new McpTool();
+        tool.setId(1L);
+        tool.setToolNum(100L);
+        tool.setToolType("1");
+        tool.setStreamOutput(streamOutput);
+        return tool;
+    }
+
+    private Map<String, Object> body() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("sessionId", "s1");
+        return body;
+    }
+}
@@ -0,0 +1,214 @@
+package cn.com.wind.mcp.registry.search;
+
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * McpToolSearchIndex 单元测试
+ * 测试中文双字检索、英文前缀和词内子串检索、提供者过滤、分页、增量更新、重建期间变更重放、BM25排序和分面计数
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolSearchIndexTest {
+
+    private McpToolMapper mcpToolMapper;
+    private McpToolSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        mcpToolMapper = mock(McpToolMapper.class);
+        when(mcpToolMapper.selectList(any())).thenReturn(Arrays.asList(
+                tool(1L, 10L, "get_stock_quote", "查询股票实时行情", "{\"zh\": \"股票行情\", \"en\": \"Stock Quote\"}"),
+                tool(2L, 10L, "get_fund_nav", "查询基金净值", "{\"zh\": \"基金净值\", \"en\": \"Fund NAV\"}"),
+                tool(3L, 20L, "stock_news", "股票相关新闻", "{\"zh\": \"新闻\"}"),
+                tool(4L, 20L, "bond_price", "票据与股票价格", "{\"zh\": \"债券价格\"}")));
+        index = new McpToolSearchIndex(mcpToolMapper);
+        index.rebuild();
+    }
+
+    /**
+     * 测试中文多字查询：双字全部命中且原文连续出现
+     */
+    @Test
+    void testSearch_ChineseBigram() {
+        assertEquals(Arrays.asList(1L, 3L, 4L), index.searchAll("股票", null, null));
+        assertEquals(Collections.singletonList(1L), index.searchAll("股票行情", null, null));
+        // 工具4同时含“股票”“票据”两个双字，但“股票据”不连续出现
+        assertTrue(index.searchAll("股票据", null, null).isEmpty());
+    }
+
+    /**
+     * 测试中文单字查询
+     */
+    @Test
+    void testSearch_ChineseSingleChar() {
+        assertEquals(Arrays.asList(1L, 3L, 4L), index.searchAll("股", null, null));
+    }
+
+    /**
+     * 测试英文按单词前缀匹配，多个词需全部命中，显示字段的JSON键名不参与检索
+     */
+    @Test
+    void testSearch_LatinPrefix() {
+        assertEquals(Arrays.asList(1L, 3L), index.searchAll("STO", null, null));
+        assertEquals(Collections.singletonList(1L), index.searchAll("stock quote", null, null));
+        assertTrue(index.searchAll("zh", null, null).isEmpty());
+    }
+
+    /**
+     * 测试英文片段在词中间出现也命中，与LIKE '%kw%'一致
+     */
+    @Test
+    void testSearch_LatinSubstring() {
+        assertEquals(Arrays.asList(1L, 3L), index.searchAll("ock", null, null));
+        assertEquals(Collections.singletonList(1L), index.searchAll("uote", null, null));
+        assertEquals(Collections.singletonList(4L), index.searchAll("ond ric", null, null));
+        assertTrue(index.searchAll("stockx", null, null).isEmpty());
+    }
+
+    /**
+     * 测试按提供者过滤和分页
+     */
+    @Test
+    void testSearch_ProviderAndPaging() {
+        assertEquals(Arrays.asList(3L, 4L), index.searchAll("股票", 20L, null));
+
+        McpToolSearchIndex.Hits hits = index.search("get", null, null, 1, 1);
+        assertEquals(2, hits.getTotal());
+        assertEquals(Collections.singletonList(2L), hits.getIds());
+    }
+
+    /**
+     * 测试工具变更事件增量更新索引
+     */
+    @Test
+    void testOnMcpToolChanged() {
+        when(mcpToolMapper.selectOne(any())).thenReturn(tool(2L, 10L, "get_fund_nav", "基金股票持仓", null));
+        index.onMcpToolChanged(new McpToolChangedEvent(2L, 200L));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), index.searchAll("股票", null, null));
+        assertTrue(index.searchAll("净值", null, null).isEmpty());
+
+        when(mcpToolMapper.selectOne(any())).thenReturn(null);
+        index.onMcpToolChanged(new McpToolChangedEvent(1L, 100L));
+        assertEquals(Arrays.asList(2L, 3L, 4L), index.searchAll("股票", null, null));
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * 测试重建读库期间的增量变更在换入新索引后重放，不被旧快照覆盖
+     */
+    @Test
+    void testRebuild_ReplaysChangesDuringRebuild() {
+        List<McpTool> snapshot = Arrays.asList(
+                tool(1L, 10L, "get_stock_quote", "查询股票实时行情", null),
+                tool(2L, 10L, "get_fund_nav", "查询基金净值", null));
+        when(mcpToolMapper.selectList(any())).thenAnswer(invocation -> {
+            // 快照读出后、换入前提交的变更
+            index.upsert(tool(5L, 20L, "stock_alert", "股票预警", null));
+            index.remove(1L);
+            return snapshot;
+        });
+
+        index.rebuild();
+
+        assertEquals(Collections.singletonList(5L), index.searchAll("股票", null, null));
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * 测试BM25排序：名称命中优于描述命中
+     */
+    @Test
+    void testRank_NameOutranksDescription() {
+        when(mcpToolMapper.selectList(any())).thenReturn(rankingTools());
+        index.rebuild();
+
+        McpToolSearchIndex.Ranked ranked = index.rank("quote", new McpToolSearchIndex.Filter(null, null, null, null),
+                0, 10);
+
+        assertEquals(2, ranked.getTotal());
+        assertEquals(Arrays.asList(2L, 5L), ranked.getIds());
+        assertTrue(ranked.getScores().get(0) > ranked.getScores().get(1));
+    }
+
+    /**
+     * 测试分面计数：统计某一项时不应用该项自身的过滤条件，转换类型的新旧取值合并统计
+     */
+    @Test
+    void testRank_Facets() {
+        when(mcpToolMapper.selectList(any())).thenReturn(rankingTools());
+        index.rebuild();
+
+        McpToolSearchIndex.Ranked ranked = index.rank("", new McpToolSearchIndex.Filter(null, "HTTP", null, null),
+                0, 10);
+
+        assertEquals(Arrays.asList(1L, 2L, 5L), ranked.getIds());
+        assertEquals(Integer.valueOf(3), ranked.getFacets().get(McpToolSearchIndex.FACET_CONVERT_TYPE).get("http"));
+        assertEquals(Integer.valueOf(2), ranked.getFacets().get(McpToolSearchIndex.FACET_CONVERT_TYPE).get("expo"));
+        assertEquals(Integer.valueOf(3), ranked.getFacets().get(McpToolSearchIndex.FACET_TOOL_TYPE).get("1"));
+
+        ranked = index.rank(null, new McpToolSearchIndex.Filter(null, "http", "agent", null), 0, 10);
+
+        assertEquals(0, ranked.getTotal());
+        assertEquals(Collections.singletonMap("expo", 1), ranked.getFacets().get(McpToolSearchIndex.FACET_CONVERT_TYPE));
+        assertEquals(Collections.singletonMap("1", 3), ranked.getFacets().get(McpToolSearchIndex.FACET_TOOL_TYPE));
+    }
+
+    /**
+     * 测试关键词与提供者过滤组合，并按得分分页
+     */
+    @Test
+    void testRank_ProviderAndPaging() {
+        when(mcpToolMapper.selectList(any())).thenReturn(rankingTools());
+        index.rebuild();
+
+        McpToolSearchIndex.Ranked all = index.rank("股票", new McpToolSearchIndex.Filter(10L, null, null, null), 0, 10);
+        McpToolSearchIndex.Ranked second = index.rank("股票", new McpToolSearchIndex.Filter(10L, null, null, null),
+                1, 1);
+
+        assertEquals(3, all.getTotal());
+        assertEquals(Collections.singletonMap("10", 3), all.getFacets().get(McpToolSearchIndex.FACET_PROVIDER_ID));
+        assertEquals(Collections.singletonList(all.getIds().get(1)), second.getIds());
+    }
+
+    private static List<McpTool> rankingTools() {
+        return Arrays.asList(
+                rankingTool(1L, 10L, "bond_price", "债券价格，含股票对比", "1", "1"),
+                rankingTool(2L, 10L, "stock_quote", "股票实时行情", "1", "1"),
+                rankingTool(3L, 20L, "stock_news", "新闻", "2", "1"),
+                rankingTool(4L, 10L, "stock_agent", "股票助手", "expo", "2"),
+                rankingTool(5L, 10L, "bond_info", "returns a quote for the bond", "http", "tool"));
+    }
+
+    private static McpTool rankingTool(Long id, Long providerId, String name, String description,
+                                       String convertType, String toolType) {
+        McpTool tool = tool(id, providerId, name, description, null);
+        tool.setConvertType(convertType);
+        tool.setToolType(toolType);
+        return tool;
+    }
+
+    private static McpTool tool(Long id, Long providerId, String name, String description, String nameDisplay) {
+        McpTool tool = new McpTool();
+        tool.setId(id);
+        tool.setProviderId(providerId);
+        tool.setToolName(name);
+        tool.setToolDescription(description);
+        tool.setNameDisplay(nameDisplay);
+        tool.setValid("1");
+        return tool;
+    }
+}
@@ -0,0 +1,178 @@
+package cn.com.wind.mcp.registry.search;
+
+import cn.com.wind.mcp.registry.dto.mcptool.ToolSuggestion;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.entity.OriginToolHttp;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ToolNameTypeahead 单元测试
+ * 测试单词/中文片段前缀联想、排名、提供者过滤、增量更新以及重建期间变更的重放
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class ToolNameTypeaheadTest {
+
+    private McpToolMapper mcpToolMapper;
+    private OriginToolHttpMapper originToolHttpMapper;
+    private OriginToolExpoMapper originToolExpoMapper;
+    private ToolNameTypeahead typeahead;
+
+    @BeforeEach
+    void setUp() {
+        mcpToolMapper = mock(McpToolMapper.class);
+        originToolHttpMapper = mock(OriginToolHttpMapper.class);
+        originToolExpoMapper = mock(OriginToolExpoMapper.class);
+        when(mcpToolMapper.selectList(any())).thenReturn(Arrays.asList(
+                tool(1L, 10L, "get_stock_quote", "{\"zh\": \"股票行情\", \"en\": \"Stock Quote\"}"),
+                tool(2L, 10L, "get_fund_nav", "基金净值"),
+                tool(3L, 20L, "stock_news", "股票新闻")));
+        OriginToolHttp httpTool = new OriginToolHttp();
+        httpTool.setId(7L);
+        httpTool.setProviderId(10L);
+        httpTool.setNameDisplay("股票报价接口");
+        when(originToolHttpMapper.selectList(any())).thenReturn(Collections.singletonList(httpTool));
+        OriginToolExpo expoTool = new OriginToolExpo();
+        expoTool.setId(8L);
+        expoTool.setProviderId(20L);
+        expoTool.setProviderToolName("QueryStockInfo");
+        when(originToolExpoMapper.selectList(any())).thenReturn(Collections.singletonList(expoTool));
+
+        typeahead = new ToolNameTypeahead(mcpToolMapper, originToolHttpMapper, originToolExpoMapper);
+        typeahead.rebuild();
+    }
+
+    /**
+     * 测试英文单词前缀：名称开头命中的排在前面，分隔符不区分下划线和空格，驼峰命名按单词拆分
+     */
+    @Test
+    void testSuggest_WordPrefix() {
+        List<ToolSuggestion> suggestions = typeahead.suggest("STO", null, 10);
+
+        assertEquals(Arrays.asList("stock_news", "Stock Quote"), texts(suggestions).subList(0, 2));
+        assertEquals(3, suggestions.size());
+        assertEquals(Collections.singletonList("Stock Quote"), texts(typeahead.suggest("stock_q", null, 10)));
+        assertEquals(Collections.singletonList("QueryStockInfo"), texts(typeahead.suggest("querys", null, 10)));
+    }
+
+    /**
+     * 测试中文片段：从任一中文字符开始均可命中，并包含原始接口
+     */
+    @Test
+    void testSuggest_ChineseFragment() {
+        List<ToolSuggestion> suggestions = typeahead.suggest("股票", null, 10);
+
+        assertEquals(3, suggestions.size());
+        assertTrue(suggestions.stream().anyMatch(s -> OriginToolChangedEvent.HTTP.equals(s.getSource())));
+        assertEquals(Collections.singletonList("基金净值"), texts(typeahead.suggest("净", null, 10)));
+    }
+
+    /**
+     * 测试按提供者过滤和条数限制
+     */
+    @Test
+    void testSuggest_ProviderAndLimit() {
+        List<ToolSuggestion> suggestions = typeahead.suggest("股票", 20L, 10);
+
+        assertEquals(1, suggestions.size());
+        assertEquals(Long.valueOf(3L), suggestions.get(0).getId());
+        assertEquals(1, typeahead.suggest("get", null, 1).size());
+        assertTrue(typeahead.suggest("股票", 99L, 10).isEmpty());
+        assertTrue(typeahead.suggest("  ", null, 10).isEmpty());
+    }
+
+    /**
+     * 测试工具变更事件增量更新
+     */
+    @Test
+    void testOnChanged() {
+        when(mcpToolMapper.selectOne(any())).thenReturn(tool(2L, 10L, "get_bond_yield", "债券收益率"));
+        typeahead.onMcpToolChanged(new McpToolChangedEvent(2L, 200L));
+
+        assertTrue(typeahead.suggest("fund", null, 10).isEmpty());
+        assertEquals(Collections.singletonList("债券收益率"), texts(typeahead.suggest("债券", 10L, 10)));
+
+        when(originToolHttpMapper.selectOne(any())).thenReturn(null);
+        typeahead.onOriginToolChanged(new OriginToolChangedEvent(OriginToolChangedEvent.HTTP, 7L));
+
+        assertEquals(Collections.singletonList("股票行情"), texts(typeahead.suggest("股票", 10L, 10)));
+        assertEquals(4, typeahead.size());
+    }
+
+    /**
+     * 测试重建读库期间到达的变更 - 换入新树后重放，不被旧快照覆盖
+     */
+    @Test
+    void testRebuild_ReplaysChangesDuringRebuild() {
+        List<McpTool> snapshot = Arrays.asList(
+                tool(1L, 10L, "get_stock_quote", "股票行情"),
+                tool(2L, 10L, "get_fund_nav", "基金净值"));
+        when(mcpToolMapper.selectOne(any())).thenReturn(tool(5L, 20L, "stock_alert", "股票预警"));
+        when(mcpToolMapper.selectList(any())).thenAnswer(invocation -> {
+            // 快照读出后、换入前提交的变更
+            typeahead.onMcpToolChanged(new McpToolChangedEvent(5L, 500L));
+            typeahead.remove(ToolNameTypeahead.MCP_TOOL, 1L);
+            return snapshot;
+        });
+
+        typeahead.rebuild();
+
+        assertEquals(Arrays.asList("stock_alert", "QueryStockInfo"), texts(typeahead.suggest("stock", null, 10)));
+        assertTrue(typeahead.suggest("股票行情", null, 10).isEmpty());
+        assertEquals(Collections.singletonList("股票预警"), texts(typeahead.suggest("股票预警", 20L, 10)));
+    }
+
+    /**
+     * 测试大量工具时缓存结果与删除后的结果一致
+     */
+    @Test
+    void testSuggest_ManyToolsAfterRemoval() {
+        List<McpTool> tools = new ArrayList<>();
+        for (long i = 100; i < 300; i++) {
+            tools.add(tool(i, i % 3, "stock_tool_" + i, null));
+        }
+        when(mcpToolMapper.selectList(any())).thenReturn(tools);
+        typeahead.rebuild();
+        for (long i = 100; i < 200; i++) {
+            typeahead.remove(ToolNameTypeahead.MCP_TOOL, i);
+        }
+
+        List<ToolSuggestion> suggestions = typeahead.suggest("stock", 1L, 5);
+
+        assertEquals(Arrays.asList(202L, 205L, 208L, 211L, 214L),
+                suggestions.stream().map(ToolSuggestion::getId).collect(Collectors.toList()));
+    }
+
+    private static List<String> texts(List<ToolSuggestion> suggestions) {
+        return suggestions.stream().map(ToolSuggestion::getText).collect(Collectors.toList());
+    }
+
+    private static McpTool tool(Long id, Long providerId, String name, String nameDisplay) {
+        McpTool tool = new McpTool();
+        tool.setId(id);
+        tool.setProviderId(providerId);
+        tool.setToolNum(id);
+        tool.setToolName(name);
+        tool.setNameDisplay(nameDisplay);
+        return tool;
+    }
+}
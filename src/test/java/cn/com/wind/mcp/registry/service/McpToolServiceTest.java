@@ -14,6 +14,7 @@ import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -442,6 +443,60 @@ class McpToolServiceTest {
         assertEquals("3", imported.getConvertType());
     }
 
+    /**
+     * 测试: validateImportBatch - 库中已存在和本批内重复的名称
+     */
+    @Test
+    @DisplayName("批量验证导入数据 - 名称重复")
+    void testValidateImportBatch_DuplicateNames() {
+        // Given: 库中已有一个工具，本批包含同名工具和两条互相重复的数据
+        testTool.setToolName("batch_existing_tool");
+        mcpToolService.save(testTool);
+        McpToolExportDto existing = createHttpToolExportDto();
+        existing.getMcpTool().setToolName("batch_existing_tool");
+        McpToolExportDto first = createHttpToolExportDto();
+        first.getMcpTool().setToolName("batch_new_tool");
+        McpToolExportDto second = createHttpToolExportDto();
+        second.getMcpTool().setToolName("batch_new_tool");
+
+        // When
+        List<McpToolImportValidationResult> results =
+                mcpToolService.validateImportBatch(Arrays.asList(existing, first, second));
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getErrors().stream().anyMatch(e -> e.contains("已存在")));
+        assertTrue(results.get(1).isValid());
+        assertTrue(results.get(2).getErrors().stream().anyMatch(e -> e.contains("重复")));
+    }
+
+    /**
+     * 测试: importToolBatch - 批量导入分配不重复的工具编号并写入转换模板
+     */
+    @Test
+    @DisplayName("批量导入工具 - HTTP和Expo类型")
+    void testImportToolBatch_Success() {
+        // Given
+        McpToolExportDto httpDto = createHttpToolExportDto();
+        httpDto.getMcpTool().setToolName("batch_http_tool");
+        McpToolExportDto expoDto = createExpoToolExportDto();
+        expoDto.getMcpTool().setToolName("batch_expo_tool");
+
+        // When
+        List<McpTool> imported = mcpToolService.importToolBatch(Arrays.asList(httpDto, expoDto),
+                testProviderID, testUsername);
+
+        // Then
+        assertEquals(2, imported.size());
+        assertNotNull(imported.get(0).getId());
+        assertNotNull(imported.get(1).getId());
+        assertNotEquals(imported.get(0).getToolNum(), imported.get(1).getToolNum());
+        assertEquals(testProviderID, imported.get(1).getProviderId());
+        assertEquals(imported.get(0).getToolNum(), httpDto.getHttpTemplateConverter().getToolNum());
+        assertNotNull(httpDto.getHttpTemplateConverter().getId());
+        assertEquals(imported.get(1).getToolNum(), expoDto.getExpoTemplateConverter().getToolNum());
+    }
+
     // ========== 辅助方法 ==========
 
     /**
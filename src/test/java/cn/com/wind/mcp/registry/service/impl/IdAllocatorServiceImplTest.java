@@ -0,0 +1,156 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.mapper.IdSequenceMapper;
+import cn.com.wind.mcp.registry.service.IdAllocatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * IdAllocatorServiceImpl 单元测试
+ * 测试号段内连续分配、号段初始化、并发分配不重复和不同业务标识互不阻塞
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class IdAllocatorServiceImplTest {
+
+    private IdSequenceMapper idSequenceMapper;
+
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        idSequenceMapper = mock(IdSequenceMapper.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    /**
+     * 测试号段内连续分配，用完后再领取下一个号段
+     */
+    @Test
+    void testNextId_LeasesSegmentWhenExhausted() {
+        when(idSequenceMapper.increaseMaxId(IdAllocatorService.TOOL_NUM, 3)).thenReturn(1);
+        when(idSequenceMapper.selectMaxId(IdAllocatorService.TOOL_NUM)).thenReturn(102L, 105L);
+        IdAllocatorServiceImpl allocator = new IdAllocatorServiceImpl(idSequenceMapper, transactionManager, 3);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(allocator.nextId(IdAllocatorService.TOOL_NUM));
+        }
+
+        assertEquals(List.of(100L, 101L, 102L, 103L, 104L), ids);
+        verify(idSequenceMapper, times(2)).increaseMaxId(IdAllocatorService.TOOL_NUM, 3);
+        verify(idSequenceMapper, never()).insertSequence(anyString(), anyLong());
+    }
+
+    /**
+     * 测试号段记录不存在时以当前时间戳初始化
+     */
+    @Test
+    void testNextId_InitializesMissingSequence() {
+        long before = System.currentTimeMillis();
+        AtomicLong stored = new AtomicLong();
+        when(idSequenceMapper.increaseMaxId(IdAllocatorService.APP_NUM, 10)).thenReturn(0);
+        when(idSequenceMapper.insertSequence(eq(IdAllocatorService.APP_NUM), anyLong())).thenAnswer(invocation -> {
+            stored.set(invocation.getArgument(1));
+            return 1;
+        });
+        when(idSequenceMapper.selectMaxId(IdAllocatorService.APP_NUM)).thenAnswer(invocation -> stored.get());
+        IdAllocatorServiceImpl allocator = new IdAllocatorServiceImpl(idSequenceMapper, transactionManager, 10);
+
+        long id = allocator.nextId(IdAllocatorService.APP_NUM);
+
+        assertTrue(id >= before && id <= System.currentTimeMillis());
+        assertEquals(id + 9, stored.get());
+    }
+
+    /**
+     * 测试多线程并发分配的编号不重复
+     */
+    @Test
+    void testNextId_ConcurrentIdsAreUnique() throws Exception {
+        AtomicLong maxId = new AtomicLong(1000);
+        when(idSequenceMapper.increaseMaxId(anyString(), anyInt())).thenAnswer(invocation -> {
+            maxId.addAndGet(invocation.getArgument(1));
+            return 1;
+        });
+        when(idSequenceMapper.selectMaxId(anyString())).thenAnswer(invocation -> maxId.get());
+        IdAllocatorServiceImpl allocator = new IdAllocatorServiceImpl(idSequenceMapper, transactionManager, 50);
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        ids.add(allocator.nextId(IdAllocatorService.TOOL_NUM));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(8000, ids.size());
+    }
+
+    /**
+     * 测试一个业务标识领取号段时，其他业务标识的分配不被阻塞
+     */
+    @Test
+    void testNextId_KeysDoNotBlockEachOther() throws Exception {
+        CountDownLatch leasing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idSequenceMapper.increaseMaxId(IdAllocatorService.TOOL_NUM, 10)).thenAnswer(invocation -> {
+            leasing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        when(idSequenceMapper.increaseMaxId(IdAllocatorService.APP_NUM, 10)).thenReturn(1);
+        when(idSequenceMapper.selectMaxId(IdAllocatorService.TOOL_NUM)).thenReturn(109L);
+        when(idSequenceMapper.selectMaxId(IdAllocatorService.APP_NUM)).thenReturn(209L);
+        IdAllocatorServiceImpl allocator = new IdAllocatorServiceImpl(idSequenceMapper, transactionManager, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> tool = executor.submit(() -> allocator.nextId(IdAllocatorService.TOOL_NUM));
+            assertTrue(leasing.await(5, TimeUnit.SECONDS));
+            try {
+                long appId = executor.submit(() -> allocator.nextId(IdAllocatorService.APP_NUM))
+                        .get(2, TimeUnit.SECONDS);
+                assertEquals(200L, appId);
+                assertFalse(tool.isDone());
+            } finally {
+                release.countDown();
+            }
+            assertEquals(100L, tool.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.client.StubMcpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MCP客户端吞吐量压测
+ * <p>
+ * 默认构建不执行，通过 mvn test -Pbenchmark 运行；参数通过系统属性调整，例如
+ * -Dmcp.bench.concurrency=32 -Dmcp.bench.calls=20000 -Dmcp.bench.latency=10 -Dmcp.bench.payload=65536
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+@Tag("benchmark")
+class McpClientBenchmarkTest {
+
+    @Test
+    void benchmarkToolCall() throws Exception {
+        int concurrency = Integer.getInteger("mcp.bench.concurrency", 16);
+        int sessions = Integer.getInteger("mcp.bench.sessions", concurrency);
+        int warmup = Integer.getInteger("mcp.bench.warmup", 1000);
+        int calls = Integer.getInteger("mcp.bench.calls", 10000);
+
+        try (StubMcpServer server = new StubMcpServer().start()) {
+            server.latency(Long.getLong("mcp.bench.latency", 5L))
+                    .payloadBytes(Integer.getInteger("mcp.bench.payload", 1024))
+                    .sse(Boolean.parseBoolean(System.getProperty("mcp.bench.sse", "true")))
+                    .progressEvents(Integer.getInteger("mcp.bench.progress", 0))
+                    .chunking(Integer.getInteger("mcp.bench.chunk", 0), 0)
+                    .httpErrorRate(Double.parseDouble(System.getProperty("mcp.bench.httpErrorRate", "0")))
+                    .toolErrorRate(Double.parseDouble(System.getProperty("mcp.bench.toolErrorRate", "0")));
+
+            McpClientLoadBenchmark benchmark = new McpClientLoadBenchmark(server.getUrl(), concurrency);
+            McpClientLoadBenchmark.Result result = benchmark.run(concurrency, sessions, warmup, calls);
+
+            System.out.println("=== MCP客户端压测 ===");
+            System.out.println(result.summary());
+            System.out.println("服务端: HTTP请求=" + server.getHttpRequests() + ", 握手=" + server.getInitializeCalls()
+                    + ", 工具调用=" + server.getToolCalls());
+
+            assertEquals(calls, result.getCalls());
+            assertTrue(result.getThroughput() > 0);
+        }
+    }
+}
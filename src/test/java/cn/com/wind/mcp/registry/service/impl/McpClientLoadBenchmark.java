@@ -0,0 +1,191 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.client.McpEndpointGuard;
+import cn.com.wind.mcp.registry.client.McpHttpTransport;
+import cn.com.wind.mcp.registry.client.McpSessionRegistry;
+import cn.com.wind.mcp.registry.client.McpToolSchemaValidator;
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MCP客户端压测工具
+ * <p>
+ * 按生产配置组装真实的HTTP客户端、传输层、会话注册表和端点保护，只把工具查询替换为固定工具，
+ * 以固定并发(闭环：每个工作线程收到结果后立即发起下一次调用)驱动testToolWithSessionId，
+ * 统计吞吐量和延迟分位数。通常配合StubMcpServer使用
+ * </p>
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+public class McpClientLoadBenchmark {
+
+    /**
+     * 压测使用的固定工具编号
+     */
+    public static final long TOOL_NUM = 1L;
+
+    private final McpClientConfig.McpProperties mcpProperties;
+    private final McpClientServiceImpl client;
+
+    /**
+     * @param mcpUrl      MCP地址
+     * @param concurrency 并发数，同时作为连接数和并发上限
+     */
+    public McpClientLoadBenchmark(String mcpUrl, int concurrency) {
+        this(mcpUrl, defaultProperties(concurrency));
+    }
+
+    public McpClientLoadBenchmark(String mcpUrl, McpClientConfig.McpProperties mcpProperties) {
+        this.mcpProperties = mcpProperties;
+        mcpProperties.getServer().setUrl(mcpUrl);
+
+        McpClientConfig config = new McpClientConfig();
+        HttpClient httpClient = config.mcpHttpClient(mcpProperties, config.mcpHttpExecutor());
+        RestTemplate restTemplate = config.mcpRestTemplate(new RestTemplateBuilder(), httpClient, mcpProperties);
+        McpHttpTransport transport = new McpHttpTransport(restTemplate, mcpProperties,
+                new McpEndpointGuard(mcpProperties));
+
+        McpToolDTO tool = new McpToolDTO();
+        tool.setId(TOOL_NUM);
+        tool.setToolNum(TOOL_NUM);
+        tool.setToolName("stub_tool");
+        McpToolService toolService = mock(McpToolService.class);
+        when(toolService.resolveValidTool(anyLong())).thenReturn(tool);
+
+        this.client = new McpClientServiceImpl(transport, new McpSessionRegistry(mcpProperties), mcpProperties,
+                toolService, new ObjectMapper(), new SimpleAsyncTaskExecutor("mcp-bench-"), event -> {
+        }, new McpToolSchemaValidator(new ObjectMapper()));
+    }
+
+    /**
+     * 压测默认配置：连接数和并发上限放开到并发数，避免客户端自身限流干扰测量
+     */
+    public static McpClientConfig.McpProperties defaultProperties(int concurrency) {
+        McpClientConfig.McpProperties properties = new McpClientConfig.McpProperties();
+        McpClientConfig.McpProperties.Client client = properties.getClient();
+        client.setMaxConnections(Math.max(client.getMaxConnections(), concurrency));
+        client.setLimitInitial(Math.max(client.getLimitInitial(), concurrency));
+        client.setTestConcurrency(Math.max(client.getTestConcurrency(), concurrency));
+        return properties;
+    }
+
+    public McpClientServiceImpl getClient() {
+        return client;
+    }
+
+    public McpClientConfig.McpProperties getMcpProperties() {
+        return mcpProperties;
+    }
+
+    /**
+     * 执行压测
+     *
+     * @param concurrency 并发工作线程数
+     * @param sessions    使用的sessionId个数，工作线程轮流分配
+     * @param warmupCalls 预热调用数，不计入结果
+     * @param calls       计入结果的调用数
+     * @return 压测结果
+     */
+    public Result run(int concurrency, int sessions, int warmupCalls, int calls) throws InterruptedException {
+        drive(concurrency, sessions, warmupCalls, null, null);
+
+        long[] latencies = new long[calls];
+        Map<String, Integer> errors = new TreeMap<>();
+        long start = System.nanoTime();
+        drive(concurrency, sessions, calls, latencies, errors);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        Result result = new Result();
+        result.setConcurrency(concurrency);
+        result.setCalls(calls);
+        result.setFailed(errors.values().stream().mapToInt(Integer::intValue).sum());
+        result.setErrorCodes(errors);
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        result.setThroughput(elapsed == 0 ? 0 : calls * 1e9 / elapsed);
+        result.setP50Micros(McpToolBulkTestServiceImpl.percentile(latencies, 50) / 1000);
+        result.setP95Micros(McpToolBulkTestServiceImpl.percentile(latencies, 95) / 1000);
+        result.setP99Micros(McpToolBulkTestServiceImpl.percentile(latencies, 99) / 1000);
+        result.setMaxMicros(calls == 0 ? 0 : latencies[calls - 1] / 1000);
+        return result;
+    }
+
+    private void drive(int concurrency, int sessions, int calls, long[] latencies, Map<String, Integer> errors)
+            throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            String sessionId = "bench-session-" + worker % Math.max(1, sessions);
+            Thread thread = new Thread(() -> {
+                try {
+                    int index;
+                    while ((index = next.getAndIncrement()) < calls) {
+                        long start = System.nanoTime();
+                        Map<String, Object> result = client.testToolWithSessionId(TOOL_NUM, new HashMap<>(),
+                                sessionId);
+                        long latency = System.nanoTime() - start;
+                        if (latencies != null) {
+                            latencies[index] = latency;
+                        }
+                        if (errors != null && Boolean.TRUE.equals(result.get("isError"))) {
+                            Object code = result.get("errorCode");
+                            synchronized (errors) {
+                                errors.merge(code != null ? String.valueOf(code) : "UNKNOWN", 1, Integer::sum);
+                            }
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "mcp-bench-worker-" + worker);
+            thread.start();
+        }
+        done.await();
+    }
+
+    /**
+     * 压测结果，延迟单位为微秒
+     */
+    @Data
+    public static class Result {
+        private int concurrency;
+        private int calls;
+        private int failed;
+        private Map<String, Integer> errorCodes;
+        private long elapsedMillis;
+        private double throughput;
+        private long p50Micros;
+        private long p95Micros;
+        private long p99Micros;
+        private long maxMicros;
+
+        /**
+         * 单行摘要
+         */
+        public String summary() {
+            return String.format("concurrency=%d calls=%d failed=%d throughput=%.1f/s p50=%dus p95=%dus p99=%dus "
+                            + "max=%dus elapsed=%dms errors=%s", concurrency, calls, failed, throughput, p50Micros,
+                    p95Micros, p99Micros, maxMicros, elapsedMillis, errorCodes);
+        }
+    }
+}
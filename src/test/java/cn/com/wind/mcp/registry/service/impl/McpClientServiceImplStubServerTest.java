@@ -0,0 +1,268 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.client.StubMcpServer;
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolCall;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * McpClientServiceImpl 与嵌入式MCP桩服务器的端到端测试
+ * 覆盖真实HTTP连接上的握手、SSE解码、批量请求、会话失效和错误注入
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpClientServiceImplStubServerTest {
+
+    private StubMcpServer server;
+    private McpClientServiceImpl client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubMcpServer().start();
+        client = new McpClientLoadBenchmark(server.getUrl(), 8).getClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * 测试SSE响应：进度通知和分块写出不影响结果，业务数据完整
+     */
+    @Test
+    void testToolCall_SseWithProgressAndChunking() {
+        server.progressEvents(3).chunking(7, 0).payloadBytes(64 * 1024);
+
+        Map<String, Object> result = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertFalse((Boolean) result.get("isError"), String.valueOf(result.get("error")));
+        Map<?, ?> businessData = (Map<?, ?>) result.get("businessData");
+        assertEquals("stub_tool", businessData.get("tool"));
+        assertEquals(64 * 1024, ((String) businessData.get("padding")).length());
+    }
+
+    /**
+     * 测试JSON响应
+     */
+    @Test
+    void testToolCall_JsonResponse() {
+        server.sse(false);
+
+        Map<String, Object> result = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertFalse((Boolean) result.get("isError"), String.valueOf(result.get("error")));
+        assertNotNull(result.get("businessData"));
+    }
+
+    /**
+     * 测试同一sessionId只握手一次，initialized通知随第一个调用批量发送
+     */
+    @Test
+    void testToolCall_HandshakeOnce() {
+        for (int i = 0; i < 5; i++) {
+            client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>(), "stub-session");
+        }
+
+        assertEquals(1, server.getInitializeCalls());
+        assertEquals(5, server.getToolCalls());
+        // initialize + 5次调用，initialized通知没有单独的往返
+        assertEquals(6, server.getHttpRequests());
+    }
+
+    /**
+     * 测试服务端会话失效(404)后重新握手并重试
+     */
+    @Test
+    void testToolCall_SessionExpired() {
+        client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>(), "stub-session");
+        server.expireSessions();
+
+        Map<String, Object> result = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertFalse((Boolean) result.get("isError"), String.valueOf(result.get("error")));
+        assertEquals(2, server.getInitializeCalls());
+    }
+
+    /**
+     * 测试批量调用在一次往返中完成
+     */
+    @Test
+    void testToolsCall_Batch() {
+        List<McpToolCall> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            calls.add(new McpToolCall(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>()));
+        }
+
+        List<Map<String, Object>> results = client.testToolsWithSessionId(calls, "stub-session");
+
+        assertEquals(3, results.size());
+        results.forEach(result -> assertFalse((Boolean) result.get("isError")));
+        assertEquals(1, server.getBatchRequests());
+        assertEquals(3, server.getToolCalls());
+        assertEquals(2, server.getHttpRequests());
+    }
+
+    /**
+     * 测试服务端协商旧版本协议时不使用批量请求
+     */
+    @Test
+    void testToolsCall_OldProtocolFallsBack() {
+        server.protocolVersion("2024-11-05");
+        List<McpToolCall> calls = Arrays.asList(
+                new McpToolCall(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>()),
+                new McpToolCall(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>()));
+
+        List<Map<String, Object>> results = client.testToolsWithSessionId(calls, "stub-session");
+
+        results.forEach(result -> assertFalse((Boolean) result.get("isError")));
+        assertEquals(0, server.getBatchRequests());
+        assertEquals(2, server.getToolCalls());
+    }
+
+    /**
+     * 测试工具业务错误
+     */
+    @Test
+    void testToolCall_ToolError() {
+        server.toolErrorRate(1);
+
+        Map<String, Object> result = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertTrue((Boolean) result.get("isError"));
+        assertEquals(Integer.valueOf(500), result.get("errorCode"));
+    }
+
+    /**
+     * 测试HTTP 500
+     */
+    @Test
+    void testToolCall_HttpError() {
+        client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>(), "stub-session");
+        server.httpErrorRate(1);
+
+        Map<String, Object> result = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertTrue((Boolean) result.get("isError"));
+        assertEquals("MCP服务器无响应", result.get("error"));
+    }
+
+    /**
+     * 测试流式调用逐条收到进度通知
+     */
+    @Test
+    void testStreamTool_ProgressDelivered() throws Exception {
+        server.progressEvents(2);
+        AtomicInteger messages = new AtomicInteger();
+
+        Map<String, Object> result = client.streamToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session", message -> {
+                    messages.incrementAndGet();
+                    return true;
+                }).get(10, TimeUnit.SECONDS);
+
+        assertFalse((Boolean) result.get("isError"));
+        assertEquals(2, messages.get());
+    }
+
+    /**
+     * 测试gzip压缩的SSE和JSON响应边读边解压
+     */
+    @Test
+    void testToolCall_GzipResponse() {
+        server.compression(true).progressEvents(2).payloadBytes(32 * 1024);
+
+        Map<String, Object> sseResult = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+        server.sse(false);
+        Map<String, Object> jsonResult = client.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertFalse((Boolean) sseResult.get("isError"), String.valueOf(sseResult.get("error")));
+        assertFalse((Boolean) jsonResult.get("isError"), String.valueOf(jsonResult.get("error")));
+        Map<?, ?> businessData = (Map<?, ?>) jsonResult.get("businessData");
+        assertEquals(32 * 1024, ((String) businessData.get("padding")).length());
+    }
+
+    /**
+     * 测试响应超过大小上限时截断并返回预览，按工具名配置的上限优先
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testToolCall_ResponseTooLarge() {
+        McpClientConfig.McpProperties properties = McpClientLoadBenchmark.defaultProperties(8);
+        properties.getClient().setMaxResponseBytes(16 * 1024);
+        McpClientServiceImpl limited = new McpClientLoadBenchmark(server.getUrl(), properties).getClient();
+        server.compression(true).payloadBytes(256 * 1024);
+
+        Map<String, Object> result = limited.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                new HashMap<>(), "stub-session");
+
+        assertTrue((Boolean) result.get("isError"));
+        assertEquals("RESPONSE_TOO_LARGE", result.get("errorCode"));
+        assertEquals(Boolean.TRUE, result.get("truncated"));
+        String text = (String) ((List<Map<String, Object>>) result.get("content")).get(0).get("text");
+        assertTrue(text.startsWith("event: message"));
+        assertTrue(text.endsWith("已截断]"));
+
+        properties.getClient().getToolMaxResponseBytes().put("stub_tool", 1024L * 1024);
+        result = limited.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM, new HashMap<>(), "stub-session");
+
+        assertFalse((Boolean) result.get("isError"), String.valueOf(result.get("error")));
+    }
+
+    /**
+     * 测试JSON响应超过大小上限：同样返回RESPONSE_TOO_LARGE，不当作无响应，也不计入熔断失败
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testToolCall_JsonResponseTooLarge() {
+        McpClientConfig.McpProperties properties = McpClientLoadBenchmark.defaultProperties(8);
+        properties.getClient().setMaxResponseBytes(16 * 1024);
+        // 失败1次即熔断，超限若被计为失败，后续调用会被直接拒绝
+        properties.getClient().setCircuitMinimumCalls(1);
+        McpClientServiceImpl limited = new McpClientLoadBenchmark(server.getUrl(), properties).getClient();
+        server.sse(false).payloadBytes(256 * 1024);
+
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> result = limited.testToolWithSessionId(McpClientLoadBenchmark.TOOL_NUM,
+                    new HashMap<>(), "stub-session");
+
+            assertTrue((Boolean) result.get("isError"));
+            assertEquals("RESPONSE_TOO_LARGE", result.get("errorCode"), String.valueOf(result.get("error")));
+            String text = (String) ((List<Map<String, Object>>) result.get("content")).get(0).get("text");
+            assertTrue(text.startsWith("{"));
+        }
+    }
+
+    /**
+     * 测试tools/list
+     */
+    @Test
+    void testListTools() {
+        server.tools(Arrays.asList(StubMcpServer.tool("a"), StubMcpServer.tool("b")));
+
+        List<Map<String, Object>> tools = client.listToolsWithSessionId(null, "stub-session");
+
+        assertEquals(2, tools.size());
+        assertEquals("a", tools.get(0).get("name"));
+    }
+}
@@ -1,7 +1,17 @@
 package cn.com.wind.mcp.registry.service.impl;
 
+import cn.com.wind.mcp.registry.client.McpHttpTransport;
+import cn.com.wind.mcp.registry.client.McpSession;
+import cn.com.wind.mcp.registry.client.McpEndpointRejectedException;
+import cn.com.wind.mcp.registry.client.McpSessionExpiredException;
+import cn.com.wind.mcp.registry.client.McpSessionRegistry;
+import cn.com.wind.mcp.registry.client.McpStreamListener;
+import cn.com.wind.mcp.registry.client.McpToolSchemaValidator;
+import cn.com.wind.mcp.registry.client.WindToolEnvelope;
 import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolCall;
 import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.event.McpToolsListChangedEvent;
 import cn.com.wind.mcp.registry.service.McpToolService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,15 +23,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,7 +52,10 @@ import static org.mockito.Mockito.when;
 class McpClientServiceImplTest {
 
     @Mock
-    private RestTemplate mcpRestTemplate;
+    private McpHttpTransport mcpHttpTransport;
+
+    @Mock
+    private McpSessionRegistry mcpSessionRegistry;
 
     @Mock
     private McpClientConfig.McpProperties mcpProperties;
@@ -54,6 +72,15 @@ class McpClientServiceImplTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private AsyncTaskExecutor mcpTestExecutor;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private McpToolSchemaValidator mcpToolSchemaValidator;
+
     @InjectMocks
     private McpClientServiceImpl mcpClientService;
 
@@ -70,6 +97,14 @@ class McpClientServiceImplTest {
         when(mcpProperties.getClient()).thenReturn(clientConfig);
         when(serverConfig.getUrl()).thenReturn("http://localhost:8080/mcp");
         when(clientConfig.getClientName()).thenReturn("test-client");
+        when(mcpSessionRegistry.getOrInitialize(any(), any())).thenAnswer(
+                invocation -> initializedSession(invocation.getArgument(0)));
+    }
+
+    private McpSession initializedSession(String sessionId) {
+        McpSession session = new McpSession(sessionId);
+        session.setInitialized(true);
+        return session;
     }
 
     /**
@@ -99,9 +134,9 @@ class McpClientServiceImplTest {
      */
     @Test
     void testTestToolWithSessionId_ToolNotFound() throws Exception {
-        when(mcpToolService.getMcpToolsByNumValid(anyLong(), eq("1"))).thenReturn(Collections.emptyList());
+        when(mcpToolService.resolveValidTool(anyLong())).thenReturn(null);
         when(mcpToolService.getMcpToolById(anyLong())).thenThrow(new RuntimeException("Tool not found"));
-        when(mcpToolService.getAllMcpTools()).thenReturn(Collections.emptyList());
+        when(mcpToolService.suggestTools(anyLong())).thenReturn(Collections.emptyList());
 
         Map<String, Object> result = mcpClientService.testToolWithSessionId(999L, new HashMap<>(), "test-session");
 
@@ -119,13 +154,399 @@ class McpClientServiceImplTest {
         tool.setToolNum(100L);
         tool.setToolName("test_tool");
 
-        when(mcpToolService.getMcpToolsByNumValid(100L, "1")).thenReturn(List.of(tool));
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool);
 
         // 由于实际会发送HTTP请求,这里会失败,但可以验证工具查找逻辑
         Map<String, Object> result = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
 
         // 验证至少尝试了查询
-        verify(mcpToolService).getMcpToolsByNumValid(100L, "1");
+        verify(mcpToolService).resolveValidTool(100L);
+    }
+
+    /**
+     * 测试testToolWithSessionId - 会话失效后重新握手并重试一次
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTestToolWithSessionId_SessionExpiredRetry() throws Exception {
+        McpToolDTO tool = new McpToolDTO();
+        tool.setId(1L);
+        tool.setToolNum(100L);
+        tool.setToolName("test_tool");
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool);
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(new byte[0]);
+
+        Map<String, Object> mcpResponse = new HashMap<>();
+        mcpResponse.put("error", Map.of("code", -1, "message", "Tool execution failed"));
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any()))
+                .thenThrow(new McpSessionExpiredException("MCP会话已失效: test-session"))
+                .thenReturn(mcpResponse);
+
+        Map<String, Object> result = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+
+        assertTrue(((String) result.get("error")).contains("MCP错误"));
+        verify(mcpSessionRegistry).invalidate(eq("test-session"), any(McpSession.class));
+        verify(mcpSessionRegistry, times(2)).getOrInitialize(eq("test-session"), any());
+    }
+
+    /**
+     * 测试testToolWithSessionId - 端点熔断时快速返回带原因的错误
+     */
+    @Test
+    void testTestToolWithSessionId_EndpointRejected() throws Exception {
+        McpToolDTO tool = new McpToolDTO();
+        tool.setId(1L);
+        tool.setToolNum(100L);
+        tool.setToolName("test_tool");
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool);
+        when(objectMapper.writeValueAsBytes(any())).thenReturn(new byte[0]);
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any()))
+                .thenThrow(new McpEndpointRejectedException(McpEndpointRejectedException.Reason.CIRCUIT_OPEN,
+                        "MCP服务暂不可用(熔断中)"));
+
+        Map<String, Object> result = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+
+        assertTrue((Boolean) result.get("isError"));
+        assertEquals("CIRCUIT_OPEN", result.get("errorCode"));
+        assertTrue(((String) result.get("error")).contains("熔断"));
+    }
+
+    /**
+     * 测试testToolWithSessionId - 参数不符合inputSchema时本地返回错误，不发送请求
+     */
+    @Test
+    void testTestToolWithSessionId_InvalidArguments() throws Exception {
+        McpToolDTO tool = tool(100L, "test_tool");
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool);
+        when(clientConfig.isValidateArguments()).thenReturn(true);
+        when(mcpToolSchemaValidator.validateArguments(eq(tool), any()))
+                .thenReturn(List.of("$.code: is missing but it is required"));
+
+        Map<String, Object> result = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+
+        assertTrue((Boolean) result.get("isError"));
+        assertEquals("INVALID_ARGUMENTS", result.get("errorCode"));
+        assertEquals(List.of("$.code: is missing but it is required"), result.get("validationErrors"));
+        verify(mcpHttpTransport, times(0)).post(any(), any(), any(), any(), any());
+        verify(mcpSessionRegistry, times(0)).getOrInitialize(any(), any());
+    }
+
+    /**
+     * 测试testToolsWithSessionId - 批量调用中参数不合法的调用不进入批次
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTestToolsWithSessionId_InvalidArgumentsExcluded() throws Exception {
+        when(mcpSessionRegistry.getOrInitialize(any(), any())).thenAnswer(invocation -> {
+            McpSession session = initializedSession(invocation.getArgument(0));
+            session.setBatchSupported(true);
+            return session;
+        });
+        McpToolDTO valid = tool(100L, "tool_ok");
+        McpToolDTO invalid = tool(200L, "tool_bad_args");
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(valid);
+        when(mcpToolService.resolveValidTool(200L)).thenReturn(invalid);
+        when(clientConfig.isValidateArguments()).thenReturn(true);
+        when(mcpToolSchemaValidator.validateArguments(eq(valid), any())).thenReturn(Collections.emptyList());
+        when(mcpToolSchemaValidator.validateArguments(eq(invalid), any())).thenReturn(List.of("$.x: bad"));
+        List<Object> payloads = new ArrayList<>();
+        when(objectMapper.writeValueAsBytes(any())).thenAnswer(invocation -> {
+            payloads.add(invocation.getArgument(0));
+            return new byte[0];
+        });
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any())).thenAnswer(invocation -> {
+            Map<String, Map<String, Object>> responses = new HashMap<>();
+            for (Map<String, Object> request : (List<Map<String, Object>>) payloads.get(0)) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("id", request.get("id"));
+                response.put("result", Map.of("content", List.of(Map.of("type", "image"))));
+                responses.put(String.valueOf(request.get("id")), response);
+            }
+            return responses;
+        });
+
+        List<Map<String, Object>> results = mcpClientService.testToolsWithSessionId(List.of(
+                new McpToolCall(100L, new HashMap<>()),
+                new McpToolCall(200L, new HashMap<>())), "test-session");
+
+        assertEquals(false, results.get(0).get("isError"));
+        assertEquals("INVALID_ARGUMENTS", results.get(1).get("errorCode"));
+        assertEquals(1, ((List<?>) payloads.get(0)).size());
+    }
+
+    /**
+     * 测试testToolWithSessionIdAsync - 在执行器上运行并返回同步调用的结果
+     */
+    @Test
+    void testTestToolWithSessionIdAsync_RunsOnExecutor() throws Exception {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(mcpTestExecutor).execute(any(Runnable.class));
+
+        Map<String, Object> result = mcpClientService
+                .testToolWithSessionIdAsync(1L, new HashMap<>(), null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue((Boolean) result.get("isError"));
+        assertEquals("sessionId 不能为空", result.get("error"));
+        verify(mcpTestExecutor).execute(any(Runnable.class));
+    }
+
+    /**
+     * 测试readResponseBody - 中间消息交给listener，返回与请求id匹配的响应
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReadResponseBody_RelaysProgressToListener() throws Exception {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("method", "notifications/progress");
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", 7);
+        response.put("result", new HashMap<>());
+        when(objectMapper.readValue(any(byte[].class), eq(Map.class))).thenReturn(progress, response);
+
+        List<Map<String, Object>> relayed = new ArrayList<>();
+        McpStreamListener listener = relayed::add;
+        Map<String, Object> result = (Map<String, Object>) invokeReadResponseBody(
+                "data: {\"method\":\"notifications/progress\"}\n\ndata: {\"id\":7}\n\n", 7L, listener);
+
+        assertSame(response, result);
+        assertEquals(List.of(progress), relayed);
+    }
+
+    /**
+     * 测试readResponseBody - listener要求停止时不再读取并返回null
+     */
+    @Test
+    void testReadResponseBody_ListenerStops() throws Exception {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("method", "notifications/progress");
+        when(objectMapper.readValue(any(byte[].class), eq(Map.class))).thenReturn(progress);
+
+        Object result = invokeReadResponseBody(
+                "data: {}\n\ndata: {}\n\ndata: {}\n\n", 7L, message -> false);
+
+        assertNull(result);
+        verify(objectMapper, times(1)).readValue(any(byte[].class), eq(Map.class));
+    }
+
+    /**
+     * 测试testToolsWithSessionId - 一次批量请求，按id对应回调用顺序
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTestToolsWithSessionId_BatchDemultiplexById() throws Exception {
+        when(mcpSessionRegistry.getOrInitialize(any(), any())).thenAnswer(invocation -> {
+            McpSession session = initializedSession(invocation.getArgument(0));
+            session.setBatchSupported(true);
+            return session;
+        });
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool(100L, "tool_ok"));
+        when(mcpToolService.resolveValidTool(200L)).thenReturn(tool(200L, "tool_fail"));
+        List<Object> payloads = new ArrayList<>();
+        when(objectMapper.writeValueAsBytes(any())).thenAnswer(invocation -> {
+            payloads.add(invocation.getArgument(0));
+            return new byte[0];
+        });
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any())).thenAnswer(invocation -> {
+            // 以倒序返回，验证按id而不是按顺序对应
+            Map<String, Map<String, Object>> responses = new HashMap<>();
+            for (Map<String, Object> request : (List<Map<String, Object>>) payloads.get(0)) {
+                Map<String, Object> params = (Map<String, Object>) request.get("params");
+                Map<String, Object> response = new HashMap<>();
+                response.put("id", request.get("id"));
+                if ("tool_ok".equals(params.get("name"))) {
+                    response.put("result", Map.of("content", List.of(Map.of("type", "image"))));
+                } else {
+                    response.put("error", Map.of("code", -1, "message", "boom"));
+                }
+                responses.put(String.valueOf(request.get("id")), response);
+            }
+            return responses;
+        });
+
+        List<Map<String, Object>> results = mcpClientService.testToolsWithSessionId(List.of(
+                new McpToolCall(100L, new HashMap<>()),
+                new McpToolCall(200L, new HashMap<>()),
+                new McpToolCall(300L, new HashMap<>())), "test-session");
+
+        assertEquals(3, results.size());
+        assertEquals(false, results.get(0).get("isError"));
+        assertEquals("MCP错误: boom", results.get(1).get("error"));
+        assertTrue(((String) results.get(2).get("error")).contains("工具不存在"));
+        assertEquals(2, ((List<?>) payloads.get(0)).size());
+        verify(mcpHttpTransport, times(1)).post(any(), any(), eq("test-session"), any(), any());
+    }
+
+    /**
+     * 测试testToolWithSessionId - 待发送的initialized通知与第一个请求合并发送
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTestToolWithSessionId_PiggybacksInitializedNotification() throws Exception {
+        McpSession session = initializedSession("test-session");
+        session.setBatchSupported(true);
+        session.deferInitializedNotification();
+        when(mcpSessionRegistry.getOrInitialize(any(), any())).thenReturn(session);
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool(100L, "tool_ok"));
+        List<Object> payloads = new ArrayList<>();
+        when(objectMapper.writeValueAsBytes(any())).thenAnswer(invocation -> {
+            payloads.add(invocation.getArgument(0));
+            return new byte[0];
+        });
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any())).thenAnswer(invocation -> {
+            Object payload = payloads.get(payloads.size() - 1);
+            Map<String, Object> request = payload instanceof List
+                    ? ((List<Map<String, Object>>) payload).get(1) : (Map<String, Object>) payload;
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", request.get("id"));
+            response.put("result", Map.of("content", List.of(Map.of("type", "image"))));
+            return payload instanceof List ? Map.of(String.valueOf(request.get("id")), response) : response;
+        });
+
+        Map<String, Object> first = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+        Map<String, Object> second = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+
+        assertEquals(false, first.get("isError"));
+        assertEquals(false, second.get("isError"));
+        List<Map<String, Object>> batch = (List<Map<String, Object>>) payloads.get(0);
+        assertEquals("notifications/initialized", batch.get(0).get("method"));
+        assertEquals("tools/call", batch.get(1).get("method"));
+        assertTrue(payloads.get(1) instanceof Map);
+    }
+
+    /**
+     * 测试testToolWithSessionId - 合并发送失败后initialized通知恢复为待发送，下一个请求重新带上
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTestToolWithSessionId_InitializedNotificationRestoredOnFailure() throws Exception {
+        McpSession session = initializedSession("test-session");
+        session.setBatchSupported(true);
+        session.deferInitializedNotification();
+        when(mcpSessionRegistry.getOrInitialize(any(), any())).thenReturn(session);
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool(100L, "tool_ok"));
+        List<Object> payloads = new ArrayList<>();
+        when(objectMapper.writeValueAsBytes(any())).thenAnswer(invocation -> {
+            payloads.add(invocation.getArgument(0));
+            return new byte[0];
+        });
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any()))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenAnswer(invocation -> {
+                    List<Map<String, Object>> batch = (List<Map<String, Object>>) payloads.get(payloads.size() - 1);
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("id", batch.get(1).get("id"));
+                    response.put("result", Map.of("content", List.of(Map.of("type", "image"))));
+                    return Map.of(String.valueOf(batch.get(1).get("id")), response);
+                });
+
+        Map<String, Object> first = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+        Map<String, Object> second = mcpClientService.testToolWithSessionId(100L, new HashMap<>(), "test-session");
+
+        assertEquals(true, first.get("isError"));
+        assertEquals(false, second.get("isError"));
+        List<Map<String, Object>> retried = (List<Map<String, Object>>) payloads.get(1);
+        assertEquals("notifications/initialized", retried.get(0).get("method"));
+    }
+
+    /**
+     * 测试readBatchResponse - SSE中成组和单条推送的响应都按id收集，跳过通知
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReadBatchResponse_CollectsById() throws Exception {
+        Map<String, Object> response1 = new HashMap<>();
+        response1.put("id", 1);
+        response1.put("result", new HashMap<>());
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("method", "notifications/progress");
+        Map<String, Object> response2 = new HashMap<>();
+        response2.put("id", 2);
+        response2.put("error", Map.of("message", "boom"));
+        when(objectMapper.readValue(any(byte[].class), eq(Object.class)))
+                .thenReturn(List.of(response1, progress), response2);
+
+        java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("readBatchResponse",
+                java.io.InputStream.class, String.class, java.util.Set.class);
+        method.setAccessible(true);
+        java.io.InputStream body = new java.io.ByteArrayInputStream(
+                "data: [1]\n\ndata: {}\n\ndata: {}\n\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        Map<String, Map<String, Object>> responses = (Map<String, Map<String, Object>>) method.invoke(
+                mcpClientService, body, "text/event-stream", Set.of("1", "2"));
+
+        assertEquals(2, responses.size());
+        assertSame(response1, responses.get("1"));
+        assertSame(response2, responses.get("2"));
+        // 收齐后不再读取第三帧
+        verify(objectMapper, times(2)).readValue(any(byte[].class), eq(Object.class));
+    }
+
+    private McpToolDTO tool(Long toolNum, String toolName) {
+        McpToolDTO tool = new McpToolDTO();
+        tool.setId(toolNum);
+        tool.setToolNum(toolNum);
+        tool.setToolName(toolName);
+        return tool;
+    }
+
+    /**
+     * 测试readResponseBody - 收到工具列表变更通知时发布事件
+     */
+    @Test
+    void testReadResponseBody_PublishesToolsListChanged() throws Exception {
+        Map<String, Object> changed = new HashMap<>();
+        changed.put("method", "notifications/tools/list_changed");
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", 7);
+        response.put("result", new HashMap<>());
+        when(objectMapper.readValue(any(byte[].class), eq(Map.class))).thenReturn(changed, response);
+
+        invokeReadResponseBody("data: {}\n\ndata: {}\n\n", 7L, null);
+
+        verify(applicationEventPublisher).publishEvent(any(McpToolsListChangedEvent.class));
+    }
+
+    /**
+     * 测试listToolsWithSessionId - 按nextCursor翻页
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testListToolsWithSessionId_Paginates() throws Exception {
+        List<Object> payloads = new ArrayList<>();
+        when(objectMapper.writeValueAsBytes(any())).thenAnswer(invocation -> {
+            payloads.add(invocation.getArgument(0));
+            return new byte[0];
+        });
+        when(mcpHttpTransport.post(any(), any(), eq("test-session"), any(), any())).thenAnswer(invocation -> {
+            Map<String, Object> request = (Map<String, Object>) payloads.get(payloads.size() - 1);
+            boolean firstPage = !((Map<String, Object>) request.get("params")).containsKey("cursor");
+            Map<String, Object> result = new HashMap<>();
+            result.put("tools", List.of(Map.of("name", firstPage ? "tool_a" : "tool_b")));
+            if (firstPage) {
+                result.put("nextCursor", "page2");
+            }
+            return Map.of("id", request.get("id"), "result", result);
+        });
+
+        List<Map<String, Object>> tools = mcpClientService.listToolsWithSessionId(null, "test-session");
+
+        assertEquals(2, tools.size());
+        assertEquals("tool_b", tools.get(1).get("name"));
+        assertEquals("tools/list", ((Map<String, Object>) payloads.get(0)).get("method"));
+        assertEquals("page2", ((Map<String, Object>) ((Map<String, Object>) payloads.get(1)).get("params"))
+                .get("cursor"));
+    }
+
+    private Object invokeReadResponseBody(String sse, Object expectedId, McpStreamListener listener)
+            throws Exception {
+        java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("readResponseBody",
+                java.io.InputStream.class, String.class, Object.class, McpStreamListener.class);
+        method.setAccessible(true);
+        java.io.InputStream body = new java.io.ByteArrayInputStream(
+                sse.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        return method.invoke(mcpClientService, body, "text/event-stream", expectedId, listener);
     }
 
     /**
@@ -146,21 +567,29 @@ class McpClientServiceImplTest {
     }
 
     /**
-     * 测试isConnected - 正常情况
-     * 注意: 这个测试会尝试真实的网络连接,在单元测试中应该mock
+     * 测试isConnected - 服务器返回非200
      */
     @Test
     void testIsConnected_MockScenario() {
-        // 由于isConnected方法内部使用HttpURLConnection,这里只能测试基本逻辑
-        // 实际测试需要mock网络连接
         when(serverConfig.getUrl()).thenReturn("http://localhost:9999/invalid");
+        when(mcpHttpTransport.probe(eq("http://localhost:9999/invalid"), any())).thenReturn(404);
 
         boolean result = mcpClientService.isConnected();
 
-        // 由于URL无效,应该返回false
+        // 非200响应码,应该返回false
         assertFalse(result);
     }
 
+    /**
+     * 测试isConnected - 服务器返回200
+     */
+    @Test
+    void testIsConnected_Ok() {
+        when(mcpHttpTransport.probe(eq("http://localhost:8080/mcp"), any())).thenReturn(200);
+
+        assertTrue(mcpClientService.isConnected());
+    }
+
     /**
      * 测试getCurrentSessionId - 无RequestContext
      */
@@ -204,10 +633,6 @@ class McpClientServiceImplTest {
      */
     @Test
     void testParseSseResponse_Success() throws Exception {
-        String sseResponse
-                = "{\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"mcp_tool_error_code\\\":0,"
-                + "\\\"mcp_tool_data\\\":{\\\"result\\\":\\\"success\\\"}}\"}]}}";
-
         Map<String, Object> mcpResponse = new HashMap<>();
         Map<String, Object> result = new HashMap<>();
         List<Map<String, Object>> content = new ArrayList<>();
@@ -218,28 +643,28 @@ class McpClientServiceImplTest {
         result.put("content", content);
         mcpResponse.put("result", result);
 
-        when(objectMapper.readValue(eq(sseResponse), eq(Map.class))).thenReturn(mcpResponse);
-
         Map<String, Object> toolData = new HashMap<>();
         toolData.put("result", "success");
-        Map<String, Object> parsedContent = new HashMap<>();
-        parsedContent.put("mcp_tool_error_code", 0);
-        parsedContent.put("mcp_tool_data", toolData);
+        WindToolEnvelope envelope = new WindToolEnvelope();
+        envelope.setErrorCode(0);
+        envelope.setData(toolData);
 
         when(objectMapper.readValue(eq("{\"mcp_tool_error_code\":0,\"mcp_tool_data\":{\"result\":\"success\"}}"),
-                eq(Map.class)))
-                .thenReturn(parsedContent);
+                eq(WindToolEnvelope.class)))
+                .thenReturn(envelope);
 
         // 使用反射调用私有方法
         java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("parseSseResponse",
-                String.class);
+                Map.class);
         method.setAccessible(true);
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, sseResponse);
+        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, mcpResponse);
 
         assertNotNull(response);
         assertFalse((Boolean) response.getOrDefault("isError", true));
+        assertSame(toolData, response.get("businessData"));
+        assertEquals(0, ((Map<?, ?>) response.get("toolResponse")).get("mcp_tool_error_code"));
     }
 
     /**
@@ -247,23 +672,19 @@ class McpClientServiceImplTest {
      */
     @Test
     void testParseSseResponse_Error() throws Exception {
-        String sseResponse = "{\"error\":{\"code\":-1,\"message\":\"Tool execution failed\"}}";
-
         Map<String, Object> mcpResponse = new HashMap<>();
         Map<String, Object> error = new HashMap<>();
         error.put("code", -1);
         error.put("message", "Tool execution failed");
         mcpResponse.put("error", error);
 
-        when(objectMapper.readValue(eq(sseResponse), eq(Map.class))).thenReturn(mcpResponse);
-
         // 使用反射调用私有方法
         java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("parseSseResponse",
-                String.class);
+                Map.class);
         method.setAccessible(true);
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, sseResponse);
+        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, mcpResponse);
 
         assertNotNull(response);
         assertTrue((Boolean) response.get("isError"));
@@ -275,10 +696,6 @@ class McpClientServiceImplTest {
      */
     @Test
     void testParseSseResponse_TimeString() throws Exception {
-        String sseResponse
-                = "{\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"mcp_tool_error_code\\\":0,"
-                + "\\\"mcp_tool_data\\\":\\\"2025-10-17 15:30:00\\\"}\"}]}}";
-
         Map<String, Object> mcpResponse = new HashMap<>();
         Map<String, Object> result = new HashMap<>();
         List<Map<String, Object>> content = new ArrayList<>();
@@ -289,23 +706,21 @@ class McpClientServiceImplTest {
         result.put("content", content);
         mcpResponse.put("result", result);
 
-        when(objectMapper.readValue(eq(sseResponse), eq(Map.class))).thenReturn(mcpResponse);
-
-        Map<String, Object> parsedContent = new HashMap<>();
-        parsedContent.put("mcp_tool_error_code", 0);
-        parsedContent.put("mcp_tool_data", "2025-10-17 15:30:00");
+        WindToolEnvelope envelope = new WindToolEnvelope();
+        envelope.setErrorCode(0);
+        envelope.setData("2025-10-17 15:30:00");
 
         when(objectMapper.readValue(eq("{\"mcp_tool_error_code\":0,\"mcp_tool_data\":\"2025-10-17 15:30:00\"}"),
-                eq(Map.class)))
-                .thenReturn(parsedContent);
+                eq(WindToolEnvelope.class)))
+                .thenReturn(envelope);
 
         // 使用反射调用私有方法
         java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("parseSseResponse",
-                String.class);
+                Map.class);
         method.setAccessible(true);
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, sseResponse);
+        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, mcpResponse);
 
         assertNotNull(response);
         assertFalse((Boolean) response.getOrDefault("isError", true));
@@ -318,15 +733,43 @@ class McpClientServiceImplTest {
         }
     }
 
+    /**
+     * 测试parseSseResponse - 字符串形式的业务数据在读取时才解析
+     */
+    @Test
+    void testParseSseResponse_BusinessDataParsedLazily() throws Exception {
+        Map<String, Object> mcpResponse = new HashMap<>();
+        Map<String, Object> textContent = new HashMap<>();
+        textContent.put("type", "text");
+        textContent.put("text", "envelope");
+        mcpResponse.put("result", Map.of("content", List.of(textContent)));
+
+        WindToolEnvelope envelope = new WindToolEnvelope();
+        envelope.setErrorCode(0);
+        envelope.setData("{\"rows\":3}");
+        when(objectMapper.readValue(eq("envelope"), eq(WindToolEnvelope.class))).thenReturn(envelope);
+        when(objectMapper.readValue(eq("{\"rows\":3}"), eq(Map.class))).thenReturn(Map.of("rows", 3));
+
+        java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("parseSseResponse",
+                Map.class);
+        method.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, mcpResponse);
+
+        assertFalse((Boolean) response.get("isError"));
+        verify(objectMapper, times(0)).readValue(eq("{\"rows\":3}"), eq(Map.class));
+
+        Map<?, ?> businessData = (Map<?, ?>) response.get("businessData");
+        assertEquals(3, businessData.get("rows"));
+        assertEquals(1, businessData.size());
+        verify(objectMapper, times(1)).readValue(eq("{\"rows\":3}"), eq(Map.class));
+    }
+
     /**
      * 测试parseSseResponse - 工具执行错误
      */
     @Test
     void testParseSseResponse_ToolExecutionError() throws Exception {
-        String sseResponse
-                = "{\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"mcp_tool_error_code\\\":500,"
-                + "\\\"mcp_tool_error_msg\\\":\\\"Internal error\\\"}\"}]}}";
-
         Map<String, Object> mcpResponse = new HashMap<>();
         Map<String, Object> result = new HashMap<>();
         List<Map<String, Object>> content = new ArrayList<>();
@@ -337,23 +780,21 @@ class McpClientServiceImplTest {
         result.put("content", content);
         mcpResponse.put("result", result);
 
-        when(objectMapper.readValue(eq(sseResponse), eq(Map.class))).thenReturn(mcpResponse);
-
-        Map<String, Object> parsedContent = new HashMap<>();
-        parsedContent.put("mcp_tool_error_code", 500);
-        parsedContent.put("mcp_tool_error_msg", "Internal error");
+        WindToolEnvelope envelope = new WindToolEnvelope();
+        envelope.setErrorCode(500);
+        envelope.setErrorMsg("Internal error");
 
         when(objectMapper.readValue(eq("{\"mcp_tool_error_code\":500,\"mcp_tool_error_msg\":\"Internal error\"}"),
-                eq(Map.class)))
-                .thenReturn(parsedContent);
+                eq(WindToolEnvelope.class)))
+                .thenReturn(envelope);
 
         // 使用反射调用私有方法
         java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("parseSseResponse",
-                String.class);
+                Map.class);
         method.setAccessible(true);
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, sseResponse);
+        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, mcpResponse);
 
         assertNotNull(response);
         assertTrue((Boolean) response.get("isError"));
@@ -362,22 +803,20 @@ class McpClientServiceImplTest {
     }
 
     /**
-     * 测试parseSseResponse - JSON解析失败
+     * 测试parseSseResponse - 既无result也无error
      */
     @Test
-    void testParseSseResponse_ParseException() throws Exception {
-        String invalidJson = "invalid json";
-
-        when(objectMapper.readValue(eq(invalidJson), eq(Map.class)))
-                .thenThrow(new com.fasterxml.jackson.core.JsonParseException(null, "Invalid JSON"));
+    void testParseSseResponse_UnknownResponse() throws Exception {
+        Map<String, Object> mcpResponse = new HashMap<>();
+        mcpResponse.put("jsonrpc", "2.0");
 
         // 使用反射调用私有方法
         java.lang.reflect.Method method = McpClientServiceImpl.class.getDeclaredMethod("parseSseResponse",
-                String.class);
+                Map.class);
         method.setAccessible(true);
 
         @SuppressWarnings("unchecked")
-        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, invalidJson);
+        Map<String, Object> response = (Map<String, Object>) method.invoke(mcpClientService, mcpResponse);
 
         assertNotNull(response);
         assertTrue((Boolean) response.get("isError"));
@@ -394,13 +833,13 @@ class McpClientServiceImplTest {
         tool.setToolNum(100L);
         tool.setToolName("test_tool");
 
-        when(mcpToolService.getMcpToolsByNumValid(100L, "1")).thenReturn(List.of(tool));
+        when(mcpToolService.resolveValidTool(100L)).thenReturn(tool);
 
         // 传入null arguments
         Map<String, Object> result = mcpClientService.testToolWithSessionId(100L, null, "test-session");
 
         // 验证调用了service
-        verify(mcpToolService).getMcpToolsByNumValid(100L, "1");
+        verify(mcpToolService).resolveValidTool(100L);
     }
 
     /**
@@ -408,9 +847,9 @@ class McpClientServiceImplTest {
      */
     @Test
     void testTestToolWithSessionId_NegativeToolNum() throws Exception {
-        when(mcpToolService.getMcpToolsByNumValid(-1L, "1")).thenReturn(Collections.emptyList());
+        when(mcpToolService.resolveValidTool(-1L)).thenReturn(null);
         when(mcpToolService.getMcpToolById(-1L)).thenThrow(new RuntimeException("Invalid ID"));
-        when(mcpToolService.getAllMcpTools()).thenReturn(Collections.emptyList());
+        when(mcpToolService.suggestTools(anyLong())).thenReturn(Collections.emptyList());
 
         Map<String, Object> result = mcpClientService.testToolWithSessionId(-1L, new HashMap<>(), "test-session");
 
@@ -422,9 +861,9 @@ class McpClientServiceImplTest {
      */
     @Test
     void testTestToolWithSessionId_ZeroToolNum() throws Exception {
-        when(mcpToolService.getMcpToolsByNumValid(0L, "1")).thenReturn(Collections.emptyList());
+        when(mcpToolService.resolveValidTool(0L)).thenReturn(null);
         when(mcpToolService.getMcpToolById(0L)).thenThrow(new RuntimeException("Invalid ID"));
-        when(mcpToolService.getAllMcpTools()).thenReturn(Collections.emptyList());
+        when(mcpToolService.suggestTools(anyLong())).thenReturn(Collections.emptyList());
 
         Map<String, Object> result = mcpClientService.testToolWithSessionId(0L, new HashMap<>(), "test-session");
 
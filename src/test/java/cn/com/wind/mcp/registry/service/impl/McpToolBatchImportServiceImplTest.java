@@ -0,0 +1,228 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.dto.McpToolExportDto;
+import cn.com.wind.mcp.registry.dto.McpToolImportValidationResult;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBatchImportReport;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.service.McpToolBundleService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * McpToolBatchImportServiceImpl 单元测试
+ * 测试文件解析、逐条报告、跨块重复检查、dryRun和写入失败
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolBatchImportServiceImplTest {
+
+    private McpToolService mcpToolService;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private McpToolBatchImportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        mcpToolService = mock(McpToolService.class);
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        service = new McpToolBatchImportServiceImpl(mcpToolService, new ObjectMapper().findAndRegisterModules(),
+                applicationEventPublisher, 1024, 64 * 1024);
+        when(mcpToolService.validateImportBatch(anyList())).thenAnswer(invocation -> {
+            List<McpToolImportValidationResult> results = new ArrayList<>();
+            for (int i = 0; i < ((List<?>) invocation.getArgument(0)).size(); i++) {
+                results.add(McpToolImportValidationResult.success());
+            }
+            return results;
+        });
+        when(mcpToolService.importToolBatch(anyList(), anyLong(), anyString())).thenAnswer(invocation -> {
+            List<McpTool> tools = new ArrayList<>();
+            long id = 100;
+            for (Object dto : (List<?>) invocation.getArgument(0)) {
+                McpTool tool = ((McpToolExportDto) dto).getMcpTool();
+                tool.setId(id++);
+                tools.add(tool);
+            }
+            return tools;
+        });
+    }
+
+    /**
+     * 测试NDJSON导入：无效行和重复名称单独报告，其余写入
+     */
+    @Test
+    void testImportTools_NdjsonReportsPerLine() throws Exception {
+        String ndjson = line("tool_a") + "{broken\n\n" + line("TOOL_A") + line("tool_b");
+
+        McpToolBatchImportReport report = service.importTools(stream(ndjson),
+                McpToolBundleService.FORMAT_NDJSON, false, 1L, "tester");
+
+        assertEquals(4, report.getTotal());
+        assertEquals(2, report.getSucceeded());
+        assertEquals(2, report.getFailed());
+        assertEquals(Long.valueOf(100L), report.getItems().get(0).getToolId());
+        assertEquals("line 2", report.getItems().get(1).getSource());
+        assertFalse(report.getItems().get(1).getErrors().isEmpty());
+        assertTrue(report.getItems().get(2).getErrors().get(0).contains("重复"));
+        assertTrue(report.getItems().get(3).isSuccess());
+        verify(mcpToolService, times(1)).importToolBatch(anyList(), eq(1L), eq("tester"));
+    }
+
+    /**
+     * 测试超过一块时分块校验写入，跨块的重复名称同样被识别
+     */
+    @Test
+    void testImportTools_ChunksAndCrossChunkDuplicate() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < McpToolBatchImportServiceImpl.CHUNK_SIZE; i++) {
+            ndjson.append(line("tool_" + i));
+        }
+        ndjson.append(line("tool_0"));
+
+        McpToolBatchImportReport report = service.importTools(stream(ndjson.toString()),
+                McpToolBundleService.FORMAT_NDJSON, false, 1L, "tester");
+
+        assertEquals(McpToolBatchImportServiceImpl.CHUNK_SIZE, report.getSucceeded());
+        assertEquals(1, report.getFailed());
+        verify(mcpToolService, times(2)).validateImportBatch(anyList());
+        verify(mcpToolService, times(1)).importToolBatch(anyList(), anyLong(), anyString());
+    }
+
+    /**
+     * 测试多块写入后只发布一次整体变更事件
+     */
+    @Test
+    void testImportTools_PublishesOnceAfterAllChunks() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < McpToolBatchImportServiceImpl.CHUNK_SIZE * 2 + 1; i++) {
+            ndjson.append(line("tool_" + i));
+        }
+
+        service.importTools(stream(ndjson.toString()), McpToolBundleService.FORMAT_NDJSON, false, 1L, "tester");
+
+        verify(mcpToolService, times(3)).importToolBatch(anyList(), anyLong(), anyString());
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher, times(1)).publishEvent(event.capture());
+        assertNull(((McpToolChangedEvent) event.getValue()).getId());
+    }
+
+    /**
+     * 测试dryRun只校验不写入
+     */
+    @Test
+    void testImportTools_DryRunDoesNotWrite() throws Exception {
+        McpToolBatchImportReport report = service.importTools(stream(line("tool_a")),
+                McpToolBundleService.FORMAT_NDJSON, true, 1L, "tester");
+
+        assertTrue(report.isDryRun());
+        assertEquals(1, report.getSucceeded());
+        assertNull(report.getItems().get(0).getToolId());
+        verify(mcpToolService, never()).importToolBatch(anyList(), anyLong(), anyString());
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * 测试ZIP导入每个json文件一条，写入失败时整块标记失败
+     */
+    @Test
+    void testImportTools_ZipWriteFailure() throws Exception {
+        when(mcpToolService.importToolBatch(anyList(), anyLong(), anyString()))
+                .thenThrow(new RuntimeException("Duplicate entry"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String name : new String[]{"tool_a", "tool_b"}) {
+                zip.putNextEntry(new ZipEntry("mcp-tool-" + name + ".json"));
+                zip.write(line(name).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.putNextEntry(new ZipEntry("README.txt"));
+            zip.closeEntry();
+        }
+
+        McpToolBatchImportReport report = service.importTools(new ByteArrayInputStream(bytes.toByteArray()),
+                McpToolBundleService.FORMAT_ZIP, false, 1L, "tester");
+
+        assertEquals(2, report.getTotal());
+        assertEquals(2, report.getFailed());
+        assertEquals("mcp-tool-tool_b.json", report.getItems().get(1).getSource());
+        assertTrue(report.getItems().get(0).getErrors().get(0).contains("Duplicate entry"));
+    }
+
+    /**
+     * 测试ZIP中解压后超过单文件上限的文件记为失败，其余文件照常导入
+     */
+    @Test
+    void testImportTools_ZipEntryTooLarge() throws Exception {
+        when(mcpToolService.importToolBatch(anyList(), anyLong(), anyString())).thenAnswer(invocation -> {
+            List<McpTool> tools = new ArrayList<>();
+            for (int i = 0; i < ((List<?>) invocation.getArgument(0)).size(); i++) {
+                tools.add(new McpTool());
+            }
+            return tools;
+        });
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("mcp-tool-big.json"));
+            zip.write(new byte[4096]);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("mcp-tool-tool_a.json"));
+            zip.write(line("tool_a").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        McpToolBatchImportReport report = service.importTools(new ByteArrayInputStream(bytes.toByteArray()),
+                McpToolBundleService.FORMAT_ZIP, false, 1L, "tester");
+
+        assertEquals(2, report.getTotal());
+        assertEquals(1, report.getSucceeded());
+        assertTrue(report.getItems().get(0).getErrors().get(0).contains("上限"));
+    }
+
+    /**
+     * 测试ZIP解压后总量超过上限(压缩炸弹)时终止导入
+     */
+    @Test
+    void testImportTools_ZipTotalTooLarge() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < 100; i++) {
+                zip.putNextEntry(new ZipEntry("mcp-tool-bomb-" + i + ".json"));
+                zip.write(new byte[1024 * 1024]);
+                zip.closeEntry();
+            }
+        }
+
+        assertThrows(RuntimeException.class, () -> service.importTools(
+                new ByteArrayInputStream(bytes.toByteArray()), McpToolBundleService.FORMAT_ZIP, false, 1L, "tester"));
+        verify(mcpToolService, never()).importToolBatch(anyList(), anyLong(), anyString());
+    }
+
+    private static String line(String toolName) {
+        return "{\"mcpTool\":{\"toolName\":\"" + toolName + "\",\"convertType\":\"3\"}}\n";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
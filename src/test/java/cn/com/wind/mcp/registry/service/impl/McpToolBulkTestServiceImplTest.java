@@ -0,0 +1,295 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestJob;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestReport;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBulkTestRequest;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import cn.com.wind.mcp.registry.service.McpTestSuccessRecordService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.VserverItemsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * McpToolBulkTestServiceImpl 单元测试
+ * 测试分位数计算、结果汇总、批量执行和后台任务
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolBulkTestServiceImplTest {
+
+    private McpClientService mcpClientService;
+    private McpToolBulkTestServiceImpl bulkTestService;
+
+    @BeforeEach
+    void setUp() {
+        mcpClientService = mock(McpClientService.class);
+        bulkTestService = new McpToolBulkTestServiceImpl(mcpClientService, mock(McpToolService.class),
+                mock(VserverItemsService.class), mock(McpTestSuccessRecordService.class),
+                new McpClientConfig.McpProperties());
+    }
+
+    /**
+     * 测试percentile - 最近秩法
+     */
+    @Test
+    void testPercentile() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertEquals(50, McpToolBulkTestServiceImpl.percentile(sorted, 50));
+        assertEquals(95, McpToolBulkTestServiceImpl.percentile(sorted, 95));
+        assertEquals(99, McpToolBulkTestServiceImpl.percentile(sorted, 99));
+        assertEquals(7, McpToolBulkTestServiceImpl.percentile(new long[] {7}, 99));
+        assertEquals(0, McpToolBulkTestServiceImpl.percentile(new long[0], 50));
+    }
+
+    /**
+     * 测试summarize - 成功率和错误代码分布
+     */
+    @Test
+    void testSummarize() {
+        List<McpToolBulkTestReport.Run> runs = new ArrayList<>();
+        runs.add(run(true, "0", 10));
+        runs.add(run(true, "0", 30));
+        runs.add(run(false, "500", 20));
+        runs.add(run(false, "UNKNOWN", 40));
+
+        McpToolBulkTestReport report = McpToolBulkTestServiceImpl.summarize(runs);
+
+        assertEquals(4, report.getTotal());
+        assertEquals(2, report.getSucceeded());
+        assertEquals(0.5, report.getSuccessRate());
+        assertEquals(20, report.getP50());
+        assertEquals(40, report.getMaxLatency());
+        assertEquals(2, (int) report.getErrorCodeHistogram().get("0"));
+        assertEquals(1, (int) report.getErrorCodeHistogram().get("500"));
+    }
+
+    /**
+     * 测试run - 每个工具按每组参数各调用一次
+     */
+    @Test
+    void testRun_ToolsTimesArgumentSets() {
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        Map<String, Object> failed = new HashMap<>();
+        failed.put("isError", true);
+        failed.put("errorCode", 500);
+        when(mcpClientService.testToolWithSessionIdAsync(eq(1L), any(), eq("s1")))
+                .thenReturn(CompletableFuture.completedFuture(ok));
+        when(mcpClientService.testToolWithSessionIdAsync(eq(2L), any(), eq("s1")))
+                .thenReturn(CompletableFuture.completedFuture(failed));
+
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(List.of(1L, 2L));
+        request.setArgumentSets(List.of(new HashMap<>(), Map.of("a", 1)));
+        request.setParallelism(2);
+
+        McpToolBulkTestReport report = bulkTestService.run(request, "s1", null, null);
+
+        assertEquals(4, report.getTotal());
+        assertEquals(2, report.getSucceeded());
+        assertEquals(2, (int) report.getErrorCodeHistogram().get("500"));
+        verify(mcpClientService, times(4)).testToolWithSessionIdAsync(anyLong(), any(), eq("s1"));
+    }
+
+    /**
+     * 测试run - 按批大小合并为批量调用，结果按顺序对应
+     */
+    @Test
+    void testRun_BatchSize() {
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        Map<String, Object> failed = new HashMap<>();
+        failed.put("isError", true);
+        failed.put("errorCode", 500);
+        when(mcpClientService.testToolsWithSessionIdAsync(any(), eq("s1")))
+                .thenReturn(CompletableFuture.completedFuture(List.of(ok, failed)))
+                .thenReturn(CompletableFuture.completedFuture(List.of(ok)));
+
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(List.of(1L, 2L, 3L));
+        request.setBatchSize(2);
+        request.setParallelism(1);
+
+        McpToolBulkTestReport report = bulkTestService.run(request, "s1", null, null);
+
+        assertEquals(3, report.getTotal());
+        assertEquals(2, report.getSucceeded());
+        assertEquals(Long.valueOf(2L), report.getRuns().get(1).getToolNum());
+        assertEquals("500", report.getRuns().get(1).getErrorCode());
+        verify(mcpClientService, times(2)).testToolsWithSessionIdAsync(any(), eq("s1"));
+    }
+
+    /**
+     * 测试run - 被端点并发限制拒绝(OVERLOADED)的调用退避后重试，不计为失败
+     */
+    @Test
+    void testRun_RetriesOverloaded() {
+        Map<String, Object> overloaded = new HashMap<>();
+        overloaded.put("isError", true);
+        overloaded.put("errorCode", "OVERLOADED");
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        when(mcpClientService.testToolWithSessionIdAsync(eq(1L), any(), eq("s1")))
+                .thenReturn(CompletableFuture.completedFuture(overloaded))
+                .thenReturn(CompletableFuture.completedFuture(ok));
+
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(List.of(1L));
+
+        McpToolBulkTestReport report = bulkTestService.run(request, "s1", null, null);
+
+        assertEquals(1, report.getSucceeded());
+        assertEquals(1, report.getOverloadRetries());
+        assertFalse(report.getErrorCodeHistogram().containsKey("OVERLOADED"));
+        verify(mcpClientService, times(2)).testToolWithSessionIdAsync(eq(1L), any(), eq("s1"));
+    }
+
+    /**
+     * 测试执行器拒绝 - 按限流退避重试，不计为失败
+     */
+    @Test
+    void testRun_RetriesRejectedSubmission() {
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        when(mcpClientService.testToolWithSessionIdAsync(eq(1L), any(), eq("s1")))
+                .thenThrow(new TaskRejectedException("busy"))
+                .thenReturn(CompletableFuture.completedFuture(ok));
+
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(List.of(1L));
+
+        McpToolBulkTestReport report = bulkTestService.run(request, "s1", null, null);
+
+        assertEquals(1, report.getSucceeded());
+        assertEquals(1, report.getOverloadRetries());
+        assertFalse(report.getErrorCodeHistogram().containsKey("EXCEPTION"));
+    }
+
+    /**
+     * 测试调用同步完成 - 大批量逐个补发时不会递归过深
+     */
+    @Test
+    void testRun_SynchronousCompletionManyRuns() {
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        when(mcpClientService.testToolWithSessionIdAsync(anyLong(), any(), eq("s1")))
+                .thenReturn(CompletableFuture.completedFuture(ok));
+
+        List<Long> toolNums = new ArrayList<>();
+        for (long i = 1; i <= 5000; i++) {
+            toolNums.add(i);
+        }
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(toolNums);
+        request.setParallelism(1);
+
+        McpToolBulkTestReport report = bulkTestService.run(request, "s1", null, null);
+
+        assertEquals(5000, report.getTotal());
+        assertEquals(5000, report.getSucceeded());
+    }
+
+    /**
+     * 测试submit - 运行中的任务数达到上限时拒绝提交，任务结束后释放名额
+     */
+    @Test
+    void testSubmit_RunningJobsCapped() throws Exception {
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+        when(mcpClientService.testToolWithSessionIdAsync(eq(1L), any(), eq("s1"))).thenAnswer(invocation -> {
+            CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        });
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(List.of(1L));
+
+        List<McpToolBulkTestJob> submitted = new ArrayList<>();
+        for (int i = 0; i < McpToolBulkTestServiceImpl.MAX_RUNNING_JOBS; i++) {
+            submitted.add(bulkTestService.submit(request, "s1", null, null));
+        }
+        assertThrows(RuntimeException.class, () -> bulkTestService.submit(request, "s1", null, null));
+
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        futures.get(0).complete(ok);
+        submitted.get(0).getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertNotNull(bulkTestService.submit(request, "s1", null, null));
+    }
+
+    /**
+     * 测试submit - 立即返回任务，调用结束后任务带有报告
+     */
+    @Test
+    void testSubmit_ReportOnCompletion() throws Exception {
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        when(mcpClientService.testToolWithSessionIdAsync(eq(1L), any(), eq("s1"))).thenReturn(future);
+
+        McpToolBulkTestRequest request = new McpToolBulkTestRequest();
+        request.setToolNums(List.of(1L));
+
+        McpToolBulkTestJob job = bulkTestService.submit(request, "s1", null, null);
+
+        assertNotNull(job.getJobId());
+        assertEquals(1, job.getTotal());
+        assertSame(job, bulkTestService.getJob(job.getJobId()));
+        assertEquals(McpToolBulkTestJob.Status.RUNNING, job.getStatus());
+
+        Map<String, Object> ok = new HashMap<>();
+        ok.put("isError", false);
+        future.complete(ok);
+
+        McpToolBulkTestJob done = job.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(McpToolBulkTestJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(1, done.getCompleted().get());
+        assertEquals(1, done.getReport().getSucceeded());
+        assertNotNull(done.getFinishTime());
+    }
+
+    /**
+     * 测试submit - 没有工具时提交即失败，不生成任务
+     */
+    @Test
+    void testSubmit_NoTools() {
+        assertThrows(RuntimeException.class,
+                () -> bulkTestService.submit(new McpToolBulkTestRequest(), "s1", null, null));
+    }
+
+    /**
+     * 测试run - 没有工具
+     */
+    @Test
+    void testRun_NoTools() {
+        assertThrows(RuntimeException.class,
+                () -> bulkTestService.run(new McpToolBulkTestRequest(), "s1", null, null));
+    }
+
+    private McpToolBulkTestReport.Run run(boolean success, String errorCode, long latency) {
+        McpToolBulkTestReport.Run run = new McpToolBulkTestReport.Run();
+        run.setSuccess(success);
+        run.setErrorCode(errorCode);
+        run.setLatency(latency);
+        return run;
+    }
+}
@@ -0,0 +1,178 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolBundle;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolExportFilter;
+import cn.com.wind.mcp.registry.entity.HttpTemplateConverter;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolBundleMapper;
+import cn.com.wind.mcp.registry.service.McpToolBundleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * McpToolBundleServiceImpl 单元测试
+ * 测试多版本转换模板择优、批量顺序、读缓存和流式导出
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolBundleServiceImplTest {
+
+    private McpToolBundleMapper mcpToolBundleMapper;
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        mcpToolBundleMapper = mock(McpToolBundleMapper.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+    }
+
+    /**
+     * 测试同一工具多行时优先取版本一致的转换模板
+     */
+    @Test
+    void testGetBundle_PrefersConverterOfToolVersion() {
+        when(mcpToolBundleMapper.selectByToolIds(anyCollection())).thenReturn(Arrays.asList(
+                row(1L, 2L, 10L, 1L), row(1L, 2L, 11L, 2L), row(1L, 2L, 12L, 3L)));
+        McpToolBundleServiceImpl service = new McpToolBundleServiceImpl(mcpToolBundleMapper, objectMapper, 0);
+
+        McpToolBundle bundle = service.getBundle(1L);
+
+        assertEquals(Long.valueOf(11L), bundle.getHttpTemplateConverter().getId());
+        assertNull(service.getBundle(null));
+    }
+
+    /**
+     * 测试批量加载按传入顺序返回，不存在的工具不包含在内，超过批大小时分批查询
+     */
+    @Test
+    void testGetBundles_OrderAndBatches() {
+        when(mcpToolBundleMapper.selectByToolIds(anyCollection())).thenAnswer(invocation -> {
+            List<McpToolBundle> rows = new ArrayList<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                if ((Long) id % 2 == 0) {
+                    rows.add(row((Long) id, 1L, null, null));
+                }
+            }
+            return rows;
+        });
+        McpToolBundleServiceImpl service = new McpToolBundleServiceImpl(mcpToolBundleMapper, objectMapper, 0);
+        List<Long> ids = new ArrayList<>();
+        for (long id = McpToolBundleServiceImpl.BATCH_SIZE + 10; id > 0; id--) {
+            ids.add(id);
+        }
+
+        Map<Long, McpToolBundle> bundles = service.getBundles(ids);
+
+        assertEquals((McpToolBundleServiceImpl.BATCH_SIZE + 10) / 2, bundles.size());
+        assertEquals(Long.valueOf(McpToolBundleServiceImpl.BATCH_SIZE + 10), bundles.keySet().iterator().next());
+        verify(mcpToolBundleMapper, times(2)).selectByToolIds(anyCollection());
+    }
+
+    /**
+     * 测试开启缓存后命中不查库，工具变更后重新加载
+     */
+    @Test
+    void testGetBundle_CacheInvalidatedOnChange() {
+        when(mcpToolBundleMapper.selectByToolIds(anyCollection()))
+                .thenReturn(Collections.singletonList(row(1L, 1L, 10L, 1L)));
+        McpToolBundleServiceImpl service = new McpToolBundleServiceImpl(mcpToolBundleMapper, objectMapper, 60000);
+
+        service.getBundle(1L);
+        service.getBundle(1L);
+        verify(mcpToolBundleMapper, times(1)).selectByToolIds(anyCollection());
+
+        service.onMcpToolChanged(new McpToolChangedEvent(1L, 100L));
+        service.getBundle(1L);
+        verify(mcpToolBundleMapper, times(2)).selectByToolIds(anyCollection());
+    }
+
+    /**
+     * 测试NDJSON导出每个工具一行，同一工具的多行只输出择优后的一行，类型过滤转换为库中取值
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportBundles_NdjsonDedupesRows() throws Exception {
+        Cursor<McpToolBundle> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(Arrays.asList(
+                row(1L, 2L, 10L, 1L), row(1L, 2L, 11L, 2L), row(2L, 1L, null, null)).iterator());
+        when(mcpToolBundleMapper.selectBundleCursor(any(), anyCollection(), isNull())).thenReturn(cursor);
+        McpToolBundleServiceImpl service = new McpToolBundleServiceImpl(mcpToolBundleMapper, objectMapper, 0);
+        McpToolExportFilter filter = new McpToolExportFilter();
+        filter.setConvertType("http");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = service.exportBundles(filter, McpToolBundleService.FORMAT_NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2L, count);
+        assertEquals(2, lines.length);
+        assertEquals(11L, objectMapper.readTree(lines[0]).path("httpTemplateConverter").path("id").asLong());
+        assertEquals(2L, objectMapper.readTree(lines[1]).path("mcpTool").path("id").asLong());
+        verify(mcpToolBundleMapper).selectBundleCursor(eq(filter), eq(Arrays.asList("1", "http")), isNull());
+        verify(cursor).close();
+    }
+
+    /**
+     * 测试ZIP导出每个工具一个文件
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportBundles_ZipEntryPerTool() throws Exception {
+        Cursor<McpToolBundle> cursor = mock(Cursor.class);
+        McpToolBundle first = row(1L, 1L, null, null);
+        first.getMcpTool().setToolName("weather query");
+        when(cursor.iterator()).thenReturn(Arrays.asList(first, row(2L, 1L, null, null)).iterator());
+        when(mcpToolBundleMapper.selectBundleCursor(any(), isNull(), isNull())).thenReturn(cursor);
+        McpToolBundleServiceImpl service = new McpToolBundleServiceImpl(mcpToolBundleMapper, objectMapper, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2L, service.exportBundles(new McpToolExportFilter(), McpToolBundleService.FORMAT_ZIP, out));
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                names.add(entry.getName());
+            }
+        }
+        assertEquals(Arrays.asList("mcp-tool-weather_query-1.json", "mcp-tool-tool-2.json"), names);
+    }
+
+    private static McpToolBundle row(Long toolId, Long toolVersion, Long converterId, Long converterVersion) {
+        McpTool tool = new McpTool();
+        tool.setId(toolId);
+        tool.setToolVersion(toolVersion);
+        McpToolBundle bundle = new McpToolBundle();
+        bundle.setMcpTool(tool);
+        if (converterId != null) {
+            HttpTemplateConverter converter = new HttpTemplateConverter();
+            converter.setId(converterId);
+            converter.setToolVersion(converterVersion);
+            bundle.setHttpTemplateConverter(converter);
+        }
+        return bundle;
+    }
+}
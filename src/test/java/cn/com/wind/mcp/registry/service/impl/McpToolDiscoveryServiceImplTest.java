@@ -0,0 +1,197 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDriftReport;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.VirtualServer;
+import cn.com.wind.mcp.registry.entity.VserverItems;
+import cn.com.wind.mcp.registry.event.McpToolsListChangedEvent;
+import cn.com.wind.mcp.registry.mapper.VirtualServerMapper;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import cn.com.wind.mcp.registry.service.VserverItemsService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * McpToolDiscoveryServiceImpl 单元测试
+ * 测试虚拟服务器可见性校验、工具列表缓存、变更通知刷新和注册表对账
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolDiscoveryServiceImplTest {
+
+    private static final String VSERVER_URL = "http://mcp.example.com/Wind.MCP.Server/vserver/vs1/mcp/";
+
+    private McpClientService mcpClientService;
+    private McpToolService mcpToolService;
+    private VserverItemsService vserverItemsService;
+    private VirtualServerMapper virtualServerMapper;
+    private McpToolDiscoveryServiceImpl discoveryService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mcpClientService = mock(McpClientService.class);
+        mcpToolService = mock(McpToolService.class);
+        vserverItemsService = mock(VserverItemsService.class);
+        virtualServerMapper = mock(VirtualServerMapper.class);
+        when(virtualServerMapper.selectOne(any(QueryWrapper.class)))
+                .thenReturn(new VirtualServer().setVserverId("vs1").setUserid("u1"));
+        McpClientConfig.McpProperties properties = new McpClientConfig.McpProperties();
+        properties.getServer().setUrl("http://mcp.example.com/Wind.MCP.Server/vserver/vserver_test/mcp/");
+        discoveryService = new McpToolDiscoveryServiceImpl(mcpClientService, mcpToolService, vserverItemsService,
+                virtualServerMapper, properties, new ObjectMapper());
+    }
+
+    /**
+     * 测试listTools - 按虚拟服务器地址获取并缓存
+     */
+    @Test
+    void testListTools_Cached() {
+        when(mcpClientService.listToolsWithSessionId(VSERVER_URL, "s1"))
+                .thenReturn(List.of(Map.of("name", "tool_a")));
+
+        discoveryService.listTools("vs1", "u1", "s1", false);
+        discoveryService.listTools("vs1", "u1", "s1", false);
+        assertEquals(1, discoveryService.listTools("vs1", "u1", "s1", false).getTools().size());
+
+        verify(mcpClientService, times(1)).listToolsWithSessionId(VSERVER_URL, "s1");
+    }
+
+    /**
+     * 测试listTools - 不同会话不共享缓存
+     */
+    @Test
+    void testListTools_CachedPerSession() {
+        when(mcpClientService.listToolsWithSessionId(eq(VSERVER_URL), anyString())).thenReturn(List.of());
+
+        discoveryService.listTools("vs1", "u1", "s1", false);
+        discoveryService.listTools("vs1", "u1", "s2", false);
+        discoveryService.listTools("vs1", "u1", "s1", false);
+
+        verify(mcpClientService, times(1)).listToolsWithSessionId(VSERVER_URL, "s1");
+        verify(mcpClientService, times(1)).listToolsWithSessionId(VSERVER_URL, "s2");
+    }
+
+    /**
+     * 测试listTools - 不存在或未启用的虚拟服务器，不调用MCP服务器
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testListTools_UnknownVserver() {
+        when(virtualServerMapper.selectOne(any(QueryWrapper.class))).thenReturn(null);
+
+        assertThrows(RuntimeException.class, () -> discoveryService.listTools("nope", "u1", "s1", false));
+        assertThrows(RuntimeException.class, () -> discoveryService.listTools("x".repeat(200), "u1", "s1", false));
+
+        verify(mcpClientService, never()).listToolsWithSessionId(any(), any());
+    }
+
+    /**
+     * 测试listTools - 其他用户的虚拟服务器不可见，已缓存的结果也不返回；全局用户可见
+     */
+    @Test
+    void testListTools_NotVisible() {
+        when(mcpClientService.listToolsWithSessionId(VSERVER_URL, "s1")).thenReturn(List.of());
+        discoveryService.listTools("vs1", "u1", "s1", false);
+
+        assertThrows(RuntimeException.class, () -> discoveryService.listTools("vs1", "u2", "s1", false));
+        assertThrows(RuntimeException.class, () -> discoveryService.listTools("vs1", null, "s1", false));
+        discoveryService.listTools("vs1", "pczhou", "s1", false);
+
+        verify(mcpClientService, times(1)).listToolsWithSessionId(VSERVER_URL, "s1");
+    }
+
+    /**
+     * 测试list_changed通知和refresh - 重新获取
+     */
+    @Test
+    void testListTools_RefreshedOnChange() {
+        when(mcpClientService.listToolsWithSessionId(VSERVER_URL, "s1")).thenReturn(List.of());
+
+        discoveryService.listTools("vs1", "u1", "s1", false);
+        discoveryService.onToolsListChanged(new McpToolsListChangedEvent());
+        discoveryService.listTools("vs1", "u1", "s1", false);
+        discoveryService.listTools("vs1", "u1", "s1", true);
+        discoveryService.invalidate("vs1");
+        discoveryService.listTools("vs1", "u1", "s1", false);
+
+        verify(mcpClientService, times(4)).listToolsWithSessionId(VSERVER_URL, "s1");
+    }
+
+    /**
+     * 测试reconcile - 缺失、多出和参数定义漂移
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReconcile() {
+        Map<String, Object> schema = Map.of("type", "object", "properties", Map.of("code", Map.of("type", "string")));
+        when(mcpClientService.listToolsWithSessionId(eq(VSERVER_URL), eq("s1"))).thenReturn(List.of(
+                Map.of("name", "same", "inputSchema", schema),
+                Map.of("name", "drifted", "inputSchema", Map.of("type", "object")),
+                Map.of("name", "extra", "inputSchema", schema)));
+        when(vserverItemsService.list(any(QueryWrapper.class))).thenReturn(List.of(
+                new VserverItems().setMcpItemNum(1L),
+                new VserverItems().setMcpItemNum(2L),
+                new VserverItems().setMcpItemNum(3L)));
+        when(mcpToolService.list(any(QueryWrapper.class))).thenReturn(List.of(
+                tool(1L, 1L, "same", "{\"properties\":{\"code\":{\"type\":\"string\"}},\"type\":\"object\"}"),
+                tool(2L, 1L, "drifted", "{\"type\":\"object\",\"required\":[\"code\"]}"),
+                tool(3L, 1L, "old_name", "{}"),
+                tool(3L, 2L, "missing", "{}")));
+
+        McpToolDriftReport report = discoveryService.reconcile("vs1", "u1", "s1", false);
+
+        assertEquals(3, report.getLiveCount());
+        assertEquals(3, report.getRegisteredCount());
+        assertEquals(1, report.getMissing().size());
+        assertEquals("missing", report.getMissing().get(0).getToolName());
+        assertEquals(1, report.getExtra().size());
+        assertEquals("extra", report.getExtra().get(0).getToolName());
+        assertNull(report.getExtra().get(0).getToolNum());
+        assertEquals(1, report.getSchemaDrifted().size());
+        assertEquals(Long.valueOf(2L), report.getSchemaDrifted().get(0).getToolNum());
+    }
+
+    /**
+     * 测试虚拟服务器地址解析
+     */
+    @Test
+    void testResolveVserverUrl() {
+        McpClientConfig.McpProperties.Server server = new McpClientConfig.McpProperties.Server();
+        server.setUrl("http://h/Wind.MCP.Server/vserver/vserver_test/mcp/");
+        assertEquals("http://h/Wind.MCP.Server/vserver/abc/mcp/", server.resolveVserverUrl("abc"));
+        assertEquals("http://h/Wind.MCP.Server/vserver/a%2F..%3Fx%23y/mcp/", server.resolveVserverUrl("a/..?x#y"));
+
+        server.setUrl("http://h/mcp");
+        assertEquals("http://h/mcp", server.resolveVserverUrl("abc"));
+    }
+
+    private McpTool tool(Long toolNum, Long version, String name, String inputSchema) {
+        McpTool tool = new McpTool();
+        tool.setToolNum(toolNum);
+        tool.setToolVersion(version);
+        tool.setToolName(name);
+        tool.setInputSchema(inputSchema);
+        return tool;
+    }
+}
@@ -1,10 +1,18 @@
 package cn.com.wind.mcp.registry.service.impl;
 
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolDTO;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolSearchResult;
 import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import cn.com.wind.mcp.registry.search.McpToolSearchIndex;
 import cn.com.wind.mcp.registry.service.ToolValidationService;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
@@ -27,13 +35,21 @@ class McpToolServiceImplTest {
 
     private McpToolServiceImpl service;
     private ToolValidationService toolValidationService;
+    private McpToolMapper mcpToolMapper;
+    private McpToolSearchIndex mcpToolSearchIndex;
 
     @BeforeEach
     void setUp() {
         service = spy(new McpToolServiceImpl());
         toolValidationService = mock(ToolValidationService.class);
+        mcpToolMapper = mock(McpToolMapper.class);
         // 使用反射注入private字段
         ReflectionTestUtils.setField(service, "toolValidationService", toolValidationService);
+        ReflectionTestUtils.setField(service, "mcpToolMapper", mcpToolMapper);
+        ReflectionTestUtils.setField(service, "applicationEventPublisher", mock(ApplicationEventPublisher.class));
+        // 索引未构建，搜索回退到数据库查询
+        mcpToolSearchIndex = new McpToolSearchIndex(mcpToolMapper);
+        ReflectionTestUtils.setField(service, "mcpToolSearchIndex", mcpToolSearchIndex);
     }
 
     /**
@@ -74,6 +90,66 @@ class McpToolServiceImplTest {
         assertEquals("test_tool", result.get(0).getToolName());
     }
 
+    /**
+     * 测试搜索工具 - 索引就绪后按索引命中顺序分页返回，不再走模糊查询
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchToolPage_UsesIndex() {
+        McpTool first = indexedTool(1L, 10L, "stock_quote", "{\"zh\": \"股票行情\"}");
+        McpTool second = indexedTool(2L, 10L, "stock_history", "{\"zh\": \"股票历史\"}");
+        McpTool other = indexedTool(3L, 20L, "stock_news", "{\"zh\": \"股票新闻\"}");
+        when(mcpToolMapper.selectList(any())).thenReturn(Arrays.asList(first, second, other));
+        mcpToolSearchIndex.rebuild();
+        ArgumentCaptor<QueryWrapper<McpTool>> wrapperCaptor = ArgumentCaptor.forClass(QueryWrapper.class);
+        doReturn(Arrays.asList(second, first)).when(service).list(wrapperCaptor.capture());
+
+        IPage<McpTool> result = service.searchToolPage("股票", 10L, 1, 20);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(Long.valueOf(1L), result.getRecords().get(0).getId());
+        assertEquals(Long.valueOf(2L), result.getRecords().get(1).getId());
+        verify(service, never()).page(any(), any());
+        // 只查询摘要列，不加载input_schema、output_schema
+        String sqlSelect = wrapperCaptor.getValue().getSqlSelect();
+        assertTrue(sqlSelect.contains("tool_name"));
+        assertFalse(sqlSelect.contains("input_schema"));
+        assertFalse(sqlSelect.contains("output_schema"));
+    }
+
+    /**
+     * 测试排序搜索 - 索引就绪时按相关度返回并带分面计数
+     */
+    @Test
+    void testRankedSearch_UsesIndex() {
+        McpTool nameHit = indexedTool(1L, 10L, "stock_quote", null);
+        nameHit.setConvertType("1");
+        McpTool descriptionHit = indexedTool(2L, 10L, "fund_nav", null);
+        descriptionHit.setToolDescription("stock holdings");
+        descriptionHit.setConvertType("expo");
+        when(mcpToolMapper.selectList(any())).thenReturn(Arrays.asList(nameHit, descriptionHit));
+        mcpToolSearchIndex.rebuild();
+        doReturn(Arrays.asList(descriptionHit, nameHit)).when(service).list(any(QueryWrapper.class));
+
+        McpToolSearchResult result = service.rankedSearch("stock", 10L, null, null, null, 1, 20);
+
+        assertEquals(2, result.getPage().getTotal());
+        assertEquals(Long.valueOf(1L), result.getPage().getRecords().get(0).getId());
+        assertEquals(Integer.valueOf(1), result.getFacets().get(McpToolSearchIndex.FACET_CONVERT_TYPE).get("http"));
+        assertEquals(Integer.valueOf(1), result.getFacets().get(McpToolSearchIndex.FACET_CONVERT_TYPE).get("expo"));
+        verify(service, never()).page(any(), any());
+    }
+
+    private McpTool indexedTool(Long id, Long providerId, String toolName, String nameDisplay) {
+        McpTool tool = new McpTool();
+        tool.setId(id);
+        tool.setProviderId(providerId);
+        tool.setToolName(toolName);
+        tool.setNameDisplay(nameDisplay);
+        tool.setValid("1");
+        return tool;
+    }
+
     /**
      * 测试保存或更新工具 - 验证失败
      */
@@ -126,8 +202,8 @@ class McpToolServiceImplTest {
 
         boolean result = service.saveOrUpdateWithValidation(tool);
         assertTrue(result);
-        assertNotNull(tool.getInputSchema());
-        assertTrue(tool.getInputSchema().contains("UNIQUE123"));
+        assertEquals("UNIQUE123", tool.getUniqueId());
+        assertNull(tool.getInputSchema());
     }
 
     /**
@@ -146,7 +222,8 @@ class McpToolServiceImplTest {
 
         boolean result = service.saveOrUpdateWithValidation(tool);
         assertTrue(result);
-        assertTrue(tool.getInputSchema().contains("UNIQUE456"));
+        assertEquals("UNIQUE456", tool.getUniqueId());
+        assertEquals("{\"type\":\"object\"}", tool.getInputSchema());
     }
 
     /**
@@ -165,8 +242,32 @@ class McpToolServiceImplTest {
 
         boolean result = service.saveOrUpdateWithValidation(tool);
         assertTrue(result);
-        // schema已包含uniqueId,不会再添加
-        assertTrue(tool.getInputSchema().contains("uniqueId"));
+        // 唯一标识以验证结果为准,schema不做改写
+        assertEquals("NEW456", tool.getUniqueId());
+        assertEquals("{\"uniqueId\":\"OLD123\"}", tool.getInputSchema());
+    }
+
+    /**
+     * 测试部分更新 - 缺少版本和类型时按现有记录计算唯一标识
+     */
+    @Test
+    void testUpdateById_PartialUpdateUsesExistingVersionAndType() {
+        McpTool existing = new McpTool();
+        existing.setId(1L);
+        existing.setToolVersion(3L);
+        existing.setToolType("2");
+        when(mcpToolMapper.selectOne(any())).thenReturn(existing);
+        when(toolValidationService.generateUniqueIdentifier("renamed_tool", "3", "2")).thenReturn("UNIQUE_V3");
+        when(mcpToolMapper.updateById(any(McpTool.class))).thenReturn(1);
+        ReflectionTestUtils.setField(service, "baseMapper", mcpToolMapper);
+
+        McpTool update = new McpTool();
+        update.setId(1L);
+        update.setToolName("renamed_tool");
+
+        assertTrue(service.updateById(update));
+        assertEquals("UNIQUE_V3", update.getUniqueId());
+        verify(toolValidationService, never()).generateUniqueIdentifier(any(), eq("1"), any());
     }
 
     /**
@@ -196,6 +297,27 @@ class McpToolServiceImplTest {
         assertNull(result);
     }
 
+    /**
+     * 测试根据uniqueId查找工具 - 命中缓存,变更事件后重新查库
+     */
+    @Test
+    void testFindByUniqueId_CachedUntilChanged() {
+        McpTool expected = new McpTool();
+        expected.setId(1L);
+        expected.setToolNum(100L);
+        expected.setToolName("found_tool");
+        doReturn(expected).when(service).getOne(any(QueryWrapper.class));
+
+        assertSame(expected, service.findByUniqueId("UNIQUE789"));
+        assertSame(expected, service.findByUniqueId("UNIQUE789"));
+        verify(service, times(1)).getOne(any(QueryWrapper.class));
+
+        service.onMcpToolChanged(new McpToolChangedEvent(1L, 100L));
+        service.findByUniqueId("UNIQUE789");
+        verify(service, times(2)).getOne(any(QueryWrapper.class));
+        assertNull(service.findByUniqueId(" "));
+    }
+
     /**
      * 测试统计用户创建的工具数量
      */
@@ -217,4 +339,52 @@ class McpToolServiceImplTest {
         long count = service.countByProviderId(123L);
         assertEquals(10L, count);
     }
+
+    /**
+     * 测试解析有效工具 - 命中后走缓存
+     */
+    @Test
+    void testResolveValidTool_Cached() {
+        McpTool tool = new McpTool();
+        tool.setId(1L);
+        tool.setToolNum(100L);
+        tool.setToolName("tool1");
+        when(mcpToolMapper.selectOne(any(QueryWrapper.class))).thenReturn(tool);
+
+        McpToolDTO first = service.resolveValidTool(100L);
+        McpToolDTO second = service.resolveValidTool(100L);
+
+        assertNotNull(first);
+        assertEquals("tool1", second.getToolName());
+        verify(mcpToolMapper, times(1)).selectOne(any(QueryWrapper.class));
+    }
+
+    /**
+     * 测试解析有效工具 - 不存在的编号短期缓存
+     */
+    @Test
+    void testResolveValidTool_MissingCached() {
+        when(mcpToolMapper.selectOne(any(QueryWrapper.class))).thenReturn(null);
+
+        assertNull(service.resolveValidTool(404L));
+        assertNull(service.resolveValidTool(404L));
+        assertNull(service.resolveValidTool(null));
+        verify(mcpToolMapper, times(1)).selectOne(any(QueryWrapper.class));
+    }
+
+    /**
+     * 测试工具变更事件 - 清理对应toolNum的缓存
+     */
+    @Test
+    void testOnMcpToolChanged_Invalidates() {
+        McpTool tool = new McpTool();
+        tool.setToolNum(100L);
+        when(mcpToolMapper.selectOne(any(QueryWrapper.class))).thenReturn(tool);
+
+        service.resolveValidTool(100L);
+        service.onMcpToolChanged(new McpToolChangedEvent(1L, 100L));
+        service.resolveValidTool(100L);
+
+        verify(mcpToolMapper, times(2)).selectOne(any(QueryWrapper.class));
+    }
 }
@@ -0,0 +1,84 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.config.McpClientConfig;
+import cn.com.wind.mcp.registry.dto.mcptool.McpToolTestJob;
+import cn.com.wind.mcp.registry.service.McpClientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * McpToolTestJobServiceImpl 单元测试
+ * 测试异步测试任务的提交、状态流转和查询
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class McpToolTestJobServiceImplTest {
+
+    private McpClientService mcpClientService;
+    private McpToolTestJobServiceImpl jobService;
+
+    @BeforeEach
+    void setUp() {
+        mcpClientService = mock(McpClientService.class);
+        jobService = new McpToolTestJobServiceImpl(mcpClientService, new McpClientConfig.McpProperties());
+    }
+
+    /**
+     * 测试提交任务 - 完成前为RUNNING，完成后为SUCCEEDED并带有结果
+     */
+    @Test
+    void testSubmit_Succeeded() throws Exception {
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        when(mcpClientService.testToolWithSessionIdAsync(eq(100L), any(), eq("s1"))).thenReturn(future);
+
+        McpToolTestJob job = jobService.submit(100L, new HashMap<>(), "s1");
+
+        assertNotNull(job.getJobId());
+        assertEquals(McpToolTestJob.Status.RUNNING, jobService.getJob(job.getJobId()).getStatus());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("isError", false);
+        future.complete(result);
+
+        McpToolTestJob done = job.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(McpToolTestJob.Status.SUCCEEDED, done.getStatus());
+        assertEquals(result, done.getResult());
+        assertNotNull(done.getFinishTime());
+    }
+
+    /**
+     * 测试提交任务 - 执行异常时为FAILED
+     */
+    @Test
+    void testSubmit_Failed() throws Exception {
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        when(mcpClientService.testToolWithSessionIdAsync(eq(100L), any(), eq("s1"))).thenReturn(future);
+
+        McpToolTestJob job = jobService.submit(100L, new HashMap<>(), "s1");
+        future.completeExceptionally(new RuntimeException("boom"));
+
+        McpToolTestJob done = job.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(McpToolTestJob.Status.FAILED, done.getStatus());
+        assertTrue(done.getError().contains("boom"));
+    }
+
+    /**
+     * 测试查询不存在的任务
+     */
+    @Test
+    void testGetJob_NotFound() {
+        assertNull(jobService.getJob("not-exist"));
+    }
+}
@@ -0,0 +1,162 @@
+package cn.com.wind.mcp.registry.service.impl;
+
+import cn.com.wind.mcp.registry.dto.mcptool.ProviderToolCounts;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.entity.OriginToolExpo;
+import cn.com.wind.mcp.registry.entity.OriginToolHttp;
+import cn.com.wind.mcp.registry.event.McpToolChangedEvent;
+import cn.com.wind.mcp.registry.event.OriginToolChangedEvent;
+import cn.com.wind.mcp.registry.mapper.McpToolMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolExpoMapper;
+import cn.com.wind.mcp.registry.mapper.OriginToolHttpMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ToolCatalogCounterServiceImpl 单元测试
+ * 测试全量统计、按变更事件增量调整、对账期间变更的重放以及读取时不查库
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class ToolCatalogCounterServiceImplTest {
+
+    private McpToolMapper mcpToolMapper;
+    private OriginToolHttpMapper originToolHttpMapper;
+    private OriginToolExpoMapper originToolExpoMapper;
+    private ToolCatalogCounterServiceImpl counterService;
+
+    @BeforeEach
+    void setUp() {
+        mcpToolMapper = mock(McpToolMapper.class);
+        originToolHttpMapper = mock(OriginToolHttpMapper.class);
+        originToolExpoMapper = mock(OriginToolExpoMapper.class);
+        when(mcpToolMapper.selectList(any())).thenReturn(Arrays.asList(
+                tool(1L, 10L, "1", "1"),
+                tool(2L, 10L, "2", "0"),
+                tool(3L, 20L, "1", "1")));
+        when(originToolHttpMapper.selectList(any())).thenReturn(Collections.singletonList(httpTool(7L, 10L)));
+        when(originToolExpoMapper.selectList(any())).thenReturn(Collections.singletonList(expoTool(8L, 20L)));
+
+        counterService = new ToolCatalogCounterServiceImpl(mcpToolMapper, originToolHttpMapper, originToolExpoMapper);
+        counterService.reconcile();
+    }
+
+    /**
+     * 测试全量统计后按提供者读取，且不再查询数据库
+     */
+    @Test
+    void testGetCounts_AfterReconcile() {
+        clearInvocations(mcpToolMapper, originToolHttpMapper, originToolExpoMapper);
+
+        ProviderToolCounts counts = counterService.getCounts(10L);
+
+        assertEquals(2L, counts.getMcpToolCount());
+        assertEquals(1L, counts.getHttpToolCount());
+        assertEquals(0L, counts.getExpoToolCount());
+        assertEquals(3L, counts.getTotalCount());
+        assertEquals(Long.valueOf(1), counts.getMcpToolByConvertType().get("1"));
+        assertEquals(Long.valueOf(1), counts.getMcpToolByValid().get("0"));
+        assertEquals(0L, counterService.getCounts(99L).getTotalCount());
+        verify(mcpToolMapper, never()).selectCount(any());
+    }
+
+    /**
+     * 测试工具修改(转换类型、有效性、提供者变化)和删除后增量调整
+     */
+    @Test
+    void testOnMcpToolChanged_UpdateAndDelete() {
+        when(mcpToolMapper.selectOne(any())).thenReturn(tool(2L, 20L, "1", "1"));
+        counterService.onMcpToolChanged(new McpToolChangedEvent(2L, 200L));
+
+        assertEquals(1L, counterService.getCounts(10L).getMcpToolCount());
+        assertFalse(counterService.getCounts(10L).getMcpToolByValid().containsKey("0"));
+        ProviderToolCounts moved = counterService.getCounts(20L);
+        assertEquals(2L, moved.getMcpToolCount());
+        assertEquals(Long.valueOf(2), moved.getMcpToolByConvertType().get("1"));
+
+        when(mcpToolMapper.selectOne(any())).thenReturn(null);
+        counterService.onMcpToolChanged(new McpToolChangedEvent(3L, 300L));
+        assertEquals(1L, counterService.getCounts(20L).getMcpToolCount());
+    }
+
+    /**
+     * 测试原始接口新增、删除后增量调整
+     */
+    @Test
+    void testOnOriginToolChanged() {
+        when(originToolHttpMapper.selectOne(any())).thenReturn(httpTool(9L, 10L));
+        counterService.onOriginToolChanged(new OriginToolChangedEvent(OriginToolChangedEvent.HTTP, 9L));
+        assertEquals(2L, counterService.getCounts(10L).getHttpToolCount());
+
+        when(originToolExpoMapper.selectOne(any())).thenReturn(null);
+        counterService.onOriginToolChanged(new OriginToolChangedEvent(OriginToolChangedEvent.EXPO, 8L));
+        assertEquals(0L, counterService.getCounts(20L).getExpoToolCount());
+    }
+
+    /**
+     * 测试无法确定受影响记录时重新全量统计
+     */
+    @Test
+    void testOnMcpToolChanged_NullIdReconciles() {
+        when(mcpToolMapper.selectList(any())).thenReturn(Collections.singletonList(tool(1L, 10L, "1", "1")));
+
+        counterService.onMcpToolChanged(new McpToolChangedEvent(null, null));
+
+        assertEquals(1L, counterService.getCounts(10L).getMcpToolCount());
+        assertEquals(0L, counterService.getCounts(20L).getMcpToolCount());
+    }
+
+    /**
+     * 测试对账读库期间到达的变更 - 换入新计数后重放，不被旧快照覆盖
+     */
+    @Test
+    void testReconcile_ReplaysChangesDuringScan() {
+        when(mcpToolMapper.selectOne(any())).thenReturn(tool(4L, 10L, "1", "1"));
+        when(mcpToolMapper.selectList(any())).thenAnswer(invocation -> {
+            // 快照已读出，随后工具4新增并提交
+            counterService.onMcpToolChanged(new McpToolChangedEvent(4L, 400L));
+            return Arrays.asList(tool(1L, 10L, "1", "1"), tool(2L, 10L, "2", "0"), tool(3L, 20L, "1", "1"));
+        });
+
+        counterService.reconcile();
+
+        assertEquals(3L, counterService.getCounts(10L).getMcpToolCount());
+        assertEquals(Long.valueOf(2), counterService.getCounts(10L).getMcpToolByConvertType().get("1"));
+    }
+
+    private McpTool tool(Long id, Long providerId, String convertType, String valid) {
+        McpTool tool = new McpTool();
+        tool.setId(id);
+        tool.setProviderId(providerId);
+        tool.setConvertType(convertType);
+        tool.setValid(valid);
+        return tool;
+    }
+
+    private OriginToolHttp httpTool(Long id, Long providerId) {
+        OriginToolHttp tool = new OriginToolHttp();
+        tool.setId(id);
+        tool.setProviderId(providerId);
+        return tool;
+    }
+
+    private OriginToolExpo expoTool(Long id, Long providerId) {
+        OriginToolExpo tool = new OriginToolExpo();
+        tool.setId(id);
+        tool.setProviderId(providerId);
+        return tool;
+    }
+}
@@ -0,0 +1,125 @@
+package cn.com.wind.mcp.registry.util;
+
+import cn.com.wind.mcp.registry.dto.common.CursorPage;
+import cn.com.wind.mcp.registry.entity.McpTool;
+import cn.com.wind.mcp.registry.service.McpToolService;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * CursorPageUtil单元测试
+ * 测试游标条件、是否有下一页的判断以及总数缓存
+ *
+ * @author system
+ * @date 2026-10-18
+ */
+class CursorPageUtilTest {
+
+    private McpToolService service;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(McpToolService.class);
+        CursorPageUtil.invalidateCounts();
+    }
+
+    /**
+     * 测试首页：多查一条用于判断是否有下一页，nextCursor为本页最后一条id
+     */
+    @Test
+    void testSeek_FirstPageHasMore() {
+        when(service.count(any(QueryWrapper.class))).thenReturn(42L);
+        when(service.list(any(QueryWrapper.class))).thenReturn(tools(30L, 29L, 28L));
+
+        QueryWrapper<McpTool> wrapper = new QueryWrapper<McpTool>().eq("provider_id", 1L);
+        CursorPage<McpTool> page = CursorPageUtil.seek(service, wrapper, null, 2, McpTool::getId, "test:first");
+
+        assertEquals(2, page.getRecords().size());
+        assertTrue(page.isHasMore());
+        assertEquals(Long.valueOf(29L), page.getNextCursor());
+        assertEquals(42L, page.getTotal());
+        assertTrue(wrapper.getSqlSegment().contains("ORDER BY id DESC"));
+        assertTrue(wrapper.getSqlSegment().contains("LIMIT 3"));
+        assertFalse(wrapper.getCustomSqlSegment().contains("id <"));
+    }
+
+    /**
+     * 测试后续页：追加 id < cursor 条件，最后一页nextCursor为null
+     */
+    @Test
+    void testSeek_LastPage() {
+        when(service.list(any(QueryWrapper.class))).thenReturn(tools(28L));
+
+        QueryWrapper<McpTool> wrapper = new QueryWrapper<>();
+        CursorPage<McpTool> page = CursorPageUtil.seek(service, wrapper, 29L, 2, McpTool::getId, "test:last");
+
+        assertEquals(1, page.getRecords().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertTrue(wrapper.getSqlSegment().contains("id <"));
+        assertEquals(Long.valueOf(29L), wrapper.getParamNameValuePairs().values().iterator().next());
+    }
+
+    /**
+     * 测试总数按key缓存，翻页不重复COUNT
+     */
+    @Test
+    void testSeek_TotalCached() {
+        when(service.count(any(QueryWrapper.class))).thenReturn(5L, 6L);
+        when(service.list(any(QueryWrapper.class))).thenReturn(Collections.emptyList());
+
+        CursorPageUtil.seek(service, new QueryWrapper<>(), null, 10, McpTool::getId, "test:cached");
+        CursorPage<McpTool> page = CursorPageUtil.seek(service, new QueryWrapper<>(), 10L, 10, McpTool::getId, "test:cached");
+
+        assertEquals(5L, page.getTotal());
+        verify(service, times(1)).count(any(QueryWrapper.class));
+    }
+
+    /**
+     * 测试指定列：统计总数时不带列，查询页数据时只查指定列
+     */
+    @Test
+    void testSeek_SelectColumnsAfterCount() {
+        List<String> countSelects = new ArrayList<>();
+        when(service.count(any(QueryWrapper.class))).thenAnswer(invocation -> {
+            countSelects.add(((QueryWrapper<?>) invocation.getArgument(0)).getSqlSelect());
+            return 3L;
+        });
+        when(service.list(any(QueryWrapper.class))).thenReturn(tools(30L));
+
+        QueryWrapper<McpTool> wrapper = new QueryWrapper<>();
+        CursorPageUtil.seek(service, wrapper, null, 10, McpTool::getId, "test:columns", "id", "tool_name");
+
+        assertNull(countSelects.get(0));
+        assertEquals("id,tool_name", wrapper.getSqlSelect());
+    }
+
+    /**
+     * 测试每页大小限制
+     */
+    @Test
+    void testNormalizeSize() {
+        assertEquals(CursorPageUtil.DEFAULT_SIZE, CursorPageUtil.normalizeSize(0));
+        assertEquals(CursorPageUtil.MAX_SIZE, CursorPageUtil.normalizeSize(100000));
+        assertEquals(15, CursorPageUtil.normalizeSize(15));
+    }
+
+    private static List<McpTool> tools(Long... ids) {
+        List<McpTool> tools = new ArrayList<>();
+        for (Long id : ids) {
+            McpTool tool = new McpTool();
+            tool.setId(id);
+            tools.add(tool);
+        }
+        return tools;
+    }
+}
@@ -46,11 +46,13 @@ CREATE TABLE IF NOT EXISTS mcp_tool (
     output_schema TEXT COMMENT '输出schema',
     stream_output CHAR(1) DEFAULT '0' COMMENT '0:非流, 1:流式',
     convert_type CHAR(1) COMMENT '三种方式: 1 http, 2 expo, 3 code',
-    tool_type CHAR(1) COMMENT '1: tool, 2: agent'
+    tool_type CHAR(1) COMMENT '1: tool, 2: agent',
+    unique_id VARCHAR(32) COMMENT '工具唯一标识'
 );
 
 CREATE UNIQUE INDEX IF NOT EXISTS uk_tool_num_valid_version ON mcp_tool(tool_num, valid, tool_version);
 CREATE INDEX IF NOT EXISTS idx_mcp_tool_provider_id ON mcp_tool(provider_id);
+CREATE INDEX IF NOT EXISTS idx_mcp_tool_unique_id ON mcp_tool(unique_id);
 
 -- 3. HTTP Template Converter表(HTTP转换模板)
 CREATE TABLE IF NOT EXISTS http_template_converter (
@@ -71,6 +73,7 @@ CREATE TABLE IF NOT EXISTS http_template_converter (
 );
 
 CREATE INDEX IF NOT EXISTS idx_http_converter_provider_id ON http_template_converter(provider_id);
+CREATE INDEX IF NOT EXISTS idx_http_converter_tool_num ON http_template_converter(tool_num, tool_version);
 
 -- 4. Expo Template Converter表(Expo转换模板)
 CREATE TABLE IF NOT EXISTS expo_template_converter (
@@ -90,6 +93,7 @@ CREATE TABLE IF NOT EXISTS expo_template_converter (
 );
 
 CREATE INDEX IF NOT EXISTS idx_expo_converter_provider_id ON expo_template_converter(provider_id);
+CREATE INDEX IF NOT EXISTS idx_expo_converter_tool_num ON expo_template_converter(tool_num, tool_version);
 
 -- 5. Origin Tool HTTP表(HTTP原始工具)
 CREATE TABLE IF NOT EXISTS origin_tool_http (
@@ -191,6 +195,13 @@ CREATE INDEX IF NOT EXISTS idx_test_record_tool_id ON mcp_test_success_records(t
 CREATE INDEX IF NOT EXISTS idx_test_record_tool_num ON mcp_test_success_records(tool_num);
 CREATE INDEX IF NOT EXISTS idx_test_record_operator_id ON mcp_test_success_records(operator_id);
 
+-- 9. 编号号段表(工具编号、应用编号分配)，记录不存在时由IdAllocatorService按当前时间戳初始化
+CREATE TABLE IF NOT EXISTS id_sequence (
+    biz_key VARCHAR(64) NOT NULL PRIMARY KEY COMMENT '业务标识',
+    max_id BIGINT NOT NULL COMMENT '已分配的最大编号',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间'
+);
+
 -- ==================================================================
 -- 注意事项:
 -- 1. provider_app, virtual_server, vserver_items 在V8迁移中已废弃